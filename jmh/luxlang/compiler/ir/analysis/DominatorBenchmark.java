@@ -0,0 +1,135 @@
+package luxlang.compiler.ir.analysis;
+
+import luxlang.compiler.analysis.AnalysisResult;
+import luxlang.compiler.analysis.Analyzer;
+import luxlang.compiler.ir.IRGenerator;
+import luxlang.compiler.ir.objects.IRFunction;
+import luxlang.compiler.lexer.Lexer;
+import luxlang.compiler.lexer.LexingResult;
+import luxlang.compiler.parser.Parser;
+import luxlang.compiler.parser.ParsingResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times the dominator analyses on one function of well over 100k blocks, generated by
+ * {@link IRGenerator} from a long chain of if/else statements
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DominatorBenchmark {
+    private static final int IF_COUNT = 40_000;
+
+    public enum Shape {
+        // One if/else after another, each rejoining before the next
+        SEQUENTIAL,
+        // The same, with each if/else inside a while loop, so the back edges take the analyses more
+        // than one pass
+        IN_LOOPS
+    }
+
+    @Param
+    public Shape shape;
+
+    private IRFunction function;
+    private ControlFlowGraph cfg;
+
+    @Setup
+    public void setup() {
+        var lexingResult = (LexingResult.Success) new Lexer(generate(shape)).lex();
+        var parsingResult = (ParsingResult.Success) new Parser(lexingResult.tokenBuffer()).parse();
+        var analysisResult = (AnalysisResult.Success) new Analyzer(parsingResult.program()).analyze();
+        function = new IRGenerator(analysisResult.analyzedProgram()).generate().functions().getFirst();
+        cfg = ControlFlowGraph.of(function);
+        if (cfg.blockCount() < 100_000) {
+            throw new IllegalStateException("Only " + cfg.blockCount() + " blocks");
+        }
+    }
+
+    /**
+     * Builds the graph the other benchmarks share, for comparison with their own cost
+     */
+    @Benchmark
+    public ControlFlowGraph controlFlowGraph() {
+        return ControlFlowGraph.of(function);
+    }
+
+    @Benchmark
+    public DominatorTree dominators() {
+        return DominatorTree.dominators(cfg);
+    }
+
+    @Benchmark
+    public DominatorTree postDominators() {
+        return DominatorTree.postDominators(cfg);
+    }
+
+    /**
+     * Frontiers are cached on their tree, so this builds a fresh one each time; subtract
+     * {@link #dominators()} for the frontiers alone
+     */
+    @Benchmark
+    public void dominanceFrontiers(Blackhole blackhole) {
+        DominatorTree dominators = DominatorTree.dominators(cfg);
+        for (int block = 0; block < dominators.blockCount(); block++) {
+            blackhole.consume(dominators.dominanceFrontier(block));
+        }
+    }
+
+    /**
+     * Asks whether the entry and every block's immediate dominator dominate it, on a tree built
+     * once
+     */
+    @Benchmark
+    public int dominanceQueries() {
+        DominatorTree dominators = cfg.dominatorTree();
+        int count = 0;
+        for (int block = 1; block < dominators.blockCount(); block++) {
+            if (dominators.dominates(0, block)) {
+                count++;
+            }
+            int parent = dominators.immediateDominator(block);
+            if (parent != DominatorTree.NONE && dominators.dominates(parent, block)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static String generate(Shape shape) {
+        StringBuilder builder = new StringBuilder(IF_COUNT * 64);
+        builder.append("int main(int x) {\n    int y = 0;\n");
+        int ifCount = shape == Shape.SEQUENTIAL ? IF_COUNT : IF_COUNT / 2;
+        for (int index = 0; index < ifCount; index++) {
+            if (shape == Shape.IN_LOOPS) {
+                builder.append("    while (y < ").append(index).append(") {\n");
+            }
+            builder.append("    if (x > ").append(index).append(") {\n")
+                .append("        y = y + ").append(index).append(";\n")
+                .append("    } else {\n")
+                .append("        y = y - 1;\n")
+                .append("    }\n");
+            if (shape == Shape.IN_LOOPS) {
+                builder.append("    }\n");
+            }
+        }
+        builder.append("    return y;\n}\n");
+        return builder.toString();
+    }
+}
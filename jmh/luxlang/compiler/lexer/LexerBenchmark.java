@@ -0,0 +1,96 @@
+package luxlang.compiler.lexer;
+
+import luxlang.compiler.lexer.objects.SourceText;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.foreign.MemorySegment;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the Vector API run scanner against the scalar one on generated byte sources
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class LexerBenchmark {
+    private static final int TARGET_SIZE = 8 << 20;
+
+    public enum Shape {
+        LONG_IDENTIFIERS,
+        DEEP_INDENTATION,
+        TYPICAL
+    }
+
+    @Param
+    public Shape shape;
+
+    @Param({"true", "false"})
+    public boolean vectorized;
+
+    private SourceText source;
+    private RunScanner scanner;
+
+    @Setup
+    public void setup() {
+        if (vectorized && !RunScanner.VECTOR_API_AVAILABLE) {
+            throw new IllegalStateException("Run with --add-modules jdk.incubator.vector");
+        }
+        MemorySegment bytes = MemorySegment.ofArray(generate(shape).getBytes(StandardCharsets.US_ASCII));
+        source = SourceText.of(bytes);
+        scanner = vectorized ? new VectorRunScanner(bytes) : new ScalarRunScanner(source);
+    }
+
+    @Benchmark
+    public LexingResult lex() {
+        return new Lexer(source, scanner).lex();
+    }
+
+    private static String generate(Shape shape) {
+        StringBuilder builder = new StringBuilder(TARGET_SIZE + 1024);
+        int function = 0;
+        while (builder.length() < TARGET_SIZE) {
+            switch (shape) {
+                case LONG_IDENTIFIERS -> {
+                    String name = "accumulated_Intermediate_Value_For_Iteration_" + function;
+                    builder.append("long ").append(name).append("_computeEverything(long ")
+                        .append(name).append("_input) {\n")
+                        .append("    long ").append(name).append("_result = ")
+                        .append(name).append("_input * 1234567890123456789L;\n")
+                        .append("    return ").append(name).append("_result;\n}\n");
+                }
+                case DEEP_INDENTATION -> {
+                    builder.append("int f").append(function).append("(int x) {\n");
+                    for (int depth = 1; depth <= 12; depth++) {
+                        builder.repeat("    ", depth).append("if (x > ").append(depth).append(") {\n");
+                    }
+                    builder.repeat("    ", 13).append("x = x - 1;\n");
+                    for (int depth = 12; depth >= 1; depth--) {
+                        builder.repeat("    ", depth).append("}\n");
+                    }
+                    builder.append("    return x;\n}\n");
+                }
+                case TYPICAL -> builder
+                    .append("int f").append(function).append("(int a, int b) {\n")
+                    .append("    int c = a * 2 + b;\n")
+                    .append("    while (c > 0) { c = c - 1; }\n")
+                    .append("    return c;\n}\n");
+            }
+            function++;
+        }
+        return builder.toString();
+    }
+}
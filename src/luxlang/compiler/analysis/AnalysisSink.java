@@ -0,0 +1,25 @@
+package luxlang.compiler.analysis;
+
+import luxlang.compiler.analysis.nodes.LocalVariable;
+import luxlang.compiler.tree.AnalyzedTree;
+import luxlang.compiler.tree.Tree;
+
+import java.util.List;
+
+/**
+ * Receives a function from analysis piece by piece rather than as a finished tree: the function
+ * first, then each top-level statement of its body as soon as that statement is analyzed.
+ * Statements stop arriving once the function has an error.
+ */
+public interface AnalysisSink {
+    /**
+     * @param function The function's handle in the syntax tree
+     * @param localVariables The function's locals so far, which grows as statements declare more
+     */
+    void startFunction(Tree tree, int function, List<LocalVariable> localVariables);
+
+    /**
+     * @param statement The statement's handle in the analyzed tree
+     */
+    void acceptStatement(AnalyzedTree tree, int statement);
+}
@@ -1,39 +1,57 @@
 package luxlang.compiler.analysis;
 
-import luxlang.compiler.analysis.errors.*;
-import luxlang.compiler.analysis.nodes.expressions.*;
-import luxlang.compiler.analysis.nodes.statements.*;
-import luxlang.compiler.parser.nodes.expressions.*;
-import luxlang.compiler.parser.nodes.statements.*;
+import luxlang.compiler.analysis.FunctionAnalyzer.FunctionAnalysis;
+import luxlang.compiler.analysis.callgraph.CallGraph;
+import luxlang.compiler.analysis.errors.AnalysisError;
+import luxlang.compiler.analysis.errors.DuplicateFunctionNameError;
 import luxlang.compiler.analysis.warnings.AnalysisWarning;
 import luxlang.compiler.analysis.nodes.AnalyzedFunctionDeclaration;
 import luxlang.compiler.analysis.nodes.AnalyzedProgram;
-import luxlang.compiler.analysis.nodes.LocalVariable;
 import luxlang.compiler.analysis.objects.FunctionSymbol;
-import luxlang.compiler.analysis.objects.Scope;
-import luxlang.compiler.analysis.objects.VariableSymbol;
+import luxlang.compiler.ir.FunctionIRGenerator;
+import luxlang.compiler.ir.objects.IRFunction;
+import luxlang.compiler.ir.objects.IRModule;
+import luxlang.compiler.lexer.objects.LineMap;
 import luxlang.compiler.parser.nodes.FunctionDeclaration;
-import luxlang.compiler.parser.nodes.Parameter;
 import luxlang.compiler.parser.nodes.Program;
-import luxlang.compiler.parser.nodes.Type;
-import luxlang.compiler.util.NumberLimits;
+import luxlang.compiler.tree.AnalyzedRecords;
+import luxlang.compiler.tree.AnalyzedTreeBuilder;
+import luxlang.compiler.tree.FlatAst;
+import luxlang.compiler.tree.SyntaxRecords;
+import luxlang.compiler.tree.SyntaxTree;
+import luxlang.compiler.util.IntMap;
 
-import java.math.BigDecimal;
-import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 public class Analyzer {
+    // Below this many functions dispatching a task for each costs more than it saves
+    private static final int PARALLEL_THRESHOLD = 64;
+
+    // Exactly one of these is set, depending on how the syntax was handed over
     private final Program program;
+    private final FlatAst ast;
+    private final LineMap lineMap;
     private final List<AnalysisError> errors;
     private final List<AnalysisWarning> warnings;
 
-    private int nextLocalVariableId;
-    private List<LocalVariable> localVariables;
-
     public Analyzer(Program program) {
         this.program = program;
+        this.ast = null;
+        this.lineMap = program.lineMap();
+        this.errors = new ArrayList<>();
+        this.warnings = new ArrayList<>();
+    }
+
+    /**
+     * Analyzes a program parsed into an arena, which {@link #analyzeInPlace()} then annotates
+     */
+    public Analyzer(FlatAst ast, LineMap lineMap) {
+        this.program = null;
+        this.ast = ast;
+        this.lineMap = lineMap;
         this.errors = new ArrayList<>();
         this.warnings = new ArrayList<>();
     }
@@ -44,442 +62,182 @@ public class Analyzer {
      * causing the AST to be invalid
      */
     public AnalysisResult analyze() {
-        var analyzedProgram = analyzeProgram();
-        if (errors.isEmpty()) {
-            return AnalysisResult.success(analyzedProgram);
-        }
-        return AnalysisResult.failure(errors);
+        requireProgram();
+        return toResult(analyzeProgram(null));
     }
 
-    private AnalyzedProgram analyzeProgram() {
-        Scope globalScope = new Scope(null);
-        for (var function : program.functionDeclarations()) {
-            if (globalScope.hasFunction(function.name())) {
-                errors.add(new DuplicateFunctionNameError(function));
-                continue;
-            }
-            globalScope.addFunction(function);
-        }
+    /**
+     * Produces the same result as {@link #analyze()}, but analyzes the functions of large programs
+     * concurrently on the common pool
+     */
+    public AnalysisResult analyzeParallel() {
+        return analyzeParallel(ForkJoinPool.commonPool());
+    }
 
-        List<AnalyzedFunctionDeclaration> analyzedFunctionDeclarations = new ArrayList<>();
+    public AnalysisResult analyzeParallel(ForkJoinPool pool) {
+        return analyzeParallel(pool, PARALLEL_THRESHOLD);
+    }
 
-        for (var function : program.functionDeclarations()) {
-            var analyzed = analyzeFunctionDeclaration(function, globalScope);
-            analyzedFunctionDeclarations.add(analyzed);
+    AnalysisResult analyzeParallel(ForkJoinPool pool, int threshold) {
+        requireProgram();
+        if (program.functionDeclarations().size() < threshold) {
+            return analyze();
         }
-
-        return new AnalyzedProgram(analyzedFunctionDeclarations);
+        return toResult(analyzeProgram(pool));
     }
 
-    private AnalyzedFunctionDeclaration analyzeFunctionDeclaration(FunctionDeclaration functionDeclaration, Scope globalScope) {
-        final Scope functionScope = new Scope(globalScope);
-        nextLocalVariableId = 0;
-        localVariables = new ArrayList<>();
-        for (var parameter : functionDeclaration.parameters()) {
-            if (parameter.type() == Type.VOID) {
-                errors.add(new VoidVariableError(parameter));
-            }
-
-            if (functionScope.hasVariable(parameter.name())) {
-                errors.add(new DuplicateVariableNameError(parameter));
-                continue;
+    /**
+     * Runs the same checks as {@link #analyze()} and emits the program's IR in the same pass, for
+     * callers that only want the IR. Each statement is lowered as soon as it is analyzed, so no
+     * analyzed tree is built for a whole function, and the IR is the same as
+     * {@link luxlang.compiler.ir.IRGenerator} produces.
+     * @return The IR if the program had no errors, otherwise, the errors in the order
+     * {@link #analyze()} reports them
+     */
+    public GenerationResult generate() {
+        IntMap<FunctionSymbol> functionSymbols = collectFunctionSymbols();
+        int functionCount = ast == null ? program.functionDeclarations().size() : ast.functionCount();
+        List<IRFunction> irFunctions = new ArrayList<>(functionCount);
+        for (int index = 0; index < functionCount; index++) {
+            SyntaxTree syntax;
+            int function;
+            AnalyzedTreeBuilder builder;
+            if (ast == null) {
+                var records = new SyntaxRecords();
+                syntax = records;
+                function = records.add(program.functionDeclarations().get(index));
+                builder = new AnalyzedRecords(records);
+            } else {
+                syntax = ast;
+                function = ast.function(index);
+                builder = ast;
             }
 
-            functionScope.addVariable(parameter);
-            addLocalVariableFrom(parameter);
-        }
-
-        Type returnType = functionDeclaration.returnType();
-        var analyzed = analyzeCodeBlock(functionDeclaration.body(), functionScope, returnType);
-        if (returnType != Type.VOID && !analyzed.hasGuaranteedReturn()) {
-            errors.add(new IndeterminateReturnError(functionDeclaration));
-        }
-        return AnalyzedFunctionDeclaration.from(functionDeclaration, analyzed, localVariables);
-    }
-
-    private AnalyzedCodeBlock analyzeCodeBlock(CodeBlock codeBlock, Scope parentScope, Type functionReturnType) {
-        final Scope thisScope = new Scope(parentScope);
-        List<AnalyzedStatement> statements = new ArrayList<>();
-        boolean hasGuaranteedReturn = false;
-        for (var statement : codeBlock.statements()) {
-            if (hasGuaranteedReturn) {
-                errors.add(new UnreachableStatementError(statement));
-                analyzeStatement(statement, thisScope, functionReturnType);
-                continue;
+            var lowering = new FunctionIRGenerator();
+            FunctionAnalysis analysis = new FunctionAnalyzer(lineMap, functionSymbols).analyze(syntax, function, builder, lowering);
+            errors.addAll(analysis.errors());
+            warnings.addAll(analysis.warnings());
+            if (errors.isEmpty()) {
+                irFunctions.add(lowering.finish());
             }
-            var analyzed = analyzeStatement(statement, thisScope, functionReturnType);
-            statements.add(analyzed);
-            hasGuaranteedReturn = analyzed.hasGuaranteedReturn();
         }
-        return new AnalyzedCodeBlock(statements, hasGuaranteedReturn, codeBlock.sourceInfo());
-    }
 
-    private AnalyzedStatement analyzeStatement(Statement statement, Scope scope, Type functionReturnType) {
-        return switch (statement) {
-            case CodeBlock           nestedCodeBlock     -> analyzeCodeBlock(nestedCodeBlock, scope, functionReturnType);
-            case IfStatement         ifStatement         -> analyzeIfStatement(ifStatement, scope, functionReturnType);
-            case WhileStatement      whileStatement      -> analyzeWhileStatement(whileStatement, scope, functionReturnType);
-            case DoWhileStatement    doWhileStatement    -> analyzeDoWhileStatement(doWhileStatement, scope, functionReturnType);
-            case ForStatement        forStatement        -> analyzeForStatement(forStatement, scope, functionReturnType);
-            case ReturnStatement     returnStatement     -> analyzeReturnStatement(returnStatement, scope, functionReturnType);
-            case VariableDeclaration variableDeclaration -> analyzeVariableDeclaration(variableDeclaration, scope);
-            case Assignment          assignment          -> analyzeAssignment(assignment, scope);
-        };
-    }
-
-    private AnalyzedExpression analyzeExpression(Expression expression, Scope scope) {
-        return switch (expression) {
-            case FunctionCall         functionCall         -> analyzeFunctionCall(functionCall, scope);
-            case BinaryOperation      binaryOperation      -> analyzeBinaryOperation(binaryOperation, scope);
-            case UnaryOperation       unaryOperation       -> analyzeUnaryOperation(unaryOperation, scope);
-            case VariableExpression   variableExpression   -> analyzeVariableExpression(variableExpression, scope);
-            case FloatingPointLiteral floatingPointLiteral -> analyzeFloatingPointLiteral(floatingPointLiteral);
-            case IntegerLiteral       integerLiteral       -> analyzeIntegerLiteral(integerLiteral);
-            case BooleanLiteral       booleanLiteral       -> analyzeBooleanLiteral(booleanLiteral);
-        };
-    }
-
-    private AnalyzedBooleanLiteral analyzeBooleanLiteral(BooleanLiteral booleanLiteral) {
-        boolean value = booleanLiteral.value() == BooleanLiteral.Value.TRUE;
-        return new AnalyzedBooleanLiteral(value, booleanLiteral.sourceInfo());
-    }
-
-    private AnalyzedVariableExpression analyzeVariableExpression(VariableExpression variableExpression, Scope scope) {
-        if (!scope.hasVariable(variableExpression.name())) {
-            errors.add(new UndefinedVariableError(variableExpression));
-            return new AnalyzedVariableExpression(variableExpression.name(), Type.ERROR, variableExpression.sourceInfo());
+        if (errors.isEmpty()) {
+            return GenerationResult.success(new IRModule(irFunctions));
         }
-
-        VariableSymbol target = scope.getVariable(variableExpression.name());
-        return new AnalyzedVariableExpression(variableExpression.name(), target.type(), variableExpression.sourceInfo());
+        return GenerationResult.failure(errors);
     }
 
-    private AnalyzedUnaryOperation analyzeUnaryOperation(UnaryOperation unaryOperation, Scope scope) {
-        var operation = unaryOperation.operation();
-        var analyzedOperand = analyzeExpression(unaryOperation.operand(), scope);
-        Type resultType;
-        Type operandType = analyzedOperand.resultType();
-
-        if (operandType == Type.ERROR) {
-            return new AnalyzedUnaryOperation(operation, analyzedOperand, Type.ERROR, unaryOperation.sourceInfo());
+    /**
+     * Runs the same checks as {@link #analyze()} on the arena passed into the constructor, and
+     * records what analysis finds in the arena's own columns rather than in a second tree
+     * @return The annotated arena if the analysis had no errors, otherwise, the errors in the
+     * order {@link #analyze()} reports them
+     */
+    public FlatAnalysisResult analyzeInPlace() {
+        if (ast == null) {
+            throw new IllegalStateException("Only an analyzer given a flat AST analyzes in place");
         }
-
-        if (!UnaryOperation.isValid(operandType, operation)) {
-            errors.add(new InvalidOperationError(unaryOperation, operandType));
-            return new AnalyzedUnaryOperation(operation, analyzedOperand, Type.ERROR, unaryOperation.sourceInfo());
+        IntMap<FunctionSymbol> functionSymbols = collectFunctionSymbols();
+        for (int index = 0; index < ast.functionCount(); index++) {
+            FunctionAnalysis analysis = new FunctionAnalyzer(lineMap, functionSymbols).analyze(ast, ast.function(index), ast);
+            errors.addAll(analysis.errors());
+            warnings.addAll(analysis.warnings());
         }
-        
-        resultType = operandType;
-        return new AnalyzedUnaryOperation(operation, analyzedOperand, resultType, unaryOperation.sourceInfo());
-    }
 
-    private AnalyzedIntegerLiteral analyzeIntegerLiteral(IntegerLiteral integerLiteral) {
-        String literal = integerLiteral.value().toUpperCase();
-        String suffixRemoved = literal.replaceAll("[LUSB]", "");
-        BigInteger exactValue = new BigInteger(suffixRemoved);
-        if (literal.contains("U")) {
-            return switch (literal.charAt(literal.length() - 1)) {
-                case 'L' -> {
-                    if (exactValue.compareTo(NumberLimits.ULONG_MAX_VALUE) > 0 || exactValue.compareTo(NumberLimits.ULONG_MIN_VALUE) < 0) {
-                        errors.add(new LiteralOverflowError(integerLiteral, Type.ULONG));
-                    }
-                    long value = Long.parseUnsignedLong(suffixRemoved);
-                    yield new AnalyzedIntegerLiteral(value, Type.ULONG, integerLiteral.sourceInfo());
-                }
-                case 'U' -> {
-                    if (exactValue.compareTo(NumberLimits.UINT_MAX_VALUE) > 0 || exactValue.compareTo(NumberLimits.UINT_MIN_VALUE) < 0) {
-                        errors.add(new LiteralOverflowError(integerLiteral, Type.UINT));
-                    }
-
-                    int value = Integer.parseUnsignedInt(suffixRemoved);
-                    yield new AnalyzedIntegerLiteral(value, Type.UINT, integerLiteral.sourceInfo());
-                }
-                case 'S' -> {
-                    if (exactValue.compareTo(NumberLimits.USHORT_MAX_VALUE) > 0 || exactValue.compareTo(NumberLimits.USHORT_MIN_VALUE) < 0) {
-                        errors.add(new LiteralOverflowError(integerLiteral, Type.USHORT));
-                    }
-
-                    short value = (short) Integer.parseInt(suffixRemoved);
-                    yield new AnalyzedIntegerLiteral(value, Type.USHORT, integerLiteral.sourceInfo());
-                }
-                case 'B' -> {
-                    if (exactValue.compareTo(NumberLimits.UBYTE_MAX_VALUE) > 0 || exactValue.compareTo(NumberLimits.UBYTE_MIN_VALUE) < 0) {
-                        errors.add(new LiteralOverflowError(integerLiteral, Type.UBYTE));
-                    }
-
-                    byte value = (byte) Integer.parseInt(suffixRemoved);
-                    yield new AnalyzedIntegerLiteral(value, Type.UBYTE, integerLiteral.sourceInfo());
-                }
-                default -> throw new IllegalStateException("Unexpected character in integer literal");
-            };
+        if (errors.isEmpty()) {
+            return FlatAnalysisResult.success(ast);
         }
-
-        return switch (literal.charAt(literal.length() - 1)) {
-            case 'L' -> {
-                if (exactValue.compareTo(NumberLimits.LONG_MAX_VALUE) > 0 || exactValue.compareTo(NumberLimits.LONG_MIN_VALUE) < 0) {
-                    errors.add(new LiteralOverflowError(integerLiteral, Type.LONG));
-                }
-                long value = Long.parseLong(suffixRemoved);
-                yield new AnalyzedIntegerLiteral(value, Type.LONG, integerLiteral.sourceInfo());
-            }
-            case 'S' -> {
-                if (exactValue.compareTo(NumberLimits.SHORT_MAX_VALUE) > 0 || exactValue.compareTo(NumberLimits.SHORT_MIN_VALUE) < 0) {
-                    errors.add(new LiteralOverflowError(integerLiteral, Type.SHORT));
-                }
-
-                short value = Short.parseShort(suffixRemoved);
-                yield new AnalyzedIntegerLiteral(value, Type.SHORT, integerLiteral.sourceInfo());
-            }
-            case 'B' -> {
-                if (exactValue.compareTo(NumberLimits.BYTE_MAX_VALUE) > 0 || exactValue.compareTo(NumberLimits.BYTE_MIN_VALUE) < 0) {
-                    errors.add(new LiteralOverflowError(integerLiteral, Type.BYTE));
-                }
-
-                byte value = Byte.parseByte(suffixRemoved);
-                yield new AnalyzedIntegerLiteral(value, Type.BYTE, integerLiteral.sourceInfo());
-            }
-            default -> {
-                if (exactValue.compareTo(NumberLimits.INT_MAX_VALUE) > 0 || exactValue.compareTo(NumberLimits.INT_MIN_VALUE) < 0) {
-                    errors.add(new LiteralOverflowError(integerLiteral, Type.INT));
-                    // The value will not be returned since there's an error, so it's fine to
-                    // return 0 to continue analysis without crashing
-                    yield new AnalyzedIntegerLiteral(0, Type.INT, integerLiteral.sourceInfo());
-                }
-
-                int value = Integer.parseInt(suffixRemoved);
-                yield new AnalyzedIntegerLiteral(value, Type.INT, integerLiteral.sourceInfo());
-            }
-        };
+        return FlatAnalysisResult.failure(errors);
     }
 
-    private AnalyzedFloatingPointLiteral analyzeFloatingPointLiteral(FloatingPointLiteral floatingPointLiteral) {
-        String literal = floatingPointLiteral.value();
-        Type type = switch (literal.charAt(literal.length() - 1)) {
-            case 'f', 'F' -> Type.FLOAT;
-            default -> Type.DOUBLE;
-        };
-        String suffixRemoved = literal.replaceAll("[dDfF]", "");
-
-        var exactValue = new BigDecimal(suffixRemoved);
-        return switch (type) {
-            case FLOAT -> {
-                if (exactValue.abs().compareTo(NumberLimits.FLOAT_MAX_VALUE) > 0 || exactValue.abs().compareTo(NumberLimits.FLOAT_MIN_VALUE) < 0) {
-                    errors.add(new LiteralOverflowError(floatingPointLiteral,  Type.FLOAT));
-                }
-
-                float value = Float.parseFloat(suffixRemoved);
-                yield new AnalyzedFloatingPointLiteral(value, Type.FLOAT, floatingPointLiteral.sourceInfo());
-            }
-            case DOUBLE -> {
-                if (exactValue.abs().compareTo(NumberLimits.DOUBLE_MAX_VALUE) > 0 || exactValue.abs().compareTo(NumberLimits.DOUBLE_MIN_VALUE) < 0) {
-                    errors.add(new LiteralOverflowError(floatingPointLiteral,  Type.DOUBLE));
-                }
-
-                double value = Double.parseDouble(suffixRemoved);
-                yield new AnalyzedFloatingPointLiteral(value, Type.DOUBLE, floatingPointLiteral.sourceInfo());
-            }
-            default -> throw new IllegalStateException("Unexpected type of floating point literal");
-        };
+    /**
+     * @return The warnings found by the last analysis, in source order
+     */
+    public List<AnalysisWarning> warnings() {
+        return warnings;
     }
 
-    private AnalyzedFunctionCall analyzeFunctionCall(FunctionCall functionCall, Scope scope) {
-        if (!scope.hasFunction(functionCall.name())) {
-            errors.add(new UndefinedFunctionError(functionCall));
-            return new AnalyzedFunctionCall(functionCall.name(), List.of(), Type.ERROR, functionCall.sourceInfo());
-        }
-
-        FunctionSymbol target = scope.getFunction(functionCall.name());
-
-        List<Type> parameterTypes = target.parameterTypes();
-        List<AnalyzedExpression> analyzedArguments = new ArrayList<>();
-        List<Type> argumentTypes = new ArrayList<>();
-        for (Expression argument : functionCall.arguments()) {
-            var analyzedArgument = analyzeExpression(argument, scope);
-            analyzedArguments.add(analyzedArgument);
-            argumentTypes.add(analyzedArgument.resultType());
-        }
-
-        if (!argumentTypes.contains(Type.ERROR) && !argumentTypes.equals(parameterTypes)) {
-            errors.add(new ArgumentTypeMismatchError(functionCall, argumentTypes, target));
+    private AnalysisResult toResult(AnalyzedProgram analyzedProgram) {
+        if (errors.isEmpty()) {
+            return AnalysisResult.success(analyzedProgram);
         }
-
-        return new AnalyzedFunctionCall(functionCall.name(), analyzedArguments, target.returnType(), functionCall.sourceInfo());
-    }
-
-    private AnalyzedBinaryOperation analyzeBinaryOperation(BinaryOperation binaryOperation, Scope scope) {
-        var analyzedLeft = analyzeExpression(binaryOperation.left(), scope);
-        var analyzedRight = analyzeExpression(binaryOperation.right(), scope);
-        BinaryOperation.BinaryOperationType operation = binaryOperation.operation();
-        var typeResult = AnalyzedBinaryOperation.getResultType(analyzedLeft.resultType(), analyzedRight.resultType(), operation, binaryOperation.sourceInfo());
-        errors.addAll(typeResult.errors());
-        warnings.addAll(typeResult.warnings());
-
-        Type resultType = typeResult.type();
-        return new AnalyzedBinaryOperation(operation, analyzedLeft, analyzedRight, resultType, binaryOperation.sourceInfo());
+        return AnalysisResult.failure(errors);
     }
 
-    private AnalyzedAssignment analyzeAssignment(Assignment assignment, Scope scope) {
-        if (!scope.hasVariable(assignment.variableName())) {
-            errors.add(new UndefinedVariableError(assignment));
-            var analyzedValue = analyzeExpression(assignment.value(), scope);
-            return new AnalyzedAssignment(assignment.variableName(), analyzedValue, assignment.sourceInfo());
+    /**
+     * @param pool Where each function is analyzed as its own task, or null to analyze them in turn
+     */
+    private AnalyzedProgram analyzeProgram(ForkJoinPool pool) {
+        IntMap<FunctionSymbol> functionSymbols = collectFunctionSymbols();
+
+        // The function table is only read from here on, so tasks can share it
+        List<FunctionDeclaration> functions = program.functionDeclarations();
+        List<ForkJoinTask<RecordAnalysis>> tasks = new ArrayList<>();
+        if (pool != null) {
+            for (var function : functions) {
+                tasks.add(pool.submit(() -> analyzeFunction(function, functionSymbols)));
+            }
         }
 
-        VariableSymbol target = scope.getVariable(assignment.variableName());
-
-        var analyzedValue = analyzeExpression(assignment.value(), scope);
-
-        if (analyzedValue.resultType() != Type.ERROR && target.type() != analyzedValue.resultType()) {
-            errors.add(new TypeMismatchError(assignment, target.type(), analyzedValue.resultType()));
+        List<AnalyzedFunctionDeclaration> analyzedFunctionDeclarations = new ArrayList<>(functions.size());
+        for (int index = 0; index < functions.size(); index++) {
+            RecordAnalysis result = pool == null
+                ? analyzeFunction(functions.get(index), functionSymbols)
+                : tasks.get(index).join();
+            // Merging in declaration order reports diagnostics in the same order either way
+            errors.addAll(result.analysis().errors());
+            warnings.addAll(result.analysis().warnings());
+            analyzedFunctionDeclarations.add(result.analyzedFunction());
         }
 
-        return new AnalyzedAssignment(assignment.variableName(), analyzedValue, assignment.sourceInfo());
+        return new AnalyzedProgram(analyzedFunctionDeclarations, CallGraph.of(analyzedFunctionDeclarations));
     }
 
-    private AnalyzedVariableDeclaration analyzeVariableDeclaration(VariableDeclaration variableDeclaration, Scope scope) {
-        if (scope.hasVariable(variableDeclaration.name())) {
-            errors.add(new DuplicateVariableNameError(variableDeclaration));
-            return AnalyzedVariableDeclaration.from(variableDeclaration, Optional.empty());
-        }
-
-        if (variableDeclaration.type() == Type.VOID) {
-            errors.add(new VoidVariableError(variableDeclaration));
-            return AnalyzedVariableDeclaration.from(variableDeclaration, Optional.empty());
-        }
-
-        scope.addVariable(variableDeclaration);
-        addLocalVariableFrom(variableDeclaration);
-
-        AnalyzedExpression analyzedInitialValue = null;
-        if (variableDeclaration.initialValue().isPresent()) {
-            analyzedInitialValue = analyzeExpression(variableDeclaration.initialValue().get(), scope);
-
-            if (analyzedInitialValue.resultType() != Type.ERROR && variableDeclaration.type() != analyzedInitialValue.resultType()) {
-                errors.add(new TypeMismatchError(variableDeclaration, analyzedInitialValue.resultType()));
-            }
-        }
+    private record RecordAnalysis(AnalyzedFunctionDeclaration analyzedFunction, FunctionAnalysis analysis) { }
 
-        return AnalyzedVariableDeclaration.from(variableDeclaration, Optional.ofNullable(analyzedInitialValue));
-    }
-
-    private AnalyzedReturnStatement analyzeReturnStatement(ReturnStatement returnStatement, Scope scope, Type functionReturnType) {
-        AnalyzedExpression analyzedReturnValue = null;
-        if (returnStatement.value().isPresent()) {
-            if (functionReturnType == Type.VOID) {
-                errors.add(new ReturnTypeError(returnStatement));
-                return new AnalyzedReturnStatement(Optional.empty(), returnStatement.sourceInfo());
+    /**
+     * Analyzes a function into records of its own, so functions analyzed at the same time share
+     * nothing they write
+     */
+    private RecordAnalysis analyzeFunction(FunctionDeclaration function, IntMap<FunctionSymbol> functionSymbols) {
+        var syntax = new SyntaxRecords();
+        var analyzed = new AnalyzedRecords(syntax);
+        FunctionAnalysis analysis = new FunctionAnalyzer(lineMap, functionSymbols).analyze(syntax, syntax.add(function), analyzed);
+        return new RecordAnalysis((AnalyzedFunctionDeclaration) analyzed.node(analysis.analyzedFunction()), analysis);
+    }
+
+    private IntMap<FunctionSymbol> collectFunctionSymbols() {
+        SyntaxTree syntax = ast;
+        int[] functions;
+        if (ast == null) {
+            var records = new SyntaxRecords();
+            syntax = records;
+            functions = new int[program.functionDeclarations().size()];
+            for (int index = 0; index < functions.length; index++) {
+                functions[index] = records.add(program.functionDeclarations().get(index));
             }
-            analyzedReturnValue = analyzeExpression(returnStatement.value().get(), scope);
-
-            if (analyzedReturnValue.resultType() != Type.ERROR && analyzedReturnValue.resultType() != functionReturnType) {
-                errors.add(new ReturnTypeError(returnStatement, functionReturnType, analyzedReturnValue.resultType()));
+        } else {
+            functions = new int[ast.functionCount()];
+            for (int index = 0; index < functions.length; index++) {
+                functions[index] = ast.function(index);
             }
-        } else if (functionReturnType != Type.VOID) {
-            errors.add(new ReturnMissingValueError(returnStatement));
-        }
-
-        return new AnalyzedReturnStatement(Optional.ofNullable(analyzedReturnValue), returnStatement.sourceInfo());
-    }
-
-    private AnalyzedForStatement analyzeForStatement(ForStatement forStatement, Scope scope, Type functionReturnType) {
-        final Scope headerScope = new Scope(scope);
-        AnalyzedForStatement.Initializer analyzedInitializer = null;
-        if (forStatement.initializer().isPresent()) {
-            analyzedInitializer = switch (forStatement.initializer().get()) {
-                case VariableDeclaration initVariable -> analyzeVariableDeclaration(initVariable, headerScope);
-                case Assignment          assignment   -> analyzeAssignment(assignment, headerScope);
-            };
         }
 
-        var alwaysTrue = forStatement.condition().isEmpty();
-
-        AnalyzedExpression analyzedCondition = null;
-        if (forStatement.condition().isPresent()) {
-            analyzedCondition = analyzeExpression(forStatement.condition().get(), headerScope);
-
-            if (analyzedCondition.resultType() != Type.ERROR && analyzedCondition.resultType() != Type.BOOL) {
-                errors.add(new InvalidConditionError(forStatement));
+        IntMap<FunctionSymbol> functionSymbols = new IntMap<>();
+        for (int function : functions) {
+            if (functionSymbols.containsKey(syntax.symbol(function))) {
+                errors.add(new DuplicateFunctionNameError(syntax.functionNode(function), lineMap));
+                continue;
             }
-            alwaysTrue = forStatement.condition().get() instanceof BooleanLiteral b && b.value() == BooleanLiteral.Value.TRUE;
-        }
-
-        AnalyzedAssignment analyzedAssignment = null;
-        if (forStatement.update().isPresent()) {
-            analyzedAssignment = analyzeAssignment(forStatement.update().get(), headerScope);
-        }
-
-        var analyzedBody = analyzeStatement(forStatement.body(), headerScope, functionReturnType);
-        
-        boolean hasGuaranteedReturn = alwaysTrue && analyzedBody.hasGuaranteedReturn();
-
-        return new AnalyzedForStatement(
-            Optional.ofNullable(analyzedInitializer),
-            Optional.ofNullable(analyzedCondition),
-            Optional.ofNullable(analyzedAssignment), 
-            analyzedBody,
-            hasGuaranteedReturn,
-            forStatement.sourceInfo()
-        );
-    }
-
-    private AnalyzedDoWhileStatement analyzeDoWhileStatement(DoWhileStatement doWhileStatement, Scope scope, Type functionReturnType) {
-        var analyzedBody = analyzeStatement(doWhileStatement.body(), scope, functionReturnType);
-
-        var analyzedCondition = analyzeExpression(doWhileStatement.condition(), scope);
-
-        if (analyzedCondition.resultType() != Type.ERROR && analyzedCondition.resultType() != Type.BOOL) {
-            errors.add(new InvalidConditionError(doWhileStatement));
-        }
-
-        return new AnalyzedDoWhileStatement(analyzedBody, analyzedCondition, analyzedBody.hasGuaranteedReturn(), doWhileStatement.sourceInfo());
-    }
-
-
-    private AnalyzedWhileStatement analyzeWhileStatement(WhileStatement whileStatement, Scope scope, Type functionReturnType) {
-        var analyzedCondition = analyzeExpression(whileStatement.condition(), scope);
-
-        if (analyzedCondition.resultType() != Type.ERROR && analyzedCondition.resultType() != Type.BOOL) {
-            errors.add(new InvalidConditionError(whileStatement));
+            functionSymbols.put(syntax.symbol(function), FunctionSymbol.from(syntax, function));
         }
-
-        var alwaysTrue = whileStatement.condition() instanceof BooleanLiteral b && b.value() == BooleanLiteral.Value.TRUE;
-
-        var analyzedBody = analyzeStatement(whileStatement.body(), scope, functionReturnType);
-
-        var hasGuaranteedReturn = alwaysTrue && analyzedBody.hasGuaranteedReturn();
-        return new AnalyzedWhileStatement(analyzedCondition, analyzedBody, hasGuaranteedReturn, whileStatement.sourceInfo());
+        return functionSymbols;
     }
 
-    private AnalyzedIfStatement analyzeIfStatement(IfStatement ifStatement, Scope scope, Type functionReturnType) {
-        var analyzedCondition = analyzeExpression(ifStatement.condition(), scope);
-
-        if (analyzedCondition.resultType() != Type.ERROR && analyzedCondition.resultType() != Type.BOOL) {
-            errors.add(new InvalidConditionError(ifStatement));
-        }
-
-        var alwaysTrue = ifStatement.condition() instanceof BooleanLiteral b && b.value() == BooleanLiteral.Value.TRUE;
-
-        var analyzedBody = analyzeStatement(ifStatement.body(), scope, functionReturnType);
-
-        if (ifStatement.elseBody().isPresent()) {
-            var analyzedElseBody = analyzeStatement(ifStatement.elseBody().get(), scope, functionReturnType);
-            var hasGuaranteedReturn = analyzedBody.hasGuaranteedReturn() && (alwaysTrue || analyzedElseBody.hasGuaranteedReturn());
-            return new AnalyzedIfStatement(analyzedCondition, analyzedBody, Optional.of(analyzedElseBody), hasGuaranteedReturn, ifStatement.sourceInfo());
+    private void requireProgram() {
+        if (program == null) {
+            throw new IllegalStateException("An analyzer given a flat AST only analyzes in place");
         }
-
-        boolean hasGuaranteedReturn = alwaysTrue && analyzedBody.hasGuaranteedReturn();
-        return new AnalyzedIfStatement(analyzedCondition, analyzedBody, Optional.empty(), hasGuaranteedReturn, ifStatement.sourceInfo());
-    }
-
-    private void addLocalVariableFrom(VariableDeclaration variableDeclaration) {
-        var localVariable = new LocalVariable(nextLocalVariableId, variableDeclaration.name(), variableDeclaration.type());
-        nextLocalVariableId++;
-        localVariables.add(localVariable);
-    }
-
-    private void addLocalVariableFrom(Parameter parameter) {
-        var localVariable = new LocalVariable(nextLocalVariableId, parameter.name(), parameter.type());
-        nextLocalVariableId++;
-        localVariables.add(localVariable);
     }
 }
@@ -0,0 +1,291 @@
+package luxlang.compiler.analysis;
+
+import luxlang.compiler.analysis.nodes.expressions.AnalyzedBinaryOperation;
+import luxlang.compiler.analysis.nodes.expressions.AnalyzedBooleanLiteral;
+import luxlang.compiler.analysis.nodes.expressions.AnalyzedExpression;
+import luxlang.compiler.analysis.nodes.expressions.AnalyzedFloatingPointLiteral;
+import luxlang.compiler.analysis.nodes.expressions.AnalyzedIntegerLiteral;
+import luxlang.compiler.analysis.warnings.AnalysisWarning;
+import luxlang.compiler.analysis.warnings.ConstantOverflowWarning;
+import luxlang.compiler.lexer.objects.LineMap;
+import luxlang.compiler.parser.nodes.Type;
+import luxlang.compiler.parser.nodes.expressions.BinaryOperation.BinaryOperationType;
+import luxlang.compiler.parser.nodes.expressions.UnaryOperation.UnaryOperationType;
+
+import java.util.List;
+
+/**
+ * Evaluates operations on literals during analysis. Integer literals hold their type's bit pattern
+ * sign extended to 64 bits, and results wrap to the type's width just as they would at runtime,
+ * with a {@link ConstantOverflowWarning} when they do.
+ */
+final class ConstantFolder {
+    private ConstantFolder() { }
+
+    /**
+     * @param resultType The type analysis gave the operation, which has already been checked
+     * @return The folded literal, or null if the operation can't be evaluated now: an operand
+     * isn't a literal, it divides by zero, or a floating point result isn't finite
+     */
+    static AnalyzedExpression fold(
+        BinaryOperationType operation,
+        AnalyzedExpression left,
+        AnalyzedExpression right,
+        Type resultType,
+        long span,
+        LineMap lineMap,
+        List<AnalysisWarning> warnings
+    ) {
+        if (resultType == Type.ERROR) {
+            return null;
+        }
+        if (left instanceof AnalyzedBooleanLiteral leftLiteral && right instanceof AnalyzedBooleanLiteral rightLiteral) {
+            boolean leftValue = leftLiteral.value();
+            boolean rightValue = rightLiteral.value();
+            return switch (operation) {
+                case LOGICAL_AND -> new AnalyzedBooleanLiteral(leftValue && rightValue, span);
+                case LOGICAL_OR -> new AnalyzedBooleanLiteral(leftValue || rightValue, span);
+                case EQUAL -> new AnalyzedBooleanLiteral(leftValue == rightValue, span);
+                case NOT_EQUAL -> new AnalyzedBooleanLiteral(leftValue != rightValue, span);
+                default -> null;
+            };
+        }
+        if (!isNumberLiteral(left) || !isNumberLiteral(right)) {
+            return null;
+        }
+
+        // Comparisons convert both operands to the type arithmetic on them would produce
+        Type operandType = operation.isComparisonOperation()
+            ? AnalyzedBinaryOperation.commonNumberType(left.resultType(), right.resultType())
+            : resultType;
+        if (operandType.isFloatingPointType()) {
+            double leftValue = toFloatingPoint(left, operandType);
+            double rightValue = toFloatingPoint(right, operandType);
+            return foldFloatingPoint(operation, leftValue, rightValue, operandType, span, lineMap, warnings);
+        }
+        long leftValue = convert(((AnalyzedIntegerLiteral) left).value(), left.resultType(), operandType);
+        long rightValue = convert(((AnalyzedIntegerLiteral) right).value(), right.resultType(), operandType);
+        return foldInteger(operation, leftValue, rightValue, operandType, span, lineMap, warnings);
+    }
+
+    /**
+     * @return The folded literal, or null if the operand isn't a literal
+     */
+    static AnalyzedExpression fold(
+        UnaryOperationType operation,
+        AnalyzedExpression operand,
+        Type resultType,
+        long span,
+        LineMap lineMap,
+        List<AnalysisWarning> warnings
+    ) {
+        return switch (operand) {
+            case AnalyzedBooleanLiteral booleanLiteral when operation == UnaryOperationType.LOGICAL_NOT ->
+                new AnalyzedBooleanLiteral(!booleanLiteral.value(), span);
+            case AnalyzedFloatingPointLiteral floatingPointLiteral when operation == UnaryOperationType.NEGATION ->
+                new AnalyzedFloatingPointLiteral(-floatingPointLiteral.value(), resultType, span);
+            case AnalyzedIntegerLiteral integerLiteral when operation == UnaryOperationType.BITWISE_NOT ->
+                new AnalyzedIntegerLiteral(truncate(~integerLiteral.value(), resultType), resultType, span);
+            case AnalyzedIntegerLiteral integerLiteral when operation == UnaryOperationType.NEGATION -> {
+                // Only signed types can be negated, and only their minimum value has no negation
+                int bits = resultType.sizeBytes() * 8;
+                if (integerLiteral.value() == Long.MIN_VALUE >> (64 - bits)) {
+                    warnings.add(new ConstantOverflowWarning(span, lineMap, resultType));
+                }
+                yield new AnalyzedIntegerLiteral(truncate(-integerLiteral.value(), resultType), resultType, span);
+            }
+            default -> null;
+        };
+    }
+
+    private static AnalyzedExpression foldFloatingPoint(
+        BinaryOperationType operation,
+        double left,
+        double right,
+        Type type,
+        long span,
+        LineMap lineMap,
+        List<AnalysisWarning> warnings
+    ) {
+        if (operation.isComparisonOperation()) {
+            boolean value = switch (operation) {
+                case EQUAL -> left == right;
+                case NOT_EQUAL -> left != right;
+                case LESS -> left < right;
+                case LESS_EQUAL -> left <= right;
+                case GREATER -> left > right;
+                default -> left >= right;
+            };
+            return new AnalyzedBooleanLiteral(value, span);
+        }
+
+        double result;
+        if (type == Type.FLOAT) {
+            float leftFloat = (float) left;
+            float rightFloat = (float) right;
+            result = switch (operation) {
+                case ADD -> leftFloat + rightFloat;
+                case SUB -> leftFloat - rightFloat;
+                case MULT -> leftFloat * rightFloat;
+                case DIV -> leftFloat / rightFloat;
+                default -> Double.NaN;
+            };
+        } else {
+            result = switch (operation) {
+                case ADD -> left + right;
+                case SUB -> left - right;
+                case MULT -> left * right;
+                case DIV -> left / right;
+                default -> Double.NaN;
+            };
+        }
+
+        // Only division by zero reaches infinity from a zero right operand
+        if (Double.isInfinite(result) && right != 0.0) {
+            warnings.add(new ConstantOverflowWarning(span, lineMap, type));
+        }
+        if (!Double.isFinite(result)) {
+            return null;
+        }
+        return new AnalyzedFloatingPointLiteral(result, type, span);
+    }
+
+    private static AnalyzedExpression foldInteger(
+        BinaryOperationType operation,
+        long left,
+        long right,
+        Type type,
+        long span,
+        LineMap lineMap,
+        List<AnalysisWarning> warnings
+    ) {
+        boolean signed = type.isSignedNumberType();
+        if (operation.isComparisonOperation()) {
+            int comparison = signed
+                ? Long.compare(left, right)
+                : Long.compareUnsigned(numericValue(left, type), numericValue(right, type));
+            boolean value = switch (operation) {
+                case EQUAL -> comparison == 0;
+                case NOT_EQUAL -> comparison != 0;
+                case LESS -> comparison < 0;
+                case LESS_EQUAL -> comparison <= 0;
+                case GREATER -> comparison > 0;
+                default -> comparison >= 0;
+            };
+            return new AnalyzedBooleanLiteral(value, span);
+        }
+        if ((operation == BinaryOperationType.DIV || operation == BinaryOperationType.MOD) && right == 0) {
+            return null;
+        }
+
+        boolean wide = type.sizeBytes() == 8;
+        long a = numericValue(left, type);
+        long b = numericValue(right, type);
+        long result;
+        boolean overflows;
+        // Narrower values are computed exactly in 64 bits and then range checked; 64-bit ones
+        // detect overflow from the carry or high half their operation would produce
+        switch (operation) {
+            case ADD -> {
+                result = a + b;
+                overflows = !wide ? !fits(result, type)
+                    : signed ? ((a ^ result) & (b ^ result)) < 0 : Long.compareUnsigned(result, a) < 0;
+            }
+            case SUB -> {
+                result = a - b;
+                overflows = !wide ? !fits(result, type)
+                    : signed ? ((a ^ b) & (a ^ result)) < 0 : Long.compareUnsigned(a, b) < 0;
+            }
+            case MULT -> {
+                result = a * b;
+                overflows = signed || !wide
+                    ? Math.multiplyHigh(a, b) != (result >> 63) || !wide && !fits(result, type)
+                    : Math.unsignedMultiplyHigh(a, b) != 0;
+            }
+            case DIV -> {
+                result = signed || !wide ? a / b : Long.divideUnsigned(a, b);
+                overflows = wide ? signed && a == Long.MIN_VALUE && b == -1 : !fits(result, type);
+            }
+            case MOD -> {
+                result = signed || !wide ? a % b : Long.remainderUnsigned(a, b);
+                overflows = false;
+            }
+            case BITWISE_AND -> {
+                result = a & b;
+                overflows = false;
+            }
+            case BITWISE_OR -> {
+                result = a | b;
+                overflows = false;
+            }
+            case BITWISE_XOR -> {
+                result = a ^ b;
+                overflows = false;
+            }
+            default -> {
+                return null;
+            }
+        }
+
+        if (overflows) {
+            warnings.add(new ConstantOverflowWarning(span, lineMap, type));
+        }
+        return new AnalyzedIntegerLiteral(truncate(result, type), type, span);
+    }
+
+    private static boolean isNumberLiteral(AnalyzedExpression expression) {
+        return expression instanceof AnalyzedIntegerLiteral || expression instanceof AnalyzedFloatingPointLiteral;
+    }
+
+    private static double toFloatingPoint(AnalyzedExpression literal, Type type) {
+        if (literal instanceof AnalyzedFloatingPointLiteral floatingPointLiteral) {
+            return type == Type.FLOAT ? (float) floatingPointLiteral.value() : floatingPointLiteral.value();
+        }
+        var integerLiteral = (AnalyzedIntegerLiteral) literal;
+        long value = numericValue(integerLiteral.value(), integerLiteral.type());
+        if (integerLiteral.type() == Type.ULONG && value < 0) {
+            // Halve into signed range, keeping the low bit so the conversion still rounds correctly
+            long halved = (value >>> 1) | (value & 1);
+            return type == Type.FLOAT ? (float) halved * 2.0f : (double) halved * 2.0;
+        }
+        return type == Type.FLOAT ? (float) value : (double) value;
+    }
+
+    private static long convert(long value, Type from, Type to) {
+        return truncate(numericValue(value, from), to);
+    }
+
+    /**
+     * @return The value as the bit pattern of the type's width, sign extended
+     */
+    private static long truncate(long value, Type type) {
+        return switch (type.sizeBytes()) {
+            case 1 -> (byte) value;
+            case 2 -> (short) value;
+            case 4 -> (int) value;
+            default -> value;
+        };
+    }
+
+    /**
+     * @return The number a stored value stands for. Unsigned 64-bit values keep their bits and
+     * have to be treated as unsigned by the caller.
+     */
+    private static long numericValue(long value, Type type) {
+        if (type.isSignedNumberType() || type.sizeBytes() == 8) {
+            return value;
+        }
+        return value & ((1L << (type.sizeBytes() * 8)) - 1);
+    }
+
+    /**
+     * @param type A type narrower than 64 bits
+     */
+    private static boolean fits(long value, Type type) {
+        int bits = type.sizeBytes() * 8;
+        if (type.isSignedNumberType()) {
+            return value >= -(1L << (bits - 1)) && value < (1L << (bits - 1));
+        }
+        return value >= 0 && value < (1L << bits);
+    }
+}
@@ -0,0 +1,19 @@
+package luxlang.compiler.analysis;
+
+import luxlang.compiler.analysis.errors.AnalysisError;
+import luxlang.compiler.tree.FlatAst;
+
+import java.util.List;
+
+public sealed interface FlatAnalysisResult permits FlatAnalysisResult.Failure, FlatAnalysisResult.Success {
+    record Success(FlatAst ast) implements FlatAnalysisResult { }
+    record Failure(List<AnalysisError> errors) implements FlatAnalysisResult { }
+
+    static FlatAnalysisResult success(FlatAst ast) {
+        return new FlatAnalysisResult.Success(ast);
+    }
+
+    static FlatAnalysisResult failure(List<AnalysisError> errors) {
+        return new FlatAnalysisResult.Failure(errors);
+    }
+}
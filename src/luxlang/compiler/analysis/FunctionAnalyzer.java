@@ -0,0 +1,744 @@
+package luxlang.compiler.analysis;
+
+import luxlang.compiler.analysis.errors.*;
+import luxlang.compiler.analysis.nodes.expressions.*;
+import luxlang.compiler.parser.nodes.expressions.*;
+import luxlang.compiler.parser.nodes.statements.*;
+import luxlang.compiler.analysis.warnings.AnalysisWarning;
+import luxlang.compiler.analysis.nodes.LocalVariable;
+import luxlang.compiler.analysis.objects.FunctionSymbol;
+import luxlang.compiler.analysis.objects.SymbolTable;
+import luxlang.compiler.analysis.objects.VariableSymbol;
+import luxlang.compiler.lexer.objects.LineMap;
+import luxlang.compiler.parser.nodes.Type;
+import luxlang.compiler.tree.AnalyzedTree;
+import luxlang.compiler.tree.AnalyzedTreeBuilder;
+import luxlang.compiler.tree.SyntaxTree;
+import luxlang.compiler.util.FrameStack;
+import luxlang.compiler.util.FrameStack.Frame;
+import luxlang.compiler.util.IntMap;
+import luxlang.compiler.util.NumberLiterals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+import static luxlang.compiler.tree.Tree.NONE;
+
+/**
+ * Analyzes one function against the program's finished function table. Everything it mutates
+ * belongs to that function alone, so functions can be analyzed concurrently. The walk keeps its
+ * own {@link FrameStack} rather than recursing, so nesting depth is bounded only by the heap.
+ * <p>
+ * The function is read through a {@link SyntaxTree} and the results go to an
+ * {@link AnalyzedTreeBuilder}, so the same walk builds analyzed records or annotates a
+ * {@link luxlang.compiler.tree.FlatAst} in place. Syntax handles come from the tree and analyzed
+ * handles from the builder, and only the builder's tree reads the latter.
+ */
+class FunctionAnalyzer {
+    private final LineMap lineMap;
+    private final SymbolTable symbols;
+    private final List<AnalysisError> errors;
+    private final List<AnalysisWarning> warnings;
+
+    private SyntaxTree syntax;
+    private AnalyzedTreeBuilder builder;
+    private AnalyzedTree analyzed;
+    private int nextLocalVariableId;
+    private List<LocalVariable> localVariables;
+    // Where the body's statements go instead of into an analyzed tree, if anywhere
+    private AnalysisSink sink;
+
+    private final FrameStack frames;
+    // What the last finished frame or leaf produced, for its parent to pick up
+    private int lastStatement;
+    private int lastExpression;
+
+    FunctionAnalyzer(LineMap lineMap, IntMap<FunctionSymbol> functions) {
+        this.lineMap = lineMap;
+        this.symbols = new SymbolTable(functions);
+        this.errors = new ArrayList<>();
+        this.warnings = new ArrayList<>();
+        this.frames = new FrameStack();
+    }
+
+    /**
+     * @param analyzedFunction The analyzed function's handle in the builder, or NONE if the
+     * statements went to a sink
+     */
+    record FunctionAnalysis(
+        int analyzedFunction,
+        List<AnalysisError> errors,
+        List<AnalysisWarning> warnings
+    ) { }
+
+    FunctionAnalysis analyze(SyntaxTree syntax, int function, AnalyzedTreeBuilder builder) {
+        int analyzedFunction = analyzeFunctionDeclaration(syntax, function, builder);
+        return new FunctionAnalysis(analyzedFunction, errors, warnings);
+    }
+
+    /**
+     * Runs the same checks as {@link #analyze(SyntaxTree, int, AnalyzedTreeBuilder)}, but hands
+     * each top-level statement of the body to the sink as soon as it is analyzed instead of
+     * building the body.
+     * @return The diagnostics, without an analyzed function
+     */
+    FunctionAnalysis analyze(SyntaxTree syntax, int function, AnalyzedTreeBuilder builder, AnalysisSink sink) {
+        this.sink = sink;
+        analyzeFunctionDeclaration(syntax, function, builder);
+        return new FunctionAnalysis(NONE, errors, warnings);
+    }
+
+    private int analyzeFunctionDeclaration(SyntaxTree syntax, int function, AnalyzedTreeBuilder builder) {
+        this.syntax = syntax;
+        this.builder = builder;
+        this.analyzed = builder.tree();
+        nextLocalVariableId = 0;
+        localVariables = new ArrayList<>();
+        int parameterCount = syntax.parameterCount(function);
+        for (int index = 0; index < parameterCount; index++) {
+            int parameter = syntax.parameter(function, index);
+            if (syntax.type(parameter) == Type.VOID) {
+                errors.add(new VoidVariableError(syntax.parameterNode(parameter), lineMap));
+            }
+
+            if (symbols.lookupVariable(syntax.symbol(parameter)) != null) {
+                errors.add(new DuplicateVariableNameError(syntax.parameterNode(parameter), lineMap));
+                continue;
+            }
+
+            declare(parameter);
+        }
+
+        Type returnType = syntax.type(function);
+        IntConsumer consumer = null;
+        if (sink != null) {
+            sink.startFunction(syntax, function, localVariables);
+            consumer = this::report;
+        }
+        frames.run(new CodeBlockFrame(syntax.body(function), returnType, consumer));
+        int analyzedBody = lastStatement;
+        if (returnType != Type.VOID && !analyzed.hasGuaranteedReturn(analyzedBody)) {
+            errors.add(new IndeterminateReturnError(syntax.functionNode(function), lineMap));
+        }
+        return sink == null ? builder.analyzedFunction(function, analyzedBody, localVariables) : NONE;
+    }
+
+    private void report(int statement) {
+        // A function with errors produces nothing, so its statements are of no use downstream
+        if (errors.isEmpty()) {
+            sink.acceptStatement(analyzed, statement);
+        }
+    }
+
+    /**
+     * Starts analyzing a statement: a frame is pushed, and its result lands in lastStatement
+     */
+    private void visitStatement(int statement, Type functionReturnType) {
+        frames.push(switch (syntax.kind(statement)) {
+            case CODE_BLOCK           -> new CodeBlockFrame(statement, functionReturnType);
+            case IF_STATEMENT         -> new IfFrame(statement, functionReturnType);
+            case WHILE_STATEMENT      -> new WhileFrame(statement, functionReturnType);
+            case DO_WHILE_STATEMENT   -> new DoWhileFrame(statement, functionReturnType);
+            case FOR_STATEMENT        -> new ForFrame(statement, functionReturnType);
+            case RETURN_STATEMENT     -> new ReturnFrame(statement, functionReturnType);
+            case VARIABLE_DECLARATION -> new VariableDeclarationFrame(statement);
+            case ASSIGNMENT           -> new AssignmentFrame(statement);
+            default -> throw new IllegalArgumentException("Not a statement: " + syntax.kind(statement));
+        });
+    }
+
+    /**
+     * Starts analyzing an expression. Leaves are analyzed on the spot; anything else gets a
+     * frame. Either way the result lands in lastExpression.
+     */
+    private void visitExpression(int expression) {
+        switch (syntax.kind(expression)) {
+            case FUNCTION_CALL          -> frames.push(new FunctionCallFrame(expression));
+            case BINARY_OPERATION       -> frames.push(new BinaryOperationFrame(expression));
+            case UNARY_OPERATION        -> frames.push(new UnaryOperationFrame(expression));
+            case VARIABLE_EXPRESSION    -> lastExpression = analyzeVariableExpression(expression);
+            case FLOATING_POINT_LITERAL -> lastExpression = analyzeFloatingPointLiteral(expression);
+            case INTEGER_LITERAL        -> lastExpression = analyzeIntegerLiteral(expression);
+            case BOOLEAN_LITERAL        -> lastExpression = builder.booleanConstant(expression, syntax.booleanValue(expression));
+            default -> throw new IllegalArgumentException("Not an expression: " + syntax.kind(expression));
+        }
+    }
+
+    private void completeStatement(int statement) {
+        frames.pop();
+        lastStatement = statement;
+    }
+
+    private void completeExpression(int expression) {
+        frames.pop();
+        lastExpression = expression;
+    }
+
+    private int analyzeVariableExpression(int variableExpression) {
+        VariableSymbol target = symbols.lookupVariable(syntax.symbol(variableExpression));
+        if (target == null) {
+            errors.add(new UndefinedVariableError((VariableExpression) syntax.expressionNode(variableExpression), lineMap));
+            return builder.analyzedVariableExpression(variableExpression, LocalVariable.NONE, Type.ERROR);
+        }
+
+        return builder.analyzedVariableExpression(variableExpression, target.localId(), target.type());
+    }
+
+    private int analyzeIntegerLiteral(int integerLiteral) {
+        var decoded = NumberLiterals.decodeInteger(syntax.literal(integerLiteral));
+        if (decoded.overflows()) {
+            errors.add(new LiteralOverflowError((IntegerLiteral) syntax.expressionNode(integerLiteral), decoded.type(), lineMap));
+        }
+        return builder.integerConstant(integerLiteral, decoded.value(), decoded.type());
+    }
+
+    private int analyzeFloatingPointLiteral(int floatingPointLiteral) {
+        var decoded = NumberLiterals.decodeFloatingPoint(syntax.literal(floatingPointLiteral));
+        if (decoded.overflows()) {
+            errors.add(new LiteralOverflowError((FloatingPointLiteral) syntax.expressionNode(floatingPointLiteral), decoded.type(), lineMap));
+        }
+        return builder.floatingPointConstant(floatingPointLiteral, decoded.value(), decoded.type());
+    }
+
+    private int finishUnaryOperation(int unaryOperation, int analyzedOperand) {
+        var operation = syntax.unaryOperation(unaryOperation);
+        Type resultType;
+        Type operandType = analyzed.resultType(analyzedOperand);
+
+        if (operandType == Type.ERROR) {
+            return builder.analyzedUnaryOperation(unaryOperation, analyzedOperand, Type.ERROR);
+        }
+
+        if (!UnaryOperation.isValid(operandType, operation)) {
+            errors.add(new InvalidOperationError((UnaryOperation) syntax.expressionNode(unaryOperation), operandType, lineMap));
+            return builder.analyzedUnaryOperation(unaryOperation, analyzedOperand, Type.ERROR);
+        }
+        
+        resultType = operandType;
+        var literal = literalOf(analyzedOperand);
+        if (literal != null) {
+            var folded = ConstantFolder.fold(operation, literal, resultType, syntax.span(unaryOperation), lineMap, warnings);
+            if (folded != null) {
+                return constantOf(unaryOperation, folded);
+            }
+        }
+        return builder.analyzedUnaryOperation(unaryOperation, analyzedOperand, resultType);
+    }
+
+    private int finishBinaryOperation(int binaryOperation, int analyzedLeft, int analyzedRight) {
+        BinaryOperation.BinaryOperationType operation = syntax.binaryOperation(binaryOperation);
+        long span = syntax.span(binaryOperation);
+        Type resultType = AnalyzedBinaryOperation.getResultType(
+            analyzed.resultType(analyzedLeft), analyzed.resultType(analyzedRight), operation, span, lineMap, errors, warnings
+        );
+        var folded = ConstantFolder.fold(operation, literalOf(analyzedLeft), literalOf(analyzedRight), resultType, span, lineMap, warnings);
+        if (folded != null) {
+            return constantOf(binaryOperation, folded);
+        }
+        return builder.analyzedBinaryOperation(binaryOperation, analyzedLeft, analyzedRight, resultType);
+    }
+
+    private int finishFunctionCall(int functionCall, FunctionSymbol target, int[] analyzedArguments) {
+        List<Type> parameterTypes = target.parameterTypes();
+        List<Type> argumentTypes = new ArrayList<>(analyzedArguments.length);
+        for (var analyzedArgument : analyzedArguments) {
+            argumentTypes.add(analyzed.resultType(analyzedArgument));
+        }
+
+        if (!argumentTypes.contains(Type.ERROR) && !argumentTypes.equals(parameterTypes)) {
+            errors.add(new ArgumentTypeMismatchError((FunctionCall) syntax.expressionNode(functionCall), argumentTypes, target, lineMap));
+        }
+
+        return builder.analyzedFunctionCall(functionCall, analyzedArguments, 0, analyzedArguments.length, target.returnType());
+    }
+
+    /**
+     * @return An analyzed constant as the literal {@link ConstantFolder} takes, or null if it
+     * isn't one
+     */
+    private AnalyzedExpression literalOf(int expression) {
+        if (!analyzed.isConstant(expression)) {
+            return null;
+        }
+        Type type = analyzed.resultType(expression);
+        long constant = analyzed.constant(expression);
+        if (type == Type.BOOL) {
+            return new AnalyzedBooleanLiteral(constant != 0, analyzed.span(expression));
+        }
+        if (type.isFloatingPointType()) {
+            return new AnalyzedFloatingPointLiteral(Double.longBitsToDouble(constant), type, analyzed.span(expression));
+        }
+        return new AnalyzedIntegerLiteral(constant, type, analyzed.span(expression));
+    }
+
+    /**
+     * Records what an operation folded to as the operation's analyzed node
+     */
+    private int constantOf(int expression, AnalyzedExpression folded) {
+        return switch (folded) {
+            case AnalyzedBooleanLiteral       booleanLiteral       -> builder.booleanConstant(expression, booleanLiteral.value());
+            case AnalyzedFloatingPointLiteral floatingPointLiteral -> builder.floatingPointConstant(expression, floatingPointLiteral.value(), floatingPointLiteral.type());
+            case AnalyzedIntegerLiteral       integerLiteral       -> builder.integerConstant(expression, integerLiteral.value(), integerLiteral.type());
+            default -> throw new IllegalStateException("Folded to a non-literal: " + folded);
+        };
+    }
+
+    private final class CodeBlockFrame implements Frame {
+        private final int codeBlock;
+        private final Type functionReturnType;
+        private int[] statements;
+        private int statementCount;
+        // Takes each reachable statement as soon as it is analyzed
+        private final IntConsumer consumer;
+        private int next;
+        private boolean hasGuaranteedReturn;
+        // Whether the statement being analyzed follows a return, and so is left out
+        private boolean unreachable;
+
+        CodeBlockFrame(int codeBlock, Type functionReturnType) {
+            this(codeBlock, functionReturnType, null);
+        }
+
+        /**
+         * @param consumer Where the statements go instead of into the analyzed block, or null
+         */
+        CodeBlockFrame(int codeBlock, Type functionReturnType, IntConsumer consumer) {
+            this.codeBlock = codeBlock;
+            this.functionReturnType = functionReturnType;
+            this.statements = new int[syntax.statementCount(codeBlock)];
+            this.consumer = consumer == null ? this::add : consumer;
+            this.next = -1;
+        }
+
+        private void add(int statement) {
+            if (statementCount == statements.length) {
+                statements = Arrays.copyOf(statements, Math.max(1, statementCount * 2));
+            }
+            statements[statementCount++] = statement;
+        }
+
+        @Override
+        public void resume() {
+            if (next == -1) {
+                symbols.enterScope();
+                next = 0;
+            } else if (!unreachable) {
+                consumer.accept(lastStatement);
+                hasGuaranteedReturn = analyzed.hasGuaranteedReturn(lastStatement);
+            }
+
+            if (next < syntax.statementCount(codeBlock)) {
+                int statement = syntax.statement(codeBlock, next++);
+                unreachable = hasGuaranteedReturn;
+                if (unreachable) {
+                    errors.add(new UnreachableStatementError(syntax.statementNode(statement), lineMap));
+                }
+                visitStatement(statement, functionReturnType);
+                return;
+            }
+
+            symbols.exitScope();
+            completeStatement(builder.analyzedCodeBlock(codeBlock, statements, 0, statementCount, hasGuaranteedReturn));
+        }
+    }
+
+    private final class IfFrame implements Frame {
+        private final int ifStatement;
+        private final Type functionReturnType;
+        private int step;
+        private int analyzedCondition;
+        private boolean alwaysTrue;
+        private int analyzedBody;
+
+        IfFrame(int ifStatement, Type functionReturnType) {
+            this.ifStatement = ifStatement;
+            this.functionReturnType = functionReturnType;
+        }
+
+        @Override
+        public void resume() {
+            switch (step++) {
+                case 0 -> visitExpression(syntax.condition(ifStatement));
+                case 1 -> {
+                    analyzedCondition = lastExpression;
+                    checkCondition(ifStatement, analyzedCondition);
+                    alwaysTrue = isTrueConstant(analyzedCondition);
+                    visitStatement(syntax.body(ifStatement), functionReturnType);
+                }
+                case 2 -> {
+                    analyzedBody = lastStatement;
+                    int elseBody = syntax.elseBody(ifStatement);
+                    if (elseBody != NONE) {
+                        visitStatement(elseBody, functionReturnType);
+                        return;
+                    }
+                    boolean hasGuaranteedReturn = alwaysTrue && analyzed.hasGuaranteedReturn(analyzedBody);
+                    completeStatement(builder.analyzedIfStatement(ifStatement, analyzedCondition, analyzedBody, NONE, hasGuaranteedReturn));
+                }
+                default -> {
+                    var analyzedElseBody = lastStatement;
+                    var hasGuaranteedReturn = analyzed.hasGuaranteedReturn(analyzedBody) && (alwaysTrue || analyzed.hasGuaranteedReturn(analyzedElseBody));
+                    completeStatement(builder.analyzedIfStatement(ifStatement, analyzedCondition, analyzedBody, analyzedElseBody, hasGuaranteedReturn));
+                }
+            }
+        }
+    }
+
+    private final class WhileFrame implements Frame {
+        private final int whileStatement;
+        private final Type functionReturnType;
+        private int step;
+        private int analyzedCondition;
+
+        WhileFrame(int whileStatement, Type functionReturnType) {
+            this.whileStatement = whileStatement;
+            this.functionReturnType = functionReturnType;
+        }
+
+        @Override
+        public void resume() {
+            switch (step++) {
+                case 0 -> visitExpression(syntax.condition(whileStatement));
+                case 1 -> {
+                    analyzedCondition = lastExpression;
+                    checkCondition(whileStatement, analyzedCondition);
+                    visitStatement(syntax.body(whileStatement), functionReturnType);
+                }
+                default -> {
+                    var analyzedBody = lastStatement;
+                    var hasGuaranteedReturn = isTrueConstant(analyzedCondition) && analyzed.hasGuaranteedReturn(analyzedBody);
+                    completeStatement(builder.analyzedWhileStatement(whileStatement, analyzedCondition, analyzedBody, hasGuaranteedReturn));
+                }
+            }
+        }
+    }
+
+    private final class DoWhileFrame implements Frame {
+        private final int doWhileStatement;
+        private final Type functionReturnType;
+        private int step;
+        private int analyzedBody;
+
+        DoWhileFrame(int doWhileStatement, Type functionReturnType) {
+            this.doWhileStatement = doWhileStatement;
+            this.functionReturnType = functionReturnType;
+        }
+
+        @Override
+        public void resume() {
+            switch (step++) {
+                case 0 -> visitStatement(syntax.body(doWhileStatement), functionReturnType);
+                case 1 -> {
+                    analyzedBody = lastStatement;
+                    visitExpression(syntax.condition(doWhileStatement));
+                }
+                default -> {
+                    var analyzedCondition = lastExpression;
+                    checkCondition(doWhileStatement, analyzedCondition);
+                    completeStatement(builder.analyzedDoWhileStatement(doWhileStatement, analyzedBody, analyzedCondition, analyzed.hasGuaranteedReturn(analyzedBody)));
+                }
+            }
+        }
+    }
+
+    private final class ForFrame implements Frame {
+        private final int forStatement;
+        private final Type functionReturnType;
+        private int step;
+        private int analyzedInitializer;
+        private int analyzedCondition;
+        private boolean alwaysTrue;
+        private int analyzedAssignment;
+
+        ForFrame(int forStatement, Type functionReturnType) {
+            this.forStatement = forStatement;
+            this.functionReturnType = functionReturnType;
+        }
+
+        @Override
+        public void resume() {
+            // Absent parts leave their result NONE and fall through to the next step on the next resume
+            switch (step++) {
+                case 0 -> {
+                    symbols.enterScope();
+                    lastStatement = NONE;
+                    int initializer = syntax.initializer(forStatement);
+                    if (initializer != NONE) {
+                        visitStatement(initializer, functionReturnType);
+                    }
+                }
+                case 1 -> {
+                    analyzedInitializer = lastStatement;
+                    lastExpression = NONE;
+                    int condition = syntax.condition(forStatement);
+                    if (condition != NONE) {
+                        visitExpression(condition);
+                    }
+                }
+                case 2 -> {
+                    analyzedCondition = lastExpression;
+                    alwaysTrue = analyzedCondition == NONE;
+                    if (analyzedCondition != NONE) {
+                        checkCondition(forStatement, analyzedCondition);
+                        alwaysTrue = isTrueConstant(analyzedCondition);
+                    }
+                    lastStatement = NONE;
+                    int update = syntax.update(forStatement);
+                    if (update != NONE) {
+                        visitStatement(update, functionReturnType);
+                    }
+                }
+                case 3 -> {
+                    analyzedAssignment = lastStatement;
+                    visitStatement(syntax.body(forStatement), functionReturnType);
+                }
+                default -> {
+                    var analyzedBody = lastStatement;
+                    symbols.exitScope();
+
+                    boolean hasGuaranteedReturn = alwaysTrue && analyzed.hasGuaranteedReturn(analyzedBody);
+
+                    completeStatement(builder.analyzedForStatement(
+                        forStatement,
+                        analyzedInitializer,
+                        analyzedCondition,
+                        analyzedAssignment,
+                        analyzedBody,
+                        hasGuaranteedReturn
+                    ));
+                }
+            }
+        }
+    }
+
+    private final class ReturnFrame implements Frame {
+        private final int returnStatement;
+        private final Type functionReturnType;
+        private boolean started;
+
+        ReturnFrame(int returnStatement, Type functionReturnType) {
+            this.returnStatement = returnStatement;
+            this.functionReturnType = functionReturnType;
+        }
+
+        @Override
+        public void resume() {
+            if (!started) {
+                started = true;
+                int value = syntax.value(returnStatement);
+                if (value != NONE) {
+                    if (functionReturnType == Type.VOID) {
+                        errors.add(new ReturnTypeError(returnStatementNode(), lineMap));
+                        completeStatement(builder.analyzedReturnStatement(returnStatement, NONE));
+                        return;
+                    }
+                    visitExpression(value);
+                    return;
+                }
+                if (functionReturnType != Type.VOID) {
+                    errors.add(new ReturnMissingValueError(returnStatementNode(), lineMap));
+                }
+                completeStatement(builder.analyzedReturnStatement(returnStatement, NONE));
+                return;
+            }
+
+            var analyzedReturnValue = lastExpression;
+            Type valueType = analyzed.resultType(analyzedReturnValue);
+            if (valueType != Type.ERROR && valueType != functionReturnType) {
+                errors.add(new ReturnTypeError(returnStatementNode(), functionReturnType, valueType, lineMap));
+            }
+            completeStatement(builder.analyzedReturnStatement(returnStatement, analyzedReturnValue));
+        }
+
+        private ReturnStatement returnStatementNode() {
+            return (ReturnStatement) syntax.statementNode(returnStatement);
+        }
+    }
+
+    private final class VariableDeclarationFrame implements Frame {
+        private final int variableDeclaration;
+        private boolean started;
+        private int localId = LocalVariable.NONE;
+
+        VariableDeclarationFrame(int variableDeclaration) {
+            this.variableDeclaration = variableDeclaration;
+        }
+
+        @Override
+        public void resume() {
+            if (!started) {
+                started = true;
+                if (symbols.lookupVariable(syntax.symbol(variableDeclaration)) != null) {
+                    errors.add(new DuplicateVariableNameError(variableDeclarationNode(), lineMap));
+                    completeStatement(builder.analyzedVariableDeclaration(variableDeclaration, localId, NONE));
+                    return;
+                }
+
+                if (syntax.type(variableDeclaration) == Type.VOID) {
+                    errors.add(new VoidVariableError(variableDeclarationNode(), lineMap));
+                    completeStatement(builder.analyzedVariableDeclaration(variableDeclaration, localId, NONE));
+                    return;
+                }
+
+                localId = declare(variableDeclaration);
+
+                int initialValue = syntax.value(variableDeclaration);
+                if (initialValue != NONE) {
+                    visitExpression(initialValue);
+                    return;
+                }
+                completeStatement(builder.analyzedVariableDeclaration(variableDeclaration, localId, NONE));
+                return;
+            }
+
+            var analyzedInitialValue = lastExpression;
+            Type valueType = analyzed.resultType(analyzedInitialValue);
+            if (valueType != Type.ERROR && syntax.type(variableDeclaration) != valueType) {
+                errors.add(new TypeMismatchError(variableDeclarationNode(), valueType, lineMap));
+            }
+            completeStatement(builder.analyzedVariableDeclaration(variableDeclaration, localId, analyzedInitialValue));
+        }
+
+        private VariableDeclaration variableDeclarationNode() {
+            return (VariableDeclaration) syntax.statementNode(variableDeclaration);
+        }
+    }
+
+    private final class AssignmentFrame implements Frame {
+        private final int assignment;
+        private boolean started;
+        private VariableSymbol target;
+
+        AssignmentFrame(int assignment) {
+            this.assignment = assignment;
+        }
+
+        @Override
+        public void resume() {
+            if (!started) {
+                started = true;
+                target = symbols.lookupVariable(syntax.symbol(assignment));
+                if (target == null) {
+                    errors.add(new UndefinedVariableError((Assignment) syntax.statementNode(assignment), lineMap));
+                }
+                visitExpression(syntax.value(assignment));
+                return;
+            }
+
+            var analyzedValue = lastExpression;
+            Type valueType = analyzed.resultType(analyzedValue);
+            if (target != null && valueType != Type.ERROR && target.type() != valueType) {
+                errors.add(new TypeMismatchError((Assignment) syntax.statementNode(assignment), target.type(), valueType, lineMap));
+            }
+            int localId = target == null ? LocalVariable.NONE : target.localId();
+            completeStatement(builder.analyzedAssignment(assignment, localId, analyzedValue));
+        }
+    }
+
+    private final class UnaryOperationFrame implements Frame {
+        private final int unaryOperation;
+        private boolean started;
+
+        UnaryOperationFrame(int unaryOperation) {
+            this.unaryOperation = unaryOperation;
+        }
+
+        @Override
+        public void resume() {
+            if (!started) {
+                started = true;
+                visitExpression(syntax.operand(unaryOperation));
+                return;
+            }
+            completeExpression(finishUnaryOperation(unaryOperation, lastExpression));
+        }
+    }
+
+    private final class BinaryOperationFrame implements Frame {
+        private final int binaryOperation;
+        private int step;
+        private int analyzedLeft;
+
+        BinaryOperationFrame(int binaryOperation) {
+            this.binaryOperation = binaryOperation;
+        }
+
+        @Override
+        public void resume() {
+            switch (step++) {
+                case 0 -> visitExpression(syntax.left(binaryOperation));
+                case 1 -> {
+                    analyzedLeft = lastExpression;
+                    visitExpression(syntax.right(binaryOperation));
+                }
+                default -> completeExpression(finishBinaryOperation(binaryOperation, analyzedLeft, lastExpression));
+            }
+        }
+    }
+
+    private final class FunctionCallFrame implements Frame {
+        private final int functionCall;
+        private FunctionSymbol target;
+        private int[] analyzedArguments;
+        private int next = -1;
+
+        FunctionCallFrame(int functionCall) {
+            this.functionCall = functionCall;
+        }
+
+        @Override
+        public void resume() {
+            if (next == -1) {
+                target = symbols.lookupFunction(syntax.symbol(functionCall));
+                if (target == null) {
+                    errors.add(new UndefinedFunctionError((FunctionCall) syntax.expressionNode(functionCall), lineMap));
+                    completeExpression(builder.analyzedFunctionCall(functionCall, new int[0], 0, 0, Type.ERROR));
+                    return;
+                }
+                analyzedArguments = new int[syntax.argumentCount(functionCall)];
+                next = 0;
+            } else {
+                analyzedArguments[next++] = lastExpression;
+            }
+
+            if (next < analyzedArguments.length) {
+                visitExpression(syntax.argument(functionCall, next));
+                return;
+            }
+            completeExpression(finishFunctionCall(functionCall, target, analyzedArguments));
+        }
+    }
+
+    private void checkCondition(int statement, int analyzedCondition) {
+        Type conditionType = analyzed.resultType(analyzedCondition);
+        if (conditionType != Type.ERROR && conditionType != Type.BOOL) {
+            errors.add(switch (syntax.statementNode(statement)) {
+                case IfStatement      ifStatement      -> new InvalidConditionError(ifStatement, lineMap);
+                case WhileStatement   whileStatement   -> new InvalidConditionError(whileStatement, lineMap);
+                case DoWhileStatement doWhileStatement -> new InvalidConditionError(doWhileStatement, lineMap);
+                case ForStatement     forStatement     -> new InvalidConditionError(forStatement, lineMap);
+                default -> throw new IllegalArgumentException("Statement has no condition: " + syntax.kind(statement));
+            });
+        }
+    }
+
+    /**
+     * Conditions are folded during analysis, so this also catches constant expressions like 1 < 2
+     */
+    private boolean isTrueConstant(int condition) {
+        return analyzed.isConstant(condition) && analyzed.resultType(condition) == Type.BOOL && analyzed.constant(condition) != 0;
+    }
+
+    /**
+     * Adds a parameter or variable declaration as the function's next local, and binds its name
+     * @return The new local's id
+     */
+    private int declare(int node) {
+        var localVariable = new LocalVariable(nextLocalVariableId, syntax.name(node), syntax.symbol(node), syntax.type(node));
+        localVariables.add(localVariable);
+        symbols.addVariable(new VariableSymbol(localVariable.name(), localVariable.symbol(), localVariable.type(), localVariable.id()));
+        return nextLocalVariableId++;
+    }
+}
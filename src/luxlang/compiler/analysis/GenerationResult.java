@@ -0,0 +1,19 @@
+package luxlang.compiler.analysis;
+
+import luxlang.compiler.analysis.errors.AnalysisError;
+import luxlang.compiler.ir.objects.IRModule;
+
+import java.util.List;
+
+public sealed interface GenerationResult permits GenerationResult.Failure, GenerationResult.Success {
+    record Success(IRModule irModule) implements GenerationResult { }
+    record Failure(List<AnalysisError> errors) implements GenerationResult { }
+
+    static GenerationResult success(IRModule irModule) {
+        return new GenerationResult.Success(irModule);
+    }
+
+    static GenerationResult failure(List<AnalysisError> errors) {
+        return new GenerationResult.Failure(errors);
+    }
+}
@@ -0,0 +1,110 @@
+package luxlang.compiler.analysis.callgraph;
+
+import java.io.Serial;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntFunction;
+
+/**
+ * Runs per-function work over a {@link CallGraph} so every function's callees are done before it
+ * starts. Each strongly connected component is one task whose functions run one after another in
+ * index order; a component is released once all the components it calls into have finished, so
+ * unrelated parts of the graph run at the same time.
+ */
+public final class BottomUpScheduler {
+    private BottomUpScheduler() { }
+
+    /**
+     * Runs in the common pool
+     * @see #run(CallGraph, ForkJoinPool, IntFunction)
+     */
+    public static <R> List<R> run(CallGraph callGraph, IntFunction<R> work) {
+        return run(callGraph, ForkJoinPool.commonPool(), work);
+    }
+
+    /**
+     * @param work Called once per function index; it may read whatever its callees' calls
+     * produced, since those happen before it. Functions in the same component only see the ones
+     * with a lower index.
+     * @return The work's results in function index order
+     */
+    public static <R> List<R> run(CallGraph callGraph, ForkJoinPool pool, IntFunction<R> work) {
+        Object[] results = new Object[callGraph.functionCount()];
+        if (callGraph.componentCount() > 0) {
+            pool.invoke(new Root(callGraph, work, results));
+        }
+        @SuppressWarnings("unchecked")
+        List<R> ordered = (List<R>) Arrays.asList(results);
+        return ordered;
+    }
+
+    private static final class Root extends CountedCompleter<Void> {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final transient CallGraph callGraph;
+        private final transient IntFunction<?> work;
+        private final transient Object[] results;
+        // How many callee components each component is still waiting for
+        private final transient AtomicIntegerArray waiting;
+
+        Root(CallGraph callGraph, IntFunction<?> work, Object[] results) {
+            this.callGraph = callGraph;
+            this.work = work;
+            this.results = results;
+            this.waiting = new AtomicIntegerArray(callGraph.componentCount());
+            for (int component = 0; component < callGraph.componentCount(); component++) {
+                waiting.set(component, callGraph.componentCalleeCount(component));
+            }
+        }
+
+        @Override
+        public void compute() {
+            // Tasks forked here already count down the waiting callers, so reading those counts
+            // could release a caller a second time. Start from the components that call nothing.
+            for (int component = 0; component < callGraph.componentCount(); component++) {
+                if (callGraph.componentCalleeCount(component) == 0) {
+                    release(component);
+                }
+            }
+            tryComplete();
+        }
+
+        private void release(int component) {
+            addToPendingCount(1);
+            new ComponentTask(this, component).fork();
+        }
+    }
+
+    private static final class ComponentTask extends CountedCompleter<Void> {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final transient Root root;
+        private final int component;
+
+        ComponentTask(Root root, int component) {
+            super(root);
+            this.root = root;
+            this.component = component;
+        }
+
+        @Override
+        public void compute() {
+            for (int function : root.callGraph.members(component)) {
+                root.results[function] = root.work.apply(function);
+            }
+            // Released callers are counted on the root before this task completes, so the root
+            // can't finish while any of them is still outstanding
+            for (int caller : root.callGraph.componentCallers(component)) {
+                if (root.waiting.decrementAndGet(caller) == 0) {
+                    root.release(caller);
+                }
+            }
+            tryComplete();
+        }
+    }
+}
@@ -0,0 +1,332 @@
+package luxlang.compiler.analysis.callgraph;
+
+import luxlang.compiler.analysis.nodes.AnalyzedFunctionDeclaration;
+import luxlang.compiler.analysis.nodes.expressions.*;
+import luxlang.compiler.analysis.nodes.statements.*;
+import luxlang.compiler.util.IntMap;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Which functions of a program call which, and the graph's strongly connected components. A
+ * function is identified by its index in the program's function declarations.
+ * Components are numbered bottom up: every component a component calls into has a lower number,
+ * so walking them in order visits callees before their callers.
+ */
+public final class CallGraph {
+    private final int functionCount;
+
+    // Adjacency lists packed into one array, function f's entries at [starts[f], starts[f + 1])
+    private final int[] calleeStarts;
+    private final int[] callees;
+
+    private final int[] componentOf;
+    private final int componentCount;
+    private final int[] memberStarts;
+    private final int[] members;
+    private final int[] componentCalleeStarts;
+    private final int[] componentCallees;
+    private final int[] componentCallerStarts;
+    private final int[] componentCallers;
+    private final boolean[] recursive;
+
+    private CallGraph(int[] calleeStarts, int[] callees) {
+        this.functionCount = calleeStarts.length - 1;
+        this.calleeStarts = calleeStarts;
+        this.callees = callees;
+
+        this.componentOf = new int[functionCount];
+        this.componentCount = findComponents();
+
+        this.memberStarts = new int[componentCount + 1];
+        for (int function = 0; function < functionCount; function++) {
+            memberStarts[componentOf[function] + 1]++;
+        }
+        prefixSum(memberStarts);
+        this.members = new int[functionCount];
+        int[] memberCursors = Arrays.copyOf(memberStarts, componentCount);
+        for (int function = 0; function < functionCount; function++) {
+            members[memberCursors[componentOf[function]]++] = function;
+        }
+
+        // Condense call edges between components, dropping duplicates and edges within a component
+        this.recursive = new boolean[componentCount];
+        int[] lastSeenFrom = new int[componentCount];
+        Arrays.fill(lastSeenFrom, -1);
+        this.componentCalleeStarts = new int[componentCount + 1];
+        int[] condensed = new int[callees.length];
+        int condensedCount = 0;
+        for (int component = 0; component < componentCount; component++) {
+            componentCalleeStarts[component] = condensedCount;
+            recursive[component] = memberStarts[component + 1] - memberStarts[component] > 1;
+            for (int member = memberStarts[component]; member < memberStarts[component + 1]; member++) {
+                int function = members[member];
+                for (int edge = calleeStarts[function]; edge < calleeStarts[function + 1]; edge++) {
+                    int calleeComponent = componentOf[callees[edge]];
+                    if (calleeComponent == component) {
+                        recursive[component] = true;
+                    } else if (lastSeenFrom[calleeComponent] != component) {
+                        lastSeenFrom[calleeComponent] = component;
+                        condensed[condensedCount++] = calleeComponent;
+                    }
+                }
+            }
+        }
+        componentCalleeStarts[componentCount] = condensedCount;
+        this.componentCallees = Arrays.copyOf(condensed, condensedCount);
+
+        this.componentCallerStarts = new int[componentCount + 1];
+        for (int calleeComponent : componentCallees) {
+            componentCallerStarts[calleeComponent + 1]++;
+        }
+        prefixSum(componentCallerStarts);
+        this.componentCallers = new int[condensedCount];
+        int[] callerCursors = Arrays.copyOf(componentCallerStarts, componentCount);
+        for (int component = 0; component < componentCount; component++) {
+            for (int edge = componentCalleeStarts[component]; edge < componentCalleeStarts[component + 1]; edge++) {
+                componentCallers[callerCursors[componentCallees[edge]]++] = component;
+            }
+        }
+    }
+
+    /**
+     * Collects the call sites of every function in the program. The program must have passed
+     * analysis, so every call resolves to exactly one function.
+     */
+    public static CallGraph of(List<AnalyzedFunctionDeclaration> functions) {
+        IntMap<Integer> indexBySymbol = new IntMap<>();
+        for (int index = 0; index < functions.size(); index++) {
+            indexBySymbol.put(functions.get(index).symbol(), index);
+        }
+
+        var collector = new CallCollector(indexBySymbol, functions.size());
+        int[] calleeStarts = new int[functions.size() + 1];
+        for (int index = 0; index < functions.size(); index++) {
+            calleeStarts[index] = collector.size;
+            collector.startFunction(index);
+            collector.collect(functions.get(index).body());
+        }
+        calleeStarts[functions.size()] = collector.size;
+        return new CallGraph(calleeStarts, Arrays.copyOf(collector.callees, collector.size));
+    }
+
+    public int functionCount() {
+        return functionCount;
+    }
+
+    /**
+     * @return The distinct functions the function calls, in order of their first call
+     */
+    public int[] callees(int function) {
+        return Arrays.copyOfRange(callees, calleeStarts[function], calleeStarts[function + 1]);
+    }
+
+    public int componentCount() {
+        return componentCount;
+    }
+
+    public int component(int function) {
+        return componentOf[function];
+    }
+
+    /**
+     * @return The component's functions in ascending order
+     */
+    public int[] members(int component) {
+        return Arrays.copyOfRange(members, memberStarts[component], memberStarts[component + 1]);
+    }
+
+    /**
+     * @return The other components the component's functions call, all numbered lower than it
+     */
+    public int[] componentCallees(int component) {
+        return Arrays.copyOfRange(componentCallees, componentCalleeStarts[component], componentCalleeStarts[component + 1]);
+    }
+
+    /**
+     * @return The other components whose functions call into the component
+     */
+    public int[] componentCallers(int component) {
+        return Arrays.copyOfRange(componentCallers, componentCallerStarts[component], componentCallerStarts[component + 1]);
+    }
+
+    /**
+     * @return Whether a function in the component can reach itself through calls
+     */
+    public boolean isRecursive(int component) {
+        return recursive[component];
+    }
+
+    int componentCalleeCount(int component) {
+        return componentCalleeStarts[component + 1] - componentCalleeStarts[component];
+    }
+
+    /**
+     * Tarjan's algorithm with an explicit stack, so long call chains can't overflow the Java one.
+     * It finishes a component only after every component reachable from it, which is what makes
+     * the numbering bottom up.
+     */
+    private int findComponents() {
+        int[] order = new int[functionCount];
+        int[] lowLink = new int[functionCount];
+        boolean[] onStack = new boolean[functionCount];
+        int[] stack = new int[functionCount];
+        int[] path = new int[functionCount];
+        int[] nextEdge = new int[functionCount];
+        Arrays.fill(order, -1);
+        int stackSize = 0;
+        int nextOrder = 0;
+        int components = 0;
+
+        for (int root = 0; root < functionCount; root++) {
+            if (order[root] != -1) {
+                continue;
+            }
+            int depth = 0;
+            order[root] = lowLink[root] = nextOrder++;
+            stack[stackSize++] = root;
+            onStack[root] = true;
+            nextEdge[root] = calleeStarts[root];
+            path[depth++] = root;
+
+            while (depth > 0) {
+                int function = path[depth - 1];
+                if (nextEdge[function] < calleeStarts[function + 1]) {
+                    int callee = callees[nextEdge[function]++];
+                    if (order[callee] == -1) {
+                        order[callee] = lowLink[callee] = nextOrder++;
+                        stack[stackSize++] = callee;
+                        onStack[callee] = true;
+                        nextEdge[callee] = calleeStarts[callee];
+                        path[depth++] = callee;
+                    } else if (onStack[callee]) {
+                        lowLink[function] = Math.min(lowLink[function], order[callee]);
+                    }
+                    continue;
+                }
+
+                depth--;
+                if (depth > 0) {
+                    int caller = path[depth - 1];
+                    lowLink[caller] = Math.min(lowLink[caller], lowLink[function]);
+                }
+                if (lowLink[function] == order[function]) {
+                    int member;
+                    do {
+                        member = stack[--stackSize];
+                        onStack[member] = false;
+                        componentOf[member] = components;
+                    } while (member != function);
+                    components++;
+                }
+            }
+        }
+        return components;
+    }
+
+    private static void prefixSum(int[] counts) {
+        for (int index = 1; index < counts.length; index++) {
+            counts[index] += counts[index - 1];
+        }
+    }
+
+    private static final class CallCollector {
+        private final IntMap<Integer> indexBySymbol;
+        // Which function last recorded each callee, to record every callee once per caller
+        private final int[] lastCaller;
+        private int[] callees;
+        private int size;
+        private int caller;
+        // Statements and expressions still to visit
+        private final ArrayDeque<Object> pending;
+
+        CallCollector(IntMap<Integer> indexBySymbol, int functionCount) {
+            this.indexBySymbol = indexBySymbol;
+            this.lastCaller = new int[functionCount];
+            Arrays.fill(lastCaller, -1);
+            this.callees = new int[Math.max(16, functionCount)];
+            this.size = 0;
+            this.pending = new ArrayDeque<>();
+        }
+
+        void startFunction(int function) {
+            caller = function;
+        }
+
+        /**
+         * Walks the body in preorder with its own stack of pending nodes, pushing children last
+         * first, so calls are recorded in source order however deeply the body nests
+         */
+        void collect(AnalyzedStatement body) {
+            pending.push(body);
+            while (!pending.isEmpty()) {
+                switch (pending.pop()) {
+                    case AnalyzedStatement statement -> pushChildren(statement);
+                    case AnalyzedExpression expression -> pushChildren(expression);
+                    default -> throw new IllegalStateException();
+                }
+            }
+        }
+
+        private void pushChildren(AnalyzedStatement statement) {
+            switch (statement) {
+                case AnalyzedCodeBlock codeBlock -> {
+                    for (int index = codeBlock.statements().size() - 1; index >= 0; index--) {
+                        pending.push(codeBlock.statements().get(index));
+                    }
+                }
+                case AnalyzedIfStatement ifStatement -> {
+                    ifStatement.elseBody().ifPresent(pending::push);
+                    pending.push(ifStatement.body());
+                    pending.push(ifStatement.condition());
+                }
+                case AnalyzedWhileStatement whileStatement -> {
+                    pending.push(whileStatement.body());
+                    pending.push(whileStatement.condition());
+                }
+                case AnalyzedDoWhileStatement doWhileStatement -> {
+                    pending.push(doWhileStatement.condition());
+                    pending.push(doWhileStatement.body());
+                }
+                case AnalyzedForStatement forStatement -> {
+                    pending.push(forStatement.body());
+                    forStatement.update().ifPresent(pending::push);
+                    forStatement.condition().ifPresent(pending::push);
+                    forStatement.initializer().ifPresent(pending::push);
+                }
+                case AnalyzedReturnStatement returnStatement -> returnStatement.value().ifPresent(pending::push);
+                case AnalyzedVariableDeclaration variableDeclaration -> variableDeclaration.initialValue().ifPresent(pending::push);
+                case AnalyzedAssignment assignment -> pending.push(assignment.value());
+            }
+        }
+
+        private void pushChildren(AnalyzedExpression expression) {
+            switch (expression) {
+                case AnalyzedFunctionCall functionCall -> {
+                    Integer callee = indexBySymbol.get(functionCall.symbol());
+                    if (callee != null && lastCaller[callee] != caller) {
+                        lastCaller[callee] = caller;
+                        if (size == callees.length) {
+                            callees = Arrays.copyOf(callees, size * 2);
+                        }
+                        callees[size++] = callee;
+                    }
+                    for (int index = functionCall.arguments().size() - 1; index >= 0; index--) {
+                        pending.push(functionCall.arguments().get(index));
+                    }
+                }
+                case AnalyzedBinaryOperation binaryOperation -> {
+                    pending.push(binaryOperation.right());
+                    pending.push(binaryOperation.left());
+                }
+                case AnalyzedUnaryOperation unaryOperation -> pending.push(unaryOperation.operand());
+                case AnalyzedVariableExpression ignored -> { }
+                case AnalyzedIntegerLiteral ignored -> { }
+                case AnalyzedFloatingPointLiteral ignored -> { }
+                case AnalyzedBooleanLiteral ignored -> { }
+            }
+        }
+    }
+}
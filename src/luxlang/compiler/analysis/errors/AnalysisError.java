@@ -1,23 +1,24 @@
 package luxlang.compiler.analysis.errors;
 
 import luxlang.compiler.errors.SourceCodeError;
-import luxlang.compiler.lexer.objects.Token;
+import luxlang.compiler.lexer.objects.LineMap;
+import luxlang.compiler.lexer.objects.SourceSpan;
 
 public interface AnalysisError extends SourceCodeError {
     @Override
     String reason();
 
-    Token startToken();
+    long span();
 
-    Token endToken();
+    LineMap lineMap();
 
     @Override
     default int line() {
-        return startToken().line();
+        return lineMap().line(SourceSpan.start(span()));
     }
 
     @Override
     default int column() {
-        return startToken().column();
+        return lineMap().column(SourceSpan.start(span()));
     }
 }
@@ -1,7 +1,7 @@
 package luxlang.compiler.analysis.errors;
 
 import luxlang.compiler.analysis.objects.FunctionSymbol;
-import luxlang.compiler.lexer.objects.Token;
+import luxlang.compiler.lexer.objects.LineMap;
 import luxlang.compiler.parser.nodes.Type;
 import luxlang.compiler.parser.nodes.expressions.FunctionCall;
 
@@ -11,8 +11,8 @@ import static luxlang.compiler.util.StringUtils.typeListAsString;
 
 public record ArgumentTypeMismatchError(
         String reason,
-        Token startToken,
-        Token endToken
+        long span,
+        LineMap lineMap
 ) implements AnalysisError {
     private static final String REASON_TEMPLATE = """
                 Argument type mismatch for function '%s'
@@ -20,7 +20,7 @@ public record ArgumentTypeMismatchError(
                 Actual  : %s(%s)
                 """;
 
-    public ArgumentTypeMismatchError(FunctionCall functionCall, List<Type> argumentTypes, FunctionSymbol target) {
+    public ArgumentTypeMismatchError(FunctionCall functionCall, List<Type> argumentTypes, FunctionSymbol target, LineMap lineMap) {
         this(
             REASON_TEMPLATE.formatted(
                     functionCall.name(),
@@ -28,8 +28,8 @@ public record ArgumentTypeMismatchError(
                     functionCall.name(),
                     typeListAsString(argumentTypes)
             ),
-            functionCall.sourceInfo().firstToken(),
-            functionCall.sourceInfo().lastToken()
+            functionCall.span(),
+            lineMap
         );
     }
 
@@ -1,16 +1,16 @@
 package luxlang.compiler.analysis.errors;
 
-import luxlang.compiler.lexer.objects.Token;
+import luxlang.compiler.lexer.objects.LineMap;
 import luxlang.compiler.parser.nodes.FunctionDeclaration;
 
 public record DuplicateFunctionNameError(
     String reason,
-    Token startToken,
-    Token endToken
+    long span,
+    LineMap lineMap
 ) implements AnalysisError {
     private static final String REASON_TEMPLATE = "Function with name '%s' conflicts with another function in scope";
 
-    public DuplicateFunctionNameError(FunctionDeclaration function) {
-        this(REASON_TEMPLATE.formatted(function.name()), function.sourceInfo().firstToken(), function.sourceInfo().lastToken());
+    public DuplicateFunctionNameError(FunctionDeclaration function, LineMap lineMap) {
+        this(REASON_TEMPLATE.formatted(function.name()), function.span(), lineMap);
     }
 }
@@ -1,30 +1,30 @@
 package luxlang.compiler.analysis.errors;
 
-import luxlang.compiler.lexer.objects.Token;
+import luxlang.compiler.lexer.objects.LineMap;
 import luxlang.compiler.parser.nodes.Parameter;
 import luxlang.compiler.parser.nodes.statements.VariableDeclaration;
 
 public record DuplicateVariableNameError(
         String reason,
-        Token startToken,
-        Token endToken
+        long span,
+        LineMap lineMap
 ) implements AnalysisError {
     private static final String REASON_TEMPLATE_VARIABLE = "Variable with name '%s' conflicts with another variable in scope";
     private static final String REASON_TEMPLATE_PARAMETER = "Parameter with name '%s' conflicts with another variable in scope";
 
-    public DuplicateVariableNameError(Parameter parameter) {
+    public DuplicateVariableNameError(Parameter parameter, LineMap lineMap) {
         this(
             REASON_TEMPLATE_PARAMETER.formatted(parameter.name()),
-            parameter.sourceInfo().firstToken(),
-            parameter.sourceInfo().lastToken()
+            parameter.span(),
+            lineMap
         );
     }
 
-    public DuplicateVariableNameError(VariableDeclaration variable) {
+    public DuplicateVariableNameError(VariableDeclaration variable, LineMap lineMap) {
         this(
             REASON_TEMPLATE_VARIABLE.formatted(variable.name()),
-            variable.sourceInfo().firstToken(),
-            variable.sourceInfo().lastToken()
+            variable.span(),
+            lineMap
         );
     }
 
@@ -1,15 +1,15 @@
 package luxlang.compiler.analysis.errors;
 
-import luxlang.compiler.lexer.objects.Token;
+import luxlang.compiler.lexer.objects.LineMap;
 import luxlang.compiler.parser.nodes.FunctionDeclaration;
 
 public record IndeterminateReturnError(
-    Token startToken,
-    Token endToken
+    long span,
+    LineMap lineMap
 ) implements AnalysisError {
 
-    public IndeterminateReturnError(FunctionDeclaration functionDeclaration) {
-        this(functionDeclaration.sourceInfo().firstToken(), functionDeclaration.sourceInfo().lastToken());
+    public IndeterminateReturnError(FunctionDeclaration functionDeclaration, LineMap lineMap) {
+        this(functionDeclaration.span(), lineMap);
     }
 
     @Override
@@ -1,6 +1,6 @@
 package luxlang.compiler.analysis.errors;
 
-import luxlang.compiler.lexer.objects.Token;
+import luxlang.compiler.lexer.objects.LineMap;
 import luxlang.compiler.parser.nodes.statements.DoWhileStatement;
 import luxlang.compiler.parser.nodes.statements.ForStatement;
 import luxlang.compiler.parser.nodes.statements.IfStatement;
@@ -8,43 +8,43 @@ import luxlang.compiler.parser.nodes.statements.WhileStatement;
 
 public record InvalidConditionError(
     String reason,
-    Token startToken,
-    Token endToken
+    long span,
+    LineMap lineMap
 ) implements AnalysisError {
     private static final String REASON_TEMPLATE_FOR = "For loop contains non-boolean condition";
     private static final String REASON_TEMPLATE_WHILE = "While loop contains non-boolean condition";
     private static final String REASON_TEMPLATE_DO_WHILE = "Do-while loop contains non-boolean condition";
     private static final String REASON_TEMPLATE_IF = "If statement contains non-boolean condition";
 
-    public InvalidConditionError(ForStatement forStatement) {
+    public InvalidConditionError(ForStatement forStatement, LineMap lineMap) {
         this(
             REASON_TEMPLATE_FOR,
-            forStatement.sourceInfo().firstToken(),
-            forStatement.sourceInfo().lastToken()
+            forStatement.span(),
+            lineMap
         );
     }
 
-    public InvalidConditionError(WhileStatement whileStatement) {
+    public InvalidConditionError(WhileStatement whileStatement, LineMap lineMap) {
         this(
             REASON_TEMPLATE_WHILE,
-            whileStatement.sourceInfo().firstToken(),
-            whileStatement.sourceInfo().lastToken()
+            whileStatement.span(),
+            lineMap
         );
     }
 
-    public InvalidConditionError(DoWhileStatement doWhileStatement) {
+    public InvalidConditionError(DoWhileStatement doWhileStatement, LineMap lineMap) {
         this(
             REASON_TEMPLATE_DO_WHILE,
-            doWhileStatement.sourceInfo().firstToken(),
-            doWhileStatement.sourceInfo().lastToken()
+            doWhileStatement.span(),
+            lineMap
         );
     }
 
-    public InvalidConditionError(IfStatement ifStatement) {
+    public InvalidConditionError(IfStatement ifStatement, LineMap lineMap) {
         this(
             REASON_TEMPLATE_IF,
-            ifStatement.sourceInfo().firstToken(),
-            ifStatement.sourceInfo().lastToken()
+            ifStatement.span(),
+            lineMap
         );
     }
 
@@ -1,41 +1,40 @@
 package luxlang.compiler.analysis.errors;
 
-import luxlang.compiler.lexer.objects.Token;
+import luxlang.compiler.lexer.objects.LineMap;
 import luxlang.compiler.parser.nodes.Type;
 import luxlang.compiler.parser.nodes.expressions.BinaryOperation;
 import luxlang.compiler.parser.nodes.expressions.BinaryOperation.BinaryOperationType;
 import luxlang.compiler.parser.nodes.expressions.UnaryOperation;
-import luxlang.compiler.parser.objects.SourceInfo;
 
 public record InvalidOperationError(
     String reason,
-    Token startToken,
-    Token endToken
+    long span,
+    LineMap lineMap
 ) implements AnalysisError {
     private static final String REASON_TEMPLATE_UNARY = "Unary operation '%s' is not allowed on operand of type '%s'";
     private static final String REASON_TEMPLATE_BINARY = "Binary operation '%s' is not allowed between operands of type '%s' and '%s'";
 
-    public InvalidOperationError(UnaryOperation unaryOperation, Type operandType) {
+    public InvalidOperationError(UnaryOperation unaryOperation, Type operandType, LineMap lineMap) {
         this(
             REASON_TEMPLATE_UNARY.formatted(unaryOperation.operation().lexeme(), operandType.lexeme()),
-            unaryOperation.sourceInfo().firstToken(),
-            unaryOperation.sourceInfo().lastToken()
+            unaryOperation.span(),
+            lineMap
         );
     }
 
-    public InvalidOperationError(BinaryOperation binaryOperation, Type leftType, Type rightType) {
+    public InvalidOperationError(BinaryOperation binaryOperation, Type leftType, Type rightType, LineMap lineMap) {
         this(
             REASON_TEMPLATE_BINARY.formatted(binaryOperation.operation().lexeme(), leftType.lexeme(), rightType.lexeme()),
-            binaryOperation.sourceInfo().firstToken(),
-            binaryOperation.sourceInfo().lastToken()
+            binaryOperation.span(),
+            lineMap
         );
     }
 
-    public InvalidOperationError(BinaryOperationType operationType, Type leftType, Type rightType, SourceInfo sourceInfo) {
+    public InvalidOperationError(BinaryOperationType operationType, Type leftType, Type rightType, long span, LineMap lineMap) {
         this(
             REASON_TEMPLATE_BINARY.formatted(operationType.lexeme(), leftType.lexeme(), rightType.lexeme()),
-            sourceInfo.firstToken(),
-            sourceInfo.lastToken()
+            span,
+            lineMap
         );
     }
 }
@@ -1,30 +1,30 @@
 package luxlang.compiler.analysis.errors;
 
-import luxlang.compiler.lexer.objects.Token;
+import luxlang.compiler.lexer.objects.LineMap;
 import luxlang.compiler.parser.nodes.Type;
 import luxlang.compiler.parser.nodes.expressions.FloatingPointLiteral;
 import luxlang.compiler.parser.nodes.expressions.IntegerLiteral;
 
 public record LiteralOverflowError(
     String reason,
-    Token startToken,
-    Token endToken
+    long span,
+    LineMap lineMap
 ) implements AnalysisError {
     private static final String REASON_TEMPLATE = "Value does not fit in '%s' data type";
 
-    public LiteralOverflowError(IntegerLiteral literal, Type dataType) {
+    public LiteralOverflowError(IntegerLiteral literal, Type dataType, LineMap lineMap) {
         this(
             REASON_TEMPLATE.formatted(dataType.lexeme()),
-            literal.sourceInfo().firstToken(),
-            literal.sourceInfo().lastToken()
+            literal.span(),
+            lineMap
         );
     }
 
-    public LiteralOverflowError(FloatingPointLiteral literal, Type dataType) {
+    public LiteralOverflowError(FloatingPointLiteral literal, Type dataType, LineMap lineMap) {
         this(
             REASON_TEMPLATE.formatted(dataType.lexeme()),
-            literal.sourceInfo().firstToken(),
-            literal.sourceInfo().lastToken()
+            literal.span(),
+            lineMap
         );
     }
 
@@ -1,20 +1,20 @@
 package luxlang.compiler.analysis.errors;
 
-import luxlang.compiler.lexer.objects.Token;
+import luxlang.compiler.lexer.objects.LineMap;
 import luxlang.compiler.parser.nodes.statements.ReturnStatement;
 
 public record ReturnMissingValueError(
         String reason,
-        Token startToken,
-        Token endToken
+        long span,
+        LineMap lineMap
 ) implements AnalysisError {
     private static final String REASON_TEMPLATE = "Return value expected";
 
-    public ReturnMissingValueError(ReturnStatement returnStatement) {
+    public ReturnMissingValueError(ReturnStatement returnStatement, LineMap lineMap) {
         this(
             REASON_TEMPLATE,
-            returnStatement.sourceInfo().firstToken(),
-            returnStatement.sourceInfo().lastToken()
+            returnStatement.span(),
+            lineMap
         );
     }
 
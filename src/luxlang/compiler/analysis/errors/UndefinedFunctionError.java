@@ -1,20 +1,20 @@
 package luxlang.compiler.analysis.errors;
 
-import luxlang.compiler.lexer.objects.Token;
+import luxlang.compiler.lexer.objects.LineMap;
 import luxlang.compiler.parser.nodes.expressions.FunctionCall;
 
 public record UndefinedFunctionError(
         String reason,
-        Token startToken,
-        Token endToken
+        long span,
+        LineMap lineMap
 ) implements AnalysisError {
     private static final String REASON_TEMPLATE = "Function with name '%s' is not defined in scope";
 
-    public UndefinedFunctionError(FunctionCall functionCall) {
+    public UndefinedFunctionError(FunctionCall functionCall, LineMap lineMap) {
         this(
             REASON_TEMPLATE.formatted(functionCall.name()),
-            functionCall.sourceInfo().firstToken(),
-            functionCall.sourceInfo().lastToken()
+            functionCall.span(),
+            lineMap
         );
     }
 
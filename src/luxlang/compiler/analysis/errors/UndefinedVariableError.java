@@ -1,29 +1,29 @@
 package luxlang.compiler.analysis.errors;
 
-import luxlang.compiler.lexer.objects.Token;
+import luxlang.compiler.lexer.objects.LineMap;
 import luxlang.compiler.parser.nodes.expressions.VariableExpression;
 import luxlang.compiler.parser.nodes.statements.Assignment;
 
 public record UndefinedVariableError(
         String reason,
-        Token startToken,
-        Token endToken
+        long span,
+        LineMap lineMap
 ) implements AnalysisError {
     private static final String REASON_TEMPLATE = "Variable with name '%s' is not defined in scope";
 
-    public UndefinedVariableError(VariableExpression variable) {
+    public UndefinedVariableError(VariableExpression variable, LineMap lineMap) {
         this(
             REASON_TEMPLATE.formatted(variable.name()),
-            variable.sourceInfo().firstToken(),
-            variable.sourceInfo().lastToken()
+            variable.span(),
+            lineMap
         );
     }
 
-    public UndefinedVariableError(Assignment assignment) {
+    public UndefinedVariableError(Assignment assignment, LineMap lineMap) {
         this(
             REASON_TEMPLATE.formatted(assignment.variableName()),
-            assignment.sourceInfo().firstToken(),
-            assignment.sourceInfo().lastToken()
+            assignment.span(),
+            lineMap
         );
     }
 
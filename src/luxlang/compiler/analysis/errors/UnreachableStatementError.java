@@ -1,14 +1,14 @@
 package luxlang.compiler.analysis.errors;
 
-import luxlang.compiler.lexer.objects.Token;
+import luxlang.compiler.lexer.objects.LineMap;
 import luxlang.compiler.parser.nodes.statements.Statement;
 
 public record UnreachableStatementError(
-    Token startToken,
-    Token endToken
+    long span,
+    LineMap lineMap
 ) implements AnalysisError {
-    public UnreachableStatementError(Statement statement) {
-        this(statement.sourceInfo().firstToken(), statement.sourceInfo().lastToken());
+    public UnreachableStatementError(Statement statement, LineMap lineMap) {
+        this(statement.span(), lineMap);
     }
 
     @Override
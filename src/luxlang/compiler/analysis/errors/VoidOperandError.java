@@ -1,20 +1,19 @@
 package luxlang.compiler.analysis.errors;
 
-import luxlang.compiler.lexer.objects.Token;
-import luxlang.compiler.parser.objects.SourceInfo;
+import luxlang.compiler.lexer.objects.LineMap;
 
 public record VoidOperandError(
     String reason,
-    Token startToken,
-    Token endToken
+    long span,
+    LineMap lineMap
 ) implements AnalysisError {
     private static final String REASON = "Operand has void type";
 
-    public VoidOperandError(SourceInfo sourceInfo) {
+    public VoidOperandError(long span, LineMap lineMap) {
         this(
             REASON,
-            sourceInfo.firstToken(),
-            sourceInfo.lastToken()
+            span,
+            lineMap
         );
     }
 }
\ No newline at end of file
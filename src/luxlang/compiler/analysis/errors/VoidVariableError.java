@@ -1,30 +1,30 @@
 package luxlang.compiler.analysis.errors;
 
-import luxlang.compiler.lexer.objects.Token;
+import luxlang.compiler.lexer.objects.LineMap;
 import luxlang.compiler.parser.nodes.Parameter;
 import luxlang.compiler.parser.nodes.statements.VariableDeclaration;
 
 public record VoidVariableError(
         String reason,
-        Token startToken,
-        Token endToken
+        long span,
+        LineMap lineMap
 ) implements AnalysisError {
     private static final String REASON_TEMPLATE_VARIABLE = "Variable cannot be declared as void type";
     private static final String REASON_TEMPLATE_PARAMETER = "Parameter cannot be declared as void type";
 
-    public VoidVariableError(Parameter parameter) {
+    public VoidVariableError(Parameter parameter, LineMap lineMap) {
         this(
             REASON_TEMPLATE_PARAMETER,
-            parameter.sourceInfo().firstToken(),
-            parameter.sourceInfo().lastToken()
+            parameter.span(),
+            lineMap
         );
     }
 
-    public VoidVariableError(VariableDeclaration variable) {
+    public VoidVariableError(VariableDeclaration variable, LineMap lineMap) {
         this(
             REASON_TEMPLATE_VARIABLE,
-            variable.sourceInfo().firstToken(),
-            variable.sourceInfo().lastToken()
+            variable.span(),
+            lineMap
         );
     }
 
@@ -1,7 +1,6 @@
 package luxlang.compiler.analysis.nodes;
 
 import luxlang.compiler.analysis.nodes.statements.AnalyzedCodeBlock;
-import luxlang.compiler.parser.objects.SourceInfo;
 import luxlang.compiler.parser.nodes.FunctionDeclaration;
 import luxlang.compiler.parser.nodes.Parameter;
 import luxlang.compiler.parser.nodes.Type;
@@ -11,19 +10,21 @@ import java.util.List;
 public record AnalyzedFunctionDeclaration(
     Type returnType,
     String name,
+    int symbol,
     List<Parameter> parameters,
     AnalyzedCodeBlock body,
     List<LocalVariable> localVariables,
-    SourceInfo sourceInfo
+    long span
 ) {
     public static AnalyzedFunctionDeclaration from(FunctionDeclaration functionDeclaration, AnalyzedCodeBlock body, List<LocalVariable> locals) {
         return new AnalyzedFunctionDeclaration(
             functionDeclaration.returnType(),
             functionDeclaration.name(),
+            functionDeclaration.symbol(),
             functionDeclaration.parameters(),
             body,
             locals,
-            functionDeclaration.sourceInfo()
+            functionDeclaration.span()
         );
     }
 }
\ No newline at end of file
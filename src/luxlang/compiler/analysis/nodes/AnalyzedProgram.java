@@ -1,7 +1,10 @@
 package luxlang.compiler.analysis.nodes;
 
+import luxlang.compiler.analysis.callgraph.CallGraph;
+
 import java.util.List;
 
 public record AnalyzedProgram(
-     List<AnalyzedFunctionDeclaration> functionDeclarations
-) { }
\ No newline at end of file
+     List<AnalyzedFunctionDeclaration> functionDeclarations,
+     CallGraph callGraph
+) { }
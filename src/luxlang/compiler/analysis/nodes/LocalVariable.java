@@ -5,6 +5,9 @@ import luxlang.compiler.parser.nodes.Type;
 public record LocalVariable(
     int id,
     String name,
+    int symbol,
     Type type
 ) {
+    // The local id of a variable reference or declaration that failed analysis
+    public static final int NONE = -1;
 }
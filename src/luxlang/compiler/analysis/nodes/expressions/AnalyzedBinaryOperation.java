@@ -7,11 +7,11 @@ import luxlang.compiler.analysis.warnings.AnalysisWarning;
 import luxlang.compiler.analysis.warnings.IntegerPromotionWarning;
 import luxlang.compiler.analysis.warnings.ImplicitConversionWarning;
 import luxlang.compiler.analysis.warnings.SignednessMismatchWarning;
-import luxlang.compiler.parser.objects.SourceInfo;
+import luxlang.compiler.lexer.objects.LineMap;
 import luxlang.compiler.parser.nodes.Type;
 import luxlang.compiler.parser.nodes.expressions.BinaryOperation;
+import luxlang.compiler.parser.nodes.expressions.BinaryOperation.BinaryOperationType;
 
-import java.util.ArrayList;
 import java.util.List;
 
 public record AnalyzedBinaryOperation(
@@ -19,142 +19,150 @@ public record AnalyzedBinaryOperation(
     AnalyzedExpression left,
     AnalyzedExpression right,
     Type resultType,
-    SourceInfo sourceInfo
+    long span
 ) implements AnalyzedExpression {
-    public record TypeAnalysisResult(Type type, List<AnalysisError> errors, List<AnalysisWarning> warnings) { }
-
-    private static TypeAnalysisResult getNumberResultType(Type leftType, Type rightType, SourceInfo sourceInfo) {
-        List<AnalysisError> errors = new ArrayList<>();
-        List<AnalysisWarning> warnings = new ArrayList<>();
-
-        if (leftType.isFloatingPointType() || rightType.isFloatingPointType()) {
-            Type resultType = leftType == Type.DOUBLE || rightType == Type.DOUBLE ? Type.DOUBLE : Type.FLOAT;
-
-            if (leftType != rightType) {
-                warnings.add(new ImplicitConversionWarning(sourceInfo, leftType, rightType));
+    private static final Type[] TYPES = Type.values();
+    private static final BinaryOperationType[] OPERATIONS = BinaryOperationType.values();
+
+    // A typing entry holds the result type's ordinal in its low byte and diagnostic bits above it
+    private static final int RESULT_TYPE_MASK = 0xFF;
+    private static final int VOID_OPERAND = 1 << 8;
+    private static final int INVALID_OPERATION = 1 << 9;
+    private static final int IMPLICIT_CONVERSION = 1 << 10;
+    private static final int SIGNEDNESS_MISMATCH = 1 << 11;
+    private static final int LEFT_PROMOTED = 1 << 12;
+    private static final int RIGHT_PROMOTED = 1 << 13;
+
+    // Indexed by operation, then left type, then right type
+    private static final short[] TYPING = new short[OPERATIONS.length * TYPES.length * TYPES.length];
+
+    static {
+        for (var operation : OPERATIONS) {
+            for (var leftType : TYPES) {
+                for (var rightType : TYPES) {
+                    TYPING[typingIndex(leftType, rightType, operation)] = (short) classify(leftType, rightType, operation);
+                }
             }
-
-            return new TypeAnalysisResult(resultType, errors, warnings);
         }
-        return getIntegerResultType(leftType, rightType, sourceInfo);
     }
 
-    public static TypeAnalysisResult getIntegerResultType(Type leftType, Type rightType, SourceInfo sourceInfo) {
-        List<AnalysisError> errors = new ArrayList<>();
-        List<AnalysisWarning> warnings = new ArrayList<>();
-
-        if (leftType.isSignedNumberType() != rightType.isSignedNumberType()) {
-            warnings.add(new SignednessMismatchWarning(sourceInfo));
-        }
-
-        if (leftType.sizeBytes() == rightType.sizeBytes()) {
-            return new TypeAnalysisResult(leftType, errors, warnings);
-        }
-
-        if (leftType.sizeBytes() < rightType.sizeBytes()) {
-            warnings.add(new IntegerPromotionWarning(sourceInfo, leftType, rightType));
-            return new TypeAnalysisResult(rightType, errors, warnings);
+    /**
+     * Looks up the operation's result type in a precomputed table. Diagnostics are only built, and
+     * added to the given lists, when the operand types actually call for one.
+     * @return The result type, {@link Type#ERROR} if the operation is invalid
+     */
+    public static Type getResultType(
+        Type leftType,
+        Type rightType,
+        BinaryOperationType operation,
+        long span,
+        LineMap lineMap,
+        List<AnalysisError> errors,
+        List<AnalysisWarning> warnings
+    ) {
+        int entry = TYPING[typingIndex(leftType, rightType, operation)];
+        if ((entry & ~RESULT_TYPE_MASK) != 0) {
+            if ((entry & VOID_OPERAND) != 0) {
+                errors.add(new VoidOperandError(span, lineMap));
+            }
+            if ((entry & INVALID_OPERATION) != 0) {
+                errors.add(new InvalidOperationError(operation, leftType, rightType, span, lineMap));
+            }
+            if ((entry & IMPLICIT_CONVERSION) != 0) {
+                warnings.add(new ImplicitConversionWarning(span, lineMap, leftType, rightType));
+            }
+            if ((entry & SIGNEDNESS_MISMATCH) != 0) {
+                warnings.add(new SignednessMismatchWarning(span, lineMap));
+            }
+            if ((entry & LEFT_PROMOTED) != 0) {
+                warnings.add(new IntegerPromotionWarning(span, lineMap, leftType, rightType));
+            }
+            if ((entry & RIGHT_PROMOTED) != 0) {
+                warnings.add(new IntegerPromotionWarning(span, lineMap, rightType, leftType));
+            }
         }
+        return TYPES[entry & RESULT_TYPE_MASK];
+    }
 
-        warnings.add(new IntegerPromotionWarning(sourceInfo, rightType, leftType));
-        return new TypeAnalysisResult(leftType, errors, warnings);
+    /**
+     * @param leftType A number type
+     * @param rightType A number type
+     * @return The type both operands are converted to before arithmetic or comparison
+     */
+    public static Type commonNumberType(Type leftType, Type rightType) {
+        return TYPES[TYPING[typingIndex(leftType, rightType, BinaryOperationType.ADD)] & RESULT_TYPE_MASK];
     }
 
-    public static TypeAnalysisResult getResultType(Type leftType, Type rightType, BinaryOperation.BinaryOperationType operation, SourceInfo sourceInfo) {
-        List<AnalysisError> errors = new ArrayList<>();
-        List<AnalysisWarning> warnings = new ArrayList<>();
+    private static int typingIndex(Type leftType, Type rightType, BinaryOperationType operation) {
+        return (operation.ordinal() * TYPES.length + leftType.ordinal()) * TYPES.length + rightType.ordinal();
+    }
 
+    private static int classify(Type leftType, Type rightType, BinaryOperationType operation) {
         if (leftType == Type.ERROR || rightType == Type.ERROR) {
-            return new TypeAnalysisResult(Type.ERROR, errors, warnings);
+            return Type.ERROR.ordinal();
         }
 
         if (leftType == Type.VOID || rightType == Type.VOID) {
-            errors.add(new VoidOperandError(sourceInfo));
-            return new TypeAnalysisResult(Type.ERROR, errors, warnings);
+            return Type.ERROR.ordinal() | VOID_OPERAND;
         }
 
         if (operation.isLogicalOperation()) {
             if (leftType == Type.BOOL && rightType == Type.BOOL) {
-                return new TypeAnalysisResult(Type.BOOL, errors, warnings);
+                return Type.BOOL.ordinal();
             }
-            errors.add(new InvalidOperationError(operation, leftType, rightType, sourceInfo));
-            return new TypeAnalysisResult(Type.ERROR, errors, warnings);
+            return Type.ERROR.ordinal() | INVALID_OPERATION;
         }
 
         if (operation.isComparisonOperation()) {
-            return getComparisonResultType(leftType, rightType, operation, sourceInfo);
+            if (operation.isEqualityOperation() && leftType == Type.BOOL && rightType == Type.BOOL) {
+                return Type.BOOL.ordinal();
+            }
+            if (!leftType.isNumberType() || !rightType.isNumberType()) {
+                return Type.ERROR.ordinal() | INVALID_OPERATION;
+            }
+            // Comparing numbers warns as arithmetic on them would, but always yields a bool
+            return classifyNumbers(leftType, rightType) & ~RESULT_TYPE_MASK | Type.BOOL.ordinal();
         }
 
         return switch (operation) {
-            case ADD, SUB, MULT, DIV, MOD -> getArithmeticResultType(leftType, rightType, operation, sourceInfo);
-            case BITWISE_AND, BITWISE_OR, BITWISE_XOR -> getBitwiseResultType(leftType, rightType, sourceInfo);
-            default -> new TypeAnalysisResult(Type.ERROR, errors, warnings);
+            case ADD, SUB, MULT, DIV, MOD -> {
+                if (!leftType.isNumberType() || !rightType.isNumberType()) {
+                    yield Type.ERROR.ordinal() | INVALID_OPERATION;
+                }
+                if (operation == BinaryOperationType.MOD && (leftType.isFloatingPointType() || rightType.isFloatingPointType())) {
+                    yield Type.ERROR.ordinal() | INVALID_OPERATION;
+                }
+                yield classifyNumbers(leftType, rightType);
+            }
+            case BITWISE_AND, BITWISE_OR, BITWISE_XOR -> {
+                if (!leftType.isIntegerType() || !rightType.isIntegerType()) {
+                    yield Type.ERROR.ordinal() | INVALID_OPERATION;
+                }
+                yield classifyIntegers(leftType, rightType);
+            }
+            default -> Type.ERROR.ordinal();
         };
     }
 
-    private static TypeAnalysisResult getBitwiseResultType(Type leftType, Type rightType, SourceInfo sourceInfo) {
-        List<AnalysisError> errors = new ArrayList<>();
-        List<AnalysisWarning> warnings = new ArrayList<>();
-
-        if (!leftType.isIntegerType() || !rightType.isIntegerType()) {
-            errors.add(new InvalidOperationError(BinaryOperation.BinaryOperationType.BITWISE_AND, leftType, rightType, sourceInfo));
-            return new TypeAnalysisResult(Type.ERROR, errors, warnings);
-        }
-
-        var intResult = getIntegerResultType(leftType, rightType, sourceInfo);
-        errors.addAll(intResult.errors());
-        warnings.addAll(intResult.warnings());
-        return new TypeAnalysisResult(intResult.type(), errors, warnings);
-    }
-
-    private static TypeAnalysisResult getArithmeticResultType(Type leftType, Type rightType, BinaryOperation.BinaryOperationType operation, SourceInfo sourceInfo) {
-        List<AnalysisError> errors = new ArrayList<>();
-        List<AnalysisWarning> warnings = new ArrayList<>();
-
-        if (!leftType.isNumberType() || !rightType.isNumberType()) {
-            errors.add(new InvalidOperationError(operation, leftType, rightType, sourceInfo));
-            return new TypeAnalysisResult(Type.ERROR, errors, warnings);
-        }
-
-        if (operation == BinaryOperation.BinaryOperationType.MOD && (leftType.isFloatingPointType() || rightType.isFloatingPointType())) {
-            errors.add(new InvalidOperationError(operation, leftType, rightType, sourceInfo));
-            return new TypeAnalysisResult(Type.ERROR, errors, warnings);
+    private static int classifyNumbers(Type leftType, Type rightType) {
+        if (leftType.isFloatingPointType() || rightType.isFloatingPointType()) {
+            Type resultType = leftType == Type.DOUBLE || rightType == Type.DOUBLE ? Type.DOUBLE : Type.FLOAT;
+            return resultType.ordinal() | (leftType != rightType ? IMPLICIT_CONVERSION : 0);
         }
-
-        var result = getNumberResultType(leftType, rightType, sourceInfo);
-        errors.addAll(result.errors());
-        warnings.addAll(result.warnings());
-        return new TypeAnalysisResult(result.type(), errors, warnings);
+        return classifyIntegers(leftType, rightType);
     }
 
-    private static TypeAnalysisResult getComparisonResultType(Type leftType, Type rightType, BinaryOperation.BinaryOperationType operation, SourceInfo sourceInfo) {
-        List<AnalysisError> errors = new ArrayList<>();
-        List<AnalysisWarning> warnings = new ArrayList<>();
-
-        if (operation.isEqualityOperation()) {
-            if (leftType == Type.BOOL && rightType == Type.BOOL) {
-                return new TypeAnalysisResult(Type.BOOL, errors, warnings);
-            }
-
-            if (leftType.isNumberType() && rightType.isNumberType()) {
-                var numberResult = getNumberResultType(leftType, rightType, sourceInfo);
-                warnings.addAll(numberResult.warnings());
-                errors.addAll(numberResult.errors());
-                return new TypeAnalysisResult(Type.BOOL, errors, warnings);
-            }
+    private static int classifyIntegers(Type leftType, Type rightType) {
+        int diagnostics = leftType.isSignedNumberType() != rightType.isSignedNumberType() ? SIGNEDNESS_MISMATCH : 0;
 
-            errors.add(new InvalidOperationError(operation, leftType, rightType, sourceInfo));
-            return new TypeAnalysisResult(Type.ERROR, errors, warnings);
+        if (leftType.sizeBytes() == rightType.sizeBytes()) {
+            return leftType.ordinal() | diagnostics;
         }
 
-        if (!leftType.isNumberType() || !rightType.isNumberType()) {
-            errors.add(new InvalidOperationError(operation, leftType, rightType, sourceInfo));
-            return new TypeAnalysisResult(Type.ERROR, errors, warnings);
+        if (leftType.sizeBytes() < rightType.sizeBytes()) {
+            return rightType.ordinal() | diagnostics | LEFT_PROMOTED;
         }
 
-        var numberResult = getNumberResultType(leftType, rightType, sourceInfo);
-        warnings.addAll(numberResult.warnings());
-        errors.addAll(numberResult.errors());
-        return new TypeAnalysisResult(Type.BOOL, errors, warnings);
+        return leftType.ordinal() | diagnostics | RIGHT_PROMOTED;
     }
 }
\ No newline at end of file
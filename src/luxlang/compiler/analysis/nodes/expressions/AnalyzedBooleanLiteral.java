@@ -1,11 +1,10 @@
 package luxlang.compiler.analysis.nodes.expressions;
 
-import luxlang.compiler.parser.objects.SourceInfo;
 import luxlang.compiler.parser.nodes.Type;
 
 public record AnalyzedBooleanLiteral(
     boolean value,
-    SourceInfo sourceInfo
+    long span
 ) implements AnalyzedExpression {
     @Override
     public Type resultType() {
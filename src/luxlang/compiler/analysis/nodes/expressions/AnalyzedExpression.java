@@ -1,6 +1,5 @@
 package luxlang.compiler.analysis.nodes.expressions;
 
-import luxlang.compiler.parser.objects.SourceInfo;
 import luxlang.compiler.parser.nodes.Type;
 
 public sealed interface AnalyzedExpression permits AnalyzedFunctionCall,
@@ -12,5 +11,5 @@ public sealed interface AnalyzedExpression permits AnalyzedFunctionCall,
                                                    AnalyzedBooleanLiteral
 {
     Type resultType();
-    SourceInfo sourceInfo();
+    long span();
 }
\ No newline at end of file
@@ -1,13 +1,13 @@
 package luxlang.compiler.analysis.nodes.expressions;
 
-import luxlang.compiler.parser.objects.SourceInfo;
 import luxlang.compiler.parser.nodes.Type;
 
 import java.util.List;
 
 public record AnalyzedFunctionCall(
     String name,
+    int symbol,
     List<AnalyzedExpression> arguments,
     Type resultType,
-    SourceInfo sourceInfo
+    long span
 ) implements AnalyzedExpression { }
\ No newline at end of file
@@ -1,12 +1,11 @@
 package luxlang.compiler.analysis.nodes.expressions;
 
-import luxlang.compiler.parser.objects.SourceInfo;
 import luxlang.compiler.parser.nodes.Type;
 
 public record AnalyzedIntegerLiteral(
     long value,
     Type type,
-    SourceInfo sourceInfo
+    long span
 ) implements AnalyzedExpression {
     @Override
     public Type resultType() {
@@ -1,6 +1,5 @@
 package luxlang.compiler.analysis.nodes.expressions;
 
-import luxlang.compiler.parser.objects.SourceInfo;
 import luxlang.compiler.parser.nodes.Type;
 import luxlang.compiler.parser.nodes.expressions.UnaryOperation;
 
@@ -8,5 +7,5 @@ public record AnalyzedUnaryOperation(
     UnaryOperation.UnaryOperationType operation,
     AnalyzedExpression operand,
     Type resultType,
-    SourceInfo sourceInfo
+    long span
 ) implements AnalyzedExpression { }
\ No newline at end of file
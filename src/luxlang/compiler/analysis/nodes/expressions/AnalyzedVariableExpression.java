@@ -1,10 +1,11 @@
 package luxlang.compiler.analysis.nodes.expressions;
 
-import luxlang.compiler.parser.objects.SourceInfo;
 import luxlang.compiler.parser.nodes.Type;
 
 public record AnalyzedVariableExpression(
     String name,
+    int symbol,
+    int localId,
     Type resultType,
-    SourceInfo sourceInfo
+    long span
 ) implements AnalyzedExpression { }
\ No newline at end of file
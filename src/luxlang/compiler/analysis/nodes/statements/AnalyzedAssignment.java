@@ -1,12 +1,13 @@
 package luxlang.compiler.analysis.nodes.statements;
 
 import luxlang.compiler.analysis.nodes.expressions.AnalyzedExpression;
-import luxlang.compiler.parser.objects.SourceInfo;
 
 public record AnalyzedAssignment(
     String variableName,
+    int symbol,
+    int localId,
     AnalyzedExpression value,
-    SourceInfo sourceInfo
+    long span
 ) implements AnalyzedStatement, AnalyzedForStatement.Initializer {
     @Override
     public boolean hasGuaranteedReturn() {
@@ -1,11 +1,10 @@
 package luxlang.compiler.analysis.nodes.statements;
 
 import luxlang.compiler.analysis.nodes.expressions.AnalyzedExpression;
-import luxlang.compiler.parser.objects.SourceInfo;
 
 public record AnalyzedDoWhileStatement(
     AnalyzedStatement body,
     AnalyzedExpression condition,
     boolean hasGuaranteedReturn,
-    SourceInfo sourceInfo
+    long span
 ) implements AnalyzedStatement { }
\ No newline at end of file
@@ -1,7 +1,6 @@
 package luxlang.compiler.analysis.nodes.statements;
 
 import luxlang.compiler.analysis.nodes.expressions.AnalyzedExpression;
-import luxlang.compiler.parser.objects.SourceInfo;
 
 import java.util.Optional;
 
@@ -11,7 +10,7 @@ public record AnalyzedForStatement(
     Optional<AnalyzedAssignment> update,
     AnalyzedStatement body,
     boolean hasGuaranteedReturn,
-    SourceInfo sourceInfo
+    long span
 ) implements AnalyzedStatement {
     public sealed interface Initializer permits AnalyzedVariableDeclaration, AnalyzedAssignment { }
 }
\ No newline at end of file
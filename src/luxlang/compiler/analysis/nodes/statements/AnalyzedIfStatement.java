@@ -1,7 +1,6 @@
 package luxlang.compiler.analysis.nodes.statements;
 
 import luxlang.compiler.analysis.nodes.expressions.AnalyzedExpression;
-import luxlang.compiler.parser.objects.SourceInfo;
 
 import java.util.Optional;
 
@@ -10,5 +9,5 @@ public record AnalyzedIfStatement(
     AnalyzedStatement body,
     Optional<AnalyzedStatement> elseBody,
     boolean hasGuaranteedReturn,
-    SourceInfo sourceInfo
+    long span
 ) implements AnalyzedStatement { }
\ No newline at end of file
@@ -1,7 +1,5 @@
 package luxlang.compiler.analysis.nodes.statements;
 
-import luxlang.compiler.parser.objects.SourceInfo;
-
 public sealed interface AnalyzedStatement permits AnalyzedCodeBlock,
         AnalyzedIfStatement,
         AnalyzedWhileStatement,
@@ -12,5 +10,5 @@ public sealed interface AnalyzedStatement permits AnalyzedCodeBlock,
         AnalyzedAssignment
 {
     boolean hasGuaranteedReturn();
-    SourceInfo sourceInfo();
+    long span();
 }
\ No newline at end of file
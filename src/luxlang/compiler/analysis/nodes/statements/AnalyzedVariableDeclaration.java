@@ -1,7 +1,6 @@
 package luxlang.compiler.analysis.nodes.statements;
 
 import luxlang.compiler.analysis.nodes.expressions.AnalyzedExpression;
-import luxlang.compiler.parser.objects.SourceInfo;
 import luxlang.compiler.parser.nodes.Type;
 import luxlang.compiler.parser.nodes.statements.VariableDeclaration;
 
@@ -10,15 +9,17 @@ import java.util.Optional;
 public record AnalyzedVariableDeclaration(
     Type type,
     String name,
+    int symbol,
+    int localId,
     Optional<AnalyzedExpression> initialValue,
-    SourceInfo sourceInfo
+    long span
 ) implements AnalyzedStatement, AnalyzedForStatement.Initializer {
     @Override
     public boolean hasGuaranteedReturn() {
         return false;
     }
 
-    public static AnalyzedVariableDeclaration from(VariableDeclaration variableDeclaration, Optional<AnalyzedExpression> initialValue) {
-        return new AnalyzedVariableDeclaration(variableDeclaration.type(), variableDeclaration.name(), initialValue, variableDeclaration.sourceInfo());
+    public static AnalyzedVariableDeclaration from(VariableDeclaration variableDeclaration, int localId, Optional<AnalyzedExpression> initialValue) {
+        return new AnalyzedVariableDeclaration(variableDeclaration.type(), variableDeclaration.name(), variableDeclaration.symbol(), localId, initialValue, variableDeclaration.span());
     }
 }
\ No newline at end of file
@@ -1,24 +1,26 @@
 package luxlang.compiler.analysis.objects;
 
-import luxlang.compiler.parser.nodes.FunctionDeclaration;
-import luxlang.compiler.parser.nodes.Parameter;
 import luxlang.compiler.parser.nodes.Type;
+import luxlang.compiler.tree.Tree;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static luxlang.compiler.util.StringUtils.typeListAsString;
 
 public record FunctionSymbol(
         String name,
+        int symbol,
         Type returnType,
         List<Type> parameterTypes
 ) {
-    public static FunctionSymbol from(FunctionDeclaration functionDeclaration) {
-        List<Type> parameterTypes = functionDeclaration.parameters()
-                .stream()
-                .map(Parameter::type)
-                .toList();
-        return new FunctionSymbol(functionDeclaration.name(), functionDeclaration.returnType(), parameterTypes);
+    public static FunctionSymbol from(Tree tree, int function) {
+        int parameterCount = tree.parameterCount(function);
+        List<Type> parameterTypes = new ArrayList<>(parameterCount);
+        for (int index = 0; index < parameterCount; index++) {
+            parameterTypes.add(tree.type(tree.parameter(function, index)));
+        }
+        return new FunctionSymbol(tree.name(function), tree.symbol(function), tree.type(function), parameterTypes);
     }
 
     public String signatureString() {
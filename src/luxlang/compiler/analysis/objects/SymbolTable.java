@@ -0,0 +1,87 @@
+package luxlang.compiler.analysis.objects;
+
+import luxlang.compiler.util.IntMap;
+
+import java.util.Arrays;
+
+/**
+ * The names visible at one point of a function. Every variable in scope lives in one flat map,
+ * so a lookup is a single probe however deeply blocks are nested. Entering a scope marks the undo
+ * log and exiting it rolls back every binding made since.
+ */
+public final class SymbolTable {
+    private final IntMap<FunctionSymbol> functions;
+    private final IntMap<VariableSymbol> variables;
+
+    // Undo log: the symbol bound by each declaration and the binding it hid, if any
+    private int[] boundSymbols;
+    private VariableSymbol[] hiddenVariables;
+    private int bindingCount;
+
+    private int[] scopeStarts;
+    private int depth;
+
+    /**
+     * @param functions The program's functions, only ever read
+     */
+    public SymbolTable(IntMap<FunctionSymbol> functions) {
+        this.functions = functions;
+        this.variables = new IntMap<>();
+        this.boundSymbols = new int[16];
+        this.hiddenVariables = new VariableSymbol[16];
+        this.bindingCount = 0;
+        this.scopeStarts = new int[8];
+        this.depth = 0;
+    }
+
+    public void enterScope() {
+        if (depth == scopeStarts.length) {
+            scopeStarts = Arrays.copyOf(scopeStarts, depth * 2);
+        }
+        scopeStarts[depth++] = bindingCount;
+    }
+
+    public void exitScope() {
+        if (depth == 0) {
+            throw new IllegalStateException("No scope to exit");
+        }
+        int start = scopeStarts[--depth];
+        while (bindingCount > start) {
+            bindingCount--;
+            VariableSymbol hidden = hiddenVariables[bindingCount];
+            if (hidden == null) {
+                variables.remove(boundSymbols[bindingCount]);
+            } else {
+                variables.put(boundSymbols[bindingCount], hidden);
+            }
+            hiddenVariables[bindingCount] = null;
+        }
+    }
+
+    /**
+     * @return The innermost visible variable with the symbol, or null if there is none
+     */
+    public VariableSymbol lookupVariable(int symbol) {
+        return variables.get(symbol);
+    }
+
+    /**
+     * @return The function with the symbol, or null if there is none
+     */
+    public FunctionSymbol lookupFunction(int symbol) {
+        return functions.get(symbol);
+    }
+
+    /**
+     * Binds the variable's symbol in the current scope, hiding any binding from an enclosing one
+     */
+    public void addVariable(VariableSymbol variable) {
+        if (bindingCount == boundSymbols.length) {
+            boundSymbols = Arrays.copyOf(boundSymbols, bindingCount * 2);
+            hiddenVariables = Arrays.copyOf(hiddenVariables, bindingCount * 2);
+        }
+        boundSymbols[bindingCount] = variable.symbol();
+        hiddenVariables[bindingCount] = variables.put(variable.symbol(), variable);
+        bindingCount++;
+    }
+}
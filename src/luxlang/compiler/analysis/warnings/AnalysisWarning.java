@@ -1,23 +1,24 @@
 package luxlang.compiler.analysis.warnings;
 
 import luxlang.compiler.errors.SourceCodeWarning;
-import luxlang.compiler.lexer.objects.Token;
+import luxlang.compiler.lexer.objects.LineMap;
+import luxlang.compiler.lexer.objects.SourceSpan;
 
 public interface AnalysisWarning extends SourceCodeWarning {
     @Override
     String reason();
 
-    Token startToken();
+    long span();
 
-    Token endToken();
+    LineMap lineMap();
 
     @Override
     default int line() {
-        return startToken().line();
+        return lineMap().line(SourceSpan.start(span()));
     }
 
     @Override
     default int column() {
-        return startToken().column();
+        return lineMap().column(SourceSpan.start(span()));
     }
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package luxlang.compiler.analysis.warnings;
+
+import luxlang.compiler.lexer.objects.LineMap;
+import luxlang.compiler.parser.nodes.Type;
+
+public record ConstantOverflowWarning(
+    String reason,
+    long span,
+    LineMap lineMap
+) implements AnalysisWarning {
+    private static final String REASON_TEMPLATE = "Constant expression overflows type '%s'";
+
+    public ConstantOverflowWarning(long span, LineMap lineMap, Type type) {
+        this(
+            REASON_TEMPLATE.formatted(type.lexeme()),
+            span,
+            lineMap
+        );
+    }
+}
\ No newline at end of file
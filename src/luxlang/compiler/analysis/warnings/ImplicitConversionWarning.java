@@ -1,21 +1,20 @@
 package luxlang.compiler.analysis.warnings;
 
-import luxlang.compiler.lexer.objects.Token;
+import luxlang.compiler.lexer.objects.LineMap;
 import luxlang.compiler.parser.nodes.Type;
-import luxlang.compiler.parser.objects.SourceInfo;
 
 public record ImplicitConversionWarning(
     String reason,
-    Token startToken,
-    Token endToken
+    long span,
+    LineMap lineMap
 ) implements AnalysisWarning {
     private static final String REASON_TEMPLATE = "Implicit conversion from '%s' to '%s'";
 
-    public ImplicitConversionWarning(SourceInfo sourceInfo, Type from, Type to) {
+    public ImplicitConversionWarning(long span, LineMap lineMap, Type from, Type to) {
         this(
             REASON_TEMPLATE.formatted(from.lexeme(), to.lexeme()),
-            sourceInfo.firstToken(),
-            sourceInfo.lastToken()
+            span,
+            lineMap
         );
     }
 }
\ No newline at end of file
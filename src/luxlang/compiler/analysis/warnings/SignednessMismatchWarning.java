@@ -1,20 +1,19 @@
 package luxlang.compiler.analysis.warnings;
 
-import luxlang.compiler.lexer.objects.Token;
-import luxlang.compiler.parser.objects.SourceInfo;
+import luxlang.compiler.lexer.objects.LineMap;
 
 public record SignednessMismatchWarning(
     String reason,
-    Token startToken,
-    Token endToken
+    long span,
+    LineMap lineMap
 ) implements AnalysisWarning {
     private static final String REASON_TEMPLATE = "Operation between signed and unsigned integer types may produce unexpected results";
 
-    public SignednessMismatchWarning(SourceInfo sourceInfo) {
+    public SignednessMismatchWarning(long span, LineMap lineMap) {
         this(
             REASON_TEMPLATE,
-            sourceInfo.firstToken(),
-            sourceInfo.lastToken()
+            span,
+            lineMap
         );
     }
 }
\ No newline at end of file
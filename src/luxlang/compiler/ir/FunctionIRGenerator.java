@@ -0,0 +1,689 @@
+package luxlang.compiler.ir;
+
+import luxlang.compiler.analysis.AnalysisSink;
+import luxlang.compiler.analysis.nodes.AnalyzedFunctionDeclaration;
+import luxlang.compiler.analysis.nodes.LocalVariable;
+import luxlang.compiler.ir.instructions.*;
+import luxlang.compiler.ir.objects.*;
+import luxlang.compiler.ir.values.*;
+import luxlang.compiler.parser.nodes.Type;
+import luxlang.compiler.parser.nodes.expressions.BinaryOperation;
+import luxlang.compiler.tree.AnalyzedRecords;
+import luxlang.compiler.tree.AnalyzedTree;
+import luxlang.compiler.tree.Tree;
+import luxlang.compiler.util.FrameStack;
+import luxlang.compiler.util.FrameStack.Frame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static luxlang.compiler.ir.instructions.Compare.ComparisonType.*;
+import static luxlang.compiler.tree.Tree.NONE;
+
+/**
+ * Generates the IR of one function. It takes either a finished analyzed function, or, as an
+ * {@link AnalysisSink}, the function's statements one at a time while they are analyzed. Both
+ * lower the same statements in the same order, so they produce the same IR. The walk keeps its
+ * own {@link FrameStack} rather than recursing, so nesting depth is bounded only by the heap.
+ * <p>
+ * Statements are read through an {@link AnalyzedTree}, so analyzed records and an annotated
+ * {@link luxlang.compiler.tree.FlatAst} are lowered by the same frames.
+ */
+public class FunctionIRGenerator implements AnalysisSink {
+    private AnalyzedTree tree;
+    private String functionName;
+    private Type returnType;
+    private List<Type> parameterTypes;
+    private List<LocalVariable> localVariables;
+    // Indexed by local id, which analysis records on every declaration and use
+    private List<IRLocal> locals;
+    private List<BasicBlock> basicBlocks;
+    private int nextBlockId;
+    private int nextTemporaryId;
+
+    private final FrameStack frames;
+    // What the last finished frame or leaf produced, for its parent to pick up. Between
+    // top-level statements, lastBlock is the block the next one continues from.
+    private BasicBlock lastBlock;
+    private BuiltExpressionResult lastResult;
+
+    public FunctionIRGenerator() {
+        this.frames = new FrameStack();
+    }
+
+    record BuiltExpressionResult(IRValue value, BasicBlock lastBlock) { }
+
+    IRFunction generate(AnalyzedFunctionDeclaration function) {
+        var records = new AnalyzedRecords();
+        return generate(records, records.add(function), function.localVariables());
+    }
+
+    /**
+     * @param function The analyzed function's handle in the tree
+     */
+    public IRFunction generate(AnalyzedTree tree, int function, List<LocalVariable> localVariables) {
+        startFunction(tree, function, localVariables);
+        int body = tree.body(function);
+        int statementCount = tree.statementCount(body);
+        for (int index = 0; index < statementCount; index++) {
+            acceptStatement(tree, tree.statement(body, index));
+        }
+        return finish();
+    }
+
+    @Override
+    public void startFunction(Tree tree, int function, List<LocalVariable> localVariables) {
+        int parameterCount = tree.parameterCount(function);
+        List<Type> parameterTypes = new ArrayList<>(parameterCount);
+        for (int index = 0; index < parameterCount; index++) {
+            parameterTypes.add(tree.type(tree.parameter(function, index)));
+        }
+        start(tree.name(function), tree.type(function), parameterTypes, localVariables);
+    }
+
+    @Override
+    public void acceptStatement(AnalyzedTree tree, int statement) {
+        this.tree = tree;
+        addNewLocals();
+        frames.run(statementFrame(statement, lastBlock));
+    }
+
+    /**
+     * Ends the function after the last statement it was given
+     */
+    public IRFunction finish() {
+        addNewLocals();
+        lastBlock.setTerminator(new FunctionReturn(null));
+        return new IRFunction(functionName, returnType, parameterTypes, locals, basicBlocks);
+    }
+
+    private void start(String name, Type returnType, List<Type> parameterTypes, List<LocalVariable> localVariables) {
+        this.functionName = name;
+        this.returnType = returnType;
+        this.parameterTypes = parameterTypes;
+        this.localVariables = localVariables;
+        this.locals = new ArrayList<>();
+        this.basicBlocks = new ArrayList<>();
+        nextBlockId = 0;
+        nextTemporaryId = 0;
+
+        lastBlock = createEmptyBasicBlock("entry");
+    }
+
+    /**
+     * Catches up with the locals declared since the last statement. Analysis only adds to the
+     * list, and every local is declared before a statement uses it.
+     */
+    private void addNewLocals() {
+        for (int index = locals.size(); index < localVariables.size(); index++) {
+            locals.add(IRLocal.from(localVariables.get(index)));
+        }
+    }
+
+    /**
+     * Starts generating a statement after the given block: a frame is pushed, and the block
+     * control falls out of lands in lastBlock
+     */
+    private void visitStatement(int statement, BasicBlock precedingBlock) {
+        frames.push(statementFrame(statement, precedingBlock));
+    }
+
+    private Frame statementFrame(int statement, BasicBlock precedingBlock) {
+        return switch (tree.kind(statement)) {
+            case CODE_BLOCK           -> new CodeBlockFrame(statement, precedingBlock);
+            case IF_STATEMENT         -> new IfFrame(statement, precedingBlock);
+            case WHILE_STATEMENT      -> new WhileFrame(statement, precedingBlock);
+            case DO_WHILE_STATEMENT   -> new DoWhileFrame(statement, precedingBlock);
+            case FOR_STATEMENT        -> new ForFrame(statement, precedingBlock);
+            case RETURN_STATEMENT     -> new ReturnFrame(statement, precedingBlock);
+            case VARIABLE_DECLARATION -> new VariableDeclarationFrame(statement, precedingBlock);
+            case ASSIGNMENT           -> new AssignmentFrame(statement, precedingBlock);
+            default -> throw new IllegalArgumentException("Not a statement: " + tree.kind(statement));
+        };
+    }
+
+    /**
+     * Starts generating an expression after the given block. Leaves are generated on the spot;
+     * anything else gets a frame. Either way the result lands in lastResult.
+     */
+    private void visitExpression(int value, BasicBlock precedingBlock) {
+        // Folded operations keep their kind, so constants are told apart first
+        if (tree.isConstant(value)) {
+            lastResult = new BuiltExpressionResult(generateConstant(value), precedingBlock);
+            return;
+        }
+        switch (tree.kind(value)) {
+            case BINARY_OPERATION    -> frames.push(isLogical(value)
+                                            ? new LogicalOperationFrame(value, precedingBlock)
+                                            : new BinaryOperationFrame(value, precedingBlock));
+            case FUNCTION_CALL       -> frames.push(new FunctionCallFrame(value, precedingBlock));
+            case UNARY_OPERATION     -> frames.push(new UnaryOperationFrame(value, precedingBlock));
+            case VARIABLE_EXPRESSION -> lastResult = new BuiltExpressionResult(generateVariableExpression(value), precedingBlock);
+            default -> throw new IllegalArgumentException("Not an expression: " + tree.kind(value));
+        }
+    }
+
+    private void completeStatement(BasicBlock block) {
+        frames.pop();
+        lastBlock = block;
+    }
+
+    private void completeExpression(BuiltExpressionResult result) {
+        frames.pop();
+        lastResult = result;
+    }
+
+    private boolean isLogical(int binaryOperation) {
+        return tree.binaryOperation(binaryOperation) == BinaryOperation.BinaryOperationType.LOGICAL_OR
+            || tree.binaryOperation(binaryOperation) == BinaryOperation.BinaryOperationType.LOGICAL_AND;
+    }
+
+    private IRValue generateConstant(int constant) {
+        Type type = tree.resultType(constant);
+        long value = tree.constant(constant);
+        if (type == Type.BOOL) {
+            return new BooleanConstant(value != 0);
+        }
+        if (type.isFloatingPointType()) {
+            return new FloatingPointConstant(type, Double.longBitsToDouble(value));
+        }
+        return new IntegerConstant(type, value);
+    }
+
+    private IRValue generateVariableExpression(int variableExpression) {
+        IRLocal local = locals.get(tree.localId(variableExpression));
+        return new LocalPointer(local.type(), local.index());
+    }
+
+    private BuiltExpressionResult finishUnaryOperation(int unaryOperation, BuiltExpressionResult operandResult) {
+        Type resultType = tree.resultType(unaryOperation);
+        Temporary destination = allocateTemporary(resultType);
+        RegularInstruction instruction = switch (tree.unaryOperation(unaryOperation)) {
+            case LOGICAL_NOT -> new Xor(destination, operandResult.value(), new IntegerConstant(resultType, 1));
+            case BITWISE_NOT -> new Not(destination, operandResult.value());
+            case NEGATION    -> new Negate(destination, operandResult.value());
+        };
+        operandResult.lastBlock().instructions().add(instruction);
+        return new BuiltExpressionResult(destination, operandResult.lastBlock());
+    }
+
+    private BuiltExpressionResult finishBinaryOperation(int binaryOperation, IRValue left, BuiltExpressionResult rightResult) {
+        IRValue right = rightResult.value();
+        Temporary destination = allocateTemporary(tree.resultType(binaryOperation));
+        RegularInstruction instruction = switch (tree.binaryOperation(binaryOperation)) {
+            case ADD -> new Add(destination, left, right);
+            case SUB -> new Subtract(destination, left, right);
+            case MULT -> new Multiply(destination, left, right);
+            case DIV -> new Divide(destination, left, right);
+            case MOD -> new Modulo(destination, left, right);
+            case BITWISE_AND -> new And(destination, left, right);
+            case BITWISE_OR -> new Or(destination, left, right);
+            case BITWISE_XOR -> new Xor(destination, left, right);
+            case EQUAL -> new Compare(destination, left, EQUAL, right);
+            case NOT_EQUAL -> new Compare(destination, left, NOT_EQUAL, right);
+            case LESS -> new Compare(destination, left, LESS, right);
+            case LESS_EQUAL -> new Compare(destination, left, LESS_EQUAL, right);
+            case GREATER -> new Compare(destination, left, GREATER, right);
+            case GREATER_EQUAL -> new Compare(destination, left, GREATER_EQUAL, right);
+            case LOGICAL_AND, LOGICAL_OR -> throw new IllegalStateException("Generating logical expression as binary operation");
+        };
+        rightResult.lastBlock().instructions().add(instruction);
+        return new BuiltExpressionResult(destination, rightResult.lastBlock());
+    }
+
+    private final class CodeBlockFrame implements Frame {
+        private final int codeBlock;
+        private BasicBlock currentBlock;
+        private int next;
+
+        CodeBlockFrame(int codeBlock, BasicBlock precedingBlock) {
+            this.codeBlock = codeBlock;
+            this.currentBlock = precedingBlock;
+            this.next = -1;
+        }
+
+        @Override
+        public void resume() {
+            if (next == -1) {
+                next = 0;
+            } else {
+                currentBlock = lastBlock;
+            }
+
+            if (next < tree.statementCount(codeBlock)) {
+                visitStatement(tree.statement(codeBlock, next++), currentBlock);
+                return;
+            }
+            completeStatement(currentBlock);
+        }
+    }
+
+    private final class AssignmentFrame implements Frame {
+        private final int assignment;
+        private final BasicBlock precedingBlock;
+        private boolean started;
+
+        AssignmentFrame(int assignment, BasicBlock precedingBlock) {
+            this.assignment = assignment;
+            this.precedingBlock = precedingBlock;
+        }
+
+        @Override
+        public void resume() {
+            if (!started) {
+                started = true;
+                visitExpression(tree.value(assignment), precedingBlock);
+                return;
+            }
+            var valueResult = lastResult;
+            int localId = tree.localId(assignment);
+            valueResult.lastBlock().instructions().add(new StoreToLocal(localId, valueResult.value()));
+            completeStatement(valueResult.lastBlock());
+        }
+    }
+
+    private final class VariableDeclarationFrame implements Frame {
+        private final int variableDeclaration;
+        private final BasicBlock precedingBlock;
+        private boolean started;
+
+        VariableDeclarationFrame(int variableDeclaration, BasicBlock precedingBlock) {
+            this.variableDeclaration = variableDeclaration;
+            this.precedingBlock = precedingBlock;
+        }
+
+        @Override
+        public void resume() {
+            if (!started) {
+                started = true;
+                int initialValue = tree.value(variableDeclaration);
+                if (initialValue == NONE) {
+                    completeStatement(precedingBlock);
+                    return;
+                }
+                visitExpression(initialValue, precedingBlock);
+                return;
+            }
+            int id = tree.localId(variableDeclaration);
+            var initialValueResult = lastResult;
+            initialValueResult.lastBlock().instructions().add(new StoreToLocal(id, initialValueResult.value()));
+            completeStatement(initialValueResult.lastBlock());
+        }
+    }
+
+    private final class ReturnFrame implements Frame {
+        private final int returnStatement;
+        private final BasicBlock precedingBlock;
+        private boolean started;
+
+        ReturnFrame(int returnStatement, BasicBlock precedingBlock) {
+            this.returnStatement = returnStatement;
+            this.precedingBlock = precedingBlock;
+        }
+
+        @Override
+        public void resume() {
+            if (!started) {
+                started = true;
+                int value = tree.value(returnStatement);
+                if (value != NONE) {
+                    visitExpression(value, precedingBlock);
+                    return;
+                }
+                precedingBlock.setTerminator(new FunctionReturn(null));
+                completeStatement(precedingBlock);
+                return;
+            }
+            lastResult.lastBlock().setTerminator(new FunctionReturn(lastResult.value()));
+            completeStatement(lastResult.lastBlock());
+        }
+    }
+
+    private final class ForFrame implements Frame {
+        private final int forStatement;
+        private final BasicBlock precedingBlock;
+        private int step;
+        private BasicBlock lastBlockBeforeEntry;
+        private BasicBlock firstBlockInBody;
+        private BasicBlock lastBlockInBody;
+        private BasicBlock condition;
+
+        ForFrame(int forStatement, BasicBlock precedingBlock) {
+            this.forStatement = forStatement;
+            this.precedingBlock = precedingBlock;
+        }
+
+        @Override
+        public void resume() {
+            // Absent parts pass the block through lastBlock and fall through on the next resume
+            switch (step++) {
+                case 0 -> {
+                    lastBlock = precedingBlock;
+                    int initializer = tree.initializer(forStatement);
+                    if (initializer != NONE) {
+                        visitStatement(initializer, precedingBlock);
+                    }
+                }
+                case 1 -> {
+                    lastBlockBeforeEntry = lastBlock;
+                    firstBlockInBody = createEmptyBasicBlock("for_body");
+                    visitStatement(tree.body(forStatement), firstBlockInBody);
+                }
+                case 2 -> {
+                    int update = tree.update(forStatement);
+                    if (update != NONE) {
+                        visitStatement(update, lastBlock);
+                    }
+                }
+                case 3 -> {
+                    lastBlockInBody = lastBlock;
+                    int conditionExpression = tree.condition(forStatement);
+                    if (conditionExpression != NONE) {
+                        condition = createEmptyBasicBlock("for_condition");
+                        visitExpression(conditionExpression, condition);
+                    }
+                }
+                default -> {
+                    BasicBlock entry = firstBlockInBody;
+                    BasicBlock blockAfterLoop;
+
+                    if (condition != null) {
+                        var conditionResult = lastResult;
+
+                        entry = condition;
+                        blockAfterLoop = createEmptyBasicBlock("for_exit");
+
+                        conditionResult.lastBlock().setTerminator(new ConditionalBranch(conditionResult.value(), firstBlockInBody, blockAfterLoop));
+                    } else {
+                        blockAfterLoop = createEmptyBasicBlock("for_exit");
+                    }
+
+                    lastBlockBeforeEntry.setTerminator(new UnconditionalBranch(entry));
+                    lastBlockInBody.setTerminator(new UnconditionalBranch(entry));
+                    completeStatement(blockAfterLoop);
+                }
+            }
+        }
+    }
+
+    private final class DoWhileFrame implements Frame {
+        private final int doWhileStatement;
+        private final BasicBlock precedingBlock;
+        private int step;
+        private BasicBlock firstBlockInCondition;
+        private BuiltExpressionResult conditionResult;
+        private BasicBlock firstBlockInBody;
+
+        DoWhileFrame(int doWhileStatement, BasicBlock precedingBlock) {
+            this.doWhileStatement = doWhileStatement;
+            this.precedingBlock = precedingBlock;
+        }
+
+        @Override
+        public void resume() {
+            switch (step++) {
+                case 0 -> {
+                    firstBlockInCondition = createEmptyBasicBlock("do_while_condition");
+                    visitExpression(tree.condition(doWhileStatement), firstBlockInCondition);
+                }
+                case 1 -> {
+                    conditionResult = lastResult;
+                    firstBlockInBody = createEmptyBasicBlock("do_while_body");
+                    visitStatement(tree.body(doWhileStatement), firstBlockInBody);
+                }
+                default -> {
+                    BasicBlock lastBlockInBody = lastBlock;
+                    BasicBlock lastBlockInCondition = conditionResult.lastBlock();
+
+                    BasicBlock blockAfterLoop = createEmptyBasicBlock("do_while_exit");
+
+                    precedingBlock.setTerminator(new UnconditionalBranch(firstBlockInBody));
+                    lastBlockInBody.setTerminator(new UnconditionalBranch(firstBlockInCondition));
+                    lastBlockInCondition.setTerminator(new ConditionalBranch(conditionResult.value(), firstBlockInBody, blockAfterLoop));
+
+                    completeStatement(blockAfterLoop);
+                }
+            }
+        }
+    }
+
+    private final class WhileFrame implements Frame {
+        private final int whileStatement;
+        private final BasicBlock precedingBlock;
+        private int step;
+        private BasicBlock firstBlockInCondition;
+        private BuiltExpressionResult conditionResult;
+        private BasicBlock firstBlockInBody;
+
+        WhileFrame(int whileStatement, BasicBlock precedingBlock) {
+            this.whileStatement = whileStatement;
+            this.precedingBlock = precedingBlock;
+        }
+
+        @Override
+        public void resume() {
+            switch (step++) {
+                case 0 -> {
+                    firstBlockInCondition = createEmptyBasicBlock("while_condition");
+                    visitExpression(tree.condition(whileStatement), firstBlockInCondition);
+                }
+                case 1 -> {
+                    conditionResult = lastResult;
+                    firstBlockInBody = createEmptyBasicBlock("while_body");
+                    visitStatement(tree.body(whileStatement), firstBlockInBody);
+                }
+                default -> {
+                    BasicBlock lastBlockInBody = lastBlock;
+                    BasicBlock lastBlockInCondition = conditionResult.lastBlock();
+
+                    BasicBlock blockAfterLoop = createEmptyBasicBlock("while_exit");
+
+                    precedingBlock.setTerminator(new UnconditionalBranch(firstBlockInCondition));
+                    lastBlockInBody.setTerminator(new UnconditionalBranch(firstBlockInCondition));
+                    lastBlockInCondition.setTerminator(new ConditionalBranch(conditionResult.value(), firstBlockInBody, blockAfterLoop));
+
+                    completeStatement(blockAfterLoop);
+                }
+            }
+        }
+    }
+
+    private final class IfFrame implements Frame {
+        private final int ifStatement;
+        private final BasicBlock precedingBlock;
+        private int step;
+        private BuiltExpressionResult conditionResult;
+        private BasicBlock firstBlockInBody;
+        private BasicBlock lastBlockInBody;
+        private BasicBlock firstBlockInElseBody;
+
+        IfFrame(int ifStatement, BasicBlock precedingBlock) {
+            this.ifStatement = ifStatement;
+            this.precedingBlock = precedingBlock;
+        }
+
+        @Override
+        public void resume() {
+            switch (step++) {
+                case 0 -> visitExpression(tree.condition(ifStatement), precedingBlock);
+                case 1 -> {
+                    conditionResult = lastResult;
+                    firstBlockInBody = createEmptyBasicBlock("if_body");
+                    visitStatement(tree.body(ifStatement), firstBlockInBody);
+                }
+                case 2 -> {
+                    lastBlockInBody = lastBlock;
+                    BasicBlock lastBlockInCondition = conditionResult.lastBlock();
+                    int elseBody = tree.elseBody(ifStatement);
+                    if (elseBody != NONE) {
+                        firstBlockInElseBody = createEmptyBasicBlock("else_body");
+                        visitStatement(elseBody, firstBlockInElseBody);
+                        return;
+                    }
+
+                    BasicBlock mergeBlock = createEmptyBasicBlock("merge");
+
+                    lastBlockInCondition.setTerminator(new ConditionalBranch(conditionResult.value(), firstBlockInBody, mergeBlock));
+                    lastBlockInBody.setTerminator(new UnconditionalBranch(mergeBlock));
+
+                    completeStatement(mergeBlock);
+                }
+                default -> {
+                    BasicBlock lastBlockInElseBody = lastBlock;
+                    conditionResult.lastBlock().setTerminator(new ConditionalBranch(conditionResult.value(), firstBlockInBody, firstBlockInElseBody));
+
+                    if (tree.hasGuaranteedReturn(ifStatement)) {
+                        // No need to create a merge block or set terminators if both branches return
+                        completeStatement(lastBlockInElseBody);
+                        return;
+                    }
+
+                    BasicBlock mergeBlock = createEmptyBasicBlock("merge");
+                    lastBlockInBody.setTerminator(new UnconditionalBranch(mergeBlock));
+                    lastBlockInElseBody.setTerminator(new UnconditionalBranch(mergeBlock));
+                    completeStatement(mergeBlock);
+                }
+            }
+        }
+    }
+
+    private final class UnaryOperationFrame implements Frame {
+        private final int unaryOperation;
+        private final BasicBlock precedingBlock;
+        private boolean started;
+
+        UnaryOperationFrame(int unaryOperation, BasicBlock precedingBlock) {
+            this.unaryOperation = unaryOperation;
+            this.precedingBlock = precedingBlock;
+        }
+
+        @Override
+        public void resume() {
+            if (!started) {
+                started = true;
+                visitExpression(tree.operand(unaryOperation), precedingBlock);
+                return;
+            }
+            completeExpression(finishUnaryOperation(unaryOperation, lastResult));
+        }
+    }
+
+    private final class BinaryOperationFrame implements Frame {
+        private final int binaryOperation;
+        private final BasicBlock precedingBlock;
+        private int step;
+        private IRValue left;
+
+        BinaryOperationFrame(int binaryOperation, BasicBlock precedingBlock) {
+            this.binaryOperation = binaryOperation;
+            this.precedingBlock = precedingBlock;
+        }
+
+        @Override
+        public void resume() {
+            switch (step++) {
+                case 0 -> visitExpression(tree.left(binaryOperation), precedingBlock);
+                case 1 -> {
+                    left = lastResult.value();
+                    visitExpression(tree.right(binaryOperation), lastResult.lastBlock());
+                }
+                default -> completeExpression(finishBinaryOperation(binaryOperation, left, lastResult));
+            }
+        }
+    }
+
+    /**
+     * Both short-circuiting operations: the right side only runs when the left doesn't decide
+     * the result, and a phi in the exit block picks whichever side ran last
+     */
+    private final class LogicalOperationFrame implements Frame {
+        private final int logicalOperation;
+        private final BasicBlock precedingBlock;
+        private int step;
+        private BuiltExpressionResult leftResult;
+        private BasicBlock exitBlock;
+
+        LogicalOperationFrame(int logicalOperation, BasicBlock precedingBlock) {
+            this.logicalOperation = logicalOperation;
+            this.precedingBlock = precedingBlock;
+        }
+
+        @Override
+        public void resume() {
+            switch (step++) {
+                case 0 -> visitExpression(tree.left(logicalOperation), precedingBlock);
+                case 1 -> {
+                    leftResult = lastResult;
+
+                    BasicBlock evalRightBlock = createEmptyBasicBlock("eval_right");
+                    exitBlock = createEmptyBasicBlock("exit");
+
+                    if (tree.binaryOperation(logicalOperation) == BinaryOperation.BinaryOperationType.LOGICAL_AND) {
+                        leftResult.lastBlock().setTerminator(new ConditionalBranch(leftResult.value(), evalRightBlock, exitBlock));
+                    } else {
+                        leftResult.lastBlock().setTerminator(new ConditionalBranch(leftResult.value(), exitBlock, evalRightBlock));
+                    }
+
+                    visitExpression(tree.right(logicalOperation), evalRightBlock);
+                }
+                default -> {
+                    var rightResult = lastResult;
+
+                    rightResult.lastBlock().setTerminator(new UnconditionalBranch(exitBlock));
+
+                    Temporary destination = allocateTemporary(Type.BOOL);
+                    exitBlock.instructions().add(
+                        new Phi(
+                            destination,
+                            leftResult.lastBlock(), leftResult.value(),
+                            rightResult.lastBlock(), rightResult.value()
+                        )
+                    );
+
+                    completeExpression(new BuiltExpressionResult(destination, exitBlock));
+                }
+            }
+        }
+    }
+
+    private final class FunctionCallFrame implements Frame {
+        private final int functionCall;
+        private final List<IRValue> argumentValues;
+        private BasicBlock currentBlock;
+        private boolean started;
+
+        FunctionCallFrame(int functionCall, BasicBlock precedingBlock) {
+            this.functionCall = functionCall;
+            this.argumentValues = new ArrayList<>();
+            this.currentBlock = precedingBlock;
+        }
+
+        @Override
+        public void resume() {
+            if (started) {
+                currentBlock = lastResult.lastBlock();
+                argumentValues.add(lastResult.value());
+            }
+            started = true;
+
+            if (argumentValues.size() < tree.argumentCount(functionCall)) {
+                visitExpression(tree.argument(functionCall, argumentValues.size()), currentBlock);
+                return;
+            }
+            Temporary destination = allocateTemporary(tree.resultType(functionCall));
+            currentBlock.instructions().add(new FunctionCallInstruction(tree.name(functionCall), tree.symbol(functionCall), destination, argumentValues));
+            completeExpression(new BuiltExpressionResult(destination, currentBlock));
+        }
+    }
+
+    private BasicBlock createEmptyBasicBlock(String name) {
+        var block = new BasicBlock(nextBlockId, name);
+        nextBlockId++;
+        basicBlocks.add(block);
+        return block;
+    }
+
+    private Temporary allocateTemporary(Type type) {
+        return new Temporary(type, nextTemporaryId++);
+    }
+}
@@ -0,0 +1,272 @@
+package luxlang.compiler.ir.analysis;
+
+import luxlang.compiler.ir.instructions.ConditionalBranch;
+import luxlang.compiler.ir.instructions.FunctionReturn;
+import luxlang.compiler.ir.instructions.TerminatorInstruction;
+import luxlang.compiler.ir.instructions.UnconditionalBranch;
+import luxlang.compiler.ir.objects.BasicBlock;
+import luxlang.compiler.ir.objects.IRFunction;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * The edges between the blocks of a function, in both directions, and the orders a forward or
+ * backward pass walks them in. A block is identified by its position in
+ * {@link IRFunction#basicBlocks()}, and the first block is the entry.
+ * <p>
+ * The graph reads the terminators once. After a pass changes any, {@link #refresh()} brings it
+ * up to date; the traversal orders and dominator trees are computed on first use and dropped
+ * whenever the edges are rebuilt.
+ */
+public final class ControlFlowGraph {
+    public static final int NONE = -1;
+
+    private final IRFunction function;
+
+    private TerminatorInstruction[] terminators;
+    // Adjacency lists packed into one array, block b's entries at [starts[b], starts[b + 1])
+    private int[] successorStarts;
+    private int[] successors;
+    private int[] predecessorStarts;
+    private int[] predecessors;
+
+    private int[] postOrder;
+    private int[] postOrderNumbers;
+    private BitSet reachable;
+    private DominatorTree dominatorTree;
+    private DominatorTree postDominatorTree;
+
+    private ControlFlowGraph(IRFunction function) {
+        this.function = function;
+        build();
+    }
+
+    public static ControlFlowGraph of(IRFunction function) {
+        return new ControlFlowGraph(function);
+    }
+
+    public IRFunction function() {
+        return function;
+    }
+
+    public int blockCount() {
+        return terminators.length;
+    }
+
+    public BasicBlock block(int block) {
+        return function.basicBlocks().get(block);
+    }
+
+    public int successorCount(int block) {
+        return successorStarts[block + 1] - successorStarts[block];
+    }
+
+    /**
+     * @return The block's index-th successor; a conditional branch's taken block comes first
+     */
+    public int successor(int block, int index) {
+        return successors[successorStarts[block] + index];
+    }
+
+    /**
+     * @return The distinct blocks the block branches to
+     */
+    public int[] successors(int block) {
+        return Arrays.copyOfRange(successors, successorStarts[block], successorStarts[block + 1]);
+    }
+
+    public int predecessorCount(int block) {
+        return predecessorStarts[block + 1] - predecessorStarts[block];
+    }
+
+    public int predecessor(int block, int index) {
+        return predecessors[predecessorStarts[block] + index];
+    }
+
+    /**
+     * @return The distinct blocks branching to the block, in ascending order
+     */
+    public int[] predecessors(int block) {
+        return Arrays.copyOfRange(predecessors, predecessorStarts[block], predecessorStarts[block + 1]);
+    }
+
+    public boolean isReachable(int block) {
+        computeOrders();
+        return reachable.get(block);
+    }
+
+    /**
+     * @return The blocks reachable from the entry, each after all of its successors except
+     * those reached through a back edge
+     */
+    public int[] postOrder() {
+        computeOrders();
+        return postOrder.clone();
+    }
+
+    /**
+     * @return The blocks reachable from the entry, each before all of its successors except
+     * those reached through a back edge
+     */
+    public int[] reversePostOrder() {
+        computeOrders();
+        int[] reversePostOrder = new int[postOrder.length];
+        for (int index = 0; index < postOrder.length; index++) {
+            reversePostOrder[postOrder.length - 1 - index] = postOrder[index];
+        }
+        return reversePostOrder;
+    }
+
+    /**
+     * @return The block's position in {@link #postOrder()}, or {@link #NONE} if it is unreachable
+     */
+    public int postOrderNumber(int block) {
+        computeOrders();
+        return postOrderNumbers[block];
+    }
+
+    /**
+     * @return The block's position in {@link #reversePostOrder()}, or {@link #NONE} if it is
+     * unreachable
+     */
+    public int reversePostOrderNumber(int block) {
+        computeOrders();
+        int number = postOrderNumbers[block];
+        return number == NONE ? NONE : postOrder.length - 1 - number;
+    }
+
+    public DominatorTree dominatorTree() {
+        if (dominatorTree == null) {
+            dominatorTree = DominatorTree.dominators(this);
+        }
+        return dominatorTree;
+    }
+
+    public DominatorTree postDominatorTree() {
+        if (postDominatorTree == null) {
+            postDominatorTree = DominatorTree.postDominators(this);
+        }
+        return postDominatorTree;
+    }
+
+    /**
+     * Rebuilds the edges if any block's terminator was replaced, or blocks were added or removed,
+     * since they were last built
+     * @return Whether anything changed
+     */
+    public boolean refresh() {
+        List<BasicBlock> blocks = function.basicBlocks();
+        boolean changed = blocks.size() != terminators.length;
+        for (int block = 0; !changed && block < blocks.size(); block++) {
+            changed = blocks.get(block).terminator() != terminators[block];
+        }
+        if (changed) {
+            build();
+        }
+        return changed;
+    }
+
+    private void build() {
+        List<BasicBlock> blocks = function.basicBlocks();
+        int blockCount = blocks.size();
+
+        // Terminators name blocks by id, so map ids back to positions first
+        int maxId = NONE;
+        for (BasicBlock block : blocks) {
+            maxId = Math.max(maxId, block.id());
+        }
+        int[] positions = new int[maxId + 1];
+        for (int position = 0; position < blockCount; position++) {
+            positions[blocks.get(position).id()] = position;
+        }
+
+        terminators = new TerminatorInstruction[blockCount];
+        successorStarts = new int[blockCount + 1];
+        successors = new int[blockCount * 2];
+        int edgeCount = 0;
+        for (int block = 0; block < blockCount; block++) {
+            successorStarts[block] = edgeCount;
+            terminators[block] = blocks.get(block).terminator();
+            switch (terminators[block]) {
+                case UnconditionalBranch branch -> successors[edgeCount++] = positions[branch.target().id()];
+                case ConditionalBranch branch -> {
+                    int taken = positions[branch.taken().id()];
+                    int notTaken = positions[branch.notTaken().id()];
+                    successors[edgeCount++] = taken;
+                    if (notTaken != taken) {
+                        successors[edgeCount++] = notTaken;
+                    }
+                }
+                case FunctionReturn ignored -> { }
+                case null -> { }
+            }
+        }
+        successorStarts[blockCount] = edgeCount;
+        successors = Arrays.copyOf(successors, edgeCount);
+
+        predecessorStarts = new int[blockCount + 1];
+        for (int successor : successors) {
+            predecessorStarts[successor + 1]++;
+        }
+        for (int block = 0; block < blockCount; block++) {
+            predecessorStarts[block + 1] += predecessorStarts[block];
+        }
+        predecessors = new int[edgeCount];
+        int[] cursors = Arrays.copyOf(predecessorStarts, blockCount);
+        // Visiting sources in ascending order leaves every predecessor list sorted
+        for (int block = 0; block < blockCount; block++) {
+            for (int edge = successorStarts[block]; edge < successorStarts[block + 1]; edge++) {
+                predecessors[cursors[successors[edge]]++] = block;
+            }
+        }
+
+        postOrder = null;
+        postOrderNumbers = null;
+        reachable = null;
+        dominatorTree = null;
+        postDominatorTree = null;
+    }
+
+    /**
+     * Depth first from the entry with an explicit stack, so long chains of blocks can't overflow
+     * the Java one
+     */
+    private void computeOrders() {
+        if (postOrder != null) {
+            return;
+        }
+        int blockCount = blockCount();
+        postOrderNumbers = new int[blockCount];
+        Arrays.fill(postOrderNumbers, NONE);
+        reachable = new BitSet(blockCount);
+        int[] order = new int[blockCount];
+        int count = 0;
+
+        if (blockCount > 0) {
+            int[] path = new int[blockCount];
+            int[] nextEdge = new int[blockCount];
+            int depth = 0;
+            reachable.set(0);
+            nextEdge[0] = successorStarts[0];
+            path[depth++] = 0;
+            while (depth > 0) {
+                int block = path[depth - 1];
+                if (nextEdge[block] < successorStarts[block + 1]) {
+                    int successor = successors[nextEdge[block]++];
+                    if (!reachable.get(successor)) {
+                        reachable.set(successor);
+                        nextEdge[successor] = successorStarts[successor];
+                        path[depth++] = successor;
+                    }
+                } else {
+                    depth--;
+                    postOrderNumbers[block] = count;
+                    order[count++] = block;
+                }
+            }
+        }
+        postOrder = Arrays.copyOf(order, count);
+    }
+}
@@ -0,0 +1,367 @@
+package luxlang.compiler.ir.analysis;
+
+import java.util.Arrays;
+
+/**
+ * The dominator or post-dominator tree of a {@link ControlFlowGraph}, with blocks numbered as in
+ * the graph. Get one from {@link ControlFlowGraph#dominatorTree()} or
+ * {@link ControlFlowGraph#postDominatorTree()}, which keep it until the graph's edges change.
+ * <p>
+ * The immediate dominators come from the iterative algorithm of Cooper, Harvey and Kennedy.
+ * Both trees hang off a virtual root: the entry's parent for dominators, and the parent of every
+ * block without successors for post-dominators, so a function with several returns still has one
+ * tree. Numbering the tree's nodes on entry and exit answers {@link #dominates} in constant time.
+ */
+public final class DominatorTree {
+    public static final int NONE = -1;
+
+    private final int blockCount;
+    private final int root;
+
+    // Edges in the direction the tree is built along, packed as in ControlFlowGraph
+    private final int[] successorStarts;
+    private final int[] successors;
+    private final int[] predecessorStarts;
+    private final int[] predecessors;
+
+    private final int[] postOrderNumbers;
+    private final int[] immediateDominators;
+    private final int[] childStarts;
+    private final int[] children;
+    private final int[] enter;
+    private final int[] exit;
+
+    private int[] frontierStarts;
+    private int[] frontiers;
+
+    private DominatorTree(int blockCount, int[] successorStarts, int[] successors, int[] predecessorStarts, int[] predecessors) {
+        this.blockCount = blockCount;
+        this.root = blockCount;
+        this.successorStarts = successorStarts;
+        this.successors = successors;
+        this.predecessorStarts = predecessorStarts;
+        this.predecessors = predecessors;
+
+        int nodeCount = blockCount + 1;
+        this.postOrderNumbers = new int[nodeCount];
+        int[] postOrder = numberPostOrder();
+        this.immediateDominators = findImmediateDominators(postOrder);
+
+        this.childStarts = new int[nodeCount + 1];
+        for (int node = 0; node < blockCount; node++) {
+            if (immediateDominators[node] != NONE) {
+                childStarts[immediateDominators[node] + 1]++;
+            }
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            childStarts[node + 1] += childStarts[node];
+        }
+        this.children = new int[childStarts[nodeCount]];
+        int[] cursors = Arrays.copyOf(childStarts, nodeCount);
+        for (int node = 0; node < blockCount; node++) {
+            if (immediateDominators[node] != NONE) {
+                children[cursors[immediateDominators[node]]++] = node;
+            }
+        }
+
+        this.enter = new int[nodeCount];
+        this.exit = new int[nodeCount];
+        numberIntervals();
+    }
+
+    static DominatorTree dominators(ControlFlowGraph cfg) {
+        int blockCount = cfg.blockCount();
+        int[] successorStarts = new int[blockCount + 2];
+        int[] predecessorStarts = new int[blockCount + 2];
+        int edgeCount = 0;
+        for (int block = 0; block < blockCount; block++) {
+            edgeCount += cfg.successorCount(block);
+        }
+        int[] successors = new int[edgeCount + 1];
+        int[] predecessors = new int[edgeCount + 1];
+
+        int successorCount = 0;
+        int predecessorCount = 0;
+        for (int block = 0; block < blockCount; block++) {
+            successorStarts[block] = successorCount;
+            for (int index = 0; index < cfg.successorCount(block); index++) {
+                successors[successorCount++] = cfg.successor(block, index);
+            }
+            predecessorStarts[block] = predecessorCount;
+            if (block == 0) {
+                predecessors[predecessorCount++] = blockCount;
+            }
+            for (int index = 0; index < cfg.predecessorCount(block); index++) {
+                predecessors[predecessorCount++] = cfg.predecessor(block, index);
+            }
+        }
+        successorStarts[blockCount] = successorCount;
+        if (blockCount > 0) {
+            successors[successorCount++] = 0;
+        }
+        successorStarts[blockCount + 1] = successorCount;
+        predecessorStarts[blockCount] = predecessorCount;
+        predecessorStarts[blockCount + 1] = predecessorCount;
+        return new DominatorTree(blockCount, successorStarts, Arrays.copyOf(successors, successorCount), predecessorStarts, Arrays.copyOf(predecessors, predecessorCount));
+    }
+
+    static DominatorTree postDominators(ControlFlowGraph cfg) {
+        int blockCount = cfg.blockCount();
+        int exitCount = 0;
+        int edgeCount = 0;
+        for (int block = 0; block < blockCount; block++) {
+            edgeCount += cfg.successorCount(block);
+            if (cfg.successorCount(block) == 0) {
+                exitCount++;
+            }
+        }
+        int[] successorStarts = new int[blockCount + 2];
+        int[] predecessorStarts = new int[blockCount + 2];
+        int[] successors = new int[edgeCount + exitCount];
+        int[] predecessors = new int[edgeCount + exitCount];
+
+        // The graph reversed: a block's successors are its predecessors in the function
+        int successorCount = 0;
+        int predecessorCount = 0;
+        for (int block = 0; block < blockCount; block++) {
+            successorStarts[block] = successorCount;
+            for (int index = 0; index < cfg.predecessorCount(block); index++) {
+                successors[successorCount++] = cfg.predecessor(block, index);
+            }
+            predecessorStarts[block] = predecessorCount;
+            if (cfg.successorCount(block) == 0) {
+                predecessors[predecessorCount++] = blockCount;
+            }
+            for (int index = 0; index < cfg.successorCount(block); index++) {
+                predecessors[predecessorCount++] = cfg.successor(block, index);
+            }
+        }
+        successorStarts[blockCount] = successorCount;
+        for (int block = 0; block < blockCount; block++) {
+            if (cfg.successorCount(block) == 0) {
+                successors[successorCount++] = block;
+            }
+        }
+        successorStarts[blockCount + 1] = successorCount;
+        predecessorStarts[blockCount] = predecessorCount;
+        predecessorStarts[blockCount + 1] = predecessorCount;
+        return new DominatorTree(blockCount, successorStarts, successors, predecessorStarts, predecessors);
+    }
+
+    public int blockCount() {
+        return blockCount;
+    }
+
+    /**
+     * @return Whether the block is in the tree: reachable from the entry for dominators, or able
+     * to reach a return for post-dominators
+     */
+    public boolean contains(int block) {
+        return postOrderNumbers[block] != NONE;
+    }
+
+    /**
+     * @return The block's immediate (post-)dominator, or {@link #NONE} for a block at the top of
+     * the tree or outside it
+     */
+    public int immediateDominator(int block) {
+        int dominator = immediateDominators[block];
+        return dominator == root ? NONE : dominator;
+    }
+
+    /**
+     * @return The blocks the block immediately (post-)dominates, in ascending order
+     */
+    public int[] children(int block) {
+        return Arrays.copyOfRange(children, childStarts[block], childStarts[block + 1]);
+    }
+
+    /**
+     * @return The blocks at the top of the tree: the entry for dominators, and for post-dominators
+     * every block that no other block post-dominates
+     */
+    public int[] roots() {
+        return children(root);
+    }
+
+    /**
+     * @return Whether every path from the entry to {@code block} goes through {@code dominator}
+     * (for post-dominators, every path from {@code block} to a return). A block dominates itself.
+     */
+    public boolean dominates(int dominator, int block) {
+        return contains(dominator) && contains(block) && enter[dominator] <= enter[block] && exit[block] <= exit[dominator];
+    }
+
+    public boolean strictlyDominates(int dominator, int block) {
+        return dominator != block && dominates(dominator, block);
+    }
+
+    /**
+     * @return The blocks where the block's dominance ends: those it does not strictly dominate
+     * but that have a predecessor it dominates. For post-dominators, these are the branches the
+     * block is control dependent on.
+     */
+    public int[] dominanceFrontier(int block) {
+        computeFrontiers();
+        return Arrays.copyOfRange(frontiers, frontierStarts[block], frontierStarts[block + 1]);
+    }
+
+    private int[] numberPostOrder() {
+        int nodeCount = blockCount + 1;
+        Arrays.fill(postOrderNumbers, NONE);
+        boolean[] visited = new boolean[nodeCount];
+        int[] postOrder = new int[nodeCount];
+        int[] path = new int[nodeCount];
+        int[] nextEdge = new int[nodeCount];
+        int count = 0;
+        int depth = 0;
+        visited[root] = true;
+        nextEdge[root] = successorStarts[root];
+        path[depth++] = root;
+        while (depth > 0) {
+            int node = path[depth - 1];
+            if (nextEdge[node] < successorStarts[node + 1]) {
+                int successor = successors[nextEdge[node]++];
+                if (!visited[successor]) {
+                    visited[successor] = true;
+                    nextEdge[successor] = successorStarts[successor];
+                    path[depth++] = successor;
+                }
+            } else {
+                depth--;
+                postOrderNumbers[node] = count;
+                postOrder[count++] = node;
+            }
+        }
+        return Arrays.copyOf(postOrder, count);
+    }
+
+    /**
+     * Repeatedly sets each node's dominator to the common ancestor of its processed predecessors,
+     * in reverse post-order, until nothing changes. The root is numbered last in post-order, so
+     * walking up towards higher numbers always ends there.
+     */
+    private int[] findImmediateDominators(int[] postOrder) {
+        int[] dominators = new int[blockCount + 1];
+        Arrays.fill(dominators, NONE);
+        dominators[root] = root;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int index = postOrder.length - 2; index >= 0; index--) {
+                int node = postOrder[index];
+                int dominator = NONE;
+                for (int edge = predecessorStarts[node]; edge < predecessorStarts[node + 1]; edge++) {
+                    int predecessor = predecessors[edge];
+                    if (dominators[predecessor] == NONE) {
+                        continue;
+                    }
+                    dominator = dominator == NONE ? predecessor : intersect(dominators, predecessor, dominator);
+                }
+                if (dominators[node] != dominator) {
+                    dominators[node] = dominator;
+                    changed = true;
+                }
+            }
+        }
+        return dominators;
+    }
+
+    private int intersect(int[] dominators, int first, int second) {
+        while (first != second) {
+            while (postOrderNumbers[first] < postOrderNumbers[second]) {
+                first = dominators[first];
+            }
+            while (postOrderNumbers[second] < postOrderNumbers[first]) {
+                second = dominators[second];
+            }
+        }
+        return first;
+    }
+
+    /**
+     * Numbers the tree depth first, so a node's descendants are exactly the nodes entered after it
+     * and exited before it
+     */
+    private void numberIntervals() {
+        int nodeCount = blockCount + 1;
+        Arrays.fill(enter, NONE);
+        Arrays.fill(exit, NONE);
+        int[] path = new int[nodeCount];
+        int[] nextChild = new int[nodeCount];
+        int clock = 0;
+        int depth = 0;
+        enter[root] = clock++;
+        nextChild[root] = childStarts[root];
+        path[depth++] = root;
+        while (depth > 0) {
+            int node = path[depth - 1];
+            if (nextChild[node] < childStarts[node + 1]) {
+                int child = children[nextChild[node]++];
+                enter[child] = clock++;
+                nextChild[child] = childStarts[child];
+                path[depth++] = child;
+            } else {
+                depth--;
+                exit[node] = clock++;
+            }
+        }
+    }
+
+    /**
+     * Cooper, Harvey and Kennedy's frontier walk: every join node is in the frontier of each node
+     * on the tree path from its predecessors up to, but not including, its immediate dominator
+     */
+    private void computeFrontiers() {
+        if (frontiers != null) {
+            return;
+        }
+        int[] counts = new int[blockCount + 1];
+        int[] lastJoin = new int[blockCount + 1];
+        Arrays.fill(lastJoin, NONE);
+        int total = walkFrontiers(counts, lastJoin, null, null);
+
+        frontierStarts = new int[blockCount + 1];
+        for (int block = 0; block < blockCount; block++) {
+            frontierStarts[block + 1] = frontierStarts[block] + counts[block];
+        }
+        frontiers = new int[total];
+        int[] cursors = Arrays.copyOf(frontierStarts, blockCount);
+        Arrays.fill(lastJoin, NONE);
+        walkFrontiers(null, lastJoin, cursors, frontiers);
+    }
+
+    /**
+     * One pass of the frontier walk, run twice: first counting each block's frontier, then
+     * filling it in
+     * @return The total size of the frontiers
+     */
+    private int walkFrontiers(int[] counts, int[] lastJoin, int[] cursors, int[] frontiers) {
+        int total = 0;
+        for (int join = 0; join < blockCount; join++) {
+            if (!contains(join) || predecessorStarts[join + 1] - predecessorStarts[join] < 2) {
+                continue;
+            }
+            int dominator = immediateDominators[join];
+            for (int edge = predecessorStarts[join]; edge < predecessorStarts[join + 1]; edge++) {
+                int runner = predecessors[edge];
+                if (runner != root && !contains(runner)) {
+                    continue;
+                }
+                // Joins are visited in ascending order, so remembering the last one per block
+                // keeps each frontier free of duplicates
+                while (runner != dominator && runner != root && lastJoin[runner] != join) {
+                    lastJoin[runner] = join;
+                    if (frontiers == null) {
+                        counts[runner]++;
+                    } else {
+                        frontiers[cursors[runner]++] = join;
+                    }
+                    total++;
+                    runner = immediateDominators[runner];
+                }
+            }
+        }
+        return total;
+    }
+}
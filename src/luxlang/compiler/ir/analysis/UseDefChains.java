@@ -0,0 +1,400 @@
+package luxlang.compiler.ir.analysis;
+
+import luxlang.compiler.ir.instructions.*;
+import luxlang.compiler.ir.objects.BasicBlock;
+import luxlang.compiler.ir.objects.IRFunction;
+import luxlang.compiler.ir.values.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Which instruction defines each temporary and which instructions use it, and the same for
+ * locals: their stores and the instructions reading them through a {@link LocalPointer}. Built
+ * with one scan of a function and then kept up to date by {@link #replaceAllUsesWith} and
+ * {@link #erase}, which edit the function in place.
+ * <p>
+ * Instructions are identified by node numbers that stay valid for as long as the chains live.
+ * Erased instructions stay in their block until {@link #removeErased()}, which drops all of them
+ * with one pass per block they were in.
+ */
+public final class UseDefChains {
+    public static final int NONE = -1;
+
+    private final IRFunction function;
+
+    private int[] blockOf;
+    // Position in the block's instructions, or NONE for its terminator
+    private int[] positionOf;
+    private Object[] instructions;
+    private boolean[] erased;
+    private int nodeCount;
+    // Every block's regular instructions in order
+    private final int[][] blockNodes;
+    private final boolean[] blockHasErased;
+
+    private int[] definitions;
+    private NodeList[] temporaryUses;
+    private final NodeList[] localReads;
+    private final NodeList[] localStores;
+
+    private UseDefChains(IRFunction function) {
+        this.function = function;
+        this.blockOf = new int[16];
+        this.positionOf = new int[16];
+        this.instructions = new Object[16];
+        this.erased = new boolean[16];
+        this.blockNodes = new int[function.basicBlocks().size()][];
+        this.blockHasErased = new boolean[function.basicBlocks().size()];
+        this.definitions = new int[16];
+        Arrays.fill(definitions, NONE);
+        this.temporaryUses = new NodeList[16];
+        this.localReads = new NodeList[function.locals().size()];
+        this.localStores = new NodeList[function.locals().size()];
+        for (int local = 0; local < localReads.length; local++) {
+            localReads[local] = new NodeList();
+            localStores[local] = new NodeList();
+        }
+    }
+
+    public static UseDefChains of(IRFunction function) {
+        var chains = new UseDefChains(function);
+        List<BasicBlock> blocks = function.basicBlocks();
+        for (int block = 0; block < blocks.size(); block++) {
+            List<RegularInstruction> blockInstructions = blocks.get(block).instructions();
+            int[] nodes = new int[blockInstructions.size()];
+            for (int position = 0; position < nodes.length; position++) {
+                nodes[position] = chains.addNode(block, position, blockInstructions.get(position));
+            }
+            chains.blockNodes[block] = nodes;
+            if (blocks.get(block).terminator() != null) {
+                chains.addNode(block, NONE, blocks.get(block).terminator());
+            }
+        }
+        return chains;
+    }
+
+    public IRFunction function() {
+        return function;
+    }
+
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    public BasicBlock block(int node) {
+        return function.basicBlocks().get(blockOf[node]);
+    }
+
+    public boolean isTerminator(int node) {
+        return positionOf[node] == NONE;
+    }
+
+    public boolean isErased(int node) {
+        return erased[node];
+    }
+
+    /**
+     * @return The node's instruction as it currently is, or null for a terminator
+     */
+    public RegularInstruction instruction(int node) {
+        return instructions[node] instanceof RegularInstruction instruction ? instruction : null;
+    }
+
+    /**
+     * @return The node's terminator as it currently is, or null for a regular instruction
+     */
+    public TerminatorInstruction terminator(int node) {
+        return instructions[node] instanceof TerminatorInstruction terminator ? terminator : null;
+    }
+
+    /**
+     * @return The node defining the temporary, or {@link #NONE} if nothing left does
+     */
+    public int definition(Temporary temporary) {
+        return temporary.id() < definitions.length ? definitions[temporary.id()] : NONE;
+    }
+
+    /**
+     * @return The nodes using a temporary, or reading a local for a {@link LocalPointer}, once
+     * per use, in no particular order
+     */
+    public int[] uses(IRValue value) {
+        NodeList uses = usesOf(value, false);
+        return uses == null ? new int[0] : uses.toArray();
+    }
+
+    /**
+     * @return The nodes storing to the local, in no particular order
+     */
+    public int[] stores(int localId) {
+        return localStores[localId].toArray();
+    }
+
+    /**
+     * Makes every instruction using {@code value} use {@code replacement} instead
+     * @param value A temporary, or a {@link LocalPointer} to replace reads of the local
+     */
+    public void replaceAllUsesWith(IRValue value, IRValue replacement) {
+        if (value instanceof IntegerConstant || value instanceof FloatingPointConstant || value instanceof BooleanConstant) {
+            throw new IllegalArgumentException("Constants have no uses to replace");
+        }
+        if (value.equals(replacement)) {
+            return;
+        }
+        NodeList uses = usesOf(value, false);
+        if (uses == null || uses.size == 0) {
+            return;
+        }
+        NodeList replacementUses = usesOf(replacement, true);
+        for (int index = 0; index < uses.size; index++) {
+            int node = uses.nodes[index];
+            // A node using the value twice is listed twice; the second rewrite finds nothing to change
+            setInstruction(node, replaceOperand(instructions[node], value, replacement));
+            if (replacementUses != null) {
+                replacementUses.add(node);
+            }
+        }
+        uses.size = 0;
+    }
+
+    /**
+     * Takes a regular instruction out of the function. Its block keeps it until
+     * {@link #removeErased()}, but it no longer counts as a use or definition of anything.
+     * @throws IllegalStateException If the node is a terminator, or defines a temporary that is
+     * still used
+     */
+    public void erase(int node) {
+        if (erased[node]) {
+            return;
+        }
+        if (isTerminator(node)) {
+            throw new IllegalStateException("Erasing the terminator of " + block(node).label());
+        }
+        Temporary destination = destination(instructions[node]);
+        if (destination != null) {
+            NodeList uses = usesOf(destination, false);
+            if (uses != null && uses.size > 0) {
+                throw new IllegalStateException("Erasing the definition of " + destination.serialize() + " while it is still used");
+            }
+            definitions[destination.id()] = NONE;
+        }
+        for (IRValue operand : operands(instructions[node])) {
+            NodeList uses = usesOf(operand, false);
+            if (uses != null) {
+                uses.remove(node);
+            }
+        }
+        if (instructions[node] instanceof StoreToLocal store) {
+            localStores[store.localId()].remove(node);
+        }
+        erased[node] = true;
+        blockHasErased[blockOf[node]] = true;
+    }
+
+    /**
+     * Drops every erased instruction from its block
+     */
+    public void removeErased() {
+        List<BasicBlock> blocks = function.basicBlocks();
+        for (int block = 0; block < blocks.size(); block++) {
+            if (!blockHasErased[block]) {
+                continue;
+            }
+            int[] nodes = blockNodes[block];
+            int kept = 0;
+            for (int node : nodes) {
+                if (!erased[node]) {
+                    positionOf[node] = kept;
+                    nodes[kept++] = node;
+                }
+            }
+            blockNodes[block] = Arrays.copyOf(nodes, kept);
+
+            List<RegularInstruction> blockInstructions = blocks.get(block).instructions();
+            blockInstructions.clear();
+            for (int node : blockNodes[block]) {
+                blockInstructions.add((RegularInstruction) instructions[node]);
+            }
+            blockHasErased[block] = false;
+        }
+    }
+
+    private int addNode(int block, int position, Object instruction) {
+        if (nodeCount == instructions.length) {
+            int capacity = nodeCount * 2;
+            blockOf = Arrays.copyOf(blockOf, capacity);
+            positionOf = Arrays.copyOf(positionOf, capacity);
+            instructions = Arrays.copyOf(instructions, capacity);
+            erased = Arrays.copyOf(erased, capacity);
+        }
+        int node = nodeCount++;
+        blockOf[node] = block;
+        positionOf[node] = position;
+        instructions[node] = instruction;
+
+        Temporary destination = destination(instruction);
+        if (destination != null) {
+            growTemporaries(destination.id());
+            definitions[destination.id()] = node;
+        }
+        for (IRValue operand : operands(instruction)) {
+            NodeList uses = usesOf(operand, true);
+            if (uses != null) {
+                uses.add(node);
+            }
+        }
+        if (instruction instanceof StoreToLocal store) {
+            localStores[store.localId()].add(node);
+        }
+        return node;
+    }
+
+    private void setInstruction(int node, Object instruction) {
+        instructions[node] = instruction;
+        BasicBlock block = block(node);
+        if (instruction instanceof TerminatorInstruction terminator) {
+            block.replaceTerminator(terminator);
+        } else if (!erased[node]) {
+            block.instructions().set(positionOf[node], (RegularInstruction) instruction);
+        }
+    }
+
+    /**
+     * @return The use list of a temporary or local, or null for a constant
+     */
+    private NodeList usesOf(IRValue value, boolean create) {
+        return switch (value) {
+            case Temporary temporary -> {
+                if (temporary.id() >= temporaryUses.length) {
+                    if (!create) {
+                        yield null;
+                    }
+                    growTemporaries(temporary.id());
+                }
+                if (temporaryUses[temporary.id()] == null && create) {
+                    temporaryUses[temporary.id()] = new NodeList();
+                }
+                yield temporaryUses[temporary.id()];
+            }
+            case LocalPointer localPointer -> localReads[localPointer.localId()];
+            case IntegerConstant ignored -> null;
+            case FloatingPointConstant ignored -> null;
+            case BooleanConstant ignored -> null;
+        };
+    }
+
+    private void growTemporaries(int id) {
+        if (id < definitions.length) {
+            return;
+        }
+        int capacity = Math.max(definitions.length * 2, id + 1);
+        int oldLength = definitions.length;
+        definitions = Arrays.copyOf(definitions, capacity);
+        Arrays.fill(definitions, oldLength, capacity, NONE);
+        temporaryUses = Arrays.copyOf(temporaryUses, capacity);
+    }
+
+    private static Temporary destination(Object instruction) {
+        return switch (instruction) {
+            case Add add                      -> add.destination();
+            case Subtract subtract            -> subtract.destination();
+            case Multiply multiply            -> multiply.destination();
+            case Divide divide                -> divide.destination();
+            case Modulo modulo                -> modulo.destination();
+            case And and                      -> and.destination();
+            case Or or                        -> or.destination();
+            case Xor xor                      -> xor.destination();
+            case Not not                      -> not.destination();
+            case Negate negate                -> negate.destination();
+            case Compare compare              -> compare.destination();
+            case Phi phi                      -> phi.destination();
+            case FunctionCallInstruction call -> call.destination();
+            default                           -> null;
+        };
+    }
+
+    private static List<IRValue> operands(Object instruction) {
+        return switch (instruction) {
+            case Add add                       -> List.of(add.operand1(), add.operand2());
+            case Subtract subtract             -> List.of(subtract.operand1(), subtract.operand2());
+            case Multiply multiply             -> List.of(multiply.operand1(), multiply.operand2());
+            case Divide divide                 -> List.of(divide.operand1(), divide.operand2());
+            case Modulo modulo                 -> List.of(modulo.operand1(), modulo.operand2());
+            case And and                       -> List.of(and.operand1(), and.operand2());
+            case Or or                         -> List.of(or.operand1(), or.operand2());
+            case Xor xor                       -> List.of(xor.operand1(), xor.operand2());
+            case Not not                       -> List.of(not.operand());
+            case Negate negate                 -> List.of(negate.operand());
+            case Compare compare               -> List.of(compare.left(), compare.right());
+            case Phi phi                       -> List.of(phi.value1(), phi.value2());
+            case FunctionCallInstruction call  -> call.arguments();
+            case StoreToLocal store            -> List.of(store.value());
+            case ConditionalBranch branch      -> List.of(branch.condition());
+            case FunctionReturn functionReturn -> functionReturn.returnValue() == null ? List.of() : List.of(functionReturn.returnValue());
+            case UnconditionalBranch ignored   -> List.of();
+            default -> throw new IllegalArgumentException("Unknown instruction " + instruction);
+        };
+    }
+
+    private static Object replaceOperand(Object instruction, IRValue value, IRValue replacement) {
+        return switch (instruction) {
+            case Add add             -> new Add(add.destination(), swap(add.operand1(), value, replacement), swap(add.operand2(), value, replacement));
+            case Subtract subtract   -> new Subtract(subtract.destination(), swap(subtract.operand1(), value, replacement), swap(subtract.operand2(), value, replacement));
+            case Multiply multiply   -> new Multiply(multiply.destination(), swap(multiply.operand1(), value, replacement), swap(multiply.operand2(), value, replacement));
+            case Divide divide       -> new Divide(divide.destination(), swap(divide.operand1(), value, replacement), swap(divide.operand2(), value, replacement));
+            case Modulo modulo       -> new Modulo(modulo.destination(), swap(modulo.operand1(), value, replacement), swap(modulo.operand2(), value, replacement));
+            case And and             -> new And(and.destination(), swap(and.operand1(), value, replacement), swap(and.operand2(), value, replacement));
+            case Or or               -> new Or(or.destination(), swap(or.operand1(), value, replacement), swap(or.operand2(), value, replacement));
+            case Xor xor             -> new Xor(xor.destination(), swap(xor.operand1(), value, replacement), swap(xor.operand2(), value, replacement));
+            case Not not             -> new Not(not.destination(), swap(not.operand(), value, replacement));
+            case Negate negate       -> new Negate(negate.destination(), swap(negate.operand(), value, replacement));
+            case Compare compare     -> new Compare(compare.destination(), swap(compare.left(), value, replacement), compare.comparisonType(), swap(compare.right(), value, replacement));
+            case Phi phi             -> new Phi(phi.destination(), phi.block1(), swap(phi.value1(), value, replacement), phi.block2(), swap(phi.value2(), value, replacement));
+            case FunctionCallInstruction call -> {
+                List<IRValue> arguments = new ArrayList<>(call.arguments().size());
+                for (IRValue argument : call.arguments()) {
+                    arguments.add(swap(argument, value, replacement));
+                }
+                yield new FunctionCallInstruction(call.name(), call.symbol(), call.destination(), arguments);
+            }
+            case StoreToLocal store  -> new StoreToLocal(store.localId(), swap(store.value(), value, replacement));
+            case ConditionalBranch branch -> new ConditionalBranch(swap(branch.condition(), value, replacement), branch.taken(), branch.notTaken());
+            case FunctionReturn functionReturn -> new FunctionReturn(swap(functionReturn.returnValue(), value, replacement));
+            default -> throw new IllegalArgumentException("No operand to replace in " + instruction);
+        };
+    }
+
+    private static IRValue swap(IRValue operand, IRValue value, IRValue replacement) {
+        return value.equals(operand) ? replacement : operand;
+    }
+
+    /**
+     * A growable list of nodes, where removing one swaps the last into its place
+     */
+    private static final class NodeList {
+        private int[] nodes = new int[4];
+        private int size;
+
+        void add(int node) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size * 2);
+            }
+            nodes[size++] = node;
+        }
+
+        void remove(int node) {
+            for (int index = 0; index < size; index++) {
+                if (nodes[index] == node) {
+                    nodes[index] = nodes[--size];
+                    return;
+                }
+            }
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(nodes, size);
+        }
+    }
+}
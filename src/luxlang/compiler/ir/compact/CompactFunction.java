@@ -0,0 +1,373 @@
+package luxlang.compiler.ir.compact;
+
+import luxlang.compiler.parser.nodes.Type;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The IR of one function as parallel primitive columns instead of a graph of records.
+ * Instructions are stored block after block, each block ending with its terminator if it has one,
+ * and their operands are packed into one array, instruction i's at
+ * [operandStarts[i], operandStarts[i + 1]). Locals, temporaries, constants and callees are
+ * columns indexed by their id, so a value operand is only an int: its kind in the low two bits
+ * and its id above them.
+ * <p>
+ * A function is filled in order by {@link CompactIREncoder} and is only read after that.
+ */
+public final class CompactFunction {
+    public static final int NONE = -1;
+
+    public static final int TEMPORARY = 0;
+    public static final int LOCAL = 1;
+    public static final int CONSTANT = 2;
+
+    private static final Opcode[] OPCODES = Opcode.values();
+    private static final Type[] TYPES = Type.values();
+    private static final ConstantKind[] CONSTANT_KINDS = ConstantKind.values();
+    private static final int MIN_CAPACITY = 16;
+
+    public enum ConstantKind {
+        INTEGER,
+        FLOATING_POINT,
+        BOOLEAN
+    }
+
+    private final String name;
+    private final Type returnType;
+    private final List<Type> parameterTypes;
+
+    private String[] localNames;
+    private int[] localSymbols;
+    private byte[] localTypes;
+    private int localCount;
+
+    private byte[] temporaryTypes;
+    private int temporaryCount;
+
+    private byte[] constantKinds;
+    private byte[] constantTypes;
+    // Integers as themselves, floating point values as their raw bits, booleans as 0 or 1
+    private long[] constantBits;
+    private int constantCount;
+
+    private String[] calleeNames;
+    private int[] calleeSymbols;
+    private int calleeCount;
+
+    private int[] blockIds;
+    private String[] blockNames;
+    private int[] blockStarts;
+    private int blockCount;
+
+    private byte[] opcodes;
+    private int[] destinations;
+    private int[] payloads;
+    private int[] operandStarts;
+    private int instructionCount;
+
+    private int[] operands;
+    private int operandCount;
+
+    public CompactFunction(String name, Type returnType, List<Type> parameterTypes) {
+        this.name = name;
+        this.returnType = returnType;
+        this.parameterTypes = parameterTypes;
+        this.localNames = new String[MIN_CAPACITY];
+        this.localSymbols = new int[MIN_CAPACITY];
+        this.localTypes = new byte[MIN_CAPACITY];
+        this.temporaryTypes = new byte[MIN_CAPACITY];
+        this.constantKinds = new byte[MIN_CAPACITY];
+        this.constantTypes = new byte[MIN_CAPACITY];
+        this.constantBits = new long[MIN_CAPACITY];
+        this.calleeNames = new String[MIN_CAPACITY];
+        this.calleeSymbols = new int[MIN_CAPACITY];
+        this.blockIds = new int[MIN_CAPACITY];
+        this.blockNames = new String[MIN_CAPACITY];
+        this.blockStarts = new int[MIN_CAPACITY];
+        this.opcodes = new byte[MIN_CAPACITY];
+        this.destinations = new int[MIN_CAPACITY];
+        this.payloads = new int[MIN_CAPACITY];
+        this.operandStarts = new int[MIN_CAPACITY + 1];
+        this.operands = new int[MIN_CAPACITY * 2];
+    }
+
+    public static int temporary(int id) {
+        return id << 2 | TEMPORARY;
+    }
+
+    public static int local(int id) {
+        return id << 2 | LOCAL;
+    }
+
+    public static int constant(int id) {
+        return id << 2 | CONSTANT;
+    }
+
+    /**
+     * @return {@link #TEMPORARY}, {@link #LOCAL} or {@link #CONSTANT}
+     */
+    public static int operandKind(int operand) {
+        return operand & 3;
+    }
+
+    public static int operandId(int operand) {
+        return operand >>> 2;
+    }
+
+    /**
+     * @return The new local's id, which is its position
+     */
+    public int addLocal(String name, int symbol, Type type) {
+        if (localCount == localNames.length) {
+            int capacity = localCount * 2;
+            localNames = Arrays.copyOf(localNames, capacity);
+            localSymbols = Arrays.copyOf(localSymbols, capacity);
+            localTypes = Arrays.copyOf(localTypes, capacity);
+        }
+        localNames[localCount] = name;
+        localSymbols[localCount] = symbol;
+        localTypes[localCount] = (byte) type.ordinal();
+        return localCount++;
+    }
+
+    /**
+     * Records the type of a temporary, growing the temporaries to include its id
+     */
+    public void setTemporaryType(int id, Type type) {
+        if (id >= temporaryTypes.length) {
+            temporaryTypes = Arrays.copyOf(temporaryTypes, Math.max(temporaryTypes.length * 2, id + 1));
+        }
+        temporaryTypes[id] = (byte) type.ordinal();
+        temporaryCount = Math.max(temporaryCount, id + 1);
+    }
+
+    /**
+     * @return The new constant's id
+     */
+    public int addConstant(ConstantKind kind, Type type, long bits) {
+        if (constantCount == constantKinds.length) {
+            int capacity = constantCount * 2;
+            constantKinds = Arrays.copyOf(constantKinds, capacity);
+            constantTypes = Arrays.copyOf(constantTypes, capacity);
+            constantBits = Arrays.copyOf(constantBits, capacity);
+        }
+        constantKinds[constantCount] = (byte) kind.ordinal();
+        constantTypes[constantCount] = (byte) type.ordinal();
+        constantBits[constantCount] = bits;
+        return constantCount++;
+    }
+
+    /**
+     * @return The new callee's index, for a {@link Opcode#CALL}'s payload
+     */
+    public int addCallee(String name, int symbol) {
+        if (calleeCount == calleeNames.length) {
+            int capacity = calleeCount * 2;
+            calleeNames = Arrays.copyOf(calleeNames, capacity);
+            calleeSymbols = Arrays.copyOf(calleeSymbols, capacity);
+        }
+        calleeNames[calleeCount] = name;
+        calleeSymbols[calleeCount] = symbol;
+        return calleeCount++;
+    }
+
+    /**
+     * Starts a block; every instruction added from here on belongs to it until the next one starts
+     * @return The block's position
+     */
+    public int addBlock(int id, String name) {
+        if (blockCount == blockIds.length) {
+            int capacity = blockCount * 2;
+            blockIds = Arrays.copyOf(blockIds, capacity);
+            blockNames = Arrays.copyOf(blockNames, capacity);
+            blockStarts = Arrays.copyOf(blockStarts, capacity);
+        }
+        blockIds[blockCount] = id;
+        blockNames[blockCount] = name;
+        blockStarts[blockCount] = instructionCount;
+        return blockCount++;
+    }
+
+    /**
+     * Appends an instruction to the current block. Its operands must be added right after it.
+     * @param destination The id of the temporary it defines, or {@link #NONE}
+     * @return The instruction's index
+     */
+    public int addInstruction(Opcode opcode, int destination, int payload) {
+        if (instructionCount == opcodes.length) {
+            int capacity = instructionCount * 2;
+            opcodes = Arrays.copyOf(opcodes, capacity);
+            destinations = Arrays.copyOf(destinations, capacity);
+            payloads = Arrays.copyOf(payloads, capacity);
+            operandStarts = Arrays.copyOf(operandStarts, capacity + 1);
+        }
+        opcodes[instructionCount] = (byte) opcode.ordinal();
+        destinations[instructionCount] = destination;
+        payloads[instructionCount] = payload;
+        operandStarts[instructionCount] = operandCount;
+        operandStarts[instructionCount + 1] = operandCount;
+        return instructionCount++;
+    }
+
+    /**
+     * Adds an operand to the last instruction
+     */
+    public void addOperand(int operand) {
+        if (operandCount == operands.length) {
+            operands = Arrays.copyOf(operands, operandCount * 2);
+        }
+        operands[operandCount++] = operand;
+        operandStarts[instructionCount] = operandCount;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public Type returnType() {
+        return returnType;
+    }
+
+    public List<Type> parameterTypes() {
+        return parameterTypes;
+    }
+
+    public int localCount() {
+        return localCount;
+    }
+
+    public String localName(int local) {
+        return localNames[local];
+    }
+
+    public int localSymbol(int local) {
+        return localSymbols[local];
+    }
+
+    public Type localType(int local) {
+        return TYPES[localTypes[local]];
+    }
+
+    public int temporaryCount() {
+        return temporaryCount;
+    }
+
+    public Type temporaryType(int temporary) {
+        return TYPES[temporaryTypes[temporary]];
+    }
+
+    public int constantCount() {
+        return constantCount;
+    }
+
+    public ConstantKind constantKind(int constant) {
+        return CONSTANT_KINDS[constantKinds[constant]];
+    }
+
+    public Type constantType(int constant) {
+        return TYPES[constantTypes[constant]];
+    }
+
+    /**
+     * @return An integer constant's value, a floating point constant's raw bits, or 1 or 0 for
+     * a boolean constant
+     */
+    public long constantBits(int constant) {
+        return constantBits[constant];
+    }
+
+    public int calleeCount() {
+        return calleeCount;
+    }
+
+    public String calleeName(int callee) {
+        return calleeNames[callee];
+    }
+
+    public int calleeSymbol(int callee) {
+        return calleeSymbols[callee];
+    }
+
+    /**
+     * @return The type of an encoded value operand
+     */
+    public Type operandType(int operand) {
+        int id = operandId(operand);
+        return switch (operandKind(operand)) {
+            case TEMPORARY -> temporaryType(id);
+            case LOCAL     -> localType(id);
+            default        -> constantType(id);
+        };
+    }
+
+    public int blockCount() {
+        return blockCount;
+    }
+
+    public int blockId(int block) {
+        return blockIds[block];
+    }
+
+    public String blockName(int block) {
+        return blockNames[block];
+    }
+
+    /**
+     * @return The index of the block's first instruction
+     */
+    public int blockStart(int block) {
+        return blockStarts[block];
+    }
+
+    /**
+     * @return The index just past the block's last instruction
+     */
+    public int blockEnd(int block) {
+        return block + 1 < blockCount ? blockStarts[block + 1] : instructionCount;
+    }
+
+    /**
+     * @return The index of the block's terminator, or {@link #NONE} if it has none
+     */
+    public int terminator(int block) {
+        int end = blockEnd(block);
+        return end > blockStarts[block] && opcode(end - 1).isTerminator() ? end - 1 : NONE;
+    }
+
+    public int instructionCount() {
+        return instructionCount;
+    }
+
+    public Opcode opcode(int instruction) {
+        return OPCODES[opcodes[instruction]];
+    }
+
+    /**
+     * @return The id of the temporary the instruction defines, or {@link #NONE}
+     */
+    public int destination(int instruction) {
+        return destinations[instruction];
+    }
+
+    public int payload(int instruction) {
+        return payloads[instruction];
+    }
+
+    public int operandCount(int instruction) {
+        return operandStarts[instruction + 1] - operandStarts[instruction];
+    }
+
+    public int operand(int instruction, int index) {
+        return operands[operandStarts[instruction] + index];
+    }
+
+    /**
+     * @return A cursor before the first instruction of the block
+     */
+    public InstructionCursor cursor(int block) {
+        var cursor = new InstructionCursor(this);
+        cursor.reset(block);
+        return cursor;
+    }
+}
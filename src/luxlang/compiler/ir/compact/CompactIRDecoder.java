@@ -0,0 +1,143 @@
+package luxlang.compiler.ir.compact;
+
+import luxlang.compiler.ir.instructions.*;
+import luxlang.compiler.ir.instructions.Compare.ComparisonType;
+import luxlang.compiler.ir.objects.BasicBlock;
+import luxlang.compiler.ir.objects.IRFunction;
+import luxlang.compiler.ir.objects.IRLocal;
+import luxlang.compiler.ir.objects.IRModule;
+import luxlang.compiler.ir.values.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static luxlang.compiler.ir.compact.CompactFunction.NONE;
+
+/**
+ * Rebuilds the IR object model from {@link CompactFunction}s, for stages that still need it.
+ * Every temporary, local pointer and constant is materialized once and shared by its uses.
+ */
+public final class CompactIRDecoder {
+    private static final ComparisonType[] COMPARISON_TYPES = ComparisonType.values();
+
+    private CompactFunction function;
+    private List<BasicBlock> blocks;
+    private Temporary[] temporaries;
+    private LocalPointer[] localPointers;
+    private IRValue[] constants;
+
+    public IRModule decode(List<CompactFunction> functions) {
+        List<IRFunction> irFunctions = new ArrayList<>(functions.size());
+        for (CompactFunction compactFunction : functions) {
+            irFunctions.add(decodeFunction(compactFunction));
+        }
+        return new IRModule(irFunctions);
+    }
+
+    public IRFunction decodeFunction(CompactFunction compactFunction) {
+        function = compactFunction;
+        temporaries = new Temporary[function.temporaryCount()];
+        localPointers = new LocalPointer[function.localCount()];
+        constants = new IRValue[function.constantCount()];
+
+        List<IRLocal> locals = new ArrayList<>(function.localCount());
+        for (int local = 0; local < function.localCount(); local++) {
+            locals.add(new IRLocal(function.localName(local), function.localSymbol(local), function.localType(local), local));
+        }
+
+        blocks = new ArrayList<>(function.blockCount());
+        for (int block = 0; block < function.blockCount(); block++) {
+            blocks.add(new BasicBlock(function.blockId(block), function.blockName(block)));
+        }
+
+        InstructionCursor cursor = new InstructionCursor(function);
+        for (int block = 0; block < function.blockCount(); block++) {
+            BasicBlock basicBlock = blocks.get(block);
+            cursor.reset(block);
+            while (cursor.next()) {
+                if (cursor.opcode().isTerminator()) {
+                    basicBlock.setTerminator(decodeTerminator(cursor));
+                } else {
+                    basicBlock.instructions().add(decodeInstruction(cursor));
+                }
+            }
+        }
+
+        return new IRFunction(function.name(), function.returnType(), function.parameterTypes(), locals, blocks);
+    }
+
+    private RegularInstruction decodeInstruction(InstructionCursor cursor) {
+        Temporary destination = cursor.destination() == NONE ? null : temporary(cursor.destination());
+        return switch (cursor.opcode()) {
+            case ADD      -> new Add(destination, value(cursor.operand(0)), value(cursor.operand(1)));
+            case SUBTRACT -> new Subtract(destination, value(cursor.operand(0)), value(cursor.operand(1)));
+            case MULTIPLY -> new Multiply(destination, value(cursor.operand(0)), value(cursor.operand(1)));
+            case DIVIDE   -> new Divide(destination, value(cursor.operand(0)), value(cursor.operand(1)));
+            case MODULO   -> new Modulo(destination, value(cursor.operand(0)), value(cursor.operand(1)));
+            case AND      -> new And(destination, value(cursor.operand(0)), value(cursor.operand(1)));
+            case OR       -> new Or(destination, value(cursor.operand(0)), value(cursor.operand(1)));
+            case XOR      -> new Xor(destination, value(cursor.operand(0)), value(cursor.operand(1)));
+            case NOT      -> new Not(destination, value(cursor.operand(0)));
+            case NEGATE   -> new Negate(destination, value(cursor.operand(0)));
+            case COMPARE  -> new Compare(destination, value(cursor.operand(0)), COMPARISON_TYPES[cursor.payload()], value(cursor.operand(1)));
+            case PHI -> new Phi(
+                destination,
+                blocks.get(cursor.operand(0)), value(cursor.operand(1)),
+                blocks.get(cursor.operand(2)), value(cursor.operand(3))
+            );
+            case CALL -> {
+                List<IRValue> arguments = new ArrayList<>(cursor.operandCount());
+                for (int index = 0; index < cursor.operandCount(); index++) {
+                    arguments.add(value(cursor.operand(index)));
+                }
+                int callee = cursor.payload();
+                yield new FunctionCallInstruction(function.calleeName(callee), function.calleeSymbol(callee), destination, arguments);
+            }
+            case STORE -> new StoreToLocal(cursor.payload(), value(cursor.operand(0)));
+            case BRANCH, CONDITIONAL_BRANCH, RETURN -> throw new IllegalStateException("Decoding terminator as regular instruction");
+        };
+    }
+
+    private TerminatorInstruction decodeTerminator(InstructionCursor cursor) {
+        return switch (cursor.opcode()) {
+            case BRANCH -> new UnconditionalBranch(blocks.get(cursor.operand(0)));
+            case CONDITIONAL_BRANCH -> new ConditionalBranch(
+                value(cursor.operand(0)),
+                blocks.get(cursor.operand(1)),
+                blocks.get(cursor.operand(2))
+            );
+            case RETURN -> new FunctionReturn(cursor.operandCount() == 0 ? null : value(cursor.operand(0)));
+            default -> throw new IllegalStateException("Decoding " + cursor.opcode() + " as terminator");
+        };
+    }
+
+    private Temporary temporary(int id) {
+        if (temporaries[id] == null) {
+            temporaries[id] = new Temporary(function.temporaryType(id), id);
+        }
+        return temporaries[id];
+    }
+
+    private IRValue value(int operand) {
+        int id = CompactFunction.operandId(operand);
+        return switch (CompactFunction.operandKind(operand)) {
+            case CompactFunction.TEMPORARY -> temporary(id);
+            case CompactFunction.LOCAL -> {
+                if (localPointers[id] == null) {
+                    localPointers[id] = new LocalPointer(function.localType(id), id);
+                }
+                yield localPointers[id];
+            }
+            default -> {
+                if (constants[id] == null) {
+                    constants[id] = switch (function.constantKind(id)) {
+                        case INTEGER        -> new IntegerConstant(function.constantType(id), function.constantBits(id));
+                        case FLOATING_POINT -> new FloatingPointConstant(function.constantType(id), Double.longBitsToDouble(function.constantBits(id)));
+                        case BOOLEAN        -> new BooleanConstant(function.constantBits(id) != 0);
+                    };
+                }
+                yield constants[id];
+            }
+        };
+    }
+}
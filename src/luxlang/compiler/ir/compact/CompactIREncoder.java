@@ -0,0 +1,175 @@
+package luxlang.compiler.ir.compact;
+
+import luxlang.compiler.ir.compact.CompactFunction.ConstantKind;
+import luxlang.compiler.ir.instructions.*;
+import luxlang.compiler.ir.objects.BasicBlock;
+import luxlang.compiler.ir.objects.IRFunction;
+import luxlang.compiler.ir.objects.IRLocal;
+import luxlang.compiler.ir.objects.IRModule;
+import luxlang.compiler.ir.values.*;
+import luxlang.compiler.parser.nodes.Type;
+import luxlang.compiler.util.IntMap;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static luxlang.compiler.ir.compact.CompactFunction.NONE;
+
+/**
+ * Converts IR functions into {@link CompactFunction}s. Equal constants and calls to the same
+ * function share one entry per function.
+ */
+public final class CompactIREncoder {
+    private CompactFunction function;
+    private int[] blockPositions;
+    private Map<IRValue, Integer> constantIds;
+    private IntMap<Integer> calleeIds;
+
+    public List<CompactFunction> encode(IRModule module) {
+        List<CompactFunction> functions = new ArrayList<>(module.functions().size());
+        for (IRFunction irFunction : module.functions()) {
+            functions.add(encodeFunction(irFunction));
+        }
+        return functions;
+    }
+
+    public CompactFunction encodeFunction(IRFunction irFunction) {
+        function = new CompactFunction(irFunction.name(), irFunction.returnType(), irFunction.parameterTypes());
+        constantIds = new HashMap<>();
+        calleeIds = new IntMap<>();
+
+        for (IRLocal local : irFunction.locals()) {
+            function.addLocal(local.name(), local.symbol(), local.type());
+        }
+
+        // Branches name blocks that may come later, so every block's position is known up front
+        int maxId = NONE;
+        for (BasicBlock block : irFunction.basicBlocks()) {
+            maxId = Math.max(maxId, block.id());
+        }
+        blockPositions = new int[maxId + 1];
+        for (int position = 0; position < irFunction.basicBlocks().size(); position++) {
+            blockPositions[irFunction.basicBlocks().get(position).id()] = position;
+        }
+
+        for (BasicBlock block : irFunction.basicBlocks()) {
+            function.addBlock(block.id(), block.name());
+            for (RegularInstruction instruction : block.instructions()) {
+                encodeInstruction(instruction);
+            }
+            if (block.terminator() != null) {
+                encodeTerminator(block.terminator());
+            }
+        }
+        return function;
+    }
+
+    private void encodeInstruction(RegularInstruction instruction) {
+        switch (instruction) {
+            case Add add              -> encodeBinary(Opcode.ADD, add.destination(), add.operand1(), add.operand2());
+            case Subtract subtract    -> encodeBinary(Opcode.SUBTRACT, subtract.destination(), subtract.operand1(), subtract.operand2());
+            case Multiply multiply    -> encodeBinary(Opcode.MULTIPLY, multiply.destination(), multiply.operand1(), multiply.operand2());
+            case Divide divide        -> encodeBinary(Opcode.DIVIDE, divide.destination(), divide.operand1(), divide.operand2());
+            case Modulo modulo        -> encodeBinary(Opcode.MODULO, modulo.destination(), modulo.operand1(), modulo.operand2());
+            case And and              -> encodeBinary(Opcode.AND, and.destination(), and.operand1(), and.operand2());
+            case Or or                -> encodeBinary(Opcode.OR, or.destination(), or.operand1(), or.operand2());
+            case Xor xor              -> encodeBinary(Opcode.XOR, xor.destination(), xor.operand1(), xor.operand2());
+            case Not not -> {
+                function.addInstruction(Opcode.NOT, destination(not.destination()), 0);
+                function.addOperand(value(not.operand()));
+            }
+            case Negate negate -> {
+                function.addInstruction(Opcode.NEGATE, destination(negate.destination()), 0);
+                function.addOperand(value(negate.operand()));
+            }
+            case Compare compare -> {
+                function.addInstruction(Opcode.COMPARE, destination(compare.destination()), compare.comparisonType().ordinal());
+                function.addOperand(value(compare.left()));
+                function.addOperand(value(compare.right()));
+            }
+            case Phi phi -> {
+                function.addInstruction(Opcode.PHI, destination(phi.destination()), 0);
+                function.addOperand(blockPositions[phi.block1().id()]);
+                function.addOperand(value(phi.value1()));
+                function.addOperand(blockPositions[phi.block2().id()]);
+                function.addOperand(value(phi.value2()));
+            }
+            case FunctionCallInstruction call -> {
+                Integer callee = calleeIds.get(call.symbol());
+                if (callee == null) {
+                    callee = function.addCallee(call.name(), call.symbol());
+                    calleeIds.put(call.symbol(), callee);
+                }
+                function.addInstruction(Opcode.CALL, destination(call.destination()), callee);
+                for (IRValue argument : call.arguments()) {
+                    function.addOperand(value(argument));
+                }
+            }
+            case StoreToLocal store -> {
+                function.addInstruction(Opcode.STORE, NONE, store.localId());
+                function.addOperand(value(store.value()));
+            }
+            default -> throw new IllegalArgumentException("Unknown instruction " + instruction);
+        }
+    }
+
+    private void encodeBinary(Opcode opcode, Temporary destination, IRValue left, IRValue right) {
+        function.addInstruction(opcode, destination(destination), 0);
+        function.addOperand(value(left));
+        function.addOperand(value(right));
+    }
+
+    private void encodeTerminator(TerminatorInstruction terminator) {
+        switch (terminator) {
+            case UnconditionalBranch branch -> {
+                function.addInstruction(Opcode.BRANCH, NONE, 0);
+                function.addOperand(blockPositions[branch.target().id()]);
+            }
+            case ConditionalBranch branch -> {
+                function.addInstruction(Opcode.CONDITIONAL_BRANCH, NONE, 0);
+                function.addOperand(value(branch.condition()));
+                function.addOperand(blockPositions[branch.taken().id()]);
+                function.addOperand(blockPositions[branch.notTaken().id()]);
+            }
+            case FunctionReturn functionReturn -> {
+                function.addInstruction(Opcode.RETURN, NONE, 0);
+                if (functionReturn.returnValue() != null) {
+                    function.addOperand(value(functionReturn.returnValue()));
+                }
+            }
+        }
+    }
+
+    private int destination(Temporary temporary) {
+        if (temporary == null) {
+            return NONE;
+        }
+        function.setTemporaryType(temporary.id(), temporary.type());
+        return temporary.id();
+    }
+
+    private int value(IRValue value) {
+        return switch (value) {
+            case Temporary temporary -> {
+                function.setTemporaryType(temporary.id(), temporary.type());
+                yield CompactFunction.temporary(temporary.id());
+            }
+            case LocalPointer localPointer -> CompactFunction.local(localPointer.localId());
+            case IntegerConstant integerConstant -> constant(integerConstant, ConstantKind.INTEGER, integerConstant.type(), integerConstant.value());
+            case FloatingPointConstant floatingPointConstant ->
+                constant(floatingPointConstant, ConstantKind.FLOATING_POINT, floatingPointConstant.type(), Double.doubleToRawLongBits(floatingPointConstant.value()));
+            case BooleanConstant booleanConstant -> constant(booleanConstant, ConstantKind.BOOLEAN, Type.BOOL, booleanConstant.value() ? 1 : 0);
+        };
+    }
+
+    private int constant(IRValue value, ConstantKind kind, Type type, long bits) {
+        Integer id = constantIds.get(value);
+        if (id == null) {
+            id = function.addConstant(kind, type, bits);
+            constantIds.put(value, id);
+        }
+        return CompactFunction.constant(id);
+    }
+}
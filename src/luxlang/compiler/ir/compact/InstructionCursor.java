@@ -0,0 +1,78 @@
+package luxlang.compiler.ir.compact;
+
+import luxlang.compiler.parser.nodes.Type;
+
+/**
+ * A forward-only cursor over the instructions of one block of a {@link CompactFunction}. It reads
+ * the columns in place, and {@link #reset} moves it to another block, so a pass can walk a whole
+ * function with one cursor and no allocation.
+ */
+public final class InstructionCursor {
+    private final CompactFunction function;
+    private int instruction;
+    private int end;
+
+    InstructionCursor(CompactFunction function) {
+        this.function = function;
+    }
+
+    /**
+     * Moves the cursor before the first instruction of the block
+     */
+    public void reset(int block) {
+        instruction = function.blockStart(block) - 1;
+        end = function.blockEnd(block);
+    }
+
+    /**
+     * Moves to the next instruction
+     * @return False once the block has no more instructions
+     */
+    public boolean next() {
+        if (instruction + 1 >= end) {
+            instruction = end;
+            return false;
+        }
+        instruction++;
+        return true;
+    }
+
+    /**
+     * @return The index of the current instruction in the function
+     */
+    public int index() {
+        return instruction;
+    }
+
+    public Opcode opcode() {
+        return function.opcode(instruction);
+    }
+
+    /**
+     * @return The id of the temporary the current instruction defines, or
+     * {@link CompactFunction#NONE}
+     */
+    public int destination() {
+        return function.destination(instruction);
+    }
+
+    /**
+     * @return The type of the value the current instruction defines, or null if it defines none
+     */
+    public Type type() {
+        int destination = function.destination(instruction);
+        return destination == CompactFunction.NONE ? null : function.temporaryType(destination);
+    }
+
+    public int payload() {
+        return function.payload(instruction);
+    }
+
+    public int operandCount() {
+        return function.operandCount(instruction);
+    }
+
+    public int operand(int index) {
+        return function.operand(instruction, index);
+    }
+}
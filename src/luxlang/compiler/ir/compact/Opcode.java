@@ -0,0 +1,50 @@
+package luxlang.compiler.ir.compact;
+
+/**
+ * The operation of an instruction in a {@link CompactFunction}, which decides what its payload
+ * means and which operands it has, in order. Operands are encoded values unless noted as blocks,
+ * which are block positions in the function.
+ */
+public enum Opcode {
+    /** Operands: left, right */
+    ADD,
+    /** Operands: left, right */
+    SUBTRACT,
+    /** Operands: left, right */
+    MULTIPLY,
+    /** Operands: left, right */
+    DIVIDE,
+    /** Operands: left, right */
+    MODULO,
+    /** Operands: left, right */
+    AND,
+    /** Operands: left, right */
+    OR,
+    /** Operands: left, right */
+    XOR,
+    /** Operands: operand */
+    NOT,
+    /** Operands: operand */
+    NEGATE,
+    /** Payload: comparison type ordinal. Operands: left, right */
+    COMPARE,
+    /** Operands: first block, first value, second block, second value */
+    PHI,
+    /** Payload: callee index. Operands: arguments */
+    CALL,
+    /** Payload: local id. Operands: the value */
+    STORE,
+    /** Operands: target block */
+    BRANCH,
+    /** Operands: condition, taken block, not taken block */
+    CONDITIONAL_BRANCH,
+    /** Operands: the value, if any */
+    RETURN;
+
+    /**
+     * @return Whether the instruction ends its block; only a block's last instruction can
+     */
+    public boolean isTerminator() {
+        return this == BRANCH || this == CONDITIONAL_BRANCH || this == RETURN;
+    }
+}
@@ -8,6 +8,7 @@ import java.util.stream.Collectors;
 
 public record FunctionCallInstruction(
     String name,
+    int symbol,
     Temporary destination,
     List<IRValue> arguments
 ) implements RegularInstruction {
@@ -67,6 +67,13 @@ public final class BasicBlock {
         // This needs to be null checked so that ifs/loops/functions don't overwrite blocks ending with an explicit return
     }
 
+    /**
+     * Unlike {@link #setTerminator}, overwrites a terminator that is already set
+     */
+    public void replaceTerminator(TerminatorInstruction terminatorInstruction) {
+        this.terminator = terminatorInstruction;
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (obj == this) return true;
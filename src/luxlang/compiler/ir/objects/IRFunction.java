@@ -2,16 +2,15 @@ package luxlang.compiler.ir.objects;
 
 import luxlang.compiler.parser.nodes.Type;
 
-import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
 import java.util.stream.Collectors;
 
 public record IRFunction(
     String name,
     Type returnType,
     List<Type> parameterTypes,
-    Map<String, IRLocal> locals,
+    // Ordered by index
+    List<IRLocal> locals,
     List<BasicBlock> basicBlocks
 ) {
     /**
@@ -32,9 +31,7 @@ public record IRFunction(
         sb.append(") {\n");
 
         if (!locals.isEmpty()) {
-            locals.values().stream()
-                    .sorted(Comparator.comparingInt(IRLocal::index))
-                    .forEach(local -> sb.append("    ")
+            locals.forEach(local -> sb.append("    ")
                             .append(local.serialize())
                             .append("\n"));
             sb.append("\n");
@@ -5,11 +5,12 @@ import luxlang.compiler.parser.nodes.Type;
 
 public record IRLocal(
     String name,
+    int symbol,
     Type type,
     int index
 ) {
     public static IRLocal from(LocalVariable localVariable) {
-        return new IRLocal(localVariable.name(), localVariable.type(), localVariable.id());
+        return new IRLocal(localVariable.name(), localVariable.symbol(), localVariable.type(), localVariable.id());
     }
 
     /**
@@ -0,0 +1,52 @@
+package luxlang.compiler.lexer;
+
+/**
+ * Precomputed character classes for the ASCII characters that make up Lux source.
+ * Every character outside of ASCII has no class.
+ */
+final class CharClass {
+    static final byte WHITESPACE = 1;
+    static final byte LETTER = 1 << 1;
+    static final byte DIGIT = 1 << 2;
+    static final byte UNDERSCORE = 1 << 3;
+
+    static final byte IDENTIFIER_PART = LETTER | DIGIT | UNDERSCORE;
+
+    private static final byte[] TABLE = new byte[128];
+
+    static {
+        for (char c = 0; c < TABLE.length; c++) {
+            if (Character.isWhitespace(c)) {
+                TABLE[c] |= WHITESPACE;
+            }
+        }
+        for (char c = 'a'; c <= 'z'; c++) {
+            TABLE[c] |= LETTER;
+        }
+        for (char c = 'A'; c <= 'Z'; c++) {
+            TABLE[c] |= LETTER;
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            TABLE[c] |= DIGIT;
+        }
+        TABLE['_'] |= UNDERSCORE;
+    }
+
+    private CharClass() { }
+
+    static byte of(char c) {
+        return c < TABLE.length ? TABLE[c] : 0;
+    }
+
+    static boolean is(char c, byte charClass) {
+        return (of(c) & charClass) != 0;
+    }
+
+    static boolean isWhitespace(char c) {
+        return is(c, WHITESPACE);
+    }
+
+    static boolean isDigit(char c) {
+        return is(c, DIGIT);
+    }
+}
@@ -2,148 +2,414 @@ package luxlang.compiler.lexer;
 
 import luxlang.compiler.lexer.errors.LexingError;
 import luxlang.compiler.lexer.errors.UnexpectedTokenError;
-import luxlang.compiler.lexer.objects.Token;
+import luxlang.compiler.lexer.objects.Interner;
+import luxlang.compiler.lexer.objects.LineMap;
+import luxlang.compiler.lexer.objects.SourceText;
+import luxlang.compiler.lexer.objects.TokenBuffer;
 import luxlang.compiler.lexer.objects.TokenKind;
 
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.regex.Pattern;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 public class Lexer {
-    private static final Pattern NUMBER_LITERAL_PATTERN = Pattern.compile(
-        "^(?:\\d*\\.\\d+[dDfF]?|\\d+(?:[dDfF]|[uU][lLsSbB]?|[lLsSbB])?)"
-    );
+    // Below this many characters splitting and stitching costs more than it saves
+    private static final int PARALLEL_THRESHOLD = 1 << 20;
+    private static final int MIN_CHUNK_SIZE = 1 << 18;
+    private static final int CHUNKS_PER_THREAD = 4;
 
-    private final String source;
-    private final List<Token> tokens;
+    private final SourceText source;
+    private final Interner interner;
+    private final int limit;
+    private final RunScanner scanner;
 
     private int i;
     private int line;
-    private int column;
+    private int lineStart;
+    // Created by lex(), stream() or lexChunk() before any token is scanned
+    private LineMap lineMap;
+
+    // The most recently scanned token
+    private TokenKind scannedKind;
+    private int scannedStart;
+    private int scannedLength;
+    private int scannedSymbol;
 
     public Lexer(String source) {
+        this(SourceText.of(source));
+    }
+
+    public Lexer(String source, Interner interner) {
+        this(SourceText.of(source), interner);
+    }
+
+    public Lexer(SourceText source) {
+        this(source, new Interner());
+    }
+
+    /**
+     * @param interner Assigns symbols to identifiers, shared with everything else in the same
+     *                 compilation
+     */
+    public Lexer(SourceText source, Interner interner) {
+        this(source, interner, RunScanner.of(source), 0, source.length());
+    }
+
+    Lexer(SourceText source, RunScanner scanner) {
+        this(source, new Interner(), scanner, 0, source.length());
+    }
+
+    /**
+     * Lexes only {@code [start, limit)} of the source, producing absolute offsets. Lines are
+     * counted from the start of the range.
+     */
+    private Lexer(SourceText source, Interner interner, RunScanner scanner, int start, int limit) {
         this.source = source;
-        this.i = 0;
+        this.interner = interner;
+        this.scanner = scanner;
+        this.limit = limit;
+        this.i = start;
         this.line = 1;
-        this.column = 1;
-        this.tokens = new ArrayList<>();
+        this.lineStart = start;
+    }
+
+    /**
+     * Creates a lexer that reads the UTF-8 file at the given path through a read-only memory
+     * mapping, so the source is never decoded or copied onto the heap as a whole
+     */
+    public static Lexer mapping(Path path) throws IOException {
+        return mapping(path, new Interner());
+    }
+
+    public static Lexer mapping(Path path, Interner interner) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MemorySegment bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), Arena.ofAuto());
+            return new Lexer(SourceText.of(bytes), interner);
+        }
     }
 
     public LexingResult lex() {
+        lineMap = new LineMap();
+        TokenBuffer tokens = new TokenBuffer(source, lineMap, interner);
+        Optional<LexingError> optionalError = lexInto(tokens);
+        if (optionalError.isPresent()) {
+            return LexingResult.failure(List.of(optionalError.get()));
+        }
+        return LexingResult.success(tokens);
+    }
+
+    /**
+     * Produces the same result as {@link #lex()}, but lexes large sources as chunks on the
+     * common pool
+     */
+    public LexingResult lexParallel() {
+        return lexParallel(ForkJoinPool.commonPool());
+    }
+
+    public LexingResult lexParallel(ForkJoinPool pool) {
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, limit / (pool.getParallelism() * CHUNKS_PER_THREAD));
+        return lexParallel(pool, PARALLEL_THRESHOLD, chunkSize);
+    }
+
+    /**
+     * Lux has no comments, string literals or multi-line tokens, so no token ever contains
+     * whitespace and every whitespace character is a safe place to split the source
+     */
+    LexingResult lexParallel(ForkJoinPool pool, int threshold, int chunkSize) {
+        if (limit < threshold) {
+            return lex();
+        }
+
+        List<ForkJoinTask<Chunk>> tasks = new ArrayList<>();
+        int chunkStart = 0;
+        do {
+            int chunkEnd = nextSplit(chunkStart + chunkSize);
+            int start = chunkStart;
+            tasks.add(pool.submit(() -> lexChunk(start, chunkEnd)));
+            chunkStart = chunkEnd;
+        } while (chunkStart < limit);
+
+        LineMap mergedLineMap = null;
+        TokenBuffer merged = null;
+        for (int index = 0; index < tasks.size(); index++) {
+            Chunk chunk = tasks.get(index).join();
+            if (mergedLineMap == null) {
+                mergedLineMap = chunk.lineMap();
+                merged = new TokenBuffer(source, mergedLineMap, interner, chunk.tokens().size() * tasks.size());
+            } else {
+                mergedLineMap.addLineStarts(chunk.lineMap());
+            }
+
+            if (chunk.errorOffset() >= 0) {
+                // Chunks after the first failing one are never needed, just as a sequential lex stops
+                tasks.subList(index + 1, tasks.size()).forEach(task -> task.cancel(false));
+                int offset = chunk.errorOffset();
+                return LexingResult.failure(List.of(
+                    new UnexpectedTokenError(mergedLineMap.line(offset), mergedLineMap.column(offset))
+                ));
+            }
+
+            // Interning each chunk's names in chunk order assigns the same symbols as a sequential lex
+            Interner chunkInterner = chunk.tokens().interner();
+            int[] symbolMapping = new int[chunkInterner.size()];
+            for (int symbol = 0; symbol < symbolMapping.length; symbol++) {
+                symbolMapping[symbol] = interner.intern(chunkInterner.name(symbol));
+            }
+
+            boolean isLast = index == tasks.size() - 1 || chunk.endsSource();
+            // Every chunk ends with its own EOF, but only the last one ends the source
+            merged.addAll(chunk.tokens(), isLast ? chunk.tokens().size() : chunk.tokens().size() - 1, symbolMapping);
+            if (isLast) {
+                tasks.subList(index + 1, tasks.size()).forEach(task -> task.cancel(false));
+                break;
+            }
+        }
+
+        return LexingResult.success(merged);
+    }
+
+    /**
+     * @return The offset of the first whitespace character at or after {@code from}, or the end
+     * of the source if there is none
+     */
+    private int nextSplit(int from) {
+        int split = Math.min(from, limit);
+        while (split < limit && !CharClass.isWhitespace(source.charAt(split))) {
+            split++;
+        }
+        return split;
+    }
+
+    private Chunk lexChunk(int start, int chunkEnd) {
+        Lexer chunkLexer = new Lexer(source, new Interner(), scanner, start, chunkEnd);
+        chunkLexer.lineMap = new LineMap();
+        TokenBuffer tokens = new TokenBuffer(source, chunkLexer.lineMap, chunkLexer.interner, (chunkEnd - start) / 8);
+        Optional<LexingError> optionalError = chunkLexer.lexInto(tokens);
+        int errorOffset = optionalError.isPresent() ? chunkLexer.i : -1;
+        // A NUL character scans as EOF, which ends the whole source for lex() and so must here too
+        boolean endsSource = optionalError.isEmpty() && chunkLexer.scannedStart < chunkEnd;
+        return new Chunk(tokens, chunkLexer.lineMap, errorOffset, endsSource);
+    }
+
+    private record Chunk(TokenBuffer tokens, LineMap lineMap, int errorOffset, boolean endsSource) { }
+
+    private Optional<LexingError> lexInto(TokenBuffer tokens) {
+        do {
+            Optional<LexingError> optionalError = scanToken();
+            if (optionalError.isPresent()) {
+                return optionalError;
+            }
+            tokens.add(scannedKind, scannedStart, scannedLength, scannedSymbol);
+        } while (scannedKind != TokenKind.EOF);
+        return Optional.empty();
+    }
+
+    /**
+     * Lexes tokens on demand as the returned source is advanced instead of all at once. Only a
+     * few tokens are held at any time; besides them only the line table that node spans are
+     * resolved through grows with the source, by one int per line.
+     */
+    public StreamingTokenSource stream() {
+        lineMap = new LineMap();
+        return new StreamingTokenSource(this, lineMap);
+    }
+
+    /**
+     * Skips whitespace and scans the next token, which can then be read through
+     * {@link #scannedKind()}, {@link #scannedStart()}, {@link #scannedLength()} and
+     * {@link #scannedSymbol()}.
+     * Scanning past the end of the source keeps producing EOF.
+     */
+    Optional<LexingError> scanToken() {
         while (true) {
             char currChar = peekCurrentOrNull();
             if (currChar == '\0') {
-                tokens.add(new Token(TokenKind.EOF, null, line, column));
-                break;
+                setScanned(TokenKind.EOF, i, 0);
+                return Optional.empty();
             }
 
-            if (Character.isWhitespace(currChar)) {
-                increment();
-                continue;
-            }
+            byte charClass = CharClass.of(currChar);
 
-            if (Character.isLetter(currChar)) {
-                addKeywordOrIdentifier();
+            if ((charClass & CharClass.WHITESPACE) != 0) {
+                i++;
+                if (currChar == '\n') {
+                    startLine(i);
+                } else {
+                    i = scanner.skipHorizontalWhitespace(i, limit);
+                }
                 continue;
             }
 
-            if (Character.isDigit(currChar) || currChar == '.') {
-                addNumberLiteral();
-                continue;
+            if ((charClass & CharClass.LETTER) != 0) {
+                scanKeywordOrIdentifier();
+                return Optional.empty();
             }
 
-            var optionalError = addOperatorOrPunctuation(currChar);
-            if (optionalError.isPresent()) {
-                return LexingResult.failure(List.of(optionalError.get()));
+            if ((charClass & CharClass.DIGIT) != 0 || currChar == '.') {
+                return scanNumberLiteral();
             }
-            increment();
+            return scanOperatorOrPunctuation(currChar);
         }
+    }
 
-        return LexingResult.success(tokens);
+    SourceText source() {
+        return source;
+    }
+
+    Interner interner() {
+        return interner;
+    }
+
+    TokenKind scannedKind() {
+        return scannedKind;
+    }
+
+    int scannedStart() {
+        return scannedStart;
+    }
+
+    int scannedLength() {
+        return scannedLength;
+    }
+
+    int scannedSymbol() {
+        return scannedSymbol;
+    }
+
+    /**
+     * @return The 1-based line of the most recently scanned token
+     */
+    int scannedLine() {
+        return line;
+    }
+
+    /**
+     * @return The 1-based column of the most recently scanned token
+     */
+    int scannedColumn() {
+        return scannedStart - lineStart + 1;
+    }
+
+    private void startLine(int offset) {
+        line++;
+        lineStart = offset;
+        if (lineMap != null) {
+            lineMap.addLineStart(offset);
+        }
     }
 
-    private Optional<LexingError> addOperatorOrPunctuation(char currChar) {
-        final int startLine = line;
-        final int startColumn = column;
+    private void setScanned(TokenKind kind, int start, int length) {
+        setScanned(kind, start, length, -1);
+    }
+
+    private void setScanned(TokenKind kind, int start, int length, int symbol) {
+        scannedKind = kind;
+        scannedStart = start;
+        scannedLength = length;
+        scannedSymbol = symbol;
+    }
+
+    private Optional<LexingError> scanOperatorOrPunctuation(char currChar) {
         char charAfterCurr = peekNextOrNull();
         TokenKind kind = TokenKind.getOperatorOrPunctuation(currChar, charAfterCurr);
         if (kind == TokenKind.ERROR) {
-            return Optional.of(new UnexpectedTokenError(startLine, startColumn));
+            return Optional.of(unexpectedTokenError());
         }
-        String lexeme = kind.lexeme();
-        if (lexeme.length() == 2) {
-            increment();
-        }
-        tokens.add(new Token(kind, lexeme, startLine, startColumn));
+        int length = kind.lexeme().length();
+        setScanned(kind, i, length);
+        i += length;
         return Optional.empty();
     }
 
-    private void addNumberLiteral() {
-        final int startLine = line;
-        final int startColumn = column;
+    /**
+     * Matches {@code \d*\.\d+[dDfF]? | \d+([dDfF] | [uU][lLsSbB]? | [lLsSbB])?}, preferring the
+     * floating point form whenever a '.' is followed by a digit
+     */
+    private Optional<LexingError> scanNumberLiteral() {
         final int startIndex = i;
 
-        var matcher = NUMBER_LITERAL_PATTERN.matcher(source);
-        matcher.region(startIndex, source.length());
-        if (!matcher.lookingAt()) {
-            throw new IllegalStateException("Number literal regex pattern didn't match number literal");
+        int end = skipDigits(startIndex);
+        boolean isFloat;
+        if (charAtOrNull(end) == '.' && CharClass.isDigit(charAtOrNull(end + 1))) {
+            end = skipDigits(end + 1);
+            if (isFloatingPointSuffix(charAtOrNull(end))) {
+                end++;
+            }
+            isFloat = true;
+        } else if (end > startIndex) {
+            char suffix = charAtOrNull(end);
+            isFloat = isFloatingPointSuffix(suffix);
+            if (isFloat || isIntegerWidthSuffix(suffix)) {
+                end++;
+            } else if (suffix == 'u' || suffix == 'U') {
+                end++;
+                if (isIntegerWidthSuffix(charAtOrNull(end))) {
+                    end++;
+                }
+            }
+        } else {
+            // A '.' that doesn't start a fraction can't begin any token
+            return Optional.of(unexpectedTokenError());
         }
 
-        String lexeme = source.substring(startIndex, matcher.end());
+        TokenKind kind = isFloat ? TokenKind.LITERAL_FLOATINGPT : TokenKind.LITERAL_INTEGER;
+        setScanned(kind, startIndex, end - startIndex);
+        i = end;
+        return Optional.empty();
+    }
 
-        int literalLength = lexeme.length();
-        for (int j = 0; j < literalLength; j++) {
-            increment();
-        }
+    private void scanKeywordOrIdentifier() {
+        final int startIndex = i;
+        int end = scanner.skipIdentifierPart(startIndex + 1, limit);
 
-        boolean isFloat = lexeme.contains(".") ||
-            switch (lexeme.charAt(literalLength - 1)) {
-                case 'D', 'd', 'F', 'f' -> true;
-                default -> false;
-            };
+        TokenKind kind = TokenKind.getKeywordOrIdentifier(source, startIndex, end);
+        int symbol = kind == TokenKind.IDENTIFIER ? interner.intern(source, startIndex, end) : -1;
+        setScanned(kind, startIndex, end - startIndex, symbol);
+        i = end;
+    }
 
-        TokenKind kind = isFloat ? TokenKind.LITERAL_FLOATINGPT : TokenKind.LITERAL_INTEGER;
+    private int skipDigits(int index) {
+        return scanner.skipDigits(index, limit);
+    }
 
-        tokens.add(new Token(kind, lexeme, startLine, startColumn));
+    private static boolean isFloatingPointSuffix(char c) {
+        return switch (c) {
+            case 'd', 'D', 'f', 'F' -> true;
+            default -> false;
+        };
     }
 
-    private void addKeywordOrIdentifier() {
-        final int startLine = line;
-        final int startColumn = column;
-        final int startIndex = i;
-        char currChar;
-        do {
-            increment();
-            currChar = peekCurrentOrNull();
-        } while (Character.isLetterOrDigit(currChar) || currChar == '_');
-        String lexeme = source.substring(startIndex, i);
-        TokenKind kind = TokenKind.getKeywordOrIdentifier(lexeme);
-        tokens.add(new Token(kind, lexeme, startLine, startColumn));
+    private static boolean isIntegerWidthSuffix(char c) {
+        return switch (c) {
+            case 'l', 'L', 's', 'S', 'b', 'B' -> true;
+            default -> false;
+        };
     }
 
-    private char peekCurrentOrNull() {
-        if (i >= source.length()) {
+    private char charAtOrNull(int index) {
+        if (index >= limit) {
             return '\0';
         }
-        return source.charAt(i);
+        return source.charAt(index);
+    }
+
+    private char peekCurrentOrNull() {
+        return charAtOrNull(i);
     }
 
     private char peekNextOrNull() {
-        if (i + 1 >= source.length()) {
-            return '\0';
-        }
-        return source.charAt(i + 1);
+        return charAtOrNull(i + 1);
     }
 
-    private void increment() {
-        char previous = peekCurrentOrNull();
-        i++;
-        if (previous == '\n') {
-            line++;
-            column = 1;
-        } else {
-            column++;
-        }
+    private UnexpectedTokenError unexpectedTokenError() {
+        return new UnexpectedTokenError(line, i - lineStart + 1);
     }
-}
\ No newline at end of file
+}
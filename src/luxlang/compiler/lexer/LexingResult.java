@@ -2,18 +2,26 @@ package luxlang.compiler.lexer;
 
 import luxlang.compiler.lexer.errors.LexingError;
 import luxlang.compiler.lexer.objects.Token;
+import luxlang.compiler.lexer.objects.TokenBuffer;
 
 import java.util.List;
 
 public sealed interface LexingResult permits LexingResult.Success, LexingResult.Failure {
-    record Success(List<Token> tokens) implements LexingResult { }
+    record Success(TokenBuffer tokenBuffer) implements LexingResult {
+        /**
+         * Materializes every token in the buffer as a {@link Token} record
+         */
+        public List<Token> tokens() {
+            return tokenBuffer.toTokenList();
+        }
+    }
     record Failure(List<LexingError> errors) implements LexingResult { }
 
-    static LexingResult success(List<Token> tokens) {
-        return new LexingResult.Success(tokens);
+    static LexingResult success(TokenBuffer tokenBuffer) {
+        return new LexingResult.Success(tokenBuffer);
     }
 
     static LexingResult failure(List<LexingError> errors) {
         return new LexingResult.Failure(errors);
     }
-}
\ No newline at end of file
+}
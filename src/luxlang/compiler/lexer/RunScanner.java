@@ -0,0 +1,34 @@
+package luxlang.compiler.lexer;
+
+import luxlang.compiler.lexer.objects.SourceText;
+
+import java.lang.foreign.MemorySegment;
+
+/**
+ * Finds the end of runs of one character class, which is where the lexer spends most of its
+ * time on long identifiers and deeply indented code. Each method returns the first offset in
+ * {@code [from, end)} that is not part of the run, or {@code end}.
+ */
+sealed interface RunScanner permits ScalarRunScanner, VectorRunScanner {
+    boolean VECTOR_API_AVAILABLE = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    /**
+     * Skips whitespace other than '\n', which the lexer must see to keep track of lines
+     */
+    int skipHorizontalWhitespace(int from, int end);
+
+    int skipIdentifierPart(int from, int end);
+
+    int skipDigits(int from, int end);
+
+    /**
+     * Uses the Vector API for byte sources when the JVM was started with
+     * {@code --add-modules jdk.incubator.vector}, and scans one character at a time otherwise
+     */
+    static RunScanner of(SourceText source) {
+        if (VECTOR_API_AVAILABLE && source instanceof SourceText.OfBytes(MemorySegment bytes)) {
+            return new VectorRunScanner(bytes);
+        }
+        return new ScalarRunScanner(source);
+    }
+}
@@ -0,0 +1,42 @@
+package luxlang.compiler.lexer;
+
+import luxlang.compiler.lexer.objects.SourceText;
+
+final class ScalarRunScanner implements RunScanner {
+    private final SourceText source;
+
+    ScalarRunScanner(SourceText source) {
+        this.source = source;
+    }
+
+    @Override
+    public int skipHorizontalWhitespace(int from, int end) {
+        int index = from;
+        while (index < end && isHorizontalWhitespace(source.charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+
+    @Override
+    public int skipIdentifierPart(int from, int end) {
+        int index = from;
+        while (index < end && CharClass.is(source.charAt(index), CharClass.IDENTIFIER_PART)) {
+            index++;
+        }
+        return index;
+    }
+
+    @Override
+    public int skipDigits(int from, int end) {
+        int index = from;
+        while (index < end && CharClass.isDigit(source.charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+
+    static boolean isHorizontalWhitespace(char c) {
+        return c != '\n' && CharClass.isWhitespace(c);
+    }
+}
@@ -0,0 +1,144 @@
+package luxlang.compiler.lexer;
+
+import luxlang.compiler.lexer.errors.LexingError;
+import luxlang.compiler.lexer.objects.LineMap;
+import luxlang.compiler.lexer.objects.SourceSpan;
+import luxlang.compiler.lexer.objects.Token;
+import luxlang.compiler.lexer.objects.TokenKind;
+import luxlang.compiler.lexer.objects.TokenSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A {@link TokenSource} that pulls tokens from a {@link Lexer} as the parser advances, keeping
+ * only a small ring of lookahead tokens alive. A lexing error ends the stream with a sticky
+ * {@link TokenKind#ERROR} token; the error itself is reported through {@link #errors()}.
+ */
+public final class StreamingTokenSource implements TokenSource {
+    private static final TokenKind[] KINDS = TokenKind.values();
+    private static final int CAPACITY = 4;
+    private static final int MASK = CAPACITY - 1;
+
+    private final Lexer lexer;
+    private final LineMap lineMap;
+    private final List<LexingError> errors;
+
+    private final byte[] kinds = new byte[CAPACITY];
+    private final int[] starts = new int[CAPACITY];
+    private final int[] lengths = new int[CAPACITY];
+    private final int[] symbols = new int[CAPACITY];
+    private final int[] lines = new int[CAPACITY];
+    private final int[] columns = new int[CAPACITY];
+    private int head;
+    private int count;
+    private boolean exhausted;
+
+    StreamingTokenSource(Lexer lexer, LineMap lineMap) {
+        this.lexer = lexer;
+        this.lineMap = lineMap;
+        this.errors = new ArrayList<>();
+        this.head = 0;
+        this.count = 0;
+        this.exhausted = false;
+    }
+
+    @Override
+    public TokenKind kind() {
+        return peekKind(0);
+    }
+
+    /**
+     * @param distance How many tokens past the current one to look, less than the ring capacity
+     */
+    public TokenKind peekKind(int distance) {
+        if (distance < 0 || distance >= CAPACITY) {
+            throw new IllegalArgumentException("Lookahead distance must be in [0, " + CAPACITY + ")");
+        }
+        fill(distance + 1);
+        int slot = slot(Math.min(distance, count - 1));
+        return KINDS[kinds[slot]];
+    }
+
+    @Override
+    public String lexeme() {
+        fill(1);
+        return switch (KINDS[kinds[head]]) {
+            case IDENTIFIER -> lexer.interner().name(symbols[head]);
+            case LITERAL_INTEGER, LITERAL_FLOATINGPT ->
+                lexer.source().substring(starts[head], starts[head] + lengths[head]);
+            default -> KINDS[kinds[head]].lexeme();
+        };
+    }
+
+    @Override
+    public int symbol() {
+        fill(1);
+        return symbols[head];
+    }
+
+    @Override
+    public long span() {
+        fill(1);
+        return SourceSpan.of(starts[head], starts[head] + lengths[head]);
+    }
+
+    @Override
+    public LineMap lineMap() {
+        return lineMap;
+    }
+
+    @Override
+    public Token token() {
+        fill(1);
+        return new Token(KINDS[kinds[head]], lexeme(), lines[head], columns[head]);
+    }
+
+    @Override
+    public void advance() {
+        fill(2);
+        if (count > 1) {
+            head = slot(1);
+            count--;
+        }
+    }
+
+    /**
+     * @return The lexing error that ended the stream early, if any. Only meaningful once the
+     * stream has been advanced to its last token.
+     */
+    public List<LexingError> errors() {
+        return errors;
+    }
+
+    private void fill(int wanted) {
+        while (count < wanted && !exhausted) {
+            Optional<LexingError> optionalError = lexer.scanToken();
+            int slot = slot(count);
+            if (optionalError.isPresent()) {
+                errors.add(optionalError.get());
+                kinds[slot] = (byte) TokenKind.ERROR.ordinal();
+                starts[slot] = 0;
+                lengths[slot] = 0;
+                symbols[slot] = -1;
+                lines[slot] = optionalError.get().line();
+                columns[slot] = optionalError.get().column();
+                exhausted = true;
+            } else {
+                kinds[slot] = (byte) lexer.scannedKind().ordinal();
+                starts[slot] = lexer.scannedStart();
+                lengths[slot] = lexer.scannedLength();
+                symbols[slot] = lexer.scannedSymbol();
+                lines[slot] = lexer.scannedLine();
+                columns[slot] = lexer.scannedColumn();
+                exhausted = lexer.scannedKind() == TokenKind.EOF;
+            }
+            count++;
+        }
+    }
+
+    private int slot(int offset) {
+        return (head + offset) & MASK;
+    }
+}
@@ -0,0 +1,97 @@
+package luxlang.compiler.lexer;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+
+/**
+ * Classifies a whole vector of source bytes at once and stops at the first byte outside of the
+ * run. Bytes of non-ASCII characters are negative and so never part of a run. Only loaded when
+ * the jdk.incubator.vector module is present.
+ */
+final class VectorRunScanner implements RunScanner {
+    private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+
+    private final MemorySegment bytes;
+
+    VectorRunScanner(MemorySegment bytes) {
+        this.bytes = bytes;
+    }
+
+    @Override
+    public int skipHorizontalWhitespace(int from, int end) {
+        // Most runs are a single space between tokens, which is not worth a vector load
+        if (from >= end || !ScalarRunScanner.isHorizontalWhitespace(charAt(from))) {
+            return from;
+        }
+        int index = from;
+        for (; index <= end - SPECIES.length(); index += SPECIES.length()) {
+            ByteVector chunk = load(index);
+            // Character.isWhitespace holds for \t..\r and \u001C..' ' in ASCII
+            VectorMask<Byte> isWhitespace = inRange(chunk, '\t', '\r').or(inRange(chunk, '\u001C', ' '));
+            VectorMask<Byte> isRun = isWhitespace.andNot(chunk.eq((byte) '\n'));
+            int firstOther = isRun.not().firstTrue();
+            if (firstOther < SPECIES.length()) {
+                return index + firstOther;
+            }
+        }
+        while (index < end && ScalarRunScanner.isHorizontalWhitespace(charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+
+    @Override
+    public int skipIdentifierPart(int from, int end) {
+        int index = from;
+        for (; index <= end - SPECIES.length(); index += SPECIES.length()) {
+            ByteVector chunk = load(index);
+            // Setting bit 5 maps 'A'..'Z' onto 'a'..'z' without moving anything else into that range
+            VectorMask<Byte> isLetter = inRange(chunk.or((byte) 0x20), 'a', 'z');
+            VectorMask<Byte> isRun = isLetter.or(inRange(chunk, '0', '9')).or(chunk.eq((byte) '_'));
+            int firstOther = isRun.not().firstTrue();
+            if (firstOther < SPECIES.length()) {
+                return index + firstOther;
+            }
+        }
+        while (index < end && CharClass.is(charAt(index), CharClass.IDENTIFIER_PART)) {
+            index++;
+        }
+        return index;
+    }
+
+    @Override
+    public int skipDigits(int from, int end) {
+        int index = from;
+        for (; index <= end - SPECIES.length(); index += SPECIES.length()) {
+            int firstOther = inRange(load(index), '0', '9').not().firstTrue();
+            if (firstOther < SPECIES.length()) {
+                return index + firstOther;
+            }
+        }
+        while (index < end && CharClass.isDigit(charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+
+    private ByteVector load(int offset) {
+        return ByteVector.fromMemorySegment(SPECIES, bytes, offset, ByteOrder.nativeOrder());
+    }
+
+    private static VectorMask<Byte> inRange(ByteVector chunk, char low, char high) {
+        return chunk.compare(VectorOperators.GE, (byte) low).and(chunk.compare(VectorOperators.LE, (byte) high));
+    }
+
+    /**
+     * Bytes of non-ASCII characters come out above the ASCII range, where nothing has a class
+     */
+    private char charAt(int index) {
+        return (char) (bytes.get(ValueLayout.JAVA_BYTE, index) & 0xFF);
+    }
+}
@@ -0,0 +1,106 @@
+package luxlang.compiler.lexer.objects;
+
+import java.util.Arrays;
+
+/**
+ * Assigns dense int symbols to identifier names, in order of first appearance. One interner is
+ * shared by everything compiled together, so equal names always have equal symbols and later
+ * phases can compare and look up names as ints. Not thread-safe.
+ */
+public final class Interner {
+    private static final int NO_SYMBOL = -1;
+
+    private String[] names;
+    private int[] hashes;
+    // Open-addressed table of symbols, with NO_SYMBOL marking empty slots
+    private int[] table;
+    private int size;
+
+    public Interner() {
+        this.names = new String[64];
+        this.hashes = new int[64];
+        this.table = new int[128];
+        Arrays.fill(table, NO_SYMBOL);
+        this.size = 0;
+    }
+
+    public int intern(CharSequence name) {
+        return intern(name, 0, name.length());
+    }
+
+    /**
+     * @return The symbol for the name at {@code [start, end)} of the source. The name is only
+     * copied out of the source the first time it's seen.
+     */
+    public int intern(CharSequence source, int start, int end) {
+        int hash = hash(source, start, end);
+        int mask = table.length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int symbol = table[slot];
+            if (symbol == NO_SYMBOL) {
+                return add(source.subSequence(start, end).toString(), hash, slot);
+            }
+            if (hashes[symbol] == hash && matches(names[symbol], source, start, end)) {
+                return symbol;
+            }
+        }
+    }
+
+    public String name(int symbol) {
+        return names[symbol];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int add(String name, int hash, int slot) {
+        if (size == names.length) {
+            names = Arrays.copyOf(names, size * 2);
+            hashes = Arrays.copyOf(hashes, size * 2);
+        }
+        int symbol = size++;
+        names[symbol] = name;
+        hashes[symbol] = hash;
+        table[slot] = symbol;
+        // Keep the table at most half full so probe sequences stay short
+        if (size * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+        return symbol;
+    }
+
+    private void rehash(int capacity) {
+        table = new int[capacity];
+        Arrays.fill(table, NO_SYMBOL);
+        int mask = capacity - 1;
+        for (int symbol = 0; symbol < size; symbol++) {
+            int slot = hashes[symbol] & mask;
+            while (table[slot] != NO_SYMBOL) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = symbol;
+        }
+    }
+
+    private static int hash(CharSequence source, int start, int end) {
+        int hash = 0;
+        for (int index = start; index < end; index++) {
+            hash = 31 * hash + source.charAt(index);
+        }
+        // Spread the high bits into the low ones used for the slot
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean matches(String name, CharSequence source, int start, int end) {
+        if (name.length() != end - start) {
+            return false;
+        }
+        for (int index = 0; index < name.length(); index++) {
+            if (name.charAt(index) != source.charAt(start + index)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,61 @@
+package luxlang.compiler.lexer.objects;
+
+import java.util.Arrays;
+
+/**
+ * Start offsets of every line in a source, used to turn an offset into a line and column
+ * only when a diagnostic actually needs them.
+ */
+public final class LineMap {
+    private int[] lineStarts;
+    private int lineCount;
+
+    public LineMap() {
+        this.lineStarts = new int[64];
+        this.lineStarts[0] = 0;
+        this.lineCount = 1;
+    }
+
+    /**
+     * Records that a new line starts at the given offset. Offsets must be added in increasing order.
+     */
+    public void addLineStart(int offset) {
+        if (lineCount == lineStarts.length) {
+            lineStarts = Arrays.copyOf(lineStarts, lineCount * 2);
+        }
+        lineStarts[lineCount++] = offset;
+    }
+
+    /**
+     * Appends the line starts recorded by another map over a later part of the same source,
+     * skipping its implicit start of the first line
+     */
+    public void addLineStarts(LineMap other) {
+        int added = other.lineCount - 1;
+        if (lineCount + added > lineStarts.length) {
+            lineStarts = Arrays.copyOf(lineStarts, Math.max(lineStarts.length * 2, lineCount + added));
+        }
+        System.arraycopy(other.lineStarts, 1, lineStarts, lineCount, added);
+        lineCount += added;
+    }
+
+    public int lineCount() {
+        return lineCount;
+    }
+
+    /**
+     * @return The 1-based line containing the given offset
+     */
+    public int line(int offset) {
+        int index = Arrays.binarySearch(lineStarts, 0, lineCount, offset);
+        // A miss returns -(insertion point) - 1, and the line is the one starting just before it
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    /**
+     * @return The 1-based column of the given offset within its line
+     */
+    public int column(int offset) {
+        return offset - lineStarts[line(offset) - 1] + 1;
+    }
+}
@@ -0,0 +1,33 @@
+package luxlang.compiler.lexer.objects;
+
+/**
+ * Packs the start and end offsets of a piece of source into a single {@code long}, so nodes
+ * don't keep tokens alive just to report where they came from. Offsets are resolved to lines
+ * and columns through a {@link LineMap} only when a diagnostic is formatted.
+ */
+public final class SourceSpan {
+    private SourceSpan() { }
+
+    /**
+     * @param start Offset of the first character
+     * @param end Offset just past the last character
+     */
+    public static long of(int start, int end) {
+        return ((long) start << 32) | (end & 0xFFFFFFFFL);
+    }
+
+    public static int start(long span) {
+        return (int) (span >>> 32);
+    }
+
+    public static int end(long span) {
+        return (int) span;
+    }
+
+    /**
+     * @return The span from the start of {@code first} to the end of {@code last}
+     */
+    public static long union(long first, long last) {
+        return of(start(first), end(last));
+    }
+}
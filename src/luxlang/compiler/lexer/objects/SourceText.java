@@ -0,0 +1,82 @@
+package luxlang.compiler.lexer.objects;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Read-only view of the characters being lexed. Lux source is pure ASCII, so a UTF-8 file
+ * can be lexed straight from its bytes without decoding it into a String first.
+ */
+public sealed interface SourceText extends CharSequence permits SourceText.OfString, SourceText.OfBytes {
+    String substring(int start, int end);
+
+    @Override
+    default CharSequence subSequence(int start, int end) {
+        return substring(start, end);
+    }
+
+    record OfString(String source) implements SourceText {
+        @Override
+        public int length() {
+            return source.length();
+        }
+
+        @Override
+        public char charAt(int index) {
+            return source.charAt(index);
+        }
+
+        @Override
+        public String substring(int start, int end) {
+            return source.substring(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return source;
+        }
+    }
+
+    record OfBytes(MemorySegment bytes) implements SourceText {
+        // Bytes outside of ASCII only occur inside multi-byte UTF-8 sequences, none of
+        // which are valid Lux, so they all read as a character the lexer rejects
+        private static final char NON_ASCII = '\uFFFD';
+
+        public OfBytes {
+            if (bytes.byteSize() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Source is too large to lex: " + bytes.byteSize() + " bytes");
+            }
+        }
+
+        @Override
+        public int length() {
+            return (int) bytes.byteSize();
+        }
+
+        @Override
+        public char charAt(int index) {
+            byte value = bytes.get(ValueLayout.JAVA_BYTE, index);
+            return value >= 0 ? (char) value : NON_ASCII;
+        }
+
+        @Override
+        public String substring(int start, int end) {
+            byte[] lexeme = bytes.asSlice(start, end - start).toArray(ValueLayout.JAVA_BYTE);
+            return new String(lexeme, StandardCharsets.ISO_8859_1);
+        }
+
+        @Override
+        public String toString() {
+            return substring(0, length());
+        }
+    }
+
+    static SourceText of(String source) {
+        return new OfString(source);
+    }
+
+    static SourceText of(MemorySegment bytes) {
+        return new OfBytes(bytes);
+    }
+}
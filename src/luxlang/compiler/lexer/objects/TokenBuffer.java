@@ -0,0 +1,211 @@
+package luxlang.compiler.lexer.objects;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Struct-of-arrays storage for the tokens of one source. Each token is only its kind, start
+ * offset, length and, for identifiers, its interned symbol; lexemes are looked up or sliced from
+ * the source and lines and columns are resolved through the {@link LineMap} on demand.
+ */
+public final class TokenBuffer {
+    private static final TokenKind[] KINDS = TokenKind.values();
+    private static final int MIN_CAPACITY = 16;
+
+    private final SourceText source;
+    private final LineMap lineMap;
+    private final Interner interner;
+
+    private byte[] kinds;
+    private int[] starts;
+    private int[] lengths;
+    private int[] symbols;
+    private int size;
+
+    public TokenBuffer(SourceText source, LineMap lineMap, Interner interner) {
+        // Most tokens are separated by at least one character of whitespace
+        this(source, lineMap, interner, source.length() / 8);
+    }
+
+    public TokenBuffer(SourceText source, LineMap lineMap, Interner interner, int expectedSize) {
+        this.source = source;
+        this.lineMap = lineMap;
+        this.interner = interner;
+        int capacity = Math.max(MIN_CAPACITY, expectedSize);
+        this.kinds = new byte[capacity];
+        this.starts = new int[capacity];
+        this.lengths = new int[capacity];
+        this.symbols = new int[capacity];
+        this.size = 0;
+    }
+
+    /**
+     * @param symbol The interned symbol of an identifier, or -1 for any other kind of token
+     */
+    public void add(TokenKind kind, int start, int length, int symbol) {
+        if (size == kinds.length) {
+            grow(size * 2);
+        }
+        kinds[size] = (byte) kind.ordinal();
+        starts[size] = start;
+        lengths[size] = length;
+        symbols[size] = symbol;
+        size++;
+    }
+
+    /**
+     * Appends the first {@code count} tokens of another buffer over the same source, translating
+     * the symbols of its interner into this buffer's through {@code symbolMapping}
+     */
+    public void addAll(TokenBuffer other, int count, int[] symbolMapping) {
+        if (size + count > kinds.length) {
+            grow(Math.max(kinds.length * 2, size + count));
+        }
+        System.arraycopy(other.kinds, 0, kinds, size, count);
+        System.arraycopy(other.starts, 0, starts, size, count);
+        System.arraycopy(other.lengths, 0, lengths, size, count);
+        for (int index = 0; index < count; index++) {
+            int symbol = other.symbols[index];
+            symbols[size + index] = symbol < 0 ? symbol : symbolMapping[symbol];
+        }
+        size += count;
+    }
+
+    private void grow(int capacity) {
+        kinds = Arrays.copyOf(kinds, capacity);
+        starts = Arrays.copyOf(starts, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+        symbols = Arrays.copyOf(symbols, capacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public SourceText source() {
+        return source;
+    }
+
+    public LineMap lineMap() {
+        return lineMap;
+    }
+
+    public Interner interner() {
+        return interner;
+    }
+
+    public TokenKind kind(int index) {
+        return KINDS[kinds[index]];
+    }
+
+    public int start(int index) {
+        return starts[index];
+    }
+
+    public int length(int index) {
+        return lengths[index];
+    }
+
+    /**
+     * @return The interned symbol of an identifier token, or -1 for any other kind of token
+     */
+    public int symbol(int index) {
+        return symbols[index];
+    }
+
+    public long span(int index) {
+        return SourceSpan.of(starts[index], starts[index] + lengths[index]);
+    }
+
+    public String lexeme(int index) {
+        TokenKind kind = kind(index);
+        return switch (kind) {
+            case IDENTIFIER -> interner.name(symbols[index]);
+            case LITERAL_INTEGER, LITERAL_FLOATINGPT -> source.substring(starts[index], starts[index] + lengths[index]);
+            default -> kind.lexeme();
+        };
+    }
+
+    public int line(int index) {
+        return lineMap.line(starts[index]);
+    }
+
+    public int column(int index) {
+        return lineMap.column(starts[index]);
+    }
+
+    public Token token(int index) {
+        return new Token(kind(index), lexeme(index), line(index), column(index));
+    }
+
+    /**
+     * Materializes every token as a {@link Token} record
+     */
+    public List<Token> toTokenList() {
+        List<Token> tokens = new ArrayList<>(size);
+        for (int index = 0; index < size; index++) {
+            tokens.add(token(index));
+        }
+        return tokens;
+    }
+
+    public TokenSource cursor() {
+        return new Cursor(0, size - 1);
+    }
+
+    /**
+     * @return A cursor over the tokens in {@code [start, end)} that reports EOF once it reaches
+     * {@code end}, as if the source stopped there
+     */
+    public TokenSource cursor(int start, int end) {
+        return new Cursor(start, end);
+    }
+
+    private final class Cursor implements TokenSource {
+        private final int end;
+        private int i;
+
+        private Cursor(int start, int end) {
+            this.end = end;
+            this.i = start;
+        }
+
+        @Override
+        public TokenKind kind() {
+            return i == end ? TokenKind.EOF : TokenBuffer.this.kind(i);
+        }
+
+        @Override
+        public String lexeme() {
+            return i == end ? null : TokenBuffer.this.lexeme(i);
+        }
+
+        @Override
+        public int symbol() {
+            return i == end ? -1 : TokenBuffer.this.symbol(i);
+        }
+
+        @Override
+        public long span() {
+            return i == end ? SourceSpan.of(starts[end], starts[end]) : TokenBuffer.this.span(i);
+        }
+
+        @Override
+        public LineMap lineMap() {
+            return lineMap;
+        }
+
+        @Override
+        public Token token() {
+            return i == end ? new Token(TokenKind.EOF, null, line(end), column(end)) : TokenBuffer.this.token(i);
+        }
+
+        @Override
+        public void advance() {
+            if (i < end) {
+                i++;
+            }
+        }
+    }
+}
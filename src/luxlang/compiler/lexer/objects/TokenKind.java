@@ -74,29 +74,58 @@ public enum TokenKind {
     }
 
     public static TokenKind getKeywordOrIdentifier(String lexeme) {
-        return switch (lexeme) {
-            case "void"   -> VOID;
-            case "bool"   -> BOOL;
-            case "byte"   -> BYTE;
-            case "ubyte"  -> UBYTE;
-            case "short"  -> SHORT;
-            case "ushort" -> USHORT;
-            case "int"    -> INT;
-            case "uint"   -> UINT;
-            case "long"   -> LONG;
-            case "ulong"  -> ULONG;
-            case "float"  -> FLOAT;
-            case "double" -> DOUBLE;
-            case "if"     -> IF;
-            case "else"   -> ELSE;
-            case "do"     -> DO;
-            case "while"  -> WHILE;
-            case "for"    -> FOR;
-            case "return" -> RETURN;
-            case "true"   -> TRUE;
-            case "false"  -> FALSE;
-            default       -> IDENTIFIER;
+        return getKeywordOrIdentifier(lexeme, 0, lexeme.length());
+    }
+
+    /**
+     * Looks up the keyword spelled by {@code source[start, end)} without allocating. The first
+     * character, last character and length of every keyword hash to a distinct slot, so a
+     * single comparison against the slot's keyword decides the result.
+     */
+    public static TokenKind getKeywordOrIdentifier(CharSequence source, int start, int end) {
+        int length = end - start;
+        if (length < MIN_KEYWORD_LENGTH || length > MAX_KEYWORD_LENGTH) {
+            return IDENTIFIER;
+        }
+
+        TokenKind candidate = KEYWORD_TABLE[keywordHash(source.charAt(start), source.charAt(end - 1), length)];
+        if (candidate == null) {
+            return IDENTIFIER;
+        }
+
+        String keyword = candidate.lexeme;
+        if (keyword.length() != length) {
+            return IDENTIFIER;
+        }
+        for (int j = 0; j < length; j++) {
+            if (source.charAt(start + j) != keyword.charAt(j)) {
+                return IDENTIFIER;
+            }
+        }
+        return candidate;
+    }
+
+    private static final int MIN_KEYWORD_LENGTH = 2;
+    private static final int MAX_KEYWORD_LENGTH = 6;
+    private static final TokenKind[] KEYWORD_TABLE = new TokenKind[32];
+
+    static {
+        TokenKind[] keywords = {
+            VOID, BOOL, BYTE, UBYTE, SHORT, USHORT, INT, UINT, LONG, ULONG, FLOAT, DOUBLE,
+            IF, ELSE, DO, WHILE, FOR, RETURN, TRUE, FALSE
         };
+        for (TokenKind keyword : keywords) {
+            String lexeme = keyword.lexeme;
+            int slot = keywordHash(lexeme.charAt(0), lexeme.charAt(lexeme.length() - 1), lexeme.length());
+            if (KEYWORD_TABLE[slot] != null) {
+                throw new IllegalStateException("Keyword hash collision between " + KEYWORD_TABLE[slot] + " and " + keyword);
+            }
+            KEYWORD_TABLE[slot] = keyword;
+        }
+    }
+
+    private static int keywordHash(char first, char last, int length) {
+        return (first + last * 13 + length * 4) & 31;
     }
 
     public static TokenKind getOperatorOrPunctuation(char first, char second) {
@@ -0,0 +1,85 @@
+package luxlang.compiler.lexer.objects;
+
+import java.util.List;
+
+/**
+ * A {@link TokenSource} over already materialized tokens, which interns identifiers as they're
+ * read since tokens don't carry symbols. Tokens don't carry offsets either, so they're laid out
+ * on synthetic lines just long enough to hold them, which keeps their lines and columns intact.
+ */
+public final class TokenListSource implements TokenSource {
+    private final List<Token> tokens;
+    private final Interner interner;
+    private final LineMap lineMap;
+    private final int[] starts;
+    private int i;
+
+    public TokenListSource(List<Token> tokens) {
+        this(tokens, new Interner());
+    }
+
+    public TokenListSource(List<Token> tokens, Interner interner) {
+        this.tokens = tokens;
+        this.interner = interner;
+        this.lineMap = new LineMap();
+        this.starts = new int[tokens.size()];
+        this.i = 0;
+
+        int line = 1;
+        int lineStart = 0;
+        int end = 0;
+        for (int index = 0; index < tokens.size(); index++) {
+            Token token = tokens.get(index);
+            while (line < token.line()) {
+                lineStart = end + 1;
+                end = lineStart;
+                lineMap.addLineStart(lineStart);
+                line++;
+            }
+            starts[index] = lineStart + token.column() - 1;
+            end = Math.max(end, starts[index] + length(token));
+        }
+    }
+
+    private static int length(Token token) {
+        return token.lexeme() == null ? 0 : token.lexeme().length();
+    }
+
+    @Override
+    public TokenKind kind() {
+        return tokens.get(i).kind();
+    }
+
+    @Override
+    public String lexeme() {
+        return tokens.get(i).lexeme();
+    }
+
+    @Override
+    public int symbol() {
+        Token token = tokens.get(i);
+        return token.kind() == TokenKind.IDENTIFIER ? interner.intern(token.lexeme()) : -1;
+    }
+
+    @Override
+    public long span() {
+        return SourceSpan.of(starts[i], starts[i] + length(tokens.get(i)));
+    }
+
+    @Override
+    public LineMap lineMap() {
+        return lineMap;
+    }
+
+    @Override
+    public Token token() {
+        return tokens.get(i);
+    }
+
+    @Override
+    public void advance() {
+        if (i < tokens.size() - 1) {
+            i++;
+        }
+    }
+}
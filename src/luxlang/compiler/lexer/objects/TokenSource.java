@@ -0,0 +1,36 @@
+package luxlang.compiler.lexer.objects;
+
+/**
+ * A forward-only cursor over a stream of tokens that always ends with {@link TokenKind#EOF}.
+ * Once the cursor reaches the EOF token it stays there.
+ */
+public interface TokenSource {
+    TokenKind kind();
+
+    /**
+     * @return The lexeme of the current token, or null for EOF
+     */
+    String lexeme();
+
+    /**
+     * @return The interned symbol of the current identifier, or -1 for any other kind of token
+     */
+    int symbol();
+
+    /**
+     * @return The {@link SourceSpan} of the current token
+     */
+    long span();
+
+    /**
+     * @return The line table that spans from this source resolve through
+     */
+    LineMap lineMap();
+
+    /**
+     * Materializes the current token, including its line and column
+     */
+    Token token();
+
+    void advance();
+}
@@ -0,0 +1,23 @@
+package luxlang.compiler.parser;
+
+import luxlang.compiler.lexer.objects.LineMap;
+import luxlang.compiler.parser.errors.ParsingError;
+
+import java.util.List;
+
+/**
+ * The result of parsing into a {@link luxlang.compiler.tree.FlatAst}; the program itself stays in
+ * the arena it was parsed into
+ */
+public sealed interface FlatParsingResult permits FlatParsingResult.Success, FlatParsingResult.Failure {
+    record Success(LineMap lineMap) implements FlatParsingResult { }
+    record Failure(List<ParsingError> errors) implements FlatParsingResult { }
+
+    static FlatParsingResult success(LineMap lineMap) {
+        return new FlatParsingResult.Success(lineMap);
+    }
+
+    static FlatParsingResult failure(List<ParsingError> errors) {
+        return new FlatParsingResult.Failure(errors);
+    }
+}
@@ -0,0 +1,19 @@
+package luxlang.compiler.parser;
+
+import luxlang.compiler.parser.errors.ParsingError;
+import luxlang.compiler.parser.nodes.FunctionDeclaration;
+
+import java.util.List;
+
+public sealed interface FunctionParsingResult permits FunctionParsingResult.Success, FunctionParsingResult.Failure {
+    record Success(FunctionDeclaration functionDeclaration) implements FunctionParsingResult { }
+    record Failure(List<ParsingError> errors) implements FunctionParsingResult { }
+
+    static FunctionParsingResult success(FunctionDeclaration functionDeclaration) {
+        return new FunctionParsingResult.Success(functionDeclaration);
+    }
+
+    static FunctionParsingResult failure(List<ParsingError> errors) {
+        return new FunctionParsingResult.Failure(errors);
+    }
+}
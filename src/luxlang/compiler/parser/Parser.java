@@ -1,9 +1,12 @@
 package luxlang.compiler.parser;
 
+import luxlang.compiler.lexer.objects.SourceSpan;
 import luxlang.compiler.lexer.objects.Token;
+import luxlang.compiler.lexer.objects.TokenBuffer;
 import luxlang.compiler.lexer.objects.TokenKind;
+import luxlang.compiler.lexer.objects.TokenListSource;
+import luxlang.compiler.lexer.objects.TokenSource;
 import luxlang.compiler.parser.errors.*;
-import luxlang.compiler.parser.nodes.expressions.*;
 import luxlang.compiler.parser.nodes.statements.*;
 import luxlang.compiler.parser.nodes.FunctionDeclaration;
 import luxlang.compiler.parser.nodes.Parameter;
@@ -11,86 +14,332 @@ import luxlang.compiler.parser.nodes.Program;
 import luxlang.compiler.parser.nodes.Type;
 import luxlang.compiler.parser.nodes.expressions.BinaryOperation.BinaryOperationType;
 import luxlang.compiler.parser.nodes.expressions.UnaryOperation.UnaryOperationType;
-import luxlang.compiler.parser.objects.SourceInfo;
+import luxlang.compiler.tree.FlatAst;
+import luxlang.compiler.tree.SyntaxBuilder;
+import luxlang.compiler.tree.SyntaxRecords;
+import luxlang.compiler.util.IntStack;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
+import static luxlang.compiler.tree.Tree.NONE;
+
+/**
+ * Parses tokens into syntax. Every node is handed to a {@link SyntaxBuilder} as soon as it is
+ * finished, so one parse fills either records or a {@link FlatAst}; the parser itself only holds
+ * the handles of nodes still waiting for their parent.
+ */
 public class Parser {
-    private final List<Token> tokens;
+    // Below this many functions splitting and dispatching costs more than it saves
+    private static final int PARALLEL_THRESHOLD = 256;
+    private static final int MIN_CHUNK_SIZE = 32;
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final TokenSource tokens;
+    // Only set when parsing from a TokenBuffer, whose random access parallel parsing needs
+    private final TokenBuffer buffer;
     private final List<ParsingError> errors;
-    private int i;
+    private SyntaxBuilder builder;
+    private final IntStack operands;
+    private final List<PendingOperator> operators;
+    // Finished children waiting for their parent: parameters, statements and functions
+    private final IntStack children;
+
+    public Parser(TokenSource tokens) {
+        this(tokens, null);
+    }
+
+    public Parser(TokenBuffer tokens) {
+        this(tokens.cursor(), tokens);
+    }
 
     public Parser(List<Token> tokens) {
+        this(new TokenListSource(tokens));
+    }
+
+    Parser(TokenSource tokens, TokenBuffer buffer) {
         this.tokens = tokens;
+        this.buffer = buffer;
         this.errors = new ArrayList<>();
-        this.i = 0;
+        this.operands = new IntStack();
+        this.operators = new ArrayList<>();
+        this.children = new IntStack();
     }
 
     public ParsingResult parse() {
+        SyntaxRecords records = new SyntaxRecords();
+        builder = records;
         try {
-            return parseProgram();
+            parseProgram();
         } catch (FatalParsingException exception) {
             return ParsingResult.failure(errors);
         }
+        if (!errors.isEmpty()) {
+            return ParsingResult.failure(errors);
+        }
+
+        List<FunctionDeclaration> functionDeclarations = new ArrayList<>(children.size());
+        for (int index = 0; index < children.size(); index++) {
+            functionDeclarations.add(records.functionNode(children.get(index)));
+        }
+        return ParsingResult.success(new Program(functionDeclarations, tokens.lineMap()));
+    }
+
+    /**
+     * Makes the same checks as {@link #parse()}, but appends the program to an arena instead of
+     * building records. The arena should be reset before it is reused after a failure, which can
+     * leave nodes of an unfinished function behind.
+     */
+    public FlatParsingResult parse(FlatAst ast) {
+        builder = ast;
+        try {
+            parseProgram();
+        } catch (FatalParsingException exception) {
+            return FlatParsingResult.failure(errors);
+        }
+        if (!errors.isEmpty()) {
+            return FlatParsingResult.failure(errors);
+        }
+        return FlatParsingResult.success(tokens.lineMap());
+    }
+
+    /**
+     * Produces the same result as {@link #parse()}, but parses the functions of large programs in
+     * chunks on the common pool. Only parsers over a {@link TokenBuffer} can split their input;
+     * any other parser just parses sequentially.
+     */
+    public ParsingResult parseParallel() {
+        return parseParallel(ForkJoinPool.commonPool());
+    }
+
+    public ParsingResult parseParallel(ForkJoinPool pool) {
+        return parseParallel(pool, PARALLEL_THRESHOLD, MIN_CHUNK_SIZE);
     }
 
-    private ParsingResult parseProgram() {
-        List<FunctionDeclaration> functionDeclarations = new ArrayList<>();
-        while (currentToken().kind() != TokenKind.EOF) {
-            FunctionDeclaration function = parseFunctionDeclaration();
-            functionDeclarations.add(function);
+    ParsingResult parseParallel(ForkJoinPool pool, int threshold, int minChunkSize) {
+        if (buffer == null) {
+            return parse();
         }
 
-        if (errors.isEmpty()) {
-            var program = new Program(functionDeclarations);
-            return ParsingResult.success(program);
+        List<Integer> functionEnds = findFunctionEnds(buffer);
+        if (functionEnds.size() < threshold) {
+            return parse();
+        }
+
+        int chunkSize = Math.max(minChunkSize, functionEnds.size() / (pool.getParallelism() * CHUNKS_PER_THREAD));
+        List<ForkJoinTask<ParsingResult>> tasks = new ArrayList<>();
+        int chunkStart = 0;
+        for (int first = 0; first < functionEnds.size(); first += chunkSize) {
+            int last = Math.min(first + chunkSize, functionEnds.size()) - 1;
+            int start = chunkStart;
+            int end = functionEnds.get(last);
+            tasks.add(pool.submit(() -> new Parser(buffer.cursor(start, end), buffer).parse()));
+            chunkStart = end;
+        }
+
+        List<FunctionDeclaration> functionDeclarations = new ArrayList<>(functionEnds.size());
+        for (int index = 0; index < tasks.size(); index++) {
+            if (!(tasks.get(index).join() instanceof ParsingResult.Success(Program chunk))) {
+                // A chunk boundary guessed from unbalanced braces can misplace errors, so report
+                // exactly what a sequential parse would
+                tasks.subList(index + 1, tasks.size()).forEach(task -> task.cancel(false));
+                return parse();
+            }
+            functionDeclarations.addAll(chunk.functionDeclarations());
+        }
+
+        return ParsingResult.success(new Program(functionDeclarations, buffer.lineMap()));
+    }
+
+    /**
+     * Splits a program into top-level functions by matching braces alone, which works because a
+     * function header never contains a brace
+     * @return The token index just past each function, in order
+     */
+    private static List<Integer> findFunctionEnds(TokenBuffer tokens) {
+        List<Integer> functionEnds = new ArrayList<>();
+        int eof = tokens.size() - 1;
+        int index = 0;
+        while (index < eof) {
+            while (index < eof && tokens.kind(index) != TokenKind.LEFT_BRACE) {
+                index++;
+            }
+
+            int depth = 0;
+            while (index < eof) {
+                TokenKind kind = tokens.kind(index++);
+                if (kind == TokenKind.LEFT_BRACE) {
+                    depth++;
+                } else if (kind == TokenKind.RIGHT_BRACE && --depth == 0) {
+                    break;
+                }
+            }
+            functionEnds.add(index);
+        }
+        return functionEnds;
+    }
+
+    /**
+     * Parses only the signature of each function, leaving its body as a range of tokens that is
+     * parsed when {@link PreparsedFunction#expand()} is first called
+     * @throws IllegalStateException If this parser doesn't read from a {@link TokenBuffer}, which
+     * bodies are later parsed out of
+     */
+    public PreparsingResult preparse() {
+        if (buffer == null) {
+            throw new IllegalStateException("Preparsing requires a parser over a TokenBuffer");
+        }
+
+        List<PreparsedFunction> functions = new ArrayList<>();
+        int start = 0;
+        for (int end : findFunctionEnds(buffer)) {
+            int bodyStart = start;
+            while (bodyStart < end && buffer.kind(bodyStart) != TokenKind.LEFT_BRACE) {
+                bodyStart++;
+            }
+
+            SyntaxRecords records = new SyntaxRecords();
+            Parser signatureParser = new Parser(buffer.cursor(start, bodyStart), buffer);
+            signatureParser.builder = records;
+            Signature signature;
+            try {
+                signature = signatureParser.parseSignature();
+                signatureParser.expectCurrentTokenKind(TokenKind.EOF);
+            } catch (FatalParsingException exception) {
+                return preparsingFailure();
+            }
+            if (!signatureParser.errors.isEmpty() || bodyStart == end) {
+                return preparsingFailure();
+            }
+
+            List<Parameter> parameters = new ArrayList<>(signatureParser.children.size());
+            for (int index = 0; index < signatureParser.children.size(); index++) {
+                parameters.add(records.parameterNode(signatureParser.children.get(index)));
+            }
+
+            long span = SourceSpan.union(signature.firstSpan(), buffer.span(end - 1));
+            functions.add(new PreparsedFunction(
+                buffer,
+                signature.returnType(),
+                signature.name(),
+                signature.symbol(),
+                parameters,
+                span,
+                bodyStart,
+                end
+            ));
+            start = end;
+        }
+
+        return PreparsingResult.success(new PreparsedProgram(buffer, functions));
+    }
+
+    private PreparsingResult preparsingFailure() {
+        // Function boundaries guessed from unbalanced braces can misplace errors, so report
+        // exactly what a full parse would
+        var result = (ParsingResult.Failure) new Parser(buffer).parse();
+        return PreparsingResult.failure(result.errors());
+    }
+
+    /**
+     * Leaves the program's functions on the children stack
+     */
+    private void parseProgram() {
+        while (currentKind() != TokenKind.EOF) {
+            children.push(parseFunctionDeclaration());
         }
-        return ParsingResult.failure(errors);
     }
 
-    private FunctionDeclaration parseFunctionDeclaration() {
-        Token firstToken = currentToken();
+    private int parseFunctionDeclaration() {
+        int firstParameter = children.size();
+        Signature signature = parseSignature();
+        int body = parseCodeBlock();
+        long span = SourceSpan.union(signature.firstSpan(), builder.span(body));
+        int function = builder.function(
+            signature.returnType(),
+            signature.name(),
+            signature.symbol(),
+            children.array(),
+            firstParameter,
+            children.size(),
+            body,
+            span
+        );
+        children.truncate(firstParameter);
+        return function;
+    }
+
+    /**
+     * Leaves the parameters on the children stack
+     */
+    private Signature parseSignature() {
+        long firstSpan = tokens.span();
         Type returnType = parseType();
 
         expectCurrentTokenKind(TokenKind.IDENTIFIER);
-        String name = currentToken().lexeme();
+        String name = tokens.lexeme();
+        int symbol = tokens.symbol();
         increment();
 
         expectAndIncrement(TokenKind.LEFT_PAREN);
 
-        List<Parameter> parameters = List.of();
-        if (currentToken().kind() != TokenKind.RIGHT_PAREN) {
-            parameters = parseParameterList();
+        if (currentKind() != TokenKind.RIGHT_PAREN) {
+            parseParameterList();
         }
 
         expectAndIncrement(TokenKind.RIGHT_PAREN);
 
-        CodeBlock body = parseCodeBlock();
-        Token lastToken = body.sourceInfo().lastToken();
-        var sourceInfo = new SourceInfo(firstToken, lastToken);
-        return new FunctionDeclaration(returnType, name, parameters, body, sourceInfo);
+        return new Signature(firstSpan, returnType, name, symbol);
+    }
+
+    private record Signature(long firstSpan, Type returnType, String name, int symbol) { }
+
+    /**
+     * Parses a body left behind by {@link #preparse()}, reading nothing but the body's tokens
+     */
+    FunctionParsingResult parseFunctionBody(PreparsedFunction function) {
+        SyntaxRecords records = new SyntaxRecords();
+        builder = records;
+        try {
+            int body = parseCodeBlock();
+            if (errors.isEmpty()) {
+                return FunctionParsingResult.success(new FunctionDeclaration(
+                    function.returnType(),
+                    function.name(),
+                    function.symbol(),
+                    function.parameters(),
+                    (CodeBlock) records.statementNode(body),
+                    function.span()
+                ));
+            }
+            return FunctionParsingResult.failure(errors);
+        } catch (FatalParsingException exception) {
+            return FunctionParsingResult.failure(errors);
+        }
     }
 
-    private CodeBlock parseCodeBlock() {
+    private int parseCodeBlock() {
         expectCurrentTokenKind(TokenKind.LEFT_BRACE);
-        Token firstToken = consume();
+        long firstSpan = consumeSpan();
 
-        List<Statement> statements = new ArrayList<>();
-        while (currentToken().kind() != TokenKind.RIGHT_BRACE) {
-            statements.add(parseStatement());
+        int firstStatement = children.size();
+        while (currentKind() != TokenKind.RIGHT_BRACE) {
+            children.push(parseStatement());
         }
 
         expectCurrentTokenKind(TokenKind.RIGHT_BRACE);
 
-        Token lastToken = consume();
-        var sourceInfo = new SourceInfo(firstToken, lastToken);
-        return new CodeBlock(statements, sourceInfo);
+        long lastSpan = consumeSpan();
+        long span = SourceSpan.union(firstSpan, lastSpan);
+        int codeBlock = builder.codeBlock(children.array(), firstStatement, children.size(), span);
+        children.truncate(firstStatement);
+        return codeBlock;
     }
 
-    private Statement parseStatement() {
-        TokenKind kind = currentToken().kind();
+    private int parseStatement() {
+        TokenKind kind = currentKind();
         return switch (kind) {
             case LEFT_BRACE -> parseCodeBlock();
             case IF -> parseIfStatement();
@@ -109,452 +358,333 @@ public class Parser {
         };
     }
 
-    private VariableDeclaration parseVariableDeclarationStatement() {
-        VariableDeclaration variableDeclaration = parseVariableDeclaration();
+    private int parseVariableDeclarationStatement() {
+        int variableDeclaration = parseVariableDeclaration();
 
         expectAndIncrement(TokenKind.SEMICOLON);
 
         return variableDeclaration;
     }
 
-    private Assignment parseAssignmentStatement() {
-        Assignment assignment = parseAssignment();
+    private int parseAssignmentStatement() {
+        int assignment = parseAssignment();
 
         expectAndIncrement(TokenKind.SEMICOLON);
 
         return assignment;
     }
 
-    private VariableDeclaration parseVariableDeclaration() {
-        Token firstToken = currentToken();
+    private int parseVariableDeclaration() {
+        long firstSpan = tokens.span();
         Type type = parseType();
 
         expectCurrentTokenKind(TokenKind.IDENTIFIER);
-        Token lastToken = consume();
-        String name = lastToken.lexeme();
+        int symbol = tokens.symbol();
+        String name = tokens.lexeme();
+        long lastSpan = consumeSpan();
 
-        if (currentToken().kind() != TokenKind.ASSIGN) {
-            var sourceInfo = new SourceInfo(firstToken, lastToken);
-            return new VariableDeclaration(type, name, Optional.empty(), sourceInfo);
+        if (currentKind() != TokenKind.ASSIGN) {
+            long span = SourceSpan.union(firstSpan, lastSpan);
+            return builder.variableDeclaration(type, name, symbol, NONE, span);
         }
 
         expectAndIncrement(TokenKind.ASSIGN);
 
-        Expression initialValue = parseExpression();
+        int initialValue = parseExpression();
 
-        lastToken = initialValue.sourceInfo().lastToken();
+        lastSpan = builder.span(initialValue);
 
-        var sourceInfo = new SourceInfo(firstToken, lastToken);
-        return new VariableDeclaration(type, name, Optional.of(initialValue), sourceInfo);
+        long span = SourceSpan.union(firstSpan, lastSpan);
+        return builder.variableDeclaration(type, name, symbol, initialValue, span);
     }
 
-    private Assignment parseAssignment() {
+    private int parseAssignment() {
         expectCurrentTokenKind(TokenKind.IDENTIFIER);
-        Token firstToken = consume();
-        String variableName = firstToken.lexeme();
+        int symbol = tokens.symbol();
+        String variableName = tokens.lexeme();
+        long firstSpan = consumeSpan();
 
         expectAndIncrement(TokenKind.ASSIGN);
 
-        Expression value = parseExpression();
+        int value = parseExpression();
 
-        Token lastToken = value.sourceInfo().lastToken();
+        long lastSpan = builder.span(value);
 
-        var sourceInfo = new SourceInfo(firstToken, lastToken);
-        return new Assignment(variableName, value, sourceInfo);
+        long span = SourceSpan.union(firstSpan, lastSpan);
+        return builder.assignment(variableName, symbol, value, span);
     }
 
-    private ReturnStatement parseReturnStatement() {
+    private int parseReturnStatement() {
         expectCurrentTokenKind(TokenKind.RETURN);
-        Token firstToken = consume();
+        long firstSpan = consumeSpan();
 
-        Optional<Expression> value = Optional.empty();
-        if (currentToken().kind() != TokenKind.SEMICOLON) {
-            value = Optional.of(parseExpression());
+        int value = NONE;
+        if (currentKind() != TokenKind.SEMICOLON) {
+            value = parseExpression();
         }
 
         expectCurrentTokenKind(TokenKind.SEMICOLON);
 
-        Token lastToken = consume();
+        long lastSpan = consumeSpan();
 
-        var sourceInfo = new SourceInfo(firstToken, lastToken);
-        return new ReturnStatement(value, sourceInfo);
+        long span = SourceSpan.union(firstSpan, lastSpan);
+        return builder.returnStatement(value, span);
     }
 
-    private ForStatement parseForStatement() {
+    private int parseForStatement() {
         expectCurrentTokenKind(TokenKind.FOR);
-        Token firstToken = consume();
+        long firstSpan = consumeSpan();
 
         expectAndIncrement(TokenKind.LEFT_PAREN);
 
-        Optional<ForStatement.Initializer> initializer = Optional.empty();
-        if (currentToken().kind() != TokenKind.SEMICOLON) {
-            initializer = Optional.of(parseForInitializer());
+        int initializer = NONE;
+        if (currentKind() != TokenKind.SEMICOLON) {
+            initializer = parseForInitializer();
         }
 
         expectAndIncrement(TokenKind.SEMICOLON);
 
-        Optional<Expression> condition = Optional.empty();
-        if (currentToken().kind() != TokenKind.SEMICOLON) {
-            condition = Optional.of(parseExpression());
+        int condition = NONE;
+        if (currentKind() != TokenKind.SEMICOLON) {
+            condition = parseExpression();
         }
 
         expectAndIncrement(TokenKind.SEMICOLON);
 
-        Optional<Assignment> update = Optional.empty();
-        if (currentToken().kind() != TokenKind.RIGHT_PAREN) {
-            update = Optional.of(parseAssignment());
+        int update = NONE;
+        if (currentKind() != TokenKind.RIGHT_PAREN) {
+            update = parseAssignment();
         }
 
         expectAndIncrement(TokenKind.RIGHT_PAREN);
 
-        Statement body = parseStatement();
+        int body = parseStatement();
 
-        Token lastToken = body.sourceInfo().lastToken();
+        long lastSpan = builder.span(body);
 
-        var sourceInfo = new SourceInfo(firstToken, lastToken);
-        return new ForStatement(initializer, condition, update, body, sourceInfo);
+        long span = SourceSpan.union(firstSpan, lastSpan);
+        return builder.forStatement(initializer, condition, update, body, span);
     }
 
-    private ForStatement.Initializer parseForInitializer() {
-        if (currentToken().kind().isTypeKind()) {
+    private int parseForInitializer() {
+        if (currentKind().isTypeKind()) {
             return parseVariableDeclaration();
         }
         return parseAssignment();
     }
 
-    private DoWhileStatement parseDoWhileStatement() {
+    private int parseDoWhileStatement() {
         expectCurrentTokenKind(TokenKind.DO);
-        Token firstToken = consume();
+        long firstSpan = consumeSpan();
 
-        Statement body = parseStatement();
+        int body = parseStatement();
 
         expectAndIncrement(TokenKind.WHILE);
 
         expectAndIncrement(TokenKind.LEFT_PAREN);
 
-        Expression condition = parseExpression();
+        int condition = parseExpression();
 
         expectAndIncrement(TokenKind.RIGHT_PAREN);
 
         expectCurrentTokenKind(TokenKind.SEMICOLON);
 
-        Token lastToken = consume();
+        long lastSpan = consumeSpan();
 
-        var sourceInfo = new SourceInfo(firstToken, lastToken);
-        return new DoWhileStatement(body, condition, sourceInfo);
+        long span = SourceSpan.union(firstSpan, lastSpan);
+        return builder.doWhileStatement(body, condition, span);
     }
 
-    private WhileStatement parseWhileStatement() {
+    private int parseWhileStatement() {
         expectCurrentTokenKind(TokenKind.WHILE);
-        Token firstToken = consume();
+        long firstSpan = consumeSpan();
 
         expectAndIncrement(TokenKind.LEFT_PAREN);
 
-        Expression condition = parseExpression();
+        int condition = parseExpression();
 
         expectAndIncrement(TokenKind.RIGHT_PAREN);
 
-        Statement body = parseStatement();
+        int body = parseStatement();
 
-        Token lastToken = body.sourceInfo().lastToken();
+        long lastSpan = builder.span(body);
 
-        var sourceInfo = new SourceInfo(firstToken, lastToken);
-        return new WhileStatement(condition, body, sourceInfo);
+        long span = SourceSpan.union(firstSpan, lastSpan);
+        return builder.whileStatement(condition, body, span);
     }
 
-    private IfStatement parseIfStatement() {
+    private int parseIfStatement() {
         expectCurrentTokenKind(TokenKind.IF);
-        Token firstToken = consume();
+        long firstSpan = consumeSpan();
 
         expectAndIncrement(TokenKind.LEFT_PAREN);
 
-        Expression condition = parseExpression();
+        int condition = parseExpression();
 
         expectAndIncrement(TokenKind.RIGHT_PAREN);
 
-        Statement body = parseStatement();
-        Token lastToken = body.sourceInfo().lastToken();
-        Optional<Statement> elseBody = Optional.empty();
-        if (currentToken().kind() == TokenKind.ELSE) {
-            increment();
-            var elseBodyStatement = parseStatement();
-            lastToken = elseBodyStatement.sourceInfo().lastToken();
-            elseBody = Optional.of(elseBodyStatement);
-        }
-
-        var sourceInfo = new SourceInfo(firstToken, lastToken);
-        return new IfStatement(condition, body, elseBody, sourceInfo);
-    }
-
-    private Expression parseExpression() {
-        return parseLogicalOr();
-    }
-
-    private Expression parseLogicalOr() {
-        Expression result = parseLogicalAnd();
-
-        while (currentToken().kind() == TokenKind.LOGICAL_OR) {
-            increment();
-            Expression left = result;
-            Expression right = parseLogicalAnd();
-
-            Token firstToken = left.sourceInfo().firstToken();
-            Token lastToken = right.sourceInfo().lastToken();
-            var sourceInfo = new SourceInfo(firstToken, lastToken);
-            result = new BinaryOperation(BinaryOperationType.LOGICAL_OR, left, right, sourceInfo);
-        }
-
-        return result;
-    }
-
-    private Expression parseLogicalAnd() {
-        Expression result = parseBitwiseOr();
-
-        while (currentToken().kind() == TokenKind.LOGICAL_AND) {
-            increment();
-            Expression left = result;
-            Expression right = parseBitwiseOr();
-
-            Token firstToken = left.sourceInfo().firstToken();
-            Token lastToken = right.sourceInfo().lastToken();
-            var sourceInfo = new SourceInfo(firstToken, lastToken);
-            result = new BinaryOperation(BinaryOperationType.LOGICAL_AND, left, right, sourceInfo);
-        }
-
-        return result;
-    }
-
-    private Expression parseBitwiseOr() {
-        Expression result = parseBitwiseXor();
-
-        while (currentToken().kind() == TokenKind.BITWISE_OR) {
+        int body = parseStatement();
+        long lastSpan = builder.span(body);
+        int elseBody = NONE;
+        if (currentKind() == TokenKind.ELSE) {
             increment();
-            Expression left = result;
-            Expression right = parseBitwiseXor();
-
-            Token firstToken = left.sourceInfo().firstToken();
-            Token lastToken = right.sourceInfo().lastToken();
-            var sourceInfo = new SourceInfo(firstToken, lastToken);
-            result = new BinaryOperation(BinaryOperationType.BITWISE_OR, left, right, sourceInfo);
+            elseBody = parseStatement();
+            lastSpan = builder.span(elseBody);
         }
 
-        return result;
+        long span = SourceSpan.union(firstSpan, lastSpan);
+        return builder.ifStatement(condition, body, elseBody, span);
     }
 
-    private Expression parseBitwiseXor() {
-        Expression result = parseBitwiseAnd();
+    /**
+     * Parses an expression with explicit operand and operator stacks rather than a recursive call
+     * per precedence level, so neither long operator chains nor deeply nested parentheses and
+     * calls grow the Java stack. Every binary operator is left-associative and prefix operators
+     * bind tighter than any of them.
+     */
+    private int parseExpression() {
+        int operatorBase = operators.size();
+        boolean expectingOperand = true;
 
-        while (currentToken().kind() == TokenKind.BITWISE_XOR) {
-            increment();
-            Expression left = result;
-            Expression right = parseBitwiseAnd();
-
-            Token firstToken = left.sourceInfo().firstToken();
-            Token lastToken = right.sourceInfo().lastToken();
-            var sourceInfo = new SourceInfo(firstToken, lastToken);
-            result = new BinaryOperation(BinaryOperationType.BITWISE_XOR, left, right, sourceInfo);
-        }
-
-        return result;
-    }
-
-    private Expression parseBitwiseAnd() {
-        Expression result = parseEquivalence();
-
-        while (currentToken().kind() == TokenKind.BITWISE_AND) {
-            increment();
-            Expression left = result;
-            Expression right = parseEquivalence();
-
-            Token firstToken = left.sourceInfo().firstToken();
-            Token lastToken = right.sourceInfo().lastToken();
-            var sourceInfo = new SourceInfo(firstToken, lastToken);
-            result = new BinaryOperation(BinaryOperationType.BITWISE_AND, left, right, sourceInfo);
-        }
-
-        return result;
-    }
-
-    private Expression parseEquivalence() {
-        Expression result = parseRelational();
-
-        termLoop:
         while (true) {
-            BinaryOperationType operation;
-            switch(currentToken().kind()) {
-                case EQUAL     -> operation = BinaryOperationType.EQUAL;
-                case NOT_EQUAL -> operation = BinaryOperationType.NOT_EQUAL;
-                default -> {
-                    break termLoop;
-                }
+            if (expectingOperand) {
+                expectingOperand = parseOperand(operatorBase);
+                continue;
             }
-            increment();
-
-            Expression left = result;
-            Expression right = parseRelational();
-
-            Token firstToken = left.sourceInfo().firstToken();
-            Token lastToken = right.sourceInfo().lastToken();
-            var sourceInfo = new SourceInfo(firstToken, lastToken);
-            result = new BinaryOperation(operation, left, right, sourceInfo);
-        }
-
-        return result;
-    }
-
-    private Expression parseRelational() {
-        Expression result = parseAdditive();
 
-        termLoop:
-        while (true) {
-            BinaryOperationType operation;
-            switch (currentToken().kind()) {
-                case LESS          -> operation = BinaryOperationType.LESS;
-                case LESS_EQUAL    -> operation = BinaryOperationType.LESS_EQUAL;
-                case GREATER       -> operation = BinaryOperationType.GREATER;
-                case GREATER_EQUAL -> operation = BinaryOperationType.GREATER_EQUAL;
-                default -> {
-                    break termLoop;
-                }
+            TokenKind kind = currentKind();
+            BinaryOperator binaryOperator = BinaryOperator.of(kind);
+            if (binaryOperator != null) {
+                reduceBinaryOperators(operatorBase, binaryOperator.precedence);
+                operators.add(binaryOperator);
+                increment();
+                expectingOperand = true;
+                continue;
             }
-            increment();
-
-            Expression left = result;
-            Expression right = parseAdditive();
 
-            Token firstToken = left.sourceInfo().firstToken();
-            Token lastToken = right.sourceInfo().lastToken();
-            var sourceInfo = new SourceInfo(firstToken, lastToken);
-            result = new BinaryOperation(operation, left, right, sourceInfo);
-        }
-
-        return result;
-    }
-
-    private Expression parseAdditive() {
-        Expression result = parseMultiplicative();
+            reduceBinaryOperators(operatorBase, 0);
+            if (operators.size() == operatorBase) {
+                return operands.pop();
+            }
 
-        termLoop:
-        while (true) {
-            BinaryOperationType operation;
-            switch (currentToken().kind()) {
-                case ADD -> operation = BinaryOperationType.ADD;
-                case SUB -> operation = BinaryOperationType.SUB;
-                default -> {
-                    break termLoop;
+            if (operators.getLast() instanceof OpenCall call) {
+                if (compareAndIncrement(TokenKind.COMMA)) {
+                    expectingOperand = true;
+                    continue;
                 }
+                expectCurrentTokenKind(TokenKind.RIGHT_PAREN);
+                operators.removeLast();
+                long lastSpan = consumeSpan();
+
+                long span = SourceSpan.union(call.span(), lastSpan);
+                int functionCall = builder.functionCall(call.name(), call.symbol(), operands.array(), call.firstArgument(), operands.size(), span);
+                operands.truncate(call.firstArgument());
+                completeOperand(functionCall, operatorBase);
+            } else {
+                operators.removeLast();
+                expectAndIncrement(TokenKind.RIGHT_PAREN);
+                completeOperand(operands.pop(), operatorBase);
             }
-            increment();
-
-            Expression left = result;
-            Expression right = parseMultiplicative();
-
-            Token firstToken = left.sourceInfo().firstToken();
-            Token lastToken = right.sourceInfo().lastToken();
-            var sourceInfo = new SourceInfo(firstToken, lastToken);
-            result = new BinaryOperation(operation, left, right, sourceInfo);
         }
-
-        return result;
     }
 
-    private Expression parseMultiplicative() {
-        Expression result = parseUnary();
-
-        termLoop:
+    /**
+     * Reads any prefix operators followed by a primary expression
+     * @return Whether an opening parenthesis or call was pushed, in which case an operand is still expected
+     */
+    private boolean parseOperand(int operatorBase) {
         while (true) {
-            BinaryOperationType operation;
-            switch (currentToken().kind()) {
-                case MULT -> operation = BinaryOperationType.MULT;
-                case DIV  -> operation = BinaryOperationType.DIV;
-                case MOD  -> operation = BinaryOperationType.MOD;
+            UnaryOperationType operation;
+            switch (currentKind()) {
+                case SUB         -> operation = UnaryOperationType.NEGATION;
+                case LOGICAL_NOT -> operation = UnaryOperationType.LOGICAL_NOT;
+                case BITWISE_NOT -> operation = UnaryOperationType.BITWISE_NOT;
                 default -> {
-                    break termLoop;
+                    return parsePrimary(operatorBase);
                 }
             }
-            increment();
-
-            Expression left = result;
-            Expression right = parseUnary();
-
-            Token firstToken = left.sourceInfo().firstToken();
-            Token lastToken = right.sourceInfo().lastToken();
-            var sourceInfo = new SourceInfo(firstToken, lastToken);
-            result = new BinaryOperation(operation, left, right, sourceInfo);
-        }
-
-        return result;
-    }
-
-    private Expression parseUnary() {
-        UnaryOperationType operation;
-        switch (currentToken().kind()) {
-            case SUB         -> operation = UnaryOperationType.NEGATION;
-            case LOGICAL_NOT -> operation = UnaryOperationType.LOGICAL_NOT;
-            case BITWISE_NOT -> operation = UnaryOperationType.BITWISE_NOT;
-            default -> {
-                return parsePrimary();
-            }
+            operators.add(new PrefixOperator(operation, consumeSpan()));
         }
-        Token firstToken = consume();
-
-        Expression operand = parseUnary();
-
-        Token lastToken = operand.sourceInfo().lastToken();
-        var sourceInfo = new SourceInfo(firstToken, lastToken);
-        return new UnaryOperation(operation, operand, sourceInfo);
     }
 
-    private Expression parsePrimary() {
-        Token currentToken = currentToken();
-
-        if (currentToken.kind() == TokenKind.IDENTIFIER) {
-            Token firstToken = consume();
-            String identifierName = firstToken.lexeme();
+    private boolean parsePrimary(int operatorBase) {
+        TokenKind kind = currentKind();
+        if (kind == TokenKind.IDENTIFIER) {
+            int symbol = tokens.symbol();
+            String identifierName = tokens.lexeme();
+            long firstSpan = consumeSpan();
 
-            currentToken = currentToken();
-            if (currentToken.kind() != TokenKind.LEFT_PAREN) {
-                var sourceInfo = new SourceInfo(firstToken, firstToken);
-                return new VariableExpression(identifierName, sourceInfo);
+            if (currentKind() != TokenKind.LEFT_PAREN) {
+                completeOperand(builder.variableExpression(identifierName, symbol, firstSpan), operatorBase);
+                return false;
             }
 
             increment();
 
-            List<Expression> arguments = List.of();
-            if (currentToken().kind() != TokenKind.RIGHT_PAREN) {
-                arguments = parseArgumentList();
+            if (currentKind() != TokenKind.RIGHT_PAREN) {
+                operators.add(new OpenCall(identifierName, symbol, firstSpan, operands.size()));
+                return true;
             }
 
-            expectCurrentTokenKind(TokenKind.RIGHT_PAREN);
-
-            Token lastToken = consume();
-            var sourceInfo = new SourceInfo(firstToken, lastToken);
-            return new FunctionCall(identifierName, arguments, sourceInfo);
+            long lastSpan = consumeSpan();
+            long span = SourceSpan.union(firstSpan, lastSpan);
+            completeOperand(builder.functionCall(identifierName, symbol, operands.array(), 0, 0, span), operatorBase);
+            return false;
         }
 
-        Token firstToken = consume();
-        var sourceInfo = new SourceInfo(firstToken, firstToken);
-        return switch (currentToken.kind()) {
-            case LITERAL_INTEGER    -> new IntegerLiteral(currentToken.lexeme(), sourceInfo);
-            case LITERAL_FLOATINGPT -> new FloatingPointLiteral(currentToken.lexeme(), sourceInfo);
-            case TRUE               -> new BooleanLiteral(BooleanLiteral.Value.TRUE, sourceInfo);
-            case FALSE              -> new BooleanLiteral(BooleanLiteral.Value.FALSE, sourceInfo);
-            case LEFT_PAREN         -> {
-                Expression result = parseExpression();
-
-                expectAndIncrement(TokenKind.RIGHT_PAREN);
+        if (kind == TokenKind.LEFT_PAREN) {
+            increment();
+            operators.add(OpenParenthesis.INSTANCE);
+            return true;
+        }
 
-                yield result;
-            }
+        long span = tokens.span();
+        int literal = switch (kind) {
+            case LITERAL_INTEGER    -> builder.integerLiteral(tokens.lexeme(), span);
+            case LITERAL_FLOATINGPT -> builder.floatingPointLiteral(tokens.lexeme(), span);
+            case TRUE               -> builder.booleanLiteral(true, span);
+            case FALSE              -> builder.booleanLiteral(false, span);
             default -> {
-                errors.add(new NotAnExpressionError(currentToken));
+                errors.add(new NotAnExpressionError(currentToken()));
                 throw new FatalParsingException();
             }
         };
+        increment();
+        completeOperand(literal, operatorBase);
+        return false;
+    }
+
+    /**
+     * Applies the prefix operators waiting on top of the operator stack to a finished operand and
+     * pushes the result
+     */
+    private void completeOperand(int operand, int operatorBase) {
+        while (operators.size() > operatorBase && operators.getLast() instanceof PrefixOperator prefix) {
+            operators.removeLast();
+            long span = SourceSpan.union(prefix.span(), builder.span(operand));
+            operand = builder.unaryOperation(prefix.operation(), operand, span);
+        }
+        operands.push(operand);
+    }
+
+    /**
+     * Folds pending binary operators of at least the given precedence, stopping at the innermost
+     * open parenthesis or call
+     */
+    private void reduceBinaryOperators(int operatorBase, int minimumPrecedence) {
+        while (operators.size() > operatorBase
+            && operators.getLast() instanceof BinaryOperator operator
+            && operator.precedence >= minimumPrecedence) {
+            operators.removeLast();
+            int right = operands.pop();
+            int left = operands.pop();
+            long span = SourceSpan.union(builder.span(left), builder.span(right));
+            operands.push(builder.binaryOperation(operator.operation, left, right, span));
+        }
     }
 
     private Type parseType() {
-        Type type =  switch (currentToken().kind()) {
+        Type type =  switch (currentKind()) {
             case VOID -> Type.VOID;
             case BOOL -> Type.BOOL;
             case BYTE -> Type.BYTE;
@@ -576,54 +706,38 @@ public class Parser {
         return type;
     }
 
-    private List<Parameter> parseParameterList() {
-        List<Parameter> parameterList = new ArrayList<>();
-
+    private void parseParameterList() {
         do {
-            Token firstToken = currentToken();
+            long firstSpan = tokens.span();
             Type type = parseType();
 
             expectCurrentTokenKind(TokenKind.IDENTIFIER);
-            String name = currentToken().lexeme();
-            Token lastToken = consume();
-
-            var sourceInfo =  new SourceInfo(firstToken, lastToken);
-            parameterList.add(new Parameter(type, name, sourceInfo));
-        } while (compareAndIncrement(TokenKind.COMMA));
-
-        return parameterList;
-    }
+            int symbol = tokens.symbol();
+            String name = tokens.lexeme();
+            long lastSpan = consumeSpan();
 
-    private List<Expression> parseArgumentList() {
-        List<Expression> argumentList = new ArrayList<>();
-
-        do {
-            argumentList.add(parseExpression());
+            long span = SourceSpan.union(firstSpan, lastSpan);
+            children.push(builder.parameter(type, name, symbol, span));
         } while (compareAndIncrement(TokenKind.COMMA));
-
-        return argumentList;
     }
 
     private void expectCurrentTokenKind(TokenKind kind) {
-        Token currentToken = currentToken();
-        if (currentToken.kind() != kind) {
-            errors.add(new UnexpectedKindError(currentToken, kind));
+        if (currentKind() != kind) {
+            errors.add(new UnexpectedKindError(currentToken(), kind));
             throw new FatalParsingException();
         }
     }
 
     private void expectAndIncrement(TokenKind kind) {
-        Token currentToken = currentToken();
-        if (currentToken.kind() != kind) {
-            errors.add(new UnexpectedKindError(currentToken, kind));
+        if (currentKind() != kind) {
+            errors.add(new UnexpectedKindError(currentToken(), kind));
         } else {
             increment();
         }
     }
 
     private boolean compareAndIncrement(TokenKind kind) {
-        Token currentToken = currentToken();
-        if (currentToken.kind() == kind) {
+        if (currentKind() == kind) {
             increment();
             return true;
         }
@@ -631,16 +745,85 @@ public class Parser {
     }
 
     private Token currentToken() {
-        return tokens.get(i);
+        return tokens.token();
+    }
+
+    private TokenKind currentKind() {
+        return tokens.kind();
     }
 
     private void increment() {
-        i++;
+        tokens.advance();
     }
 
-    private Token consume() {
-        var currentToken = currentToken();
+    private long consumeSpan() {
+        long span = tokens.span();
         increment();
-        return currentToken;
+        return span;
+    }
+
+    private sealed interface PendingOperator permits BinaryOperator, PrefixOperator, OpenParenthesis, OpenCall { }
+
+    private enum BinaryOperator implements PendingOperator {
+        LOGICAL_OR(BinaryOperationType.LOGICAL_OR, 1),
+        LOGICAL_AND(BinaryOperationType.LOGICAL_AND, 2),
+        BITWISE_OR(BinaryOperationType.BITWISE_OR, 3),
+        BITWISE_XOR(BinaryOperationType.BITWISE_XOR, 4),
+        BITWISE_AND(BinaryOperationType.BITWISE_AND, 5),
+        EQUAL(BinaryOperationType.EQUAL, 6),
+        NOT_EQUAL(BinaryOperationType.NOT_EQUAL, 6),
+        LESS(BinaryOperationType.LESS, 7),
+        LESS_EQUAL(BinaryOperationType.LESS_EQUAL, 7),
+        GREATER(BinaryOperationType.GREATER, 7),
+        GREATER_EQUAL(BinaryOperationType.GREATER_EQUAL, 7),
+        ADD(BinaryOperationType.ADD, 8),
+        SUB(BinaryOperationType.SUB, 8),
+        MULT(BinaryOperationType.MULT, 9),
+        DIV(BinaryOperationType.DIV, 9),
+        MOD(BinaryOperationType.MOD, 9);
+
+        private final BinaryOperationType operation;
+        private final int precedence;
+
+        BinaryOperator(BinaryOperationType operation, int precedence) {
+            this.operation = operation;
+            this.precedence = precedence;
+        }
+
+        /**
+         * @return The binary operator a token stands for, or null if it isn't one
+         */
+        static BinaryOperator of(TokenKind kind) {
+            return switch (kind) {
+                case LOGICAL_OR    -> LOGICAL_OR;
+                case LOGICAL_AND   -> LOGICAL_AND;
+                case BITWISE_OR    -> BITWISE_OR;
+                case BITWISE_XOR   -> BITWISE_XOR;
+                case BITWISE_AND   -> BITWISE_AND;
+                case EQUAL         -> EQUAL;
+                case NOT_EQUAL     -> NOT_EQUAL;
+                case LESS          -> LESS;
+                case LESS_EQUAL    -> LESS_EQUAL;
+                case GREATER       -> GREATER;
+                case GREATER_EQUAL -> GREATER_EQUAL;
+                case ADD           -> ADD;
+                case SUB           -> SUB;
+                case MULT          -> MULT;
+                case DIV           -> DIV;
+                case MOD           -> MOD;
+                default            -> null;
+            };
+        }
     }
+
+    private record PrefixOperator(UnaryOperationType operation, long span) implements PendingOperator { }
+
+    private enum OpenParenthesis implements PendingOperator {
+        INSTANCE
+    }
+
+    /**
+     * @param firstArgument Operand stack index where this call's arguments begin
+     */
+    private record OpenCall(String name, int symbol, long span, int firstArgument) implements PendingOperator { }
 }
\ No newline at end of file
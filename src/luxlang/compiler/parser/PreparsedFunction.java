@@ -0,0 +1,78 @@
+package luxlang.compiler.parser;
+
+import luxlang.compiler.lexer.objects.TokenBuffer;
+import luxlang.compiler.parser.nodes.Parameter;
+import luxlang.compiler.parser.nodes.Type;
+
+import java.util.List;
+
+/**
+ * A function whose signature has been parsed but whose body is only a range of tokens until
+ * something asks for it through {@link #expand()}
+ */
+public final class PreparsedFunction {
+    private final TokenBuffer tokens;
+    private final Type returnType;
+    private final String name;
+    private final int symbol;
+    private final List<Parameter> parameters;
+    private final long span;
+    private final int bodyStart;
+    private final int bodyEnd;
+
+    private FunctionParsingResult expanded;
+
+    PreparsedFunction(
+        TokenBuffer tokens,
+        Type returnType,
+        String name,
+        int symbol,
+        List<Parameter> parameters,
+        long span,
+        int bodyStart,
+        int bodyEnd
+    ) {
+        this.tokens = tokens;
+        this.returnType = returnType;
+        this.name = name;
+        this.symbol = symbol;
+        this.parameters = parameters;
+        this.span = span;
+        this.bodyStart = bodyStart;
+        this.bodyEnd = bodyEnd;
+    }
+
+    public Type returnType() {
+        return returnType;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int symbol() {
+        return symbol;
+    }
+
+    public List<Parameter> parameters() {
+        return parameters;
+    }
+
+    public long span() {
+        return span;
+    }
+
+    /**
+     * Parses the body the first time it's called; later calls return the same result
+     */
+    public synchronized FunctionParsingResult expand() {
+        if (expanded == null) {
+            expanded = new Parser(tokens.cursor(bodyStart, bodyEnd), tokens).parseFunctionBody(this);
+        }
+        return expanded;
+    }
+
+    public synchronized boolean isExpanded() {
+        return expanded != null;
+    }
+}
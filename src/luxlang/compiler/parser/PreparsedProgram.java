@@ -0,0 +1,60 @@
+package luxlang.compiler.parser;
+
+import luxlang.compiler.lexer.objects.LineMap;
+import luxlang.compiler.lexer.objects.TokenBuffer;
+import luxlang.compiler.parser.nodes.FunctionDeclaration;
+import luxlang.compiler.parser.nodes.Program;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The result of {@link Parser#preparse()}: every function's signature, with bodies parsed only
+ * as they're expanded
+ */
+public final class PreparsedProgram {
+    private final TokenBuffer tokens;
+    private final List<PreparsedFunction> functions;
+
+    PreparsedProgram(TokenBuffer tokens, List<PreparsedFunction> functions) {
+        this.tokens = tokens;
+        this.functions = functions;
+    }
+
+    public List<PreparsedFunction> functions() {
+        return functions;
+    }
+
+    public LineMap lineMap() {
+        return tokens.lineMap();
+    }
+
+    /**
+     * @return The first function declared with the given name, without expanding any body
+     */
+    public Optional<PreparsedFunction> function(String name) {
+        for (PreparsedFunction function : functions) {
+            if (function.name().equals(name)) {
+                return Optional.of(function);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Expands every body that hasn't been yet
+     * @return The same result {@link Parser#parse()} would give for the whole program
+     */
+    public ParsingResult expand() {
+        List<FunctionDeclaration> functionDeclarations = new ArrayList<>(functions.size());
+        for (PreparsedFunction function : functions) {
+            if (!(function.expand() instanceof FunctionParsingResult.Success(FunctionDeclaration declaration))) {
+                // A fatal error stops a sequential parse before later bodies, so report what it would
+                return new Parser(tokens).parse();
+            }
+            functionDeclarations.add(declaration);
+        }
+        return ParsingResult.success(new Program(functionDeclarations, tokens.lineMap()));
+    }
+}
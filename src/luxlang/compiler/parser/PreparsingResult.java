@@ -0,0 +1,18 @@
+package luxlang.compiler.parser;
+
+import luxlang.compiler.parser.errors.ParsingError;
+
+import java.util.List;
+
+public sealed interface PreparsingResult permits PreparsingResult.Success, PreparsingResult.Failure {
+    record Success(PreparsedProgram program) implements PreparsingResult { }
+    record Failure(List<ParsingError> errors) implements PreparsingResult { }
+
+    static PreparsingResult success(PreparsedProgram program) {
+        return new PreparsingResult.Success(program);
+    }
+
+    static PreparsingResult failure(List<ParsingError> errors) {
+        return new PreparsingResult.Failure(errors);
+    }
+}
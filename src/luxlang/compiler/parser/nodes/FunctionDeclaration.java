@@ -1,6 +1,5 @@
 package luxlang.compiler.parser.nodes;
 
-import luxlang.compiler.parser.objects.SourceInfo;
 import luxlang.compiler.parser.nodes.statements.CodeBlock;
 
 import java.util.List;
@@ -8,7 +7,8 @@ import java.util.List;
 public record FunctionDeclaration(
     Type returnType,
     String name,
+    int symbol,
     List<Parameter> parameters,
     CodeBlock body,
-    SourceInfo sourceInfo
+    long span
 ) { }
\ No newline at end of file
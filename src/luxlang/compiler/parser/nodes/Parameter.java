@@ -1,9 +1,8 @@
 package luxlang.compiler.parser.nodes;
 
-import luxlang.compiler.parser.objects.SourceInfo;
-
 public record Parameter(
     Type type,
     String name,
-    SourceInfo sourceInfo
+    int symbol,
+    long span
 ) { }
\ No newline at end of file
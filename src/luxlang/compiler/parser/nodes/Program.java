@@ -1,5 +1,10 @@
 package luxlang.compiler.parser.nodes;
 
+import luxlang.compiler.lexer.objects.LineMap;
+
 import java.util.List;
 
-public record Program(List<FunctionDeclaration> functionDeclarations) { }
\ No newline at end of file
+/**
+ * @param lineMap Resolves the spans of every node in the program to lines and columns
+ */
+public record Program(List<FunctionDeclaration> functionDeclarations, LineMap lineMap) { }
@@ -1,12 +1,10 @@
 package luxlang.compiler.parser.nodes.expressions;
 
-import luxlang.compiler.parser.objects.SourceInfo;
-
 public record BinaryOperation(
     BinaryOperationType operation,
     Expression left,
     Expression right,
-    SourceInfo sourceInfo
+    long span
 ) implements Expression {
     public enum BinaryOperationType {
         ADD("+"),
@@ -1,10 +1,8 @@
 package luxlang.compiler.parser.nodes.expressions;
 
-import luxlang.compiler.parser.objects.SourceInfo;
-
 public record BooleanLiteral(
     Value value,
-    SourceInfo sourceInfo
+    long span
 ) implements Expression {
     public enum Value {
         TRUE,
@@ -1,7 +1,5 @@
 package luxlang.compiler.parser.nodes.expressions;
 
-import luxlang.compiler.parser.objects.SourceInfo;
-
 public sealed interface Expression permits FunctionCall,
                                            BinaryOperation,
                                            UnaryOperation,
@@ -10,5 +8,5 @@ public sealed interface Expression permits FunctionCall,
                                            IntegerLiteral,
                                            BooleanLiteral
 {
-    SourceInfo sourceInfo();
+    long span();
 }
\ No newline at end of file
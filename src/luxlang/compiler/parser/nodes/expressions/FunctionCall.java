@@ -1,11 +1,10 @@
 package luxlang.compiler.parser.nodes.expressions;
 
-import luxlang.compiler.parser.objects.SourceInfo;
-
 import java.util.List;
 
 public record FunctionCall(
     String name,
+    int symbol,
     List<Expression> arguments,
-    SourceInfo sourceInfo
+    long span
 ) implements Expression { }
\ No newline at end of file
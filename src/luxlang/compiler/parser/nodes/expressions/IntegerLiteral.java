@@ -1,8 +1,6 @@
 package luxlang.compiler.parser.nodes.expressions;
 
-import luxlang.compiler.parser.objects.SourceInfo;
-
 public record IntegerLiteral(
     String value,
-    SourceInfo sourceInfo
+    long span
 ) implements Expression { }
\ No newline at end of file
@@ -1,12 +1,11 @@
 package luxlang.compiler.parser.nodes.expressions;
 
-import luxlang.compiler.parser.objects.SourceInfo;
 import luxlang.compiler.parser.nodes.Type;
 
 public record UnaryOperation(
     UnaryOperationType operation,
     Expression operand,
-    SourceInfo sourceInfo
+    long span
 ) implements Expression {
     public enum UnaryOperationType {
         LOGICAL_NOT("!"),
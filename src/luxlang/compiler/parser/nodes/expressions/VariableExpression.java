@@ -1,8 +1,7 @@
 package luxlang.compiler.parser.nodes.expressions;
 
-import luxlang.compiler.parser.objects.SourceInfo;
-
 public record VariableExpression(
     String name,
-    SourceInfo sourceInfo
+    int symbol,
+    long span
 ) implements Expression { }
\ No newline at end of file
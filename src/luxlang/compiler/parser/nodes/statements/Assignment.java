@@ -1,10 +1,10 @@
 package luxlang.compiler.parser.nodes.statements;
 
-import luxlang.compiler.parser.objects.SourceInfo;
 import luxlang.compiler.parser.nodes.expressions.Expression;
 
 public record Assignment(
     String variableName,
+    int symbol,
     Expression value,
-    SourceInfo sourceInfo
+    long span
 ) implements Statement, ForStatement.Initializer { }
\ No newline at end of file
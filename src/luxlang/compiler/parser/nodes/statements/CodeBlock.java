@@ -1,10 +1,8 @@
 package luxlang.compiler.parser.nodes.statements;
 
-import luxlang.compiler.parser.objects.SourceInfo;
-
 import java.util.List;
 
 public record CodeBlock(
     List<Statement> statements,
-    SourceInfo sourceInfo
+    long span
 ) implements Statement { }
\ No newline at end of file
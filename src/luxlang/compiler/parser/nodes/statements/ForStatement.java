@@ -1,6 +1,5 @@
 package luxlang.compiler.parser.nodes.statements;
 
-import luxlang.compiler.parser.objects.SourceInfo;
 import luxlang.compiler.parser.nodes.expressions.Expression;
 
 import java.util.Optional;
@@ -10,7 +9,7 @@ public record ForStatement(
     Optional<Expression> condition,
     Optional<Assignment> update,
     Statement body,
-    SourceInfo sourceInfo
+    long span
 ) implements Statement {
     public sealed interface Initializer permits VariableDeclaration, Assignment { }
 }
\ No newline at end of file
@@ -1,6 +1,5 @@
 package luxlang.compiler.parser.nodes.statements;
 
-import luxlang.compiler.parser.objects.SourceInfo;
 import luxlang.compiler.parser.nodes.expressions.Expression;
 
 import java.util.Optional;
@@ -9,5 +8,5 @@ public record IfStatement(
     Expression condition,
     Statement body,
     Optional<Statement> elseBody,
-    SourceInfo sourceInfo
+    long span
 ) implements Statement { }
\ No newline at end of file
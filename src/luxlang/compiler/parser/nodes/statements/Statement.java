@@ -1,7 +1,5 @@
 package luxlang.compiler.parser.nodes.statements;
 
-import luxlang.compiler.parser.objects.SourceInfo;
-
 public sealed interface Statement permits CodeBlock,
                                           IfStatement,
                                           WhileStatement,
@@ -11,5 +9,5 @@ public sealed interface Statement permits CodeBlock,
                                           VariableDeclaration,
                                           Assignment
 {
-    SourceInfo sourceInfo();
+    long span();
 }
\ No newline at end of file
@@ -1,6 +1,5 @@
 package luxlang.compiler.parser.nodes.statements;
 
-import luxlang.compiler.parser.objects.SourceInfo;
 import luxlang.compiler.parser.nodes.Type;
 import luxlang.compiler.parser.nodes.expressions.Expression;
 
@@ -9,6 +8,7 @@ import java.util.Optional;
 public record VariableDeclaration(
     Type type,
     String name,
+    int symbol,
     Optional<Expression> initialValue,
-    SourceInfo sourceInfo
+    long span
 ) implements Statement, ForStatement.Initializer { }
\ No newline at end of file
@@ -1,10 +1,9 @@
 package luxlang.compiler.parser.nodes.statements;
 
-import luxlang.compiler.parser.objects.SourceInfo;
 import luxlang.compiler.parser.nodes.expressions.Expression;
 
 public record WhileStatement(
     Expression condition,
     Statement body,
-    SourceInfo sourceInfo
+    long span
 ) implements Statement { }
\ No newline at end of file
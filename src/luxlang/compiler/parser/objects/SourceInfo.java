@@ -1,8 +0,0 @@
-package luxlang.compiler.parser.objects;
-
-import luxlang.compiler.lexer.objects.Token;
-
-public record SourceInfo(
-    Token firstToken,
-    Token lastToken
-) { }
\ No newline at end of file
@@ -0,0 +1,402 @@
+package luxlang.compiler.tree;
+
+import luxlang.compiler.analysis.nodes.AnalyzedFunctionDeclaration;
+import luxlang.compiler.analysis.nodes.LocalVariable;
+import luxlang.compiler.analysis.nodes.expressions.*;
+import luxlang.compiler.analysis.nodes.statements.*;
+import luxlang.compiler.parser.nodes.Parameter;
+import luxlang.compiler.parser.nodes.Type;
+import luxlang.compiler.parser.nodes.expressions.BinaryOperation.BinaryOperationType;
+import luxlang.compiler.parser.nodes.expressions.UnaryOperation.UnaryOperationType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Analyzed records behind the {@link AnalyzedTree} and {@link AnalyzedTreeBuilder} interfaces.
+ * Handles work as they do in {@link SyntaxRecords}. Building reads the names and spans of the
+ * syntax nodes it is given from the syntax tree passed in, so a tree that is only read needs
+ * none. Not safe to share between threads.
+ */
+public final class AnalyzedRecords implements AnalyzedTree, AnalyzedTreeBuilder {
+    private final SyntaxTree syntax;
+    private final List<Object> nodes;
+
+    public AnalyzedRecords() {
+        this(null);
+    }
+
+    public AnalyzedRecords(SyntaxTree syntax) {
+        this.syntax = syntax;
+        this.nodes = new ArrayList<>();
+    }
+
+    /**
+     * @param node An analyzed function declaration, statement or expression, or a parameter
+     * @return A handle to the record
+     */
+    public int add(Object node) {
+        nodes.add(node);
+        return nodes.size() - 1;
+    }
+
+    public Object node(int node) {
+        return nodes.get(node);
+    }
+
+    private int addOptional(Optional<?> node) {
+        return node.isPresent() ? add(node.get()) : NONE;
+    }
+
+    @Override
+    public AnalyzedTree tree() {
+        return this;
+    }
+
+    @Override
+    public NodeKind kind(int node) {
+        return switch (nodes.get(node)) {
+            case AnalyzedFunctionDeclaration  ignored -> NodeKind.FUNCTION;
+            case Parameter                    ignored -> NodeKind.PARAMETER;
+            case AnalyzedCodeBlock            ignored -> NodeKind.CODE_BLOCK;
+            case AnalyzedIfStatement          ignored -> NodeKind.IF_STATEMENT;
+            case AnalyzedWhileStatement       ignored -> NodeKind.WHILE_STATEMENT;
+            case AnalyzedDoWhileStatement     ignored -> NodeKind.DO_WHILE_STATEMENT;
+            case AnalyzedForStatement         ignored -> NodeKind.FOR_STATEMENT;
+            case AnalyzedReturnStatement      ignored -> NodeKind.RETURN_STATEMENT;
+            case AnalyzedVariableDeclaration  ignored -> NodeKind.VARIABLE_DECLARATION;
+            case AnalyzedAssignment           ignored -> NodeKind.ASSIGNMENT;
+            case AnalyzedBinaryOperation      ignored -> NodeKind.BINARY_OPERATION;
+            case AnalyzedUnaryOperation       ignored -> NodeKind.UNARY_OPERATION;
+            case AnalyzedVariableExpression   ignored -> NodeKind.VARIABLE_EXPRESSION;
+            case AnalyzedFunctionCall         ignored -> NodeKind.FUNCTION_CALL;
+            case AnalyzedIntegerLiteral       ignored -> NodeKind.INTEGER_LITERAL;
+            case AnalyzedFloatingPointLiteral ignored -> NodeKind.FLOATING_POINT_LITERAL;
+            case AnalyzedBooleanLiteral       ignored -> NodeKind.BOOLEAN_LITERAL;
+            default -> throw new IllegalArgumentException("Not an analyzed node: " + nodes.get(node));
+        };
+    }
+
+    @Override
+    public long span(int node) {
+        return switch (nodes.get(node)) {
+            case AnalyzedFunctionDeclaration function   -> function.span();
+            case Parameter                   parameter  -> parameter.span();
+            case AnalyzedStatement           statement  -> statement.span();
+            case AnalyzedExpression          expression -> expression.span();
+            default -> throw new IllegalArgumentException("Not an analyzed node: " + nodes.get(node));
+        };
+    }
+
+    @Override
+    public String name(int node) {
+        return switch (nodes.get(node)) {
+            case AnalyzedFunctionDeclaration function            -> function.name();
+            case Parameter                   parameter           -> parameter.name();
+            case AnalyzedVariableDeclaration variableDeclaration -> variableDeclaration.name();
+            case AnalyzedAssignment          assignment          -> assignment.variableName();
+            case AnalyzedVariableExpression  variableExpression  -> variableExpression.name();
+            case AnalyzedFunctionCall        functionCall        -> functionCall.name();
+            default -> throw new IllegalArgumentException("Node has no name: " + nodes.get(node));
+        };
+    }
+
+    @Override
+    public int symbol(int node) {
+        return switch (nodes.get(node)) {
+            case AnalyzedFunctionDeclaration function            -> function.symbol();
+            case Parameter                   parameter           -> parameter.symbol();
+            case AnalyzedVariableDeclaration variableDeclaration -> variableDeclaration.symbol();
+            case AnalyzedAssignment          assignment          -> assignment.symbol();
+            case AnalyzedVariableExpression  variableExpression  -> variableExpression.symbol();
+            case AnalyzedFunctionCall        functionCall        -> functionCall.symbol();
+            default -> throw new IllegalArgumentException("Node has no name: " + nodes.get(node));
+        };
+    }
+
+    @Override
+    public Type type(int node) {
+        return switch (nodes.get(node)) {
+            case AnalyzedFunctionDeclaration function            -> function.returnType();
+            case Parameter                   parameter           -> parameter.type();
+            case AnalyzedVariableDeclaration variableDeclaration -> variableDeclaration.type();
+            default -> throw new IllegalArgumentException("Node has no declared type: " + nodes.get(node));
+        };
+    }
+
+    @Override
+    public int parameterCount(int function) {
+        return ((AnalyzedFunctionDeclaration) nodes.get(function)).parameters().size();
+    }
+
+    @Override
+    public int parameter(int function, int index) {
+        return add(((AnalyzedFunctionDeclaration) nodes.get(function)).parameters().get(index));
+    }
+
+    @Override
+    public int body(int node) {
+        return add(switch (nodes.get(node)) {
+            case AnalyzedFunctionDeclaration function         -> function.body();
+            case AnalyzedIfStatement         ifStatement      -> ifStatement.body();
+            case AnalyzedWhileStatement      whileStatement   -> whileStatement.body();
+            case AnalyzedDoWhileStatement    doWhileStatement -> doWhileStatement.body();
+            case AnalyzedForStatement        forStatement     -> forStatement.body();
+            default -> throw new IllegalArgumentException("Node has no body: " + nodes.get(node));
+        });
+    }
+
+    @Override
+    public int statementCount(int codeBlock) {
+        return ((AnalyzedCodeBlock) nodes.get(codeBlock)).statements().size();
+    }
+
+    @Override
+    public int statement(int codeBlock, int index) {
+        return add(((AnalyzedCodeBlock) nodes.get(codeBlock)).statements().get(index));
+    }
+
+    @Override
+    public int condition(int node) {
+        return switch (nodes.get(node)) {
+            case AnalyzedIfStatement      ifStatement      -> add(ifStatement.condition());
+            case AnalyzedWhileStatement   whileStatement   -> add(whileStatement.condition());
+            case AnalyzedDoWhileStatement doWhileStatement -> add(doWhileStatement.condition());
+            case AnalyzedForStatement     forStatement     -> addOptional(forStatement.condition());
+            default -> throw new IllegalArgumentException("Node has no condition: " + nodes.get(node));
+        };
+    }
+
+    @Override
+    public int elseBody(int ifStatement) {
+        return addOptional(((AnalyzedIfStatement) nodes.get(ifStatement)).elseBody());
+    }
+
+    @Override
+    public int initializer(int forStatement) {
+        return addOptional(((AnalyzedForStatement) nodes.get(forStatement)).initializer());
+    }
+
+    @Override
+    public int update(int forStatement) {
+        return addOptional(((AnalyzedForStatement) nodes.get(forStatement)).update());
+    }
+
+    @Override
+    public int value(int node) {
+        return switch (nodes.get(node)) {
+            case AnalyzedReturnStatement     returnStatement     -> addOptional(returnStatement.value());
+            case AnalyzedAssignment          assignment          -> add(assignment.value());
+            case AnalyzedVariableDeclaration variableDeclaration -> addOptional(variableDeclaration.initialValue());
+            default -> throw new IllegalArgumentException("Node has no value: " + nodes.get(node));
+        };
+    }
+
+    @Override
+    public BinaryOperationType binaryOperation(int binaryOperation) {
+        return ((AnalyzedBinaryOperation) nodes.get(binaryOperation)).operation();
+    }
+
+    @Override
+    public int left(int binaryOperation) {
+        return add(((AnalyzedBinaryOperation) nodes.get(binaryOperation)).left());
+    }
+
+    @Override
+    public int right(int binaryOperation) {
+        return add(((AnalyzedBinaryOperation) nodes.get(binaryOperation)).right());
+    }
+
+    @Override
+    public UnaryOperationType unaryOperation(int unaryOperation) {
+        return ((AnalyzedUnaryOperation) nodes.get(unaryOperation)).operation();
+    }
+
+    @Override
+    public int operand(int unaryOperation) {
+        return add(((AnalyzedUnaryOperation) nodes.get(unaryOperation)).operand());
+    }
+
+    @Override
+    public int argumentCount(int functionCall) {
+        return ((AnalyzedFunctionCall) nodes.get(functionCall)).arguments().size();
+    }
+
+    @Override
+    public int argument(int functionCall, int index) {
+        return add(((AnalyzedFunctionCall) nodes.get(functionCall)).arguments().get(index));
+    }
+
+    @Override
+    public Type resultType(int expression) {
+        return expressionNode(expression).resultType();
+    }
+
+    @Override
+    public int localId(int node) {
+        return switch (nodes.get(node)) {
+            case AnalyzedVariableDeclaration variableDeclaration -> variableDeclaration.localId();
+            case AnalyzedAssignment          assignment          -> assignment.localId();
+            case AnalyzedVariableExpression  variableExpression  -> variableExpression.localId();
+            default -> throw new IllegalArgumentException("Node has no local: " + nodes.get(node));
+        };
+    }
+
+    @Override
+    public boolean hasGuaranteedReturn(int statement) {
+        return statementNode(statement).hasGuaranteedReturn();
+    }
+
+    @Override
+    public boolean isConstant(int expression) {
+        return switch (nodes.get(expression)) {
+            case AnalyzedIntegerLiteral       ignored -> true;
+            case AnalyzedFloatingPointLiteral ignored -> true;
+            case AnalyzedBooleanLiteral       ignored -> true;
+            default -> false;
+        };
+    }
+
+    @Override
+    public long constant(int expression) {
+        return switch (nodes.get(expression)) {
+            case AnalyzedIntegerLiteral       integerLiteral       -> integerLiteral.value();
+            case AnalyzedFloatingPointLiteral floatingPointLiteral -> Double.doubleToRawLongBits(floatingPointLiteral.value());
+            case AnalyzedBooleanLiteral       booleanLiteral       -> booleanLiteral.value() ? 1 : 0;
+            default -> throw new IllegalArgumentException("Not a constant: " + nodes.get(expression));
+        };
+    }
+
+    @Override
+    public int analyzedFunction(int function, int body, List<LocalVariable> localVariables) {
+        return add(AnalyzedFunctionDeclaration.from(syntax.functionNode(function), (AnalyzedCodeBlock) nodes.get(body), localVariables));
+    }
+
+    @Override
+    public int analyzedCodeBlock(int codeBlock, int[] statements, int from, int to, boolean hasGuaranteedReturn) {
+        List<AnalyzedStatement> statementList = new ArrayList<>(to - from);
+        for (int index = from; index < to; index++) {
+            statementList.add(statementNode(statements[index]));
+        }
+        return add(new AnalyzedCodeBlock(statementList, hasGuaranteedReturn, syntax.span(codeBlock)));
+    }
+
+    @Override
+    public int analyzedIfStatement(int ifStatement, int condition, int body, int elseBody, boolean hasGuaranteedReturn) {
+        return add(new AnalyzedIfStatement(
+            expressionNode(condition),
+            statementNode(body),
+            optional(elseBody, AnalyzedStatement.class),
+            hasGuaranteedReturn,
+            syntax.span(ifStatement)
+        ));
+    }
+
+    @Override
+    public int analyzedWhileStatement(int whileStatement, int condition, int body, boolean hasGuaranteedReturn) {
+        return add(new AnalyzedWhileStatement(expressionNode(condition), statementNode(body), hasGuaranteedReturn, syntax.span(whileStatement)));
+    }
+
+    @Override
+    public int analyzedDoWhileStatement(int doWhileStatement, int body, int condition, boolean hasGuaranteedReturn) {
+        return add(new AnalyzedDoWhileStatement(statementNode(body), expressionNode(condition), hasGuaranteedReturn, syntax.span(doWhileStatement)));
+    }
+
+    @Override
+    public int analyzedForStatement(int forStatement, int initializer, int condition, int update, int body, boolean hasGuaranteedReturn) {
+        return add(new AnalyzedForStatement(
+            optional(initializer, AnalyzedForStatement.Initializer.class),
+            optional(condition, AnalyzedExpression.class),
+            optional(update, AnalyzedAssignment.class),
+            statementNode(body),
+            hasGuaranteedReturn,
+            syntax.span(forStatement)
+        ));
+    }
+
+    @Override
+    public int analyzedReturnStatement(int returnStatement, int value) {
+        return add(new AnalyzedReturnStatement(optional(value, AnalyzedExpression.class), syntax.span(returnStatement)));
+    }
+
+    @Override
+    public int analyzedVariableDeclaration(int variableDeclaration, int localId, int initialValue) {
+        return add(new AnalyzedVariableDeclaration(
+            syntax.type(variableDeclaration),
+            syntax.name(variableDeclaration),
+            syntax.symbol(variableDeclaration),
+            localId,
+            optional(initialValue, AnalyzedExpression.class),
+            syntax.span(variableDeclaration)
+        ));
+    }
+
+    @Override
+    public int analyzedAssignment(int assignment, int localId, int value) {
+        return add(new AnalyzedAssignment(syntax.name(assignment), syntax.symbol(assignment), localId, expressionNode(value), syntax.span(assignment)));
+    }
+
+    @Override
+    public int analyzedBinaryOperation(int binaryOperation, int left, int right, Type resultType) {
+        return add(new AnalyzedBinaryOperation(
+            syntax.binaryOperation(binaryOperation),
+            expressionNode(left),
+            expressionNode(right),
+            resultType,
+            syntax.span(binaryOperation)
+        ));
+    }
+
+    @Override
+    public int analyzedUnaryOperation(int unaryOperation, int operand, Type resultType) {
+        return add(new AnalyzedUnaryOperation(syntax.unaryOperation(unaryOperation), expressionNode(operand), resultType, syntax.span(unaryOperation)));
+    }
+
+    @Override
+    public int analyzedVariableExpression(int variableExpression, int localId, Type resultType) {
+        return add(new AnalyzedVariableExpression(
+            syntax.name(variableExpression),
+            syntax.symbol(variableExpression),
+            localId,
+            resultType,
+            syntax.span(variableExpression)
+        ));
+    }
+
+    @Override
+    public int analyzedFunctionCall(int functionCall, int[] arguments, int from, int to, Type resultType) {
+        List<AnalyzedExpression> argumentList = new ArrayList<>(to - from);
+        for (int index = from; index < to; index++) {
+            argumentList.add(expressionNode(arguments[index]));
+        }
+        return add(new AnalyzedFunctionCall(syntax.name(functionCall), syntax.symbol(functionCall), argumentList, resultType, syntax.span(functionCall)));
+    }
+
+    @Override
+    public int integerConstant(int expression, long value, Type type) {
+        return add(new AnalyzedIntegerLiteral(value, type, syntax.span(expression)));
+    }
+
+    @Override
+    public int floatingPointConstant(int expression, double value, Type type) {
+        return add(new AnalyzedFloatingPointLiteral(value, type, syntax.span(expression)));
+    }
+
+    @Override
+    public int booleanConstant(int expression, boolean value) {
+        return add(new AnalyzedBooleanLiteral(value, syntax.span(expression)));
+    }
+
+    private AnalyzedStatement statementNode(int statement) {
+        return (AnalyzedStatement) nodes.get(statement);
+    }
+
+    private AnalyzedExpression expressionNode(int expression) {
+        return (AnalyzedExpression) nodes.get(expression);
+    }
+
+    private <T> Optional<T> optional(int node, Class<T> type) {
+        return node == NONE ? Optional.empty() : Optional.of(type.cast(nodes.get(node)));
+    }
+}
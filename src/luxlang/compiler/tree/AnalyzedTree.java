@@ -0,0 +1,26 @@
+package luxlang.compiler.tree;
+
+import luxlang.compiler.parser.nodes.Type;
+
+/**
+ * A {@link Tree} together with what analysis found out about it. Expressions analysis folded
+ * away are constants, whatever their kind, so readers check {@link #isConstant(int)} first.
+ */
+public interface AnalyzedTree extends Tree {
+    Type resultType(int expression);
+
+    /**
+     * @return The local a variable declaration, assignment or variable expression refers to
+     */
+    int localId(int node);
+
+    boolean hasGuaranteedReturn(int statement);
+
+    boolean isConstant(int expression);
+
+    /**
+     * @return The value of a constant: integers as themselves, floating point values as their raw
+     * bits, booleans as 0 or 1
+     */
+    long constant(int expression);
+}
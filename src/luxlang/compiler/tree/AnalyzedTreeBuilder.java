@@ -0,0 +1,51 @@
+package luxlang.compiler.tree;
+
+import luxlang.compiler.analysis.nodes.LocalVariable;
+import luxlang.compiler.parser.nodes.Type;
+
+import java.util.List;
+
+/**
+ * Where analysis puts its results. Every method takes the syntax node being analyzed, the
+ * handles of its analyzed children and what was found out about it, and gives back the analyzed
+ * node's handle, which {@link #tree()} reads. Lists of children are passed as the range
+ * [from, to) of an array, which the builder doesn't keep.
+ */
+public interface AnalyzedTreeBuilder {
+    AnalyzedTree tree();
+
+    int analyzedFunction(int function, int body, List<LocalVariable> localVariables);
+
+    int analyzedCodeBlock(int codeBlock, int[] statements, int from, int to, boolean hasGuaranteedReturn);
+
+    int analyzedIfStatement(int ifStatement, int condition, int body, int elseBody, boolean hasGuaranteedReturn);
+
+    int analyzedWhileStatement(int whileStatement, int condition, int body, boolean hasGuaranteedReturn);
+
+    int analyzedDoWhileStatement(int doWhileStatement, int body, int condition, boolean hasGuaranteedReturn);
+
+    int analyzedForStatement(int forStatement, int initializer, int condition, int update, int body, boolean hasGuaranteedReturn);
+
+    int analyzedReturnStatement(int returnStatement, int value);
+
+    int analyzedVariableDeclaration(int variableDeclaration, int localId, int initialValue);
+
+    int analyzedAssignment(int assignment, int localId, int value);
+
+    int analyzedBinaryOperation(int binaryOperation, int left, int right, Type resultType);
+
+    int analyzedUnaryOperation(int unaryOperation, int operand, Type resultType);
+
+    int analyzedVariableExpression(int variableExpression, int localId, Type resultType);
+
+    int analyzedFunctionCall(int functionCall, int[] arguments, int from, int to, Type resultType);
+
+    /**
+     * Records an expression as a constant, whether it is a literal or was folded into one
+     */
+    int integerConstant(int expression, long value, Type type);
+
+    int floatingPointConstant(int expression, double value, Type type);
+
+    int booleanConstant(int expression, boolean value);
+}
@@ -0,0 +1,614 @@
+package luxlang.compiler.tree;
+
+import luxlang.compiler.analysis.nodes.LocalVariable;
+import luxlang.compiler.lexer.objects.LineMap;
+import luxlang.compiler.parser.nodes.FunctionDeclaration;
+import luxlang.compiler.parser.nodes.Parameter;
+import luxlang.compiler.parser.nodes.Program;
+import luxlang.compiler.parser.nodes.Type;
+import luxlang.compiler.parser.nodes.expressions.BinaryOperation.BinaryOperationType;
+import luxlang.compiler.parser.nodes.expressions.Expression;
+import luxlang.compiler.parser.nodes.expressions.UnaryOperation.UnaryOperationType;
+import luxlang.compiler.parser.nodes.statements.Statement;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A program's syntax as parallel primitive columns instead of a graph of records, which analysis
+ * then annotates in place instead of building a second tree. Nodes are appended after their
+ * children, so each function is the range of nodes between the end of the one before it and its
+ * own node. A node's children are packed into one array, node i's at
+ * [childStarts[i], childStarts[i + 1]), in the order {@link SyntaxBuilder} takes them, with
+ * absent optional children stored as {@link #NONE}.
+ * <p>
+ * The payload column holds the symbol of a named node, the ordinal of an operation, the index of
+ * a literal's text, or 1 for a true literal. Names are kept once per symbol. The type column holds
+ * declared types, and analysis stores expression result types in it. The annotation column holds
+ * local ids and constant values, and the flag column whether a node is a constant or a statement
+ * that always returns. Analysis only writes the node it is given, so functions of one arena can
+ * be analyzed at the same time.
+ * <p>
+ * {@link #reset()} empties the arena but keeps its columns, so one reused for every compilation
+ * stops allocating once it has grown to fit the largest.
+ */
+public final class FlatAst implements SyntaxTree, SyntaxBuilder, AnalyzedTree, AnalyzedTreeBuilder {
+    private static final NodeKind[] KINDS = NodeKind.values();
+    private static final Type[] TYPES = Type.values();
+    private static final BinaryOperationType[] BINARY_OPERATIONS = BinaryOperationType.values();
+    private static final UnaryOperationType[] UNARY_OPERATIONS = UnaryOperationType.values();
+    private static final int MIN_CAPACITY = 64;
+
+    private static final byte CONSTANT = 1;
+    private static final byte GUARANTEED_RETURN = 2;
+
+    private byte[] kinds;
+    private int[] payloads;
+    private byte[] types;
+    private long[] spans;
+    private long[] annotations;
+    private byte[] flags;
+    private int[] childStarts;
+    private int size;
+
+    private int[] children;
+    private int childCount;
+
+    private String[] names;
+    private String[] literals;
+    private int literalCount;
+
+    private int[] functions;
+    private int functionCount;
+
+    public FlatAst() {
+        this.kinds = new byte[MIN_CAPACITY];
+        this.payloads = new int[MIN_CAPACITY];
+        this.types = new byte[MIN_CAPACITY];
+        this.spans = new long[MIN_CAPACITY];
+        this.annotations = new long[MIN_CAPACITY];
+        this.flags = new byte[MIN_CAPACITY];
+        this.childStarts = new int[MIN_CAPACITY + 1];
+        this.children = new int[MIN_CAPACITY];
+        this.names = new String[MIN_CAPACITY];
+        this.literals = new String[MIN_CAPACITY];
+        this.functions = new int[MIN_CAPACITY];
+    }
+
+    /**
+     * Drops every node, keeping the columns for the next program
+     */
+    public void reset() {
+        size = 0;
+        childCount = 0;
+        Arrays.fill(literals, 0, literalCount, null);
+        literalCount = 0;
+        functionCount = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int functionCount() {
+        return functionCount;
+    }
+
+    public int function(int index) {
+        return functions[index];
+    }
+
+    /**
+     * Appends a parsed program's functions
+     */
+    public void append(Program program) {
+        SyntaxRecords records = new SyntaxRecords();
+        SyntaxCopier copier = new SyntaxCopier(records, this);
+        for (FunctionDeclaration function : program.functionDeclarations()) {
+            copier.copy(records.add(function));
+        }
+    }
+
+    /**
+     * @return Every function in the arena as records
+     */
+    public Program decode(LineMap lineMap) {
+        List<FunctionDeclaration> functionDeclarations = new ArrayList<>(functionCount);
+        for (int index = 0; index < functionCount; index++) {
+            functionDeclarations.add(functionNode(functions[index]));
+        }
+        return new Program(functionDeclarations, lineMap);
+    }
+
+    /**
+     * @return The locals analysis gave an analyzed function, in id order. Parameters come first,
+     * then declarations in the order analysis reached them, which is the order they were appended.
+     */
+    public List<LocalVariable> localVariables(int function) {
+        List<LocalVariable> localVariables = new ArrayList<>();
+        int parameterCount = parameterCount(function);
+        for (int index = 0; index < parameterCount; index++) {
+            int parameter = parameter(function, index);
+            localVariables.add(new LocalVariable(index, name(parameter), symbol(parameter), type(parameter)));
+        }
+
+        int position = Arrays.binarySearch(functions, 0, functionCount, function);
+        int first = position == 0 ? 0 : functions[position - 1] + 1;
+        for (int node = first; node < function; node++) {
+            if (KINDS[kinds[node]] == NodeKind.VARIABLE_DECLARATION && annotations[node] != NONE) {
+                localVariables.add(new LocalVariable((int) annotations[node], name(node), symbol(node), type(node)));
+            }
+        }
+        return localVariables;
+    }
+
+    public int childCount(int node) {
+        return childStarts[node + 1] - childStarts[node];
+    }
+
+    public int child(int node, int index) {
+        return children[childStarts[node] + index];
+    }
+
+    @Override
+    public NodeKind kind(int node) {
+        return KINDS[kinds[node]];
+    }
+
+    @Override
+    public long span(int node) {
+        return spans[node];
+    }
+
+    @Override
+    public String name(int node) {
+        return names[payloads[node]];
+    }
+
+    @Override
+    public int symbol(int node) {
+        return payloads[node];
+    }
+
+    @Override
+    public Type type(int node) {
+        return TYPES[types[node]];
+    }
+
+    @Override
+    public int parameterCount(int function) {
+        return childCount(function) - 1;
+    }
+
+    @Override
+    public int parameter(int function, int index) {
+        return child(function, index);
+    }
+
+    @Override
+    public int body(int node) {
+        return switch (kind(node)) {
+            case FUNCTION           -> child(node, childCount(node) - 1);
+            case IF_STATEMENT       -> child(node, 1);
+            case WHILE_STATEMENT    -> child(node, 1);
+            case DO_WHILE_STATEMENT -> child(node, 0);
+            case FOR_STATEMENT      -> child(node, 3);
+            default -> throw new IllegalArgumentException("Node has no body: " + kind(node));
+        };
+    }
+
+    @Override
+    public int statementCount(int codeBlock) {
+        return childCount(codeBlock);
+    }
+
+    @Override
+    public int statement(int codeBlock, int index) {
+        return child(codeBlock, index);
+    }
+
+    @Override
+    public int condition(int node) {
+        return switch (kind(node)) {
+            case IF_STATEMENT, WHILE_STATEMENT     -> child(node, 0);
+            case DO_WHILE_STATEMENT, FOR_STATEMENT -> child(node, 1);
+            default -> throw new IllegalArgumentException("Node has no condition: " + kind(node));
+        };
+    }
+
+    @Override
+    public int elseBody(int ifStatement) {
+        return child(ifStatement, 2);
+    }
+
+    @Override
+    public int initializer(int forStatement) {
+        return child(forStatement, 0);
+    }
+
+    @Override
+    public int update(int forStatement) {
+        return child(forStatement, 2);
+    }
+
+    @Override
+    public int value(int node) {
+        return child(node, 0);
+    }
+
+    @Override
+    public BinaryOperationType binaryOperation(int binaryOperation) {
+        return BINARY_OPERATIONS[payloads[binaryOperation]];
+    }
+
+    @Override
+    public int left(int binaryOperation) {
+        return child(binaryOperation, 0);
+    }
+
+    @Override
+    public int right(int binaryOperation) {
+        return child(binaryOperation, 1);
+    }
+
+    @Override
+    public UnaryOperationType unaryOperation(int unaryOperation) {
+        return UNARY_OPERATIONS[payloads[unaryOperation]];
+    }
+
+    @Override
+    public int operand(int unaryOperation) {
+        return child(unaryOperation, 0);
+    }
+
+    @Override
+    public int argumentCount(int functionCall) {
+        return childCount(functionCall);
+    }
+
+    @Override
+    public int argument(int functionCall, int index) {
+        return child(functionCall, index);
+    }
+
+    @Override
+    public String literal(int literal) {
+        return literals[payloads[literal]];
+    }
+
+    @Override
+    public boolean booleanValue(int booleanLiteral) {
+        return payloads[booleanLiteral] != 0;
+    }
+
+    @Override
+    public FunctionDeclaration functionNode(int function) {
+        return (FunctionDeclaration) decode(function);
+    }
+
+    @Override
+    public Parameter parameterNode(int parameter) {
+        return (Parameter) decode(parameter);
+    }
+
+    @Override
+    public Statement statementNode(int statement) {
+        return (Statement) decode(statement);
+    }
+
+    @Override
+    public Expression expressionNode(int expression) {
+        return (Expression) decode(expression);
+    }
+
+    private Object decode(int node) {
+        SyntaxRecords records = new SyntaxRecords();
+        return records.node(new SyntaxCopier(this, records).copy(node));
+    }
+
+    @Override
+    public Type resultType(int expression) {
+        return TYPES[types[expression]];
+    }
+
+    @Override
+    public int localId(int node) {
+        return (int) annotations[node];
+    }
+
+    @Override
+    public boolean hasGuaranteedReturn(int statement) {
+        return (flags[statement] & GUARANTEED_RETURN) != 0;
+    }
+
+    @Override
+    public boolean isConstant(int expression) {
+        return (flags[expression] & CONSTANT) != 0;
+    }
+
+    @Override
+    public long constant(int expression) {
+        return annotations[expression];
+    }
+
+    @Override
+    public int function(Type returnType, String name, int symbol, int[] parameters, int from, int to, int body, long span) {
+        int node = addNamedNode(NodeKind.FUNCTION, name, symbol, returnType, span);
+        for (int index = from; index < to; index++) {
+            addChild(node, parameters[index]);
+        }
+        addChild(node, body);
+
+        if (functionCount == functions.length) {
+            functions = Arrays.copyOf(functions, functionCount * 2);
+        }
+        functions[functionCount++] = node;
+        return node;
+    }
+
+    @Override
+    public int parameter(Type type, String name, int symbol, long span) {
+        return addNamedNode(NodeKind.PARAMETER, name, symbol, type, span);
+    }
+
+    @Override
+    public int codeBlock(int[] statements, int from, int to, long span) {
+        int node = addNode(NodeKind.CODE_BLOCK, 0, Type.ERROR, span);
+        for (int index = from; index < to; index++) {
+            addChild(node, statements[index]);
+        }
+        return node;
+    }
+
+    @Override
+    public int ifStatement(int condition, int body, int elseBody, long span) {
+        int node = addNode(NodeKind.IF_STATEMENT, 0, Type.ERROR, span);
+        addChild(node, condition);
+        addChild(node, body);
+        addChild(node, elseBody);
+        return node;
+    }
+
+    @Override
+    public int whileStatement(int condition, int body, long span) {
+        int node = addNode(NodeKind.WHILE_STATEMENT, 0, Type.ERROR, span);
+        addChild(node, condition);
+        addChild(node, body);
+        return node;
+    }
+
+    @Override
+    public int doWhileStatement(int body, int condition, long span) {
+        int node = addNode(NodeKind.DO_WHILE_STATEMENT, 0, Type.ERROR, span);
+        addChild(node, body);
+        addChild(node, condition);
+        return node;
+    }
+
+    @Override
+    public int forStatement(int initializer, int condition, int update, int body, long span) {
+        int node = addNode(NodeKind.FOR_STATEMENT, 0, Type.ERROR, span);
+        addChild(node, initializer);
+        addChild(node, condition);
+        addChild(node, update);
+        addChild(node, body);
+        return node;
+    }
+
+    @Override
+    public int returnStatement(int value, long span) {
+        int node = addNode(NodeKind.RETURN_STATEMENT, 0, Type.ERROR, span);
+        addChild(node, value);
+        return node;
+    }
+
+    @Override
+    public int variableDeclaration(Type type, String name, int symbol, int initialValue, long span) {
+        int node = addNamedNode(NodeKind.VARIABLE_DECLARATION, name, symbol, type, span);
+        addChild(node, initialValue);
+        return node;
+    }
+
+    @Override
+    public int assignment(String variableName, int symbol, int value, long span) {
+        int node = addNamedNode(NodeKind.ASSIGNMENT, variableName, symbol, Type.ERROR, span);
+        addChild(node, value);
+        return node;
+    }
+
+    @Override
+    public int binaryOperation(BinaryOperationType operation, int left, int right, long span) {
+        int node = addNode(NodeKind.BINARY_OPERATION, operation.ordinal(), Type.ERROR, span);
+        addChild(node, left);
+        addChild(node, right);
+        return node;
+    }
+
+    @Override
+    public int unaryOperation(UnaryOperationType operation, int operand, long span) {
+        int node = addNode(NodeKind.UNARY_OPERATION, operation.ordinal(), Type.ERROR, span);
+        addChild(node, operand);
+        return node;
+    }
+
+    @Override
+    public int variableExpression(String name, int symbol, long span) {
+        return addNamedNode(NodeKind.VARIABLE_EXPRESSION, name, symbol, Type.ERROR, span);
+    }
+
+    @Override
+    public int functionCall(String name, int symbol, int[] arguments, int from, int to, long span) {
+        int node = addNamedNode(NodeKind.FUNCTION_CALL, name, symbol, Type.ERROR, span);
+        for (int index = from; index < to; index++) {
+            addChild(node, arguments[index]);
+        }
+        return node;
+    }
+
+    @Override
+    public int integerLiteral(String value, long span) {
+        return addNode(NodeKind.INTEGER_LITERAL, addLiteral(value), Type.ERROR, span);
+    }
+
+    @Override
+    public int floatingPointLiteral(String value, long span) {
+        return addNode(NodeKind.FLOATING_POINT_LITERAL, addLiteral(value), Type.ERROR, span);
+    }
+
+    @Override
+    public int booleanLiteral(boolean value, long span) {
+        return addNode(NodeKind.BOOLEAN_LITERAL, value ? 1 : 0, Type.BOOL, span);
+    }
+
+    @Override
+    public AnalyzedTree tree() {
+        return this;
+    }
+
+    @Override
+    public int analyzedFunction(int function, int body, List<LocalVariable> localVariables) {
+        return function;
+    }
+
+    @Override
+    public int analyzedCodeBlock(int codeBlock, int[] statements, int from, int to, boolean hasGuaranteedReturn) {
+        return annotateStatement(codeBlock, hasGuaranteedReturn);
+    }
+
+    @Override
+    public int analyzedIfStatement(int ifStatement, int condition, int body, int elseBody, boolean hasGuaranteedReturn) {
+        return annotateStatement(ifStatement, hasGuaranteedReturn);
+    }
+
+    @Override
+    public int analyzedWhileStatement(int whileStatement, int condition, int body, boolean hasGuaranteedReturn) {
+        return annotateStatement(whileStatement, hasGuaranteedReturn);
+    }
+
+    @Override
+    public int analyzedDoWhileStatement(int doWhileStatement, int body, int condition, boolean hasGuaranteedReturn) {
+        return annotateStatement(doWhileStatement, hasGuaranteedReturn);
+    }
+
+    @Override
+    public int analyzedForStatement(int forStatement, int initializer, int condition, int update, int body, boolean hasGuaranteedReturn) {
+        return annotateStatement(forStatement, hasGuaranteedReturn);
+    }
+
+    @Override
+    public int analyzedReturnStatement(int returnStatement, int value) {
+        return annotateStatement(returnStatement, true);
+    }
+
+    @Override
+    public int analyzedVariableDeclaration(int variableDeclaration, int localId, int initialValue) {
+        annotations[variableDeclaration] = localId;
+        return annotateStatement(variableDeclaration, false);
+    }
+
+    @Override
+    public int analyzedAssignment(int assignment, int localId, int value) {
+        annotations[assignment] = localId;
+        return annotateStatement(assignment, false);
+    }
+
+    @Override
+    public int analyzedBinaryOperation(int binaryOperation, int left, int right, Type resultType) {
+        return annotateExpression(binaryOperation, resultType, (byte) 0);
+    }
+
+    @Override
+    public int analyzedUnaryOperation(int unaryOperation, int operand, Type resultType) {
+        return annotateExpression(unaryOperation, resultType, (byte) 0);
+    }
+
+    @Override
+    public int analyzedVariableExpression(int variableExpression, int localId, Type resultType) {
+        annotations[variableExpression] = localId;
+        return annotateExpression(variableExpression, resultType, (byte) 0);
+    }
+
+    @Override
+    public int analyzedFunctionCall(int functionCall, int[] arguments, int from, int to, Type resultType) {
+        return annotateExpression(functionCall, resultType, (byte) 0);
+    }
+
+    @Override
+    public int integerConstant(int expression, long value, Type type) {
+        annotations[expression] = value;
+        return annotateExpression(expression, type, CONSTANT);
+    }
+
+    @Override
+    public int floatingPointConstant(int expression, double value, Type type) {
+        annotations[expression] = Double.doubleToRawLongBits(value);
+        return annotateExpression(expression, type, CONSTANT);
+    }
+
+    @Override
+    public int booleanConstant(int expression, boolean value) {
+        annotations[expression] = value ? 1 : 0;
+        return annotateExpression(expression, Type.BOOL, CONSTANT);
+    }
+
+    private int annotateStatement(int statement, boolean hasGuaranteedReturn) {
+        flags[statement] = hasGuaranteedReturn ? GUARANTEED_RETURN : 0;
+        return statement;
+    }
+
+    private int annotateExpression(int expression, Type resultType, byte flag) {
+        types[expression] = (byte) resultType.ordinal();
+        flags[expression] = flag;
+        return expression;
+    }
+
+    private int addNamedNode(NodeKind kind, String name, int symbol, Type type, long span) {
+        if (symbol >= names.length) {
+            names = Arrays.copyOf(names, Math.max(names.length * 2, symbol + 1));
+        }
+        names[symbol] = name;
+        return addNode(kind, symbol, type, span);
+    }
+
+    private int addNode(NodeKind kind, int payload, Type type, long span) {
+        if (size == kinds.length) {
+            int capacity = size * 2;
+            kinds = Arrays.copyOf(kinds, capacity);
+            payloads = Arrays.copyOf(payloads, capacity);
+            types = Arrays.copyOf(types, capacity);
+            spans = Arrays.copyOf(spans, capacity);
+            annotations = Arrays.copyOf(annotations, capacity);
+            flags = Arrays.copyOf(flags, capacity);
+            childStarts = Arrays.copyOf(childStarts, capacity + 1);
+        }
+        int node = size++;
+        kinds[node] = (byte) kind.ordinal();
+        payloads[node] = payload;
+        types[node] = (byte) type.ordinal();
+        spans[node] = span;
+        annotations[node] = NONE;
+        flags[node] = 0;
+        childStarts[node + 1] = childCount;
+        return node;
+    }
+
+    /**
+     * Adds a child to the node added last
+     */
+    private void addChild(int node, int child) {
+        if (childCount == children.length) {
+            children = Arrays.copyOf(children, childCount * 2);
+        }
+        children[childCount++] = child;
+        childStarts[node + 1] = childCount;
+    }
+
+    private int addLiteral(String value) {
+        if (literalCount == literals.length) {
+            literals = Arrays.copyOf(literals, literalCount * 2);
+        }
+        literals[literalCount] = value;
+        return literalCount++;
+    }
+}
@@ -0,0 +1,25 @@
+package luxlang.compiler.tree;
+
+/**
+ * What a node of a {@link Tree} is. Each kind matches one syntax record and the analyzed record
+ * it becomes.
+ */
+public enum NodeKind {
+    FUNCTION,
+    PARAMETER,
+    CODE_BLOCK,
+    IF_STATEMENT,
+    WHILE_STATEMENT,
+    DO_WHILE_STATEMENT,
+    FOR_STATEMENT,
+    RETURN_STATEMENT,
+    VARIABLE_DECLARATION,
+    ASSIGNMENT,
+    BINARY_OPERATION,
+    UNARY_OPERATION,
+    VARIABLE_EXPRESSION,
+    FUNCTION_CALL,
+    INTEGER_LITERAL,
+    FLOATING_POINT_LITERAL,
+    BOOLEAN_LITERAL
+}
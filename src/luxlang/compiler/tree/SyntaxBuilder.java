@@ -0,0 +1,51 @@
+package luxlang.compiler.tree;
+
+import luxlang.compiler.parser.nodes.Type;
+import luxlang.compiler.parser.nodes.expressions.BinaryOperation.BinaryOperationType;
+import luxlang.compiler.parser.nodes.expressions.UnaryOperation.UnaryOperationType;
+
+/**
+ * Where the parser puts the nodes it finishes. A node is only added once all of its children
+ * have been, and each method gives back the new node's handle. Lists of children are passed as
+ * the range [from, to) of an array, which the builder doesn't keep.
+ */
+public interface SyntaxBuilder {
+    /**
+     * @return The span of a node already added
+     */
+    long span(int node);
+
+    int function(Type returnType, String name, int symbol, int[] parameters, int from, int to, int body, long span);
+
+    int parameter(Type type, String name, int symbol, long span);
+
+    int codeBlock(int[] statements, int from, int to, long span);
+
+    int ifStatement(int condition, int body, int elseBody, long span);
+
+    int whileStatement(int condition, int body, long span);
+
+    int doWhileStatement(int body, int condition, long span);
+
+    int forStatement(int initializer, int condition, int update, int body, long span);
+
+    int returnStatement(int value, long span);
+
+    int variableDeclaration(Type type, String name, int symbol, int initialValue, long span);
+
+    int assignment(String variableName, int symbol, int value, long span);
+
+    int binaryOperation(BinaryOperationType operation, int left, int right, long span);
+
+    int unaryOperation(UnaryOperationType operation, int operand, long span);
+
+    int variableExpression(String name, int symbol, long span);
+
+    int functionCall(String name, int symbol, int[] arguments, int from, int to, long span);
+
+    int integerLiteral(String value, long span);
+
+    int floatingPointLiteral(String value, long span);
+
+    int booleanLiteral(boolean value, long span);
+}
@@ -0,0 +1,128 @@
+package luxlang.compiler.tree;
+
+import luxlang.compiler.util.FrameStack;
+import luxlang.compiler.util.FrameStack.Frame;
+
+import static luxlang.compiler.tree.Tree.NONE;
+
+/**
+ * Copies nodes out of one syntax tree into a builder, each node after its children, so it moves
+ * syntax between records and a {@link FlatAst} in either direction. The walk keeps its own
+ * {@link FrameStack} rather than recursing, so nesting depth is bounded only by the heap.
+ */
+public final class SyntaxCopier {
+    private final SyntaxTree from;
+    private final SyntaxBuilder to;
+    private final FrameStack frames;
+    // What the last finished frame built, for its parent to pick up
+    private int lastCopy;
+
+    public SyntaxCopier(SyntaxTree from, SyntaxBuilder to) {
+        this.from = from;
+        this.to = to;
+        this.frames = new FrameStack();
+    }
+
+    /**
+     * @return The handle the copy of the node and everything under it has in the builder
+     */
+    public int copy(int node) {
+        frames.run(new CopyFrame(node));
+        return lastCopy;
+    }
+
+    /**
+     * @return The node's children in the order the builder takes them, with absent ones as NONE
+     */
+    private int[] children(int node) {
+        return switch (from.kind(node)) {
+            case FUNCTION -> {
+                int parameterCount = from.parameterCount(node);
+                int[] children = new int[parameterCount + 1];
+                for (int index = 0; index < parameterCount; index++) {
+                    children[index] = from.parameter(node, index);
+                }
+                children[parameterCount] = from.body(node);
+                yield children;
+            }
+            case CODE_BLOCK -> {
+                int[] children = new int[from.statementCount(node)];
+                for (int index = 0; index < children.length; index++) {
+                    children[index] = from.statement(node, index);
+                }
+                yield children;
+            }
+            case IF_STATEMENT         -> new int[] { from.condition(node), from.body(node), from.elseBody(node) };
+            case WHILE_STATEMENT      -> new int[] { from.condition(node), from.body(node) };
+            case DO_WHILE_STATEMENT   -> new int[] { from.body(node), from.condition(node) };
+            case FOR_STATEMENT        -> new int[] { from.initializer(node), from.condition(node), from.update(node), from.body(node) };
+            case RETURN_STATEMENT, VARIABLE_DECLARATION, ASSIGNMENT -> new int[] { from.value(node) };
+            case BINARY_OPERATION     -> new int[] { from.left(node), from.right(node) };
+            case UNARY_OPERATION      -> new int[] { from.operand(node) };
+            case FUNCTION_CALL -> {
+                int[] children = new int[from.argumentCount(node)];
+                for (int index = 0; index < children.length; index++) {
+                    children[index] = from.argument(node, index);
+                }
+                yield children;
+            }
+            case PARAMETER, VARIABLE_EXPRESSION, INTEGER_LITERAL, FLOATING_POINT_LITERAL, BOOLEAN_LITERAL -> new int[0];
+        };
+    }
+
+    private int build(int node, int[] copies) {
+        long span = from.span(node);
+        return switch (from.kind(node)) {
+            case FUNCTION               -> to.function(from.type(node), from.name(node), from.symbol(node), copies, 0, copies.length - 1, copies[copies.length - 1], span);
+            case PARAMETER              -> to.parameter(from.type(node), from.name(node), from.symbol(node), span);
+            case CODE_BLOCK             -> to.codeBlock(copies, 0, copies.length, span);
+            case IF_STATEMENT           -> to.ifStatement(copies[0], copies[1], copies[2], span);
+            case WHILE_STATEMENT        -> to.whileStatement(copies[0], copies[1], span);
+            case DO_WHILE_STATEMENT     -> to.doWhileStatement(copies[0], copies[1], span);
+            case FOR_STATEMENT          -> to.forStatement(copies[0], copies[1], copies[2], copies[3], span);
+            case RETURN_STATEMENT       -> to.returnStatement(copies[0], span);
+            case VARIABLE_DECLARATION   -> to.variableDeclaration(from.type(node), from.name(node), from.symbol(node), copies[0], span);
+            case ASSIGNMENT             -> to.assignment(from.name(node), from.symbol(node), copies[0], span);
+            case BINARY_OPERATION       -> to.binaryOperation(from.binaryOperation(node), copies[0], copies[1], span);
+            case UNARY_OPERATION        -> to.unaryOperation(from.unaryOperation(node), copies[0], span);
+            case VARIABLE_EXPRESSION    -> to.variableExpression(from.name(node), from.symbol(node), span);
+            case FUNCTION_CALL          -> to.functionCall(from.name(node), from.symbol(node), copies, 0, copies.length, span);
+            case INTEGER_LITERAL        -> to.integerLiteral(from.literal(node), span);
+            case FLOATING_POINT_LITERAL -> to.floatingPointLiteral(from.literal(node), span);
+            case BOOLEAN_LITERAL        -> to.booleanLiteral(from.booleanValue(node), span);
+        };
+    }
+
+    private final class CopyFrame implements Frame {
+        private final int node;
+        private final int[] children;
+        private final int[] copies;
+        private int next;
+        private boolean waiting;
+
+        CopyFrame(int node) {
+            this.node = node;
+            this.children = children(node);
+            this.copies = new int[children.length];
+        }
+
+        @Override
+        public void resume() {
+            if (waiting) {
+                copies[next++] = lastCopy;
+                waiting = false;
+            }
+            while (next < children.length && children[next] == NONE) {
+                copies[next++] = NONE;
+            }
+
+            if (next < children.length) {
+                waiting = true;
+                frames.push(new CopyFrame(children[next]));
+                return;
+            }
+            frames.pop();
+            lastCopy = build(node, copies);
+        }
+    }
+}
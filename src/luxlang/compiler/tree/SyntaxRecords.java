@@ -0,0 +1,359 @@
+package luxlang.compiler.tree;
+
+import luxlang.compiler.parser.nodes.FunctionDeclaration;
+import luxlang.compiler.parser.nodes.Parameter;
+import luxlang.compiler.parser.nodes.Type;
+import luxlang.compiler.parser.nodes.expressions.*;
+import luxlang.compiler.parser.nodes.expressions.BinaryOperation.BinaryOperationType;
+import luxlang.compiler.parser.nodes.expressions.UnaryOperation.UnaryOperationType;
+import luxlang.compiler.parser.nodes.statements.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Syntax records behind the {@link SyntaxTree} and {@link SyntaxBuilder} interfaces. A handle is
+ * an index into a list of the records handed out so far: building adds the new record, and
+ * reading a child adds the child, so a record can have more than one handle. Not safe to share
+ * between threads.
+ */
+public final class SyntaxRecords implements SyntaxTree, SyntaxBuilder {
+    private final List<Object> nodes;
+
+    public SyntaxRecords() {
+        this.nodes = new ArrayList<>();
+    }
+
+    /**
+     * @param node A function declaration, parameter, statement or expression
+     * @return A handle to the record
+     */
+    public int add(Object node) {
+        nodes.add(node);
+        return nodes.size() - 1;
+    }
+
+    public Object node(int node) {
+        return nodes.get(node);
+    }
+
+    private int addOptional(Optional<?> node) {
+        return node.isPresent() ? add(node.get()) : NONE;
+    }
+
+    @Override
+    public NodeKind kind(int node) {
+        return switch (nodes.get(node)) {
+            case FunctionDeclaration  ignored -> NodeKind.FUNCTION;
+            case Parameter            ignored -> NodeKind.PARAMETER;
+            case CodeBlock            ignored -> NodeKind.CODE_BLOCK;
+            case IfStatement          ignored -> NodeKind.IF_STATEMENT;
+            case WhileStatement       ignored -> NodeKind.WHILE_STATEMENT;
+            case DoWhileStatement     ignored -> NodeKind.DO_WHILE_STATEMENT;
+            case ForStatement         ignored -> NodeKind.FOR_STATEMENT;
+            case ReturnStatement      ignored -> NodeKind.RETURN_STATEMENT;
+            case VariableDeclaration  ignored -> NodeKind.VARIABLE_DECLARATION;
+            case Assignment           ignored -> NodeKind.ASSIGNMENT;
+            case BinaryOperation      ignored -> NodeKind.BINARY_OPERATION;
+            case UnaryOperation       ignored -> NodeKind.UNARY_OPERATION;
+            case VariableExpression   ignored -> NodeKind.VARIABLE_EXPRESSION;
+            case FunctionCall         ignored -> NodeKind.FUNCTION_CALL;
+            case IntegerLiteral       ignored -> NodeKind.INTEGER_LITERAL;
+            case FloatingPointLiteral ignored -> NodeKind.FLOATING_POINT_LITERAL;
+            case BooleanLiteral       ignored -> NodeKind.BOOLEAN_LITERAL;
+            default -> throw new IllegalArgumentException("Not a syntax node: " + nodes.get(node));
+        };
+    }
+
+    @Override
+    public long span(int node) {
+        return switch (nodes.get(node)) {
+            case FunctionDeclaration function  -> function.span();
+            case Parameter           parameter -> parameter.span();
+            case Statement           statement -> statement.span();
+            case Expression         expression -> expression.span();
+            default -> throw new IllegalArgumentException("Not a syntax node: " + nodes.get(node));
+        };
+    }
+
+    @Override
+    public String name(int node) {
+        return switch (nodes.get(node)) {
+            case FunctionDeclaration function            -> function.name();
+            case Parameter           parameter           -> parameter.name();
+            case VariableDeclaration variableDeclaration -> variableDeclaration.name();
+            case Assignment          assignment          -> assignment.variableName();
+            case VariableExpression  variableExpression  -> variableExpression.name();
+            case FunctionCall        functionCall        -> functionCall.name();
+            default -> throw new IllegalArgumentException("Node has no name: " + nodes.get(node));
+        };
+    }
+
+    @Override
+    public int symbol(int node) {
+        return switch (nodes.get(node)) {
+            case FunctionDeclaration function            -> function.symbol();
+            case Parameter           parameter           -> parameter.symbol();
+            case VariableDeclaration variableDeclaration -> variableDeclaration.symbol();
+            case Assignment          assignment          -> assignment.symbol();
+            case VariableExpression  variableExpression  -> variableExpression.symbol();
+            case FunctionCall        functionCall        -> functionCall.symbol();
+            default -> throw new IllegalArgumentException("Node has no name: " + nodes.get(node));
+        };
+    }
+
+    @Override
+    public Type type(int node) {
+        return switch (nodes.get(node)) {
+            case FunctionDeclaration function            -> function.returnType();
+            case Parameter           parameter           -> parameter.type();
+            case VariableDeclaration variableDeclaration -> variableDeclaration.type();
+            default -> throw new IllegalArgumentException("Node has no declared type: " + nodes.get(node));
+        };
+    }
+
+    @Override
+    public int parameterCount(int function) {
+        return ((FunctionDeclaration) nodes.get(function)).parameters().size();
+    }
+
+    @Override
+    public int parameter(int function, int index) {
+        return add(((FunctionDeclaration) nodes.get(function)).parameters().get(index));
+    }
+
+    @Override
+    public int body(int node) {
+        return add(switch (nodes.get(node)) {
+            case FunctionDeclaration function         -> function.body();
+            case IfStatement         ifStatement      -> ifStatement.body();
+            case WhileStatement      whileStatement   -> whileStatement.body();
+            case DoWhileStatement    doWhileStatement -> doWhileStatement.body();
+            case ForStatement        forStatement     -> forStatement.body();
+            default -> throw new IllegalArgumentException("Node has no body: " + nodes.get(node));
+        });
+    }
+
+    @Override
+    public int statementCount(int codeBlock) {
+        return ((CodeBlock) nodes.get(codeBlock)).statements().size();
+    }
+
+    @Override
+    public int statement(int codeBlock, int index) {
+        return add(((CodeBlock) nodes.get(codeBlock)).statements().get(index));
+    }
+
+    @Override
+    public int condition(int node) {
+        return switch (nodes.get(node)) {
+            case IfStatement      ifStatement      -> add(ifStatement.condition());
+            case WhileStatement   whileStatement   -> add(whileStatement.condition());
+            case DoWhileStatement doWhileStatement -> add(doWhileStatement.condition());
+            case ForStatement     forStatement     -> addOptional(forStatement.condition());
+            default -> throw new IllegalArgumentException("Node has no condition: " + nodes.get(node));
+        };
+    }
+
+    @Override
+    public int elseBody(int ifStatement) {
+        return addOptional(((IfStatement) nodes.get(ifStatement)).elseBody());
+    }
+
+    @Override
+    public int initializer(int forStatement) {
+        return addOptional(((ForStatement) nodes.get(forStatement)).initializer());
+    }
+
+    @Override
+    public int update(int forStatement) {
+        return addOptional(((ForStatement) nodes.get(forStatement)).update());
+    }
+
+    @Override
+    public int value(int node) {
+        return switch (nodes.get(node)) {
+            case ReturnStatement     returnStatement     -> addOptional(returnStatement.value());
+            case Assignment          assignment          -> add(assignment.value());
+            case VariableDeclaration variableDeclaration -> addOptional(variableDeclaration.initialValue());
+            default -> throw new IllegalArgumentException("Node has no value: " + nodes.get(node));
+        };
+    }
+
+    @Override
+    public BinaryOperationType binaryOperation(int binaryOperation) {
+        return ((BinaryOperation) nodes.get(binaryOperation)).operation();
+    }
+
+    @Override
+    public int left(int binaryOperation) {
+        return add(((BinaryOperation) nodes.get(binaryOperation)).left());
+    }
+
+    @Override
+    public int right(int binaryOperation) {
+        return add(((BinaryOperation) nodes.get(binaryOperation)).right());
+    }
+
+    @Override
+    public UnaryOperationType unaryOperation(int unaryOperation) {
+        return ((UnaryOperation) nodes.get(unaryOperation)).operation();
+    }
+
+    @Override
+    public int operand(int unaryOperation) {
+        return add(((UnaryOperation) nodes.get(unaryOperation)).operand());
+    }
+
+    @Override
+    public int argumentCount(int functionCall) {
+        return ((FunctionCall) nodes.get(functionCall)).arguments().size();
+    }
+
+    @Override
+    public int argument(int functionCall, int index) {
+        return add(((FunctionCall) nodes.get(functionCall)).arguments().get(index));
+    }
+
+    @Override
+    public String literal(int literal) {
+        return switch (nodes.get(literal)) {
+            case IntegerLiteral       integerLiteral       -> integerLiteral.value();
+            case FloatingPointLiteral floatingPointLiteral -> floatingPointLiteral.value();
+            default -> throw new IllegalArgumentException("Not a number literal: " + nodes.get(literal));
+        };
+    }
+
+    @Override
+    public boolean booleanValue(int booleanLiteral) {
+        return ((BooleanLiteral) nodes.get(booleanLiteral)).value() == BooleanLiteral.Value.TRUE;
+    }
+
+    @Override
+    public FunctionDeclaration functionNode(int function) {
+        return (FunctionDeclaration) nodes.get(function);
+    }
+
+    @Override
+    public Parameter parameterNode(int parameter) {
+        return (Parameter) nodes.get(parameter);
+    }
+
+    @Override
+    public Statement statementNode(int statement) {
+        return (Statement) nodes.get(statement);
+    }
+
+    @Override
+    public Expression expressionNode(int expression) {
+        return (Expression) nodes.get(expression);
+    }
+
+    @Override
+    public int function(Type returnType, String name, int symbol, int[] parameters, int from, int to, int body, long span) {
+        List<Parameter> parameterList = new ArrayList<>(to - from);
+        for (int index = from; index < to; index++) {
+            parameterList.add(parameterNode(parameters[index]));
+        }
+        return add(new FunctionDeclaration(returnType, name, symbol, parameterList, (CodeBlock) nodes.get(body), span));
+    }
+
+    @Override
+    public int parameter(Type type, String name, int symbol, long span) {
+        return add(new Parameter(type, name, symbol, span));
+    }
+
+    @Override
+    public int codeBlock(int[] statements, int from, int to, long span) {
+        List<Statement> statementList = new ArrayList<>(to - from);
+        for (int index = from; index < to; index++) {
+            statementList.add(statementNode(statements[index]));
+        }
+        return add(new CodeBlock(statementList, span));
+    }
+
+    @Override
+    public int ifStatement(int condition, int body, int elseBody, long span) {
+        return add(new IfStatement(expressionNode(condition), statementNode(body), optional(elseBody, Statement.class), span));
+    }
+
+    @Override
+    public int whileStatement(int condition, int body, long span) {
+        return add(new WhileStatement(expressionNode(condition), statementNode(body), span));
+    }
+
+    @Override
+    public int doWhileStatement(int body, int condition, long span) {
+        return add(new DoWhileStatement(statementNode(body), expressionNode(condition), span));
+    }
+
+    @Override
+    public int forStatement(int initializer, int condition, int update, int body, long span) {
+        return add(new ForStatement(
+            optional(initializer, ForStatement.Initializer.class),
+            optional(condition, Expression.class),
+            optional(update, Assignment.class),
+            statementNode(body),
+            span
+        ));
+    }
+
+    @Override
+    public int returnStatement(int value, long span) {
+        return add(new ReturnStatement(optional(value, Expression.class), span));
+    }
+
+    @Override
+    public int variableDeclaration(Type type, String name, int symbol, int initialValue, long span) {
+        return add(new VariableDeclaration(type, name, symbol, optional(initialValue, Expression.class), span));
+    }
+
+    @Override
+    public int assignment(String variableName, int symbol, int value, long span) {
+        return add(new Assignment(variableName, symbol, expressionNode(value), span));
+    }
+
+    @Override
+    public int binaryOperation(BinaryOperationType operation, int left, int right, long span) {
+        return add(new BinaryOperation(operation, expressionNode(left), expressionNode(right), span));
+    }
+
+    @Override
+    public int unaryOperation(UnaryOperationType operation, int operand, long span) {
+        return add(new UnaryOperation(operation, expressionNode(operand), span));
+    }
+
+    @Override
+    public int variableExpression(String name, int symbol, long span) {
+        return add(new VariableExpression(name, symbol, span));
+    }
+
+    @Override
+    public int functionCall(String name, int symbol, int[] arguments, int from, int to, long span) {
+        List<Expression> argumentList = new ArrayList<>(to - from);
+        for (int index = from; index < to; index++) {
+            argumentList.add(expressionNode(arguments[index]));
+        }
+        return add(new FunctionCall(name, symbol, argumentList, span));
+    }
+
+    @Override
+    public int integerLiteral(String value, long span) {
+        return add(new IntegerLiteral(value, span));
+    }
+
+    @Override
+    public int floatingPointLiteral(String value, long span) {
+        return add(new FloatingPointLiteral(value, span));
+    }
+
+    @Override
+    public int booleanLiteral(boolean value, long span) {
+        return add(new BooleanLiteral(value ? BooleanLiteral.Value.TRUE : BooleanLiteral.Value.FALSE, span));
+    }
+
+    private <T> Optional<T> optional(int node, Class<T> type) {
+        return node == NONE ? Optional.empty() : Optional.of(type.cast(nodes.get(node)));
+    }
+}
@@ -0,0 +1,27 @@
+package luxlang.compiler.tree;
+
+import luxlang.compiler.parser.nodes.FunctionDeclaration;
+import luxlang.compiler.parser.nodes.Parameter;
+import luxlang.compiler.parser.nodes.expressions.Expression;
+import luxlang.compiler.parser.nodes.statements.Statement;
+
+/**
+ * A {@link Tree} as the parser produced it. The *Node methods give a node and everything under
+ * it as records, which is what diagnostics are built from.
+ */
+public interface SyntaxTree extends Tree {
+    /**
+     * @return The source text of an integer or floating point literal
+     */
+    String literal(int literal);
+
+    boolean booleanValue(int booleanLiteral);
+
+    FunctionDeclaration functionNode(int function);
+
+    Parameter parameterNode(int parameter);
+
+    Statement statementNode(int statement);
+
+    Expression expressionNode(int expression);
+}
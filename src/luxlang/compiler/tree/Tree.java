@@ -0,0 +1,80 @@
+package luxlang.compiler.tree;
+
+import luxlang.compiler.parser.nodes.Type;
+import luxlang.compiler.parser.nodes.expressions.BinaryOperation.BinaryOperationType;
+import luxlang.compiler.parser.nodes.expressions.UnaryOperation.UnaryOperationType;
+
+/**
+ * A cursor over a tree whose nodes are named by int handles rather than held as objects, so the
+ * same walk can read records and a {@link FlatAst} alike. Each accessor only applies to the
+ * kinds its documentation names, and an optional child that is absent is {@link #NONE}.
+ */
+public interface Tree {
+    int NONE = -1;
+
+    NodeKind kind(int node);
+
+    long span(int node);
+
+    /**
+     * @return The name a function, parameter, variable declaration, assignment, variable
+     * expression or function call refers to
+     */
+    String name(int node);
+
+    /**
+     * @return The symbol of the name {@link #name(int)} gives
+     */
+    int symbol(int node);
+
+    /**
+     * @return The return type of a function, or the declared type of a parameter or variable
+     * declaration
+     */
+    Type type(int node);
+
+    int parameterCount(int function);
+
+    int parameter(int function, int index);
+
+    /**
+     * @return The body of a function, if, while, do while or for statement
+     */
+    int body(int node);
+
+    int statementCount(int codeBlock);
+
+    int statement(int codeBlock, int index);
+
+    /**
+     * @return The condition of an if, while, do while or for statement, which only a for
+     * statement can leave out
+     */
+    int condition(int node);
+
+    int elseBody(int ifStatement);
+
+    int initializer(int forStatement);
+
+    int update(int forStatement);
+
+    /**
+     * @return The value of a return statement or assignment, or the initial value of a variable
+     * declaration. Only the assignment's is never absent.
+     */
+    int value(int node);
+
+    BinaryOperationType binaryOperation(int binaryOperation);
+
+    int left(int binaryOperation);
+
+    int right(int binaryOperation);
+
+    UnaryOperationType unaryOperation(int unaryOperation);
+
+    int operand(int unaryOperation);
+
+    int argumentCount(int functionCall);
+
+    int argument(int functionCall, int index);
+}
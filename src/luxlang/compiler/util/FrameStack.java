@@ -0,0 +1,48 @@
+package luxlang.compiler.util;
+
+import java.util.Arrays;
+
+/**
+ * An explicit call stack for walking trees of any depth without growing the Java stack. Each
+ * frame is a small state machine for one node: every time it is resumed it either pushes a child
+ * frame, does nothing so it is resumed again, or pops itself. Frames hand their results to their
+ * parent through fields of the walker that owns the stack.
+ */
+public final class FrameStack {
+    public interface Frame {
+        void resume();
+    }
+
+    private Frame[] frames;
+    private int size;
+
+    public FrameStack() {
+        this.frames = new Frame[16];
+        this.size = 0;
+    }
+
+    public void push(Frame frame) {
+        if (size == frames.length) {
+            frames = Arrays.copyOf(frames, size * 2);
+        }
+        frames[size++] = frame;
+    }
+
+    /**
+     * Removes the frame on top, which has to be the one calling
+     */
+    public void pop() {
+        frames[--size] = null;
+    }
+
+    /**
+     * Resumes frames until the given one and everything it pushed have popped
+     */
+    public void run(Frame root) {
+        int base = size;
+        push(root);
+        while (size > base) {
+            frames[size - 1].resume();
+        }
+    }
+}
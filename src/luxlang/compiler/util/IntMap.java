@@ -0,0 +1,127 @@
+package luxlang.compiler.util;
+
+import java.util.Arrays;
+
+/**
+ * An open-addressed map from non-negative int keys to non-null values, for symbol lookups
+ * that would otherwise box every key
+ */
+public final class IntMap<V> {
+    private static final int EMPTY = -1;
+
+    private int[] keys;
+    private Object[] values;
+    private int size;
+
+    public IntMap() {
+        this.keys = new int[8];
+        this.values = new Object[8];
+        Arrays.fill(keys, EMPTY);
+        this.size = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int mask = keys.length - 1;
+        for (int slot = mix(key) & mask; keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return (V) values[slot];
+            }
+        }
+        return null;
+    }
+
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    /**
+     * @return The value previously associated with the key, or null
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        if (key < 0) {
+            throw new IllegalArgumentException("Keys must be non-negative");
+        }
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        for (; keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                V previous = (V) values[slot];
+                values[slot] = value;
+                return previous;
+            }
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+        if (size * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+        return null;
+    }
+
+    /**
+     * @return The value that was associated with the key, or null
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        if (key < 0) {
+            return null;
+        }
+        int mask = keys.length - 1;
+        int hole = mix(key) & mask;
+        while (keys[hole] != key) {
+            if (keys[hole] == EMPTY) {
+                return null;
+            }
+            hole = (hole + 1) & mask;
+        }
+        V removed = (V) values[hole];
+
+        // Pull later entries of the probe run back into the hole so no lookup stops short of them
+        for (int slot = (hole + 1) & mask; keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+            int home = mix(keys[slot]) & mask;
+            if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                keys[hole] = keys[slot];
+                values[hole] = values[slot];
+                hole = slot;
+            }
+        }
+        keys[hole] = EMPTY;
+        values[hole] = null;
+        size--;
+        return removed;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new int[capacity];
+        values = new Object[capacity];
+        Arrays.fill(keys, EMPTY);
+        int mask = capacity - 1;
+        for (int index = 0; index < oldKeys.length; index++) {
+            if (oldKeys[index] != EMPTY) {
+                int slot = mix(oldKeys[index]) & mask;
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[index];
+                values[slot] = oldValues[index];
+            }
+        }
+    }
+
+    /**
+     * Symbols are dense, so a multiplicative hash keeps neighbouring keys apart
+     */
+    private static int mix(int key) {
+        int hash = key * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
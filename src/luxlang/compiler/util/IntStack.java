@@ -0,0 +1,50 @@
+package luxlang.compiler.util;
+
+import java.util.Arrays;
+
+/**
+ * A growable stack of ints, whose backing array can be handed out so a range of it is read in
+ * place
+ */
+public final class IntStack {
+    private int[] values;
+    private int size;
+
+    public IntStack() {
+        this.values = new int[16];
+        this.size = 0;
+    }
+
+    public void push(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+    }
+
+    public int pop() {
+        return values[--size];
+    }
+
+    public int get(int index) {
+        return values[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Drops every value from the given index up
+     */
+    public void truncate(int size) {
+        this.size = size;
+    }
+
+    /**
+     * @return The backing array, valid only until the next push
+     */
+    public int[] array() {
+        return values;
+    }
+}
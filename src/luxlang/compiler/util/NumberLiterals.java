@@ -0,0 +1,120 @@
+package luxlang.compiler.util;
+
+import luxlang.compiler.parser.nodes.Type;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Decodes numeric literal lexemes in a single pass over their characters. Exact BigInteger or
+ * BigDecimal arithmetic is only used for values at the very edge of a type's range.
+ */
+public final class NumberLiterals {
+    // Any 19 digit number fits in an unsigned 64-bit integer; 20 digits may not
+    private static final int ALWAYS_FITS_DIGITS = 19;
+
+    /**
+     * @param value The literal's value, or 0 if it overflows, since it will never be used then
+     */
+    public record DecodedInteger(long value, Type type, boolean overflows) { }
+
+    public record DecodedFloatingPoint(double value, Type type, boolean overflows) { }
+
+    private NumberLiterals() { }
+
+    /**
+     * @param literal Digits followed by an optional {@code [uU]?[lLsSbB]?} suffix
+     */
+    public static DecodedInteger decodeInteger(String literal) {
+        int digitsEnd = literal.length();
+        char width = Character.toUpperCase(literal.charAt(digitsEnd - 1));
+        if (width == 'L' || width == 'S' || width == 'B') {
+            digitsEnd--;
+        }
+        boolean unsigned = Character.toUpperCase(literal.charAt(digitsEnd - 1)) == 'U';
+        if (unsigned) {
+            digitsEnd--;
+        }
+        Type type = switch (width) {
+            case 'L' -> unsigned ? Type.ULONG : Type.LONG;
+            case 'S' -> unsigned ? Type.USHORT : Type.SHORT;
+            case 'B' -> unsigned ? Type.UBYTE : Type.BYTE;
+            default -> unsigned ? Type.UINT : Type.INT;
+        };
+
+        long value = 0;
+        int significantDigits = 0;
+        for (int index = 0; index < digitsEnd; index++) {
+            int digit = literal.charAt(index) - '0';
+            if (significantDigits > 0 || digit != 0) {
+                significantDigits++;
+            }
+            // Wraps past 64 bits, which only longer literals can reach and which is checked below
+            value = value * 10 + digit;
+        }
+
+        if (significantDigits > ALWAYS_FITS_DIGITS
+            && new BigInteger(literal.substring(0, digitsEnd)).compareTo(NumberLimits.ULONG_MAX_VALUE) > 0) {
+            return new DecodedInteger(0, type, true);
+        }
+        if (Long.compareUnsigned(value, unsignedMaxValue(type)) > 0) {
+            return new DecodedInteger(0, type, true);
+        }
+
+        // Unsigned values are stored with the bit pattern of their width, sign extended
+        long stored = switch (type) {
+            case UINT -> (int) value;
+            case USHORT -> (short) value;
+            case UBYTE -> (byte) value;
+            default -> value;
+        };
+        return new DecodedInteger(stored, type, false);
+    }
+
+    /**
+     * A literal overflows when its exact magnitude is above the type's largest value or below its
+     * smallest positive one, which includes zero.
+     * @param literal A decimal number followed by an optional {@code [dDfF]} suffix
+     */
+    public static DecodedFloatingPoint decodeFloatingPoint(String literal) {
+        char suffix = literal.charAt(literal.length() - 1);
+        // The JDK parsers accept the suffix themselves
+        if (suffix == 'f' || suffix == 'F') {
+            float value = Float.parseFloat(literal);
+            boolean overflows = Float.isInfinite(value) || value == 0.0f
+                || (value == Float.MAX_VALUE || value == Float.MIN_VALUE)
+                    && outsideExactly(literal, NumberLimits.FLOAT_MIN_VALUE, NumberLimits.FLOAT_MAX_VALUE);
+            return new DecodedFloatingPoint(value, Type.FLOAT, overflows);
+        }
+
+        double value = Double.parseDouble(literal);
+        boolean overflows = Double.isInfinite(value) || value == 0.0
+            || (value == Double.MAX_VALUE || value == Double.MIN_VALUE)
+                && outsideExactly(literal, NumberLimits.DOUBLE_MIN_VALUE, NumberLimits.DOUBLE_MAX_VALUE);
+        return new DecodedFloatingPoint(value, Type.DOUBLE, overflows);
+    }
+
+    private static long unsignedMaxValue(Type type) {
+        return switch (type) {
+            case ULONG -> -1L;
+            case LONG -> Long.MAX_VALUE;
+            case UINT -> 0xFFFF_FFFFL;
+            case INT -> Integer.MAX_VALUE;
+            case USHORT -> 0xFFFF;
+            case SHORT -> Short.MAX_VALUE;
+            case UBYTE -> 0xFF;
+            case BYTE -> Byte.MAX_VALUE;
+            default -> throw new IllegalArgumentException("Not an integer type: " + type);
+        };
+    }
+
+    /**
+     * Rounding to the nearest value hides which side of a limit the exact value was on, so a
+     * literal that parses to exactly a limit is compared at full precision
+     */
+    private static boolean outsideExactly(String literal, BigDecimal minValue, BigDecimal maxValue) {
+        int end = Character.isDigit(literal.charAt(literal.length() - 1)) ? literal.length() : literal.length() - 1;
+        var exactValue = new BigDecimal(literal.substring(0, end));
+        return exactValue.compareTo(maxValue) > 0 || exactValue.compareTo(minValue) < 0;
+    }
+}
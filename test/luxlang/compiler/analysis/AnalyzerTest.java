@@ -2,11 +2,19 @@ package luxlang.compiler.analysis;
 
 import luxlang.compiler.analysis.errors.*;
 import luxlang.compiler.analysis.nodes.AnalyzedProgram;
+import luxlang.compiler.analysis.warnings.ConstantOverflowWarning;
+import luxlang.compiler.analysis.warnings.IntegerPromotionWarning;
+import luxlang.compiler.ir.IRGenerator;
 import luxlang.compiler.parser.nodes.*;
 import luxlang.compiler.parser.nodes.expressions.BinaryOperation.BinaryOperationType;
+import luxlang.compiler.parser.nodes.expressions.Expression;
 import luxlang.compiler.parser.nodes.expressions.UnaryOperation.UnaryOperationType;
+import luxlang.compiler.parser.nodes.statements.Statement;
+import luxlang.compiler.tree.FlatAst;
 import org.junit.jupiter.api.Test;
 
+import java.util.concurrent.ForkJoinPool;
+
 import static luxlang.compiler.utils.AnalyzedAstBuilder.*;
 import static luxlang.compiler.utils.AstBuilder.*;
 import static org.assertj.core.api.Assertions.*;
@@ -40,7 +48,7 @@ public class AnalyzerTest {
 
         assertThat(actual)
             .usingRecursiveComparison()
-            .ignoringFieldsMatchingRegexes(".*sourceInfo")
+            .ignoringFieldsMatchingRegexes(".*span", ".*symbol")
             .isEqualTo(expected);
     }
 
@@ -68,8 +76,8 @@ public class AnalyzerTest {
                 .param(Type.INT, "b")
                 .statement(analyzedReturnStmt(analyzedBinaryOp(
                         BinaryOperationType.ADD,
-                        analyzedVarExpr("a", Type.INT),
-                        analyzedVarExpr("b", Type.INT),
+                        analyzedVarExpr("a", 0, Type.INT),
+                        analyzedVarExpr("b", 1, Type.INT),
                         Type.INT
                 )))
                 .hasGuaranteedReturn(true)
@@ -86,7 +94,7 @@ public class AnalyzerTest {
 
         assertThat(actual)
             .usingRecursiveComparison()
-            .ignoringFieldsMatchingRegexes(".*sourceInfo")
+            .ignoringFieldsMatchingRegexes(".*span", ".*symbol")
             .isEqualTo(expected);
     }
 
@@ -106,8 +114,8 @@ public class AnalyzerTest {
             analyzedFunctionBuilder()
                 .returnType(Type.INT)
                 .name("main")
-                .statement(analyzedVarDecl(Type.INT, "x", analyzedIntLiteral(10, Type.INT)))
-                .statement(analyzedVarDecl(Type.INT, "y", analyzedIntLiteral(20, Type.INT)))
+                .statement(analyzedVarDecl(Type.INT, "x", 0, analyzedIntLiteral(10, Type.INT)))
+                .statement(analyzedVarDecl(Type.INT, "y", 1, analyzedIntLiteral(20, Type.INT)))
                 .statement(analyzedReturnStmt(analyzedIntLiteral(0, Type.INT)))
                 .hasGuaranteedReturn(true)
                 .localVar(0, "x", Type.INT)
@@ -123,7 +131,7 @@ public class AnalyzerTest {
 
         assertThat(actual)
             .usingRecursiveComparison()
-            .ignoringFieldsMatchingRegexes(".*sourceInfo")
+            .ignoringFieldsMatchingRegexes(".*span", ".*symbol")
             .isEqualTo(expected);
     }
 
@@ -165,7 +173,7 @@ public class AnalyzerTest {
         
         assertThat(actual)
             .usingRecursiveComparison()
-            .ignoringFieldsMatchingRegexes(".*sourceInfo")
+            .ignoringFieldsMatchingRegexes(".*span", ".*symbol")
             .isEqualTo(expected);
     }
 
@@ -196,7 +204,7 @@ public class AnalyzerTest {
 
         assertThat(actual)
             .usingRecursiveComparison()
-            .ignoringFieldsMatchingRegexes(".*sourceInfo")
+            .ignoringFieldsMatchingRegexes(".*span", ".*symbol")
             .isEqualTo(expected);
     }
 
@@ -225,7 +233,7 @@ public class AnalyzerTest {
 
         assertThat(actual)
             .usingRecursiveComparison()
-            .ignoringFieldsMatchingRegexes(".*sourceInfo")
+            .ignoringFieldsMatchingRegexes(".*span", ".*symbol")
             .isEqualTo(expected);
     }
 
@@ -641,4 +649,379 @@ public class AnalyzerTest {
         var errors = ((AnalysisResult.Failure) result).errors();
         assertThat(errors).singleElement(type(LiteralOverflowError.class));
     }
+
+    @Test
+    public void parallel_analysis_matches_sequential_analysis() {
+        Program input = program(
+            functionBuilder()
+                .returnType(Type.INT)
+                .name("add")
+                .param(Type.INT, "a")
+                .param(Type.INT, "b")
+                .statement(returnStmt(binaryOp(BinaryOperationType.ADD, varExpr("a"), varExpr("b"))))
+                .build(),
+            functionBuilder()
+                .returnType(Type.INT)
+                .name("main")
+                .statement(varDecl(Type.INT, "x", intLiteral("1")))
+                .statement(returnStmt(funcCall("add", varExpr("x"), intLiteral("2"))))
+                .build()
+        );
+
+        AnalysisResult sequential = new Analyzer(input).analyze();
+        AnalysisResult parallel = new Analyzer(input).analyzeParallel(ForkJoinPool.commonPool(), 0);
+
+        assertThat(parallel).isInstanceOf(AnalysisResult.Success.class);
+        assertThat(parallel)
+            .usingRecursiveComparison()
+            .isEqualTo(sequential);
+    }
+
+    @Test
+    public void error_parallel_analysis_reports_errors_in_source_order() {
+        Program input = program(
+            functionBuilder()
+                .returnType(Type.INT)
+                .name("first")
+                .statement(returnStmt(varExpr("missing")))
+                .build(),
+            functionBuilder()
+                .returnType(Type.VOID)
+                .name("second")
+                .statement(varDecl(Type.VOID, "x"))
+                .build(),
+            functionBuilder()
+                .returnType(Type.VOID)
+                .name("first")
+                .build(),
+            functionBuilder()
+                .returnType(Type.INT)
+                .name("third")
+                .statement(returnStmt(funcCall("undefined")))
+                .build()
+        );
+
+        AnalysisResult result = new Analyzer(input).analyzeParallel(ForkJoinPool.commonPool(), 0);
+
+        assertThat(result).isInstanceOf(AnalysisResult.Failure.class);
+        var errors = ((AnalysisResult.Failure) result).errors();
+        assertThat(errors)
+            .extracting(Object::getClass)
+            .containsExactly(
+                DuplicateFunctionNameError.class,
+                UndefinedVariableError.class,
+                VoidVariableError.class,
+                UndefinedFunctionError.class
+            );
+        assertThat(errors).isEqualTo(((AnalysisResult.Failure) new Analyzer(input).analyze()).errors());
+    }
+
+    @Test
+    public void sibling_blocks_reuse_variable_names() {
+        var function = functionBuilder()
+            .returnType(Type.INT)
+            .name("main")
+            .statement(varDecl(Type.INT, "x", intLiteral("0")));
+        for (int block = 0; block < 3; block++) {
+            Statement[] statements = new Statement[20];
+            for (int index = 0; index < statements.length; index++) {
+                statements[index] = varDecl(Type.INT, "v" + index, varExpr("x"));
+            }
+            function.statement(codeBlock(statements));
+        }
+        Program input = program(function.statement(returnStmt(varExpr("x"))).build());
+
+        AnalysisResult result = new Analyzer(input).analyze();
+
+        assertThat(result).isInstanceOf(AnalysisResult.Success.class);
+    }
+
+    @Test
+    public void error_variable_used_after_its_block() {
+        Program input = program(
+            functionBuilder()
+                .returnType(Type.INT)
+                .name("main")
+                .statement(codeBlock(varDecl(Type.INT, "x", intLiteral("1"))))
+                .statement(forStmt(varDecl(Type.INT, "i", intLiteral("0")), null, null, codeBlock()))
+                .statement(assignment("i", intLiteral("2")))
+                .statement(returnStmt(varExpr("x")))
+                .build()
+        );
+
+        Analyzer analyzer = new Analyzer(input);
+        AnalysisResult result = analyzer.analyze();
+
+        assertThat(result).isInstanceOf(AnalysisResult.Failure.class);
+        var errors = ((AnalysisResult.Failure) result).errors();
+        assertThat(errors)
+            .extracting(Object::getClass)
+            .containsExactly(UndefinedVariableError.class, UndefinedVariableError.class);
+    }
+
+    @Test
+    public void error_invalid_bitwise_operation_names_its_operator() {
+        Program input = program(
+            functionBuilder()
+                .returnType(Type.BOOL)
+                .name("main")
+                .statement(returnStmt(binaryOp(BinaryOperationType.BITWISE_XOR, boolLiteral(true), boolLiteral(false))))
+                .build()
+        );
+
+        Analyzer analyzer = new Analyzer(input);
+        AnalysisResult result = analyzer.analyze();
+
+        assertThat(result).isInstanceOf(AnalysisResult.Failure.class);
+        var errors = ((AnalysisResult.Failure) result).errors();
+        assertThat(errors).singleElement(type(InvalidOperationError.class))
+            .extracting(InvalidOperationError::reason)
+            .asString()
+            .contains("'^'");
+    }
+
+    @Test
+    public void error_suffixed_literal_overflow() {
+        Program input = program(
+            functionBuilder()
+                .returnType(Type.VOID)
+                .name("main")
+                .statement(varDecl(Type.SHORT, "s", intLiteral("32768s")))
+                .statement(varDecl(Type.ULONG, "u", intLiteral("18446744073709551616ul")))
+                .statement(varDecl(Type.UINT, "i", intLiteral("4294967295u")))
+                .build()
+        );
+
+        Analyzer analyzer = new Analyzer(input);
+        AnalysisResult result = analyzer.analyze();
+
+        assertThat(result).isInstanceOf(AnalysisResult.Failure.class);
+        var errors = ((AnalysisResult.Failure) result).errors();
+        assertThat(errors)
+            .extracting(Object::getClass)
+            .containsExactly(LiteralOverflowError.class, LiteralOverflowError.class);
+    }
+
+    @Test
+    public void constant_expression_folded() {
+        Program input = program(
+            functionBuilder()
+                .returnType(Type.LONG)
+                .name("main")
+                .statement(returnStmt(binaryOp(
+                    BinaryOperationType.MULT,
+                    binaryOp(BinaryOperationType.ADD, intLiteral("1"), intLiteral("2")),
+                    unaryOp(UnaryOperationType.NEGATION, intLiteral("3L"))
+                )))
+                .build()
+        );
+
+        AnalyzedProgram expected = analyzedProgram(
+            analyzedFunctionBuilder()
+                .returnType(Type.LONG)
+                .name("main")
+                .statement(analyzedReturnStmt(analyzedIntLiteral(-9, Type.LONG)))
+                .hasGuaranteedReturn(true)
+                .build()
+        );
+
+        Analyzer analyzer = new Analyzer(input);
+        AnalysisResult result = analyzer.analyze();
+
+        assertThat(result).isInstanceOf(AnalysisResult.Success.class);
+        assertThat(((AnalysisResult.Success) result).analyzedProgram())
+            .usingRecursiveComparison()
+            .ignoringFieldsMatchingRegexes(".*span", ".*symbol")
+            .isEqualTo(expected);
+        assertThat(analyzer.warnings()).singleElement(type(IntegerPromotionWarning.class));
+    }
+
+    @Test
+    public void folded_condition_guarantees_return() {
+        Program input = program(
+            functionBuilder()
+                .returnType(Type.INT)
+                .name("main")
+                .statement(whileStmt(
+                    binaryOp(BinaryOperationType.LESS, intLiteral("1"), intLiteral("2")),
+                    codeBlock(returnStmt(intLiteral("0")))
+                ))
+                .build()
+        );
+
+        AnalysisResult result = new Analyzer(input).analyze();
+
+        assertThat(result).isInstanceOf(AnalysisResult.Success.class);
+    }
+
+    @Test
+    public void constant_overflow_wraps_with_warning() {
+        Program input = program(
+            functionBuilder()
+                .returnType(Type.BYTE)
+                .name("main")
+                .statement(returnStmt(binaryOp(BinaryOperationType.ADD, intLiteral("127b"), intLiteral("1b"))))
+                .build()
+        );
+
+        Analyzer analyzer = new Analyzer(input);
+        AnalysisResult result = analyzer.analyze();
+
+        assertThat(result).isInstanceOf(AnalysisResult.Success.class);
+        var function = ((AnalysisResult.Success) result).analyzedProgram().functionDeclarations().getFirst();
+        assertThat(function.body().statements().getFirst())
+            .usingRecursiveComparison()
+            .ignoringFieldsMatchingRegexes(".*span")
+            .isEqualTo(analyzedReturnStmt(analyzedIntLiteral(-128, Type.BYTE)));
+        assertThat(analyzer.warnings()).singleElement(type(ConstantOverflowWarning.class));
+    }
+
+    @Test
+    public void error_fused_generation_reports_errors_in_analysis_order() {
+        Program input = program(
+            functionBuilder()
+                .returnType(Type.VOID)
+                .name("main")
+                .statement(forStmt(null, intLiteral("1"), assignment("missing", intLiteral("1")), varDecl(Type.VOID, "x")))
+                .statement(forStmt(null, binaryOp(BinaryOperationType.LESS, varExpr("y"), intLiteral("1")), null, varDecl(Type.INT, "y", intLiteral("0"))))
+                .build()
+        );
+
+        AnalysisResult analyzed = new Analyzer(input).analyze();
+        GenerationResult generated = new Analyzer(input).generate();
+
+        assertThat(analyzed).isInstanceOf(AnalysisResult.Failure.class);
+        assertThat(((AnalysisResult.Failure) analyzed).errors())
+            .extracting(Object::getClass)
+            .containsExactly(InvalidConditionError.class, UndefinedVariableError.class, VoidVariableError.class, UndefinedVariableError.class);
+        assertThat(generated).isInstanceOf(GenerationResult.Failure.class);
+        assertThat(((GenerationResult.Failure) generated).errors())
+            .usingRecursiveFieldByFieldElementComparator()
+            .containsExactlyElementsOf(((AnalysisResult.Failure) analyzed).errors());
+    }
+
+    @Test
+    public void deeply_nested_function_does_not_overflow_the_stack() {
+        int depth = 100_000;
+        Expression sum = funcCall("main", varExpr("x"));
+        for (int i = 0; i < depth; i++) {
+            sum = binaryOp(BinaryOperationType.ADD, sum, unaryOp(UnaryOperationType.NEGATION, varExpr("n")));
+        }
+        Statement nested = assignment("x", sum);
+        for (int i = 0; i < depth; i++) {
+            var condition = binaryOp(BinaryOperationType.LESS, varExpr("x"), varExpr("n"));
+            nested = switch (i % 3) {
+                case 0 -> ifStmt(condition, nested, assignment("x", intLiteral("1")));
+                case 1 -> whileStmt(condition, nested);
+                default -> codeBlock(nested);
+            };
+        }
+        Program input = program(
+            functionBuilder()
+                .returnType(Type.INT)
+                .name("main")
+                .param(Type.INT, "n")
+                .statement(varDecl(Type.INT, "x", intLiteral("0")))
+                .statement(nested)
+                .statement(returnStmt(varExpr("x")))
+                .build()
+        );
+
+        AnalysisResult analyzed = new Analyzer(input).analyze();
+        assertThat(analyzed).isInstanceOf(AnalysisResult.Success.class);
+        AnalyzedProgram program = ((AnalysisResult.Success) analyzed).analyzedProgram();
+        assertThat(program.callGraph().isRecursive(0)).isTrue();
+
+        String separate = new IRGenerator(program).generate().serialize();
+        GenerationResult generated = new Analyzer(input).generate();
+        assertThat(generated).isInstanceOf(GenerationResult.Success.class);
+        assertThat(((GenerationResult.Success) generated).irModule().serialize()).isEqualTo(separate);
+    }
+
+    @Test
+    public void in_place_analysis_generates_the_same_ir() {
+        Program input = program(
+            functionBuilder()
+                .returnType(Type.INT)
+                .name("add")
+                .param(Type.INT, "a")
+                .param(Type.INT, "b")
+                .statement(returnStmt(binaryOp(BinaryOperationType.ADD, varExpr("a"), varExpr("b"))))
+                .build(),
+            functionBuilder()
+                .returnType(Type.INT)
+                .name("main")
+                .statement(varDecl(Type.INT, "x", binaryOp(BinaryOperationType.MULT, intLiteral("6"), intLiteral("7"))))
+                .statement(codeBlock(varDecl(Type.BYTE, "y", binaryOp(BinaryOperationType.ADD, intLiteral("127b"), intLiteral("1b")))))
+                .statement(codeBlock(varDecl(Type.BOOL, "y", unaryOp(UnaryOperationType.LOGICAL_NOT, boolLiteral(false)))))
+                .statement(whileStmt(binaryOp(BinaryOperationType.LESS, intLiteral("1"), intLiteral("2")), returnStmt(funcCall("add", varExpr("x"), intLiteral("2")))))
+                .build()
+        );
+        Analyzer analyzer = new Analyzer(input);
+        AnalysisResult analyzed = analyzer.analyze();
+        assertThat(analyzed).isInstanceOf(AnalysisResult.Success.class);
+
+        FlatAst ast = new FlatAst();
+        ast.append(input);
+        Analyzer inPlace = new Analyzer(ast, input.lineMap());
+        FlatAnalysisResult result = inPlace.analyzeInPlace();
+
+        assertThat(result).isInstanceOf(FlatAnalysisResult.Success.class);
+        assertThat(inPlace.warnings())
+            .usingRecursiveFieldByFieldElementComparator()
+            .containsExactlyElementsOf(analyzer.warnings());
+        String separate = new IRGenerator(((AnalysisResult.Success) analyzed).analyzedProgram()).generate().serialize();
+        assertThat(new IRGenerator(ast).generate().serialize()).isEqualTo(separate);
+
+        FlatAst fused = new FlatAst();
+        fused.append(input);
+        GenerationResult generated = new Analyzer(fused, input.lineMap()).generate();
+        assertThat(generated).isInstanceOf(GenerationResult.Success.class);
+        assertThat(((GenerationResult.Success) generated).irModule().serialize()).isEqualTo(separate);
+    }
+
+    @Test
+    public void error_in_place_analysis_reports_the_same_errors() {
+        Program input = program(
+            functionBuilder()
+                .returnType(Type.INT)
+                .name("first")
+                .param(Type.VOID, "a")
+                .param(Type.INT, "a")
+                .statement(returnStmt(varExpr("missing")))
+                .statement(assignment("missing", boolLiteral(true)))
+                .build(),
+            functionBuilder()
+                .returnType(Type.VOID)
+                .name("second")
+                .statement(forStmt(null, intLiteral("1"), assignment("missing", intLiteral("1")), varDecl(Type.VOID, "x")))
+                .statement(varDecl(Type.INT, "y", boolLiteral(true)))
+                .statement(varDecl(Type.INT, "y"))
+                .statement(returnStmt(intLiteral("1")))
+                .build(),
+            functionBuilder()
+                .returnType(Type.VOID)
+                .name("first")
+                .build(),
+            functionBuilder()
+                .returnType(Type.INT)
+                .name("third")
+                .statement(ifStmt(intLiteral("99999999999999999999"), returnStmt(funcCall("undefined", varExpr("nothing")))))
+                .statement(doWhileStmt(codeBlock(), unaryOp(UnaryOperationType.LOGICAL_NOT, intLiteral("1"))))
+                .statement(returnStmt(funcCall("third", intLiteral("1"))))
+                .statement(returnStmt())
+                .build()
+        );
+
+        AnalysisResult analyzed = new Analyzer(input).analyze();
+        FlatAst ast = new FlatAst();
+        ast.append(input);
+        FlatAnalysisResult result = new Analyzer(ast, input.lineMap()).analyzeInPlace();
+
+        assertThat(analyzed).isInstanceOf(AnalysisResult.Failure.class);
+        assertThat(result).isInstanceOf(FlatAnalysisResult.Failure.class);
+        assertThat(((FlatAnalysisResult.Failure) result).errors())
+            .usingRecursiveFieldByFieldElementComparator()
+            .containsExactlyElementsOf(((AnalysisResult.Failure) analyzed).errors());
+    }
 }
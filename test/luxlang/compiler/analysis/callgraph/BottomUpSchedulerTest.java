@@ -0,0 +1,89 @@
+package luxlang.compiler.analysis.callgraph;
+
+import luxlang.compiler.analysis.AnalysisResult;
+import luxlang.compiler.analysis.Analyzer;
+import luxlang.compiler.parser.nodes.FunctionDeclaration;
+import luxlang.compiler.parser.nodes.Type;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static luxlang.compiler.analysis.callgraph.CallGraphTest.analyzeCallChain;
+import static luxlang.compiler.utils.AstBuilder.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BottomUpSchedulerTest {
+    @Test
+    public void bottom_up_scheduler_finishes_callees_first() {
+        CallGraph callGraph = analyzeCallChain().callGraph();
+        AtomicInteger clock = new AtomicInteger();
+        int[] started = new int[callGraph.functionCount()];
+        int[] finished = new int[callGraph.functionCount()];
+
+        List<Integer> results = BottomUpScheduler.run(callGraph, ForkJoinPool.commonPool(), function -> {
+            started[function] = clock.getAndIncrement();
+            finished[function] = clock.getAndIncrement();
+            return function * 10;
+        });
+
+        assertThat(results).containsExactly(0, 10, 20, 30, 40);
+        for (int caller = 0; caller < callGraph.functionCount(); caller++) {
+            for (int callee : callGraph.callees(caller)) {
+                if (callGraph.component(callee) != callGraph.component(caller)) {
+                    assertThat(finished[callee]).isLessThan(started[caller]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void bottom_up_scheduler_runs_each_function_once_on_large_graph() {
+        int pairs = 20_000;
+        FunctionDeclaration[] functions = new FunctionDeclaration[pairs * 2 + 1];
+        functions[0] = functionBuilder().returnType(Type.INT).name("main").statement(returnStmt(intLiteral("0"))).build();
+        for (int pair = 0; pair < pairs; pair++) {
+            functions[pair * 2 + 1] = functionBuilder()
+                .returnType(Type.INT)
+                .name("caller" + pair)
+                .statement(returnStmt(funcCall("leaf" + pair)))
+                .build();
+            functions[pair * 2 + 2] = functionBuilder()
+                .returnType(Type.INT)
+                .name("leaf" + pair)
+                .statement(returnStmt(intLiteral("1")))
+                .build();
+        }
+        AnalysisResult result = new Analyzer(program(functions)).analyze();
+        assertThat(result).isInstanceOf(AnalysisResult.Success.class);
+        CallGraph callGraph = ((AnalysisResult.Success) result).analyzedProgram().callGraph();
+
+        ForkJoinPool pool = new ForkJoinPool(8);
+        try {
+            for (int trial = 0; trial < 5; trial++) {
+                AtomicIntegerArray runs = new AtomicIntegerArray(callGraph.functionCount());
+                AtomicInteger clock = new AtomicInteger();
+                int[] started = new int[callGraph.functionCount()];
+                int[] finished = new int[callGraph.functionCount()];
+
+                BottomUpScheduler.run(callGraph, pool, function -> {
+                    started[function] = clock.getAndIncrement();
+                    runs.incrementAndGet(function);
+                    finished[function] = clock.getAndIncrement();
+                    return null;
+                });
+
+                for (int function = 0; function < callGraph.functionCount(); function++) {
+                    assertThat(runs.get(function)).as("runs of %d", function).isEqualTo(1);
+                    for (int callee : callGraph.callees(function)) {
+                        assertThat(finished[callee]).isLessThan(started[function]);
+                    }
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package luxlang.compiler.analysis.callgraph;
+
+import luxlang.compiler.analysis.AnalysisResult;
+import luxlang.compiler.analysis.Analyzer;
+import luxlang.compiler.analysis.nodes.AnalyzedProgram;
+import luxlang.compiler.parser.nodes.Program;
+import luxlang.compiler.parser.nodes.Type;
+import luxlang.compiler.parser.nodes.expressions.BinaryOperation.BinaryOperationType;
+import org.junit.jupiter.api.Test;
+
+import static luxlang.compiler.utils.AstBuilder.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CallGraphTest {
+    @Test
+    public void call_graph_condenses_recursion_bottom_up() {
+        AnalyzedProgram program = analyzeCallChain();
+        CallGraph callGraph = program.callGraph();
+
+        int main = 0, a = 1, b = 2, c = 3, d = 4;
+        assertThat(callGraph.callees(main)).containsExactly(a);
+        assertThat(callGraph.callees(b)).containsExactly(a, c);
+        assertThat(callGraph.componentCount()).isEqualTo(4);
+        assertThat(callGraph.component(a)).isEqualTo(callGraph.component(b));
+        assertThat(callGraph.members(callGraph.component(a))).containsExactly(a, b);
+        assertThat(callGraph.component(c)).isLessThan(callGraph.component(a));
+        assertThat(callGraph.component(a)).isLessThan(callGraph.component(main));
+        assertThat(callGraph.componentCallees(callGraph.component(a))).containsExactly(callGraph.component(c));
+        assertThat(callGraph.componentCallers(callGraph.component(a))).containsExactly(callGraph.component(main));
+        assertThat(callGraph.isRecursive(callGraph.component(a))).isTrue();
+        assertThat(callGraph.isRecursive(callGraph.component(d))).isTrue();
+        assertThat(callGraph.isRecursive(callGraph.component(c))).isFalse();
+        assertThat(callGraph.isRecursive(callGraph.component(main))).isFalse();
+    }
+
+    /**
+     * main -> a, a <-> b, b -> c, d -> d
+     */
+    static AnalyzedProgram analyzeCallChain() {
+        Program input = program(
+            functionBuilder()
+                .returnType(Type.INT)
+                .name("main")
+                .statement(returnStmt(funcCall("a", intLiteral("3"))))
+                .build(),
+            functionBuilder()
+                .returnType(Type.INT)
+                .name("a")
+                .param(Type.INT, "n")
+                .statement(returnStmt(funcCall("b", varExpr("n"))))
+                .build(),
+            functionBuilder()
+                .returnType(Type.INT)
+                .name("b")
+                .param(Type.INT, "n")
+                .statement(varDecl(Type.INT, "x", funcCall("a", binaryOp(BinaryOperationType.SUB, varExpr("n"), intLiteral("1")))))
+                .statement(returnStmt(binaryOp(BinaryOperationType.ADD, funcCall("c"), funcCall("a", varExpr("x")))))
+                .build(),
+            functionBuilder()
+                .returnType(Type.INT)
+                .name("c")
+                .statement(returnStmt(intLiteral("1")))
+                .build(),
+            functionBuilder()
+                .returnType(Type.INT)
+                .name("d")
+                .param(Type.INT, "n")
+                .statement(returnStmt(funcCall("d", varExpr("n"))))
+                .build()
+        );
+
+        AnalysisResult result = new Analyzer(input).analyze();
+        assertThat(result).isInstanceOf(AnalysisResult.Success.class);
+        return ((AnalysisResult.Success) result).analyzedProgram();
+    }
+}
@@ -1,6 +1,14 @@
 package luxlang.compiler.integration;
 
+import luxlang.compiler.analysis.AnalysisResult;
+import luxlang.compiler.analysis.Analyzer;
+import luxlang.compiler.analysis.errors.UndefinedVariableError;
 import luxlang.compiler.analysis.nodes.AnalyzedProgram;
+import luxlang.compiler.lexer.Lexer;
+import luxlang.compiler.lexer.LexingResult;
+import luxlang.compiler.parser.Parser;
+import luxlang.compiler.parser.ParsingResult;
+import luxlang.compiler.parser.nodes.Program;
 import luxlang.compiler.parser.nodes.Type;
 import luxlang.compiler.parser.nodes.expressions.BinaryOperation.BinaryOperationType;
 import luxlang.compiler.utils.TestUtils;
@@ -28,7 +36,7 @@ public class AnalyzerIntegrationTest {
 
         assertThat(actual)
             .usingRecursiveComparison()
-            .ignoringFieldsMatchingRegexes(".*sourceInfo")
+            .ignoringFieldsMatchingRegexes(".*span", ".*symbol")
             .isEqualTo(expected);
     }
 
@@ -44,8 +52,8 @@ public class AnalyzerIntegrationTest {
                 .param(Type.INT, "b")
                 .statement(analyzedReturnStmt(analyzedBinaryOp(
                     BinaryOperationType.ADD,
-                    analyzedVarExpr("a", Type.INT),
-                    analyzedVarExpr("b", Type.INT),
+                    analyzedVarExpr("a", 0, Type.INT),
+                    analyzedVarExpr("b", 1, Type.INT),
                     Type.INT
                 )))
                 .hasGuaranteedReturn(true)
@@ -57,7 +65,7 @@ public class AnalyzerIntegrationTest {
                 .name("main")
                 .statement(analyzedVarDecl(
                     Type.INT,
-                    "result",
+                    "result", 0,
                     analyzedFuncCall(
                         "add",
                         Type.INT,
@@ -65,7 +73,7 @@ public class AnalyzerIntegrationTest {
                         analyzedIntLiteral(10, Type.INT)
                     )
                 ))
-                .statement(analyzedReturnStmt(analyzedVarExpr("result", Type.INT)))
+                .statement(analyzedReturnStmt(analyzedVarExpr("result", 0, Type.INT)))
                 .hasGuaranteedReturn(true)
                 .localVar(0, "result", Type.INT)
                 .build()
@@ -73,7 +81,7 @@ public class AnalyzerIntegrationTest {
 
         assertThat(actual)
             .usingRecursiveComparison()
-            .ignoringFieldsMatchingRegexes(".*sourceInfo")
+            .ignoringFieldsMatchingRegexes(".*span", ".*symbol")
             .isEqualTo(expected);
     }
 
@@ -85,21 +93,21 @@ public class AnalyzerIntegrationTest {
             analyzedFunctionBuilder()
                 .returnType(Type.INT)
                 .name("main")
-                .statement(analyzedVarDecl(Type.INT, "x", analyzedIntLiteral(10, Type.INT)))
+                .statement(analyzedVarDecl(Type.INT, "x", 0, analyzedIntLiteral(10, Type.INT)))
                 .statement(analyzedCodeBlock(
                     false,
-                    analyzedVarDecl(Type.INT, "y", analyzedIntLiteral(20, Type.INT)),
+                    analyzedVarDecl(Type.INT, "y", 1, analyzedIntLiteral(20, Type.INT)),
                     analyzedAssignment(
-                        "x",
+                        "x", 0,
                         analyzedBinaryOp(
                             BinaryOperationType.ADD,
-                            analyzedVarExpr("x", Type.INT),
-                            analyzedVarExpr("y", Type.INT),
+                            analyzedVarExpr("x", 0, Type.INT),
+                            analyzedVarExpr("y", 1, Type.INT),
                             Type.INT
                         )
                     )
                 ))
-                .statement(analyzedReturnStmt(analyzedVarExpr("x", Type.INT)))
+                .statement(analyzedReturnStmt(analyzedVarExpr("x", 0, Type.INT)))
                 .hasGuaranteedReturn(true)
                 .localVar(0, "x", Type.INT)
                 .localVar(1, "y", Type.INT)
@@ -108,7 +116,7 @@ public class AnalyzerIntegrationTest {
 
         assertThat(actual)
             .usingRecursiveComparison()
-            .ignoringFieldsMatchingRegexes(".*sourceInfo")
+            .ignoringFieldsMatchingRegexes(".*span", ".*symbol")
             .isEqualTo(expected);
     }
 
@@ -120,29 +128,29 @@ public class AnalyzerIntegrationTest {
             analyzedFunctionBuilder()
                 .returnType(Type.INT)
                 .name("main")
-                .statement(analyzedVarDecl(Type.INT, "x", analyzedIntLiteral(10, Type.INT)))
-                .statement(analyzedVarDecl(Type.INT, "y", analyzedIntLiteral(20, Type.INT)))
+                .statement(analyzedVarDecl(Type.INT, "x", 0, analyzedIntLiteral(10, Type.INT)))
+                .statement(analyzedVarDecl(Type.INT, "y", 1, analyzedIntLiteral(20, Type.INT)))
                 .statement(analyzedVarDecl(
                     Type.INT,
-                    "z",
+                    "z", 2,
                     analyzedBinaryOp(
                         BinaryOperationType.ADD,
-                        analyzedVarExpr("x", Type.INT),
-                        analyzedVarExpr("y", Type.INT),
+                        analyzedVarExpr("x", 0, Type.INT),
+                        analyzedVarExpr("y", 1, Type.INT),
                         Type.INT
                     )
                 ))
                 .statement(analyzedVarDecl(
                     Type.BOOL,
-                    "b",
+                    "b", 3,
                     analyzedBinaryOp(
                         BinaryOperationType.GREATER,
-                        analyzedVarExpr("x", Type.INT),
-                        analyzedVarExpr("y", Type.INT),
+                        analyzedVarExpr("x", 0, Type.INT),
+                        analyzedVarExpr("y", 1, Type.INT),
                         Type.BOOL
                     )
                 ))
-                .statement(analyzedReturnStmt(analyzedVarExpr("z", Type.INT)))
+                .statement(analyzedReturnStmt(analyzedVarExpr("z", 2, Type.INT)))
                 .hasGuaranteedReturn(true)
                 .localVar(0, "x", Type.INT)
                 .localVar(1, "y", Type.INT)
@@ -153,7 +161,7 @@ public class AnalyzerIntegrationTest {
 
         assertThat(actual)
             .usingRecursiveComparison()
-            .ignoringFieldsMatchingRegexes(".*sourceInfo")
+            .ignoringFieldsMatchingRegexes(".*span", ".*symbol")
             .isEqualTo(expected);
     }
 
@@ -165,20 +173,20 @@ public class AnalyzerIntegrationTest {
             analyzedFunctionBuilder()
                 .returnType(Type.INT)
                 .name("main")
-                .statement(analyzedVarDecl(Type.INT, "x", analyzedIntLiteral(10, Type.INT)))
+                .statement(analyzedVarDecl(Type.INT, "x", 0, analyzedIntLiteral(10, Type.INT)))
                 .statement(analyzedIfStmt(
                     analyzedBinaryOp(
                         BinaryOperationType.GREATER,
-                        analyzedVarExpr("x", Type.INT),
+                        analyzedVarExpr("x", 0, Type.INT),
                         analyzedIntLiteral(5, Type.INT),
                         Type.BOOL
                     ),
                     analyzedCodeBlock(false,
                         analyzedAssignment(
-                            "x",
+                            "x", 0,
                             analyzedBinaryOp(
                                 BinaryOperationType.ADD,
-                                analyzedVarExpr("x", Type.INT),
+                                analyzedVarExpr("x", 0, Type.INT),
                                 analyzedIntLiteral(1, Type.INT),
                                 Type.INT
                             )
@@ -186,10 +194,10 @@ public class AnalyzerIntegrationTest {
                     ),
                     analyzedCodeBlock(false,
                         analyzedAssignment(
-                            "x",
+                            "x", 0,
                             analyzedBinaryOp(
                                 BinaryOperationType.SUB,
-                                analyzedVarExpr("x", Type.INT),
+                                analyzedVarExpr("x", 0, Type.INT),
                                 analyzedIntLiteral(1, Type.INT),
                                 Type.INT
                             )
@@ -200,17 +208,17 @@ public class AnalyzerIntegrationTest {
                 .statement(analyzedWhileStmt(
                     analyzedBinaryOp(
                         BinaryOperationType.LESS,
-                        analyzedVarExpr("x", Type.INT),
+                        analyzedVarExpr("x", 0, Type.INT),
                         analyzedIntLiteral(20, Type.INT),
                         Type.BOOL
                     ),
                     analyzedCodeBlock(
                         false,
                         analyzedAssignment(
-                            "x",
+                            "x", 0,
                             analyzedBinaryOp(
                                 BinaryOperationType.ADD,
-                                analyzedVarExpr("x", Type.INT),
+                                analyzedVarExpr("x", 0, Type.INT),
                                 analyzedIntLiteral(1, Type.INT),
                                 Type.INT
                                 )
@@ -218,7 +226,7 @@ public class AnalyzerIntegrationTest {
                         ),
                     false
                 ))
-                .statement(analyzedReturnStmt(analyzedVarExpr("x", Type.INT)))
+                .statement(analyzedReturnStmt(analyzedVarExpr("x", 0, Type.INT)))
                 .hasGuaranteedReturn(true)
                 .localVar(0, "x", Type.INT)
                 .build()
@@ -226,7 +234,7 @@ public class AnalyzerIntegrationTest {
 
         assertThat(actual)
             .usingRecursiveComparison()
-            .ignoringFieldsMatchingRegexes(".*sourceInfo")
+            .ignoringFieldsMatchingRegexes(".*span", ".*symbol")
             .isEqualTo(expected);
     }
 
@@ -240,22 +248,22 @@ public class AnalyzerIntegrationTest {
                 .name("main")
                 .statement(analyzedVarDecl(
                     Type.INT,
-                    "sum",
+                    "sum", 0,
                     analyzedIntLiteral(0, Type.INT)
                 ))
                 .statement(analyzedForStmt(
-                    analyzedVarDecl(Type.INT, "i", analyzedIntLiteral(0, Type.INT)),
+                    analyzedVarDecl(Type.INT, "i", 1, analyzedIntLiteral(0, Type.INT)),
                     analyzedBinaryOp(
                         BinaryOperationType.LESS,
-                        analyzedVarExpr("i", Type.INT),
+                        analyzedVarExpr("i", 1, Type.INT),
                         analyzedIntLiteral(10, Type.INT),
                         Type.BOOL
                     ),
                     analyzedAssignment(
-                        "i",
+                        "i", 1,
                         analyzedBinaryOp(
                             BinaryOperationType.ADD,
-                            analyzedVarExpr("i", Type.INT),
+                            analyzedVarExpr("i", 1, Type.INT),
                             analyzedIntLiteral(1, Type.INT),
                             Type.INT
                         )
@@ -263,18 +271,18 @@ public class AnalyzerIntegrationTest {
                     analyzedCodeBlock(
                         false,
                         analyzedAssignment(
-                            "sum",
+                            "sum", 0,
                             analyzedBinaryOp(
                                 BinaryOperationType.ADD,
-                                analyzedVarExpr("sum", Type.INT),
-                                analyzedVarExpr("i", Type.INT),
+                                analyzedVarExpr("sum", 0, Type.INT),
+                                analyzedVarExpr("i", 1, Type.INT),
                                 Type.INT
                             )
                         )
                     ),
                     false
                 ))
-                .statement(analyzedReturnStmt(analyzedVarExpr("sum", Type.INT)))
+                .statement(analyzedReturnStmt(analyzedVarExpr("sum", 0, Type.INT)))
                 .hasGuaranteedReturn(true)
                 .localVar(0, "sum", Type.INT)
                 .localVar(1, "i", Type.INT)
@@ -283,7 +291,7 @@ public class AnalyzerIntegrationTest {
 
         assertThat(actual)
             .usingRecursiveComparison()
-            .ignoringFieldsMatchingRegexes(".*sourceInfo")
+            .ignoringFieldsMatchingRegexes(".*span", ".*symbol")
             .isEqualTo(expected);
     }
 
@@ -297,48 +305,28 @@ public class AnalyzerIntegrationTest {
                 .name("main")
                 .statement(analyzedVarDecl(
                     Type.INT,
-                    "a",
-                    analyzedBinaryOp(
-                        BinaryOperationType.ADD,
-                        analyzedIntLiteral(5, Type.INT),
-                        analyzedBinaryOp(
-                            BinaryOperationType.MULT,
-                            analyzedIntLiteral(10, Type.INT),
-                            analyzedIntLiteral(2, Type.INT),
-                            Type.INT
-                        ),
-                        Type.INT
-                    )
+                    "a", 0,
+                    analyzedIntLiteral(25, Type.INT)
                 ))
                 .statement(analyzedVarDecl(
                     Type.INT,
-                    "b",
-                    analyzedBinaryOp(
-                        BinaryOperationType.MULT,
-                        analyzedBinaryOp(
-                            BinaryOperationType.ADD,
-                            analyzedIntLiteral(5, Type.INT),
-                            analyzedIntLiteral(10, Type.INT),
-                            Type.INT
-                        ),
-                        analyzedIntLiteral(2, Type.INT),
-                        Type.INT
-                    )
+                    "b", 1,
+                    analyzedIntLiteral(30, Type.INT)
                 ))
                 .statement(analyzedVarDecl(
                     Type.BOOL,
-                    "c",
+                    "c", 2,
                     analyzedBinaryOp(
                         BinaryOperationType.LOGICAL_AND,
                         analyzedBinaryOp(
                             BinaryOperationType.GREATER,
-                            analyzedVarExpr("a", Type.INT),
-                            analyzedVarExpr("b", Type.INT),
+                            analyzedVarExpr("a", 0, Type.INT),
+                            analyzedVarExpr("b", 1, Type.INT),
                             Type.BOOL
                         ),
                         analyzedBinaryOp(
                             BinaryOperationType.LESS,
-                            analyzedVarExpr("b", Type.INT),
+                            analyzedVarExpr("b", 1, Type.INT),
                             analyzedIntLiteral(100, Type.INT),
                             Type.BOOL
                         ),
@@ -348,8 +336,8 @@ public class AnalyzerIntegrationTest {
                 .statement(analyzedReturnStmt(
                     analyzedBinaryOp(
                         BinaryOperationType.ADD,
-                        analyzedVarExpr("a", Type.INT),
-                        analyzedVarExpr("b", Type.INT),
+                        analyzedVarExpr("a", 0, Type.INT),
+                        analyzedVarExpr("b", 1, Type.INT),
                         Type.INT
                     )
                 ))
@@ -362,7 +350,7 @@ public class AnalyzerIntegrationTest {
 
         assertThat(actual)
             .usingRecursiveComparison()
-            .ignoringFieldsMatchingRegexes(".*sourceInfo")
+            .ignoringFieldsMatchingRegexes(".*span", ".*symbol")
             .isEqualTo(expected);
     }
 
@@ -374,12 +362,12 @@ public class AnalyzerIntegrationTest {
             analyzedFunctionBuilder()
                 .returnType(Type.INT)
                 .name("main")
-                .statement(analyzedVarDecl(Type.INT, "i", analyzedIntLiteral(42, Type.INT)))
-                .statement(analyzedVarDecl(Type.LONG, "l", analyzedIntLiteral(42L, Type.LONG)))
-                .statement(analyzedVarDecl(Type.FLOAT, "f", analyzedFPLiteral(3.14F, Type.FLOAT)))
-                .statement(analyzedVarDecl(Type.DOUBLE, "d", analyzedFPLiteral(3.14, Type.DOUBLE)))
-                .statement(analyzedVarDecl(Type.BOOL, "b", analyzedBoolLiteral(true)))
-                .statement(analyzedReturnStmt(analyzedVarExpr("i", Type.INT)))
+                .statement(analyzedVarDecl(Type.INT, "i", 0, analyzedIntLiteral(42, Type.INT)))
+                .statement(analyzedVarDecl(Type.LONG, "l", 1, analyzedIntLiteral(42L, Type.LONG)))
+                .statement(analyzedVarDecl(Type.FLOAT, "f", 2, analyzedFPLiteral(3.14F, Type.FLOAT)))
+                .statement(analyzedVarDecl(Type.DOUBLE, "d", 3, analyzedFPLiteral(3.14, Type.DOUBLE)))
+                .statement(analyzedVarDecl(Type.BOOL, "b", 4, analyzedBoolLiteral(true)))
+                .statement(analyzedReturnStmt(analyzedVarExpr("i", 0, Type.INT)))
                 .hasGuaranteedReturn(true)
                 .localVar(0, "i", Type.INT)
                 .localVar(1, "l", Type.LONG)
@@ -391,7 +379,7 @@ public class AnalyzerIntegrationTest {
 
         assertThat(actual)
             .usingRecursiveComparison()
-            .ignoringFieldsMatchingRegexes(".*sourceInfo")
+            .ignoringFieldsMatchingRegexes(".*span", ".*symbol")
             .isEqualTo(expected);
     }
 
@@ -410,7 +398,27 @@ public class AnalyzerIntegrationTest {
 
         assertThat(actual)
             .usingRecursiveComparison()
-            .ignoringFieldsMatchingRegexes(".*sourceInfo")
+            .ignoringFieldsMatchingRegexes(".*span", ".*symbol")
             .isEqualTo(expected);
     }
+
+    @Test
+    public void error_position_resolved_from_span() {
+        String input = """
+            int main() {
+                int a = 1;
+                return a +   missing;
+            }
+            """;
+        var tokens = ((LexingResult.Success) new Lexer(input).lex()).tokenBuffer();
+        Program program = ((ParsingResult.Success) new Parser(tokens).parse()).program();
+
+        AnalysisResult result = new Analyzer(program).analyze();
+
+        assertThat(result).isInstanceOf(AnalysisResult.Failure.class);
+        var error = ((AnalysisResult.Failure) result).errors().getFirst();
+        assertThat(error).isInstanceOf(UndefinedVariableError.class);
+        assertThat(error.line()).isEqualTo(3);
+        assertThat(error.column()).isEqualTo(18);
+    }
 }
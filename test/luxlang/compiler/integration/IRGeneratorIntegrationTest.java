@@ -37,21 +37,48 @@ public class IRGeneratorIntegrationTest {
                 local %l4 : int
             
               bb0:
-                %t0 = add 10, 20
-                store %t0, %l0
-                %t1 = sub 30, 15
-                store %t1, %l1
-                %t2 = mul 5, 4
-                store %t2, %l2
-                %t3 = div 20, 2
-                store %t3, %l3
-                %t4 = mod 17, 5
-                store %t4, %l4
-                %t5 = add %l0, %l1
-                %t6 = add %t5, %l2
-                %t7 = add %t6, %l3
-                %t8 = add %t7, %l4
-                ret %t8
+                store 30, %l0
+                store 15, %l1
+                store 20, %l2
+                store 10, %l3
+                store 2, %l4
+                %t0 = add %l0, %l1
+                %t1 = add %t0, %l2
+                %t2 = add %t1, %l3
+                %t3 = add %t2, %l4
+                ret %t3
+            }""";
+
+        assertThat(TestUtils.normalizeIR(actual.serialize()))
+            .isEqualTo(TestUtils.normalizeIR(expected));
+    }
+
+    @Test
+    public void parameter_arithmetic() throws IOException {
+        IRModule actual = TestUtils.buildIR("parameter_arithmetic.lux");
+
+        String expected = """
+            define int @calculate(int, int) {
+                local %l0 : int
+                local %l1 : int
+                local %l2 : int
+                local %l3 : int
+                local %l4 : int
+                local %l5 : int
+            
+              bb0:
+                %t0 = sub %l0, %l1
+                store %t0, %l2
+                %t1 = mul %l0, %l1
+                store %t1, %l3
+                %t2 = div %l0, %l1
+                store %t2, %l4
+                %t3 = mod %l0, %l1
+                store %t3, %l5
+                %t4 = add %l2, %l3
+                %t5 = add %t4, %l4
+                %t6 = add %t5, %l5
+                ret %t6
             }""";
 
         assertThat(TestUtils.normalizeIR(actual.serialize()))
@@ -128,6 +155,33 @@ public class IRGeneratorIntegrationTest {
             .isEqualTo(TestUtils.normalizeIR(expected));
     }
 
+    @Test
+    public void do_while_loop() throws IOException {
+        IRModule actual = TestUtils.buildIR("do_while_loop.lux");
+
+        // The condition is generated before the body, so its temporaries and block come first
+        String expected = """
+            define int @main() {
+                local %l0 : int
+            
+              bb0:
+                store 0, %l0
+                br bb2
+              bb1:
+                %t0 = cmp lt %l0, 10
+                br %t0, bb2, bb3
+              bb2:
+                %t1 = add %l0, 1
+                store %t1, %l0
+                br bb1
+              bb3:
+                ret %l0
+            }""";
+
+        assertThat(TestUtils.normalizeIR(actual.serialize()))
+            .isEqualTo(TestUtils.normalizeIR(expected));
+    }
+
     @Test
     public void for_loop() throws IOException {
         IRModule actual = TestUtils.buildIR("for_loop.lux");
@@ -216,4 +270,77 @@ public class IRGeneratorIntegrationTest {
         assertThat(TestUtils.normalizeIR(actual.serialize()))
             .isEqualTo(TestUtils.normalizeIR(expected));
     }
+
+    @Test
+    public void sibling_scopes() throws IOException {
+        IRModule actual = TestUtils.buildIR("sibling_scopes.lux");
+
+        String expected = """
+            define int @main(int) {
+                local %l0 : int
+                local %l1 : int
+                local %l2 : int
+                local %l3 : int
+                local %l4 : int
+                local %l5 : int
+                local %l6 : int
+            
+              bb0:
+                store 0, %l1
+                store %l0, %l2
+                %t0 = add %l1, %l2
+                store %t0, %l1
+                %t1 = mul %l0, 2
+                store %t1, %l3
+                %t2 = add %l1, %l3
+                store %t2, %l1
+                store 0, %l4
+                br bb2
+              bb1:
+                store %l4, %l5
+                %t3 = add %l1, %l5
+                store %t3, %l1
+                %t4 = add %l4, 1
+                store %t4, %l4
+                br bb2
+              bb2:
+                %t5 = cmp lt %l4, %l0
+                br %t5, bb1, bb3
+              bb3:
+                store 0, %l6
+                br bb5
+              bb4:
+                %t6 = add %l1, %l6
+                store %t6, %l1
+                %t7 = add %l6, 1
+                store %t7, %l6
+                br bb5
+              bb5:
+                %t8 = cmp lt %l6, 2
+                br %t8, bb4, bb6
+              bb6:
+                ret %l1
+            }""";
+
+        assertThat(TestUtils.normalizeIR(actual.serialize()))
+            .isEqualTo(TestUtils.normalizeIR(expected));
+    }
+
+    @Test
+    public void fused_generation_matches_separate_passes() throws IOException {
+        TestUtils.assertSameResults(
+            "ir",
+            file -> TestUtils.buildIR(file.getFileName().toString()),
+            file -> TestUtils.buildFusedIR(file.getFileName().toString())
+        );
+    }
+
+    @Test
+    public void flat_generation_matches_separate_passes() throws IOException {
+        TestUtils.assertSameResults(
+            "ir",
+            file -> TestUtils.buildIR(file.getFileName().toString()),
+            file -> TestUtils.buildFlatIR(file.getFileName().toString())
+        );
+    }
 }
@@ -1,12 +1,17 @@
 package luxlang.compiler.ir;
 
+import luxlang.compiler.analysis.nodes.AnalyzedFunctionDeclaration;
 import luxlang.compiler.analysis.nodes.AnalyzedProgram;
+import luxlang.compiler.ir.objects.IRFunction;
 import luxlang.compiler.ir.objects.IRModule;
 import luxlang.compiler.parser.nodes.Type;
 import luxlang.compiler.parser.nodes.expressions.BinaryOperation.BinaryOperationType;
+import luxlang.compiler.parser.nodes.expressions.UnaryOperation.UnaryOperationType;
 import luxlang.compiler.utils.TestUtils;
 import org.junit.jupiter.api.Test;
 
+import java.util.concurrent.ForkJoinPool;
+
 import static luxlang.compiler.utils.AnalyzedAstBuilder.*;
 import static org.assertj.core.api.Assertions.*;
 
@@ -43,8 +48,8 @@ public class IRGeneratorTest {
                 .returnType(Type.INT)
                 .name("main")
                 .localVar(0, "x", Type.INT)
-                .statement(analyzedVarDecl(Type.INT, "x", analyzedIntLiteral(42, Type.INT)))
-                .statement(analyzedReturnStmt(analyzedVarExpr("x", Type.INT)))
+                .statement(analyzedVarDecl(Type.INT, "x", 0, analyzedIntLiteral(42, Type.INT)))
+                .statement(analyzedReturnStmt(analyzedVarExpr("x", 0, Type.INT)))
                 .build()
         );
 
@@ -73,8 +78,8 @@ public class IRGeneratorTest {
                 .name("main")
                 .localVar(0, "x", Type.INT)
                 .localVar(1, "y", Type.INT)
-                .statement(analyzedVarDecl(Type.INT, "x", analyzedIntLiteral(10, Type.INT)))
-                .statement(analyzedVarDecl(Type.INT, "y", analyzedIntLiteral(20, Type.INT)))
+                .statement(analyzedVarDecl(Type.INT, "x", 0, analyzedIntLiteral(10, Type.INT)))
+                .statement(analyzedVarDecl(Type.INT, "y", 1, analyzedIntLiteral(20, Type.INT)))
                 .statement(analyzedReturnStmt(analyzedIntLiteral(0, Type.INT)))
                 .build()
         );
@@ -168,8 +173,8 @@ public class IRGeneratorTest {
                 .localVar(1, "b", Type.INT)
                 .statement(analyzedReturnStmt(analyzedBinaryOp(
                     BinaryOperationType.ADD,
-                    analyzedVarExpr("a", Type.INT),
-                    analyzedVarExpr("b", Type.INT),
+                    analyzedVarExpr("a", 0, Type.INT),
+                    analyzedVarExpr("b", 1, Type.INT),
                     Type.INT
                 )))
                 .build()
@@ -227,4 +232,137 @@ public class IRGeneratorTest {
         assertThat(TestUtils.normalizeIR(actual.serialize()))
             .isEqualTo(TestUtils.normalizeIR(expected));
     }
+
+    @Test
+    public void short_circuit_in_call_argument() {
+        // bool f(bool a, bool b) { return !f(a && b, b); }
+        AnalyzedProgram input = analyzedProgram(
+            analyzedFunctionBuilder()
+                .returnType(Type.BOOL)
+                .name("f")
+                .param(Type.BOOL, "a")
+                .param(Type.BOOL, "b")
+                .localVar(0, "a", Type.BOOL)
+                .localVar(1, "b", Type.BOOL)
+                .statement(analyzedReturnStmt(analyzedUnaryOp(
+                    UnaryOperationType.LOGICAL_NOT,
+                    analyzedFuncCall(
+                        "f",
+                        Type.BOOL,
+                        analyzedBinaryOp(
+                            BinaryOperationType.LOGICAL_AND,
+                            analyzedVarExpr("a", 0, Type.BOOL),
+                            analyzedVarExpr("b", 1, Type.BOOL),
+                            Type.BOOL
+                        ),
+                        analyzedVarExpr("b", 1, Type.BOOL)
+                    ),
+                    Type.BOOL
+                )))
+                .build()
+        );
+
+        String expected = """
+            define bool @f(bool, bool) {
+                local %l0 : bool
+                local %l1 : bool
+            
+              bb0:
+                br %l0, bb1, bb2
+              bb1:
+                br bb2
+              bb2:
+                %t0 = phi [%l0, bb0], [%l1, bb1]
+                %t1 = call @f(%t0, %l1)
+                %t2 = xor %t1, 1
+                ret %t2
+            }""";
+
+        IRGenerator builder = new IRGenerator(input);
+        IRModule actual = builder.generate();
+
+        assertThat(TestUtils.normalizeIR(actual.serialize()))
+            .isEqualTo(TestUtils.normalizeIR(expected));
+    }
+
+    @Test
+    public void short_circuit_in_unary_operand() {
+        // bool f(bool a, bool b) { return !(a || b); }
+        AnalyzedProgram input = analyzedProgram(
+            analyzedFunctionBuilder()
+                .returnType(Type.BOOL)
+                .name("f")
+                .param(Type.BOOL, "a")
+                .param(Type.BOOL, "b")
+                .localVar(0, "a", Type.BOOL)
+                .localVar(1, "b", Type.BOOL)
+                .statement(analyzedReturnStmt(analyzedUnaryOp(
+                    UnaryOperationType.LOGICAL_NOT,
+                    analyzedBinaryOp(
+                        BinaryOperationType.LOGICAL_OR,
+                        analyzedVarExpr("a", 0, Type.BOOL),
+                        analyzedVarExpr("b", 1, Type.BOOL),
+                        Type.BOOL
+                    ),
+                    Type.BOOL
+                )))
+                .build()
+        );
+
+        String expected = """
+            define bool @f(bool, bool) {
+                local %l0 : bool
+                local %l1 : bool
+            
+              bb0:
+                br %l0, bb2, bb1
+              bb1:
+                br bb2
+              bb2:
+                %t0 = phi [%l0, bb0], [%l1, bb1]
+                %t1 = xor %t0, 1
+                ret %t1
+            }""";
+
+        IRGenerator builder = new IRGenerator(input);
+        IRModule actual = builder.generate();
+
+        assertThat(TestUtils.normalizeIR(actual.serialize()))
+            .isEqualTo(TestUtils.normalizeIR(expected));
+    }
+
+    @Test
+    public void parallel_generation_matches_sequential_generation() {
+        // int fN(int n) { while (n > N) { n = n - 1; } return f(N+1)(n); } for N in 0..15, the last returning n
+        AnalyzedFunctionDeclaration[] functions = new AnalyzedFunctionDeclaration[16];
+        for (int index = 0; index < functions.length; index++) {
+            var result = index + 1 < functions.length
+                ? analyzedFuncCall("f" + (index + 1), Type.INT, analyzedVarExpr("n", 0, Type.INT))
+                : analyzedVarExpr("n", 0, Type.INT);
+            functions[index] = analyzedFunctionBuilder()
+                .returnType(Type.INT)
+                .name("f" + index)
+                .param(Type.INT, "n")
+                .localVar(0, "n", Type.INT)
+                .statement(analyzedWhileStmt(
+                    analyzedBinaryOp(BinaryOperationType.GREATER, analyzedVarExpr("n", 0, Type.INT), analyzedIntLiteral(index, Type.INT), Type.BOOL),
+                    analyzedCodeBlock(false, analyzedAssignment(
+                        "n", 0,
+                        analyzedBinaryOp(BinaryOperationType.SUB, analyzedVarExpr("n", 0, Type.INT), analyzedIntLiteral(1, Type.INT), Type.INT)
+                    )),
+                    false
+                ))
+                .statement(analyzedReturnStmt(result))
+                .build();
+        }
+        AnalyzedProgram input = analyzedProgram(functions);
+
+        IRModule sequential = new IRGenerator(input).generate();
+        IRModule parallel = new IRGenerator(input).generateParallel(ForkJoinPool.commonPool(), 0);
+
+        assertThat(parallel.functions())
+            .extracting(IRFunction::name)
+            .containsExactly(sequential.functions().stream().map(IRFunction::name).toArray(String[]::new));
+        assertThat(parallel.serialize()).isEqualTo(sequential.serialize());
+    }
 }
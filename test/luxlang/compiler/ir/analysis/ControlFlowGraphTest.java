@@ -0,0 +1,46 @@
+package luxlang.compiler.ir.analysis;
+
+import luxlang.compiler.ir.instructions.FunctionReturn;
+import luxlang.compiler.ir.objects.IRFunction;
+import luxlang.compiler.utils.TestUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ControlFlowGraphTest {
+    @Test
+    public void for_loop_edges_and_orders() throws IOException {
+        IRFunction function = TestUtils.buildIR("for_loop.lux").functions().getFirst();
+
+        ControlFlowGraph cfg = ControlFlowGraph.of(function);
+
+        assertThat(cfg.successors(0)).containsExactly(2);
+        assertThat(cfg.successors(2)).containsExactly(1, 3);
+        assertThat(cfg.predecessors(2)).containsExactly(0, 1);
+        assertThat(cfg.predecessors(0)).isEmpty();
+        assertThat(cfg.postOrder()).containsExactly(1, 3, 2, 0);
+        assertThat(cfg.reversePostOrder()).containsExactly(0, 2, 3, 1);
+        assertThat(cfg.reversePostOrderNumber(3)).isEqualTo(2);
+        assertThat(cfg.refresh()).isFalse();
+
+        // Cutting the back edge from the body to the condition
+        function.basicBlocks().get(1).replaceTerminator(new FunctionReturn(null));
+        assertThat(cfg.refresh()).isTrue();
+
+        assertThat(cfg.predecessors(2)).containsExactly(0);
+        assertThat(cfg.successors(1)).isEmpty();
+        assertThat(cfg.postOrder()).containsExactly(1, 3, 2, 0);
+        assertThat(cfg.isReachable(1)).isTrue();
+
+        // Returning from the condition instead leaves the body and the exit unreachable
+        function.basicBlocks().get(2).replaceTerminator(new FunctionReturn(null));
+        assertThat(cfg.refresh()).isTrue();
+
+        assertThat(cfg.successors(2)).isEmpty();
+        assertThat(cfg.reversePostOrder()).containsExactly(0, 2);
+        assertThat(cfg.isReachable(1)).isFalse();
+        assertThat(cfg.postOrderNumber(3)).isEqualTo(ControlFlowGraph.NONE);
+    }
+}
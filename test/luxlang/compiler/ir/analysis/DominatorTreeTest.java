@@ -0,0 +1,49 @@
+package luxlang.compiler.ir.analysis;
+
+import luxlang.compiler.ir.instructions.FunctionReturn;
+import luxlang.compiler.ir.objects.IRFunction;
+import luxlang.compiler.utils.TestUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DominatorTreeTest {
+    @Test
+    public void for_loop_dominators_and_post_dominators() throws IOException {
+        IRFunction function = TestUtils.buildIR("for_loop.lux").functions().getFirst();
+        ControlFlowGraph cfg = ControlFlowGraph.of(function);
+
+        DominatorTree dominators = cfg.dominatorTree();
+
+        assertThat(dominators.roots()).containsExactly(0);
+        assertThat(dominators.immediateDominator(0)).isEqualTo(DominatorTree.NONE);
+        assertThat(dominators.immediateDominator(1)).isEqualTo(2);
+        assertThat(dominators.immediateDominator(3)).isEqualTo(2);
+        assertThat(dominators.children(2)).containsExactly(1, 3);
+        assertThat(dominators.dominates(0, 3)).isTrue();
+        assertThat(dominators.dominates(1, 3)).isFalse();
+        assertThat(dominators.strictlyDominates(2, 2)).isFalse();
+        assertThat(dominators.dominanceFrontier(1)).containsExactly(2);
+        assertThat(dominators.dominanceFrontier(2)).containsExactly(2);
+        assertThat(dominators.dominanceFrontier(0)).isEmpty();
+        assertThat(cfg.dominatorTree()).isSameAs(dominators);
+
+        DominatorTree postDominators = cfg.postDominatorTree();
+
+        assertThat(postDominators.roots()).containsExactly(3);
+        assertThat(postDominators.immediateDominator(0)).isEqualTo(2);
+        assertThat(postDominators.immediateDominator(1)).isEqualTo(2);
+        assertThat(postDominators.dominates(3, 0)).isTrue();
+        // The loop body runs depending on the loop condition
+        assertThat(postDominators.dominanceFrontier(1)).containsExactly(2);
+
+        function.basicBlocks().get(1).replaceTerminator(new FunctionReturn(null));
+        cfg.refresh();
+
+        assertThat(cfg.dominatorTree()).isNotSameAs(dominators);
+        assertThat(cfg.dominatorTree().dominanceFrontier(1)).isEmpty();
+        assertThat(cfg.postDominatorTree().roots()).containsExactly(1, 2, 3);
+    }
+}
@@ -0,0 +1,74 @@
+package luxlang.compiler.ir.analysis;
+
+import luxlang.compiler.analysis.nodes.AnalyzedProgram;
+import luxlang.compiler.ir.IRGenerator;
+import luxlang.compiler.ir.objects.IRFunction;
+import luxlang.compiler.ir.values.LocalPointer;
+import luxlang.compiler.ir.values.Temporary;
+import luxlang.compiler.parser.nodes.Type;
+import luxlang.compiler.parser.nodes.expressions.BinaryOperation.BinaryOperationType;
+import org.junit.jupiter.api.Test;
+
+import static luxlang.compiler.utils.AnalyzedAstBuilder.*;
+import static org.assertj.core.api.Assertions.*;
+
+public class UseDefChainsTest {
+    @Test
+    public void replace_all_uses_and_erase_definitions() {
+        // int main(int x) { return x * 2 + x * 2; }
+        AnalyzedProgram input = analyzedProgram(
+            analyzedFunctionBuilder()
+                .returnType(Type.INT)
+                .name("main")
+                .param(Type.INT, "x")
+                .localVar(0, "x", Type.INT)
+                .statement(analyzedReturnStmt(analyzedBinaryOp(
+                    BinaryOperationType.ADD,
+                    analyzedBinaryOp(BinaryOperationType.MULT, analyzedVarExpr("x", 0, Type.INT), analyzedIntLiteral(2, Type.INT), Type.INT),
+                    analyzedBinaryOp(BinaryOperationType.MULT, analyzedVarExpr("x", 0, Type.INT), analyzedIntLiteral(2, Type.INT), Type.INT),
+                    Type.INT
+                )))
+                .build()
+        );
+        IRFunction function = new IRGenerator(input).generate().functions().getFirst();
+        Temporary first = new Temporary(Type.INT, 0);
+        Temporary second = new Temporary(Type.INT, 1);
+        Temporary sum = new Temporary(Type.INT, 2);
+        LocalPointer x = new LocalPointer(Type.INT, 0);
+
+        UseDefChains chains = UseDefChains.of(function);
+
+        assertThat(chains.definition(second)).isEqualTo(1);
+        assertThat(chains.uses(second)).containsExactly(2);
+        assertThat(chains.uses(sum)).containsExactly(3);
+        assertThat(chains.isTerminator(3)).isTrue();
+        assertThat(chains.uses(x)).containsExactlyInAnyOrder(0, 1);
+        assertThatThrownBy(() -> chains.erase(1)).isInstanceOf(IllegalStateException.class);
+
+        chains.replaceAllUsesWith(second, first);
+        chains.erase(1);
+
+        assertThat(chains.uses(first)).containsExactly(2, 2);
+        assertThat(chains.uses(second)).isEmpty();
+        assertThat(chains.definition(second)).isEqualTo(UseDefChains.NONE);
+        assertThat(chains.uses(x)).containsExactly(0);
+        // Erased instructions stay in place until they are removed
+        assertThat(function.basicBlocks().getFirst().instructions()).hasSize(3);
+
+        chains.removeErased();
+        chains.replaceAllUsesWith(sum, x);
+
+        String expected = """
+            define int @main(int) {
+                local %l0 : int  ; x
+
+              bb0:  ; entry
+                %t0 = mul %l0, 2
+                %t2 = add %t0, %t0
+                ret %l0
+            }""";
+        assertThat(function.serialize()).isEqualTo(expected);
+        assertThat(chains.instruction(2)).isSameAs(function.basicBlocks().getFirst().instructions().get(1));
+        assertThat(chains.uses(x)).containsExactlyInAnyOrder(0, 3);
+    }
+}
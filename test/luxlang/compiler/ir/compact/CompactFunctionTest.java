@@ -0,0 +1,64 @@
+package luxlang.compiler.ir.compact;
+
+import luxlang.compiler.analysis.nodes.AnalyzedProgram;
+import luxlang.compiler.ir.IRGenerator;
+import luxlang.compiler.ir.objects.IRFunction;
+import luxlang.compiler.parser.nodes.Type;
+import luxlang.compiler.parser.nodes.expressions.BinaryOperation.BinaryOperationType;
+import org.junit.jupiter.api.Test;
+
+import static luxlang.compiler.utils.AnalyzedAstBuilder.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CompactFunctionTest {
+    @Test
+    public void compact_function_cursor_reads_instructions_in_place() {
+        // int main(int x) { return x * 2 + x * 2; }
+        AnalyzedProgram input = analyzedProgram(
+            analyzedFunctionBuilder()
+                .returnType(Type.INT)
+                .name("main")
+                .param(Type.INT, "x")
+                .localVar(0, "x", Type.INT)
+                .statement(analyzedReturnStmt(analyzedBinaryOp(
+                    BinaryOperationType.ADD,
+                    analyzedBinaryOp(BinaryOperationType.MULT, analyzedVarExpr("x", 0, Type.INT), analyzedIntLiteral(2, Type.INT), Type.INT),
+                    analyzedBinaryOp(BinaryOperationType.MULT, analyzedVarExpr("x", 0, Type.INT), analyzedIntLiteral(2, Type.INT), Type.INT),
+                    Type.INT
+                )))
+                .build()
+        );
+        IRFunction irFunction = new IRGenerator(input).generate().functions().getFirst();
+
+        CompactFunction function = new CompactIREncoder().encodeFunction(irFunction);
+
+        assertThat(function.blockCount()).isEqualTo(1);
+        assertThat(function.localCount()).isEqualTo(1);
+        assertThat(function.localType(0)).isEqualTo(Type.INT);
+        // Both uses of 2 share one constant
+        assertThat(function.constantCount()).isEqualTo(1);
+        assertThat(function.temporaryCount()).isEqualTo(3);
+
+        InstructionCursor cursor = function.cursor(0);
+        assertThat(cursor.next()).isTrue();
+        assertThat(cursor.opcode()).isEqualTo(Opcode.MULTIPLY);
+        assertThat(cursor.destination()).isEqualTo(0);
+        assertThat(cursor.type()).isEqualTo(Type.INT);
+        assertThat(cursor.operand(0)).isEqualTo(CompactFunction.local(0));
+        assertThat(cursor.operand(1)).isEqualTo(CompactFunction.constant(0));
+        assertThat(function.constantBits(0)).isEqualTo(2);
+        assertThat(cursor.next()).isTrue();
+        assertThat(cursor.opcode()).isEqualTo(Opcode.MULTIPLY);
+        assertThat(cursor.next()).isTrue();
+        assertThat(cursor.opcode()).isEqualTo(Opcode.ADD);
+        assertThat(cursor.operand(0)).isEqualTo(CompactFunction.temporary(0));
+        assertThat(cursor.operand(1)).isEqualTo(CompactFunction.temporary(1));
+        assertThat(cursor.next()).isTrue();
+        assertThat(cursor.opcode()).isEqualTo(Opcode.RETURN);
+        assertThat(cursor.index()).isEqualTo(function.terminator(0));
+        assertThat(function.operandType(cursor.operand(0))).isEqualTo(Type.INT);
+        assertThat(cursor.next()).isFalse();
+
+        assertThat(new CompactIRDecoder().decodeFunction(function).serialize()).isEqualTo(irFunction.serialize());
+    }
+}
@@ -0,0 +1,21 @@
+package luxlang.compiler.ir.compact;
+
+import luxlang.compiler.utils.TestUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+public class CompactIREncoderTest {
+    @Test
+    public void compact_encoding_round_trips() throws IOException {
+        TestUtils.assertSameResults(
+            "ir",
+            file -> TestUtils.buildIR(file.getFileName().toString()),
+            file -> {
+                List<CompactFunction> compact = new CompactIREncoder().encode(TestUtils.buildIR(file.getFileName().toString()));
+                return new CompactIRDecoder().decode(compact);
+            }
+        );
+    }
+}
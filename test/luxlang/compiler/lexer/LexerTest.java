@@ -2,12 +2,20 @@ package luxlang.compiler.lexer;
 
 import luxlang.compiler.errors.SourceCodeError;
 import luxlang.compiler.lexer.errors.UnexpectedTokenError;
+import luxlang.compiler.lexer.objects.Interner;
 import luxlang.compiler.lexer.objects.Token;
+import luxlang.compiler.lexer.objects.TokenBuffer;
+import luxlang.compiler.lexer.objects.TokenKind;
 import luxlang.compiler.utils.TestUtils;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 import static luxlang.compiler.utils.TokenListBuilder.tokenListBuilder;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -472,6 +480,189 @@ public class LexerTest {
             .isEqualTo(expected);
     }
 
+    @Test
+    public void mapped_file_matches_string_source() throws IOException {
+        TestUtils.assertSameResults(
+            LEXER_SUBDIRECTORY,
+            file -> new Lexer(Files.readString(file)).lex(),
+            file -> Lexer.mapping(file).lex()
+        );
+    }
+
+    @Test
+    public void parallel_lex_matches_sequential_lex() throws IOException {
+        TestUtils.assertSameResults(
+            LEXER_SUBDIRECTORY,
+            file -> new Lexer(Files.readString(file)).lex(),
+            // Tiny chunks so that even the small test files are split many times
+            file -> new Lexer(Files.readString(file)).lexParallel(ForkJoinPool.commonPool(), 0, 8)
+        );
+    }
+
+    @Test
+    public void parallel_lex_stops_at_nul_character() {
+        String input = "int x = 1;\n\0 int y = 2;\nint z = 3;";
+
+        LexingResult expected = new Lexer(input).lex();
+        LexingResult actual = new Lexer(input).lexParallel(ForkJoinPool.commonPool(), 0, 4);
+
+        assertInstanceOf(LexingResult.Success.class, actual);
+        assertThat(((LexingResult.Success) actual).tokens())
+            .usingRecursiveComparison()
+            .isEqualTo(((LexingResult.Success) expected).tokens());
+        assertThat(((LexingResult.Success) actual).tokens())
+            .extracting(Token::kind)
+            .containsExactly(
+                TokenKind.INT, TokenKind.IDENTIFIER, TokenKind.ASSIGN, TokenKind.LITERAL_INTEGER, TokenKind.SEMICOLON, TokenKind.EOF
+            );
+    }
+
+    @Test
+    public void error_parallel_lex_ignores_errors_after_nul_character() {
+        String input = "int x = 1;\n\0 int y = @;";
+
+        LexingResult result = new Lexer(input).lexParallel(ForkJoinPool.commonPool(), 0, 4);
+
+        assertThat(result)
+            .usingRecursiveComparison()
+            .isEqualTo(new Lexer(input).lex());
+    }
+
+    @Test
+    public void error_parallel_lex_reports_first_error() {
+        String input = "int x = 1;\n  int y = 2;\n\tz = x # y;\nw = `;";
+
+        LexingResult result = new Lexer(input).lexParallel(ForkJoinPool.commonPool(), 0, 4);
+
+        assertInstanceOf(LexingResult.Failure.class, result);
+        var errors = ((LexingResult.Failure) result).errors();
+        assertThat(errors)
+            .singleElement(type(UnexpectedTokenError.class))
+            .extracting(SourceCodeError::line, SourceCodeError::column)
+            .containsExactly(3, 8);
+    }
+
+    @Test
+    public void identifiers_interned_in_order_of_appearance() {
+        Interner interner = new Interner();
+        String input = "alpha = beta + alpha * gamma; int beta = 1;";
+
+        LexingResult result = new Lexer(input, interner).lex();
+
+        assertInstanceOf(LexingResult.Success.class, result);
+        TokenBuffer tokens = ((LexingResult.Success) result).tokenBuffer();
+        assertThat(TestUtils.symbols(tokens)).containsExactly(0, -1, 1, -1, 0, -1, 2, -1, -1, 1, -1, -1, -1, -1);
+        assertThat(interner.name(2)).isEqualTo("gamma");
+
+        LexingResult other = new Lexer("gamma = delta;", interner).lex();
+        assertThat(TestUtils.symbols(((LexingResult.Success) other).tokenBuffer())).containsExactly(2, -1, 3, -1, -1);
+    }
+
+    @Test
+    public void streamed_tokens_match_lexed_tokens() throws IOException {
+        TestUtils.assertSameResults(
+            LEXER_SUBDIRECTORY,
+            file -> switch (new Lexer(Files.readString(file)).lex()) {
+                case LexingResult.Success success -> success.tokens();
+                case LexingResult.Failure failure -> failure;
+            },
+            file -> {
+                StreamingTokenSource stream = new Lexer(Files.readString(file)).stream();
+                List<Token> tokens = new ArrayList<>();
+                while (stream.kind() != TokenKind.EOF && stream.kind() != TokenKind.ERROR) {
+                    tokens.add(stream.token());
+                    stream.advance();
+                }
+                tokens.add(stream.token());
+                return stream.errors().isEmpty() ? tokens : new LexingResult.Failure(stream.errors());
+            }
+        );
+    }
+
+    @Test
+    public void streamed_lookahead_does_not_consume() {
+        StreamingTokenSource stream = new Lexer("x = 1;").stream();
+
+        assertThat(stream.peekKind(3)).isEqualTo(TokenKind.SEMICOLON);
+        assertThat(stream.peekKind(1)).isEqualTo(TokenKind.ASSIGN);
+        assertThat(stream.kind()).isEqualTo(TokenKind.IDENTIFIER);
+        assertThat(stream.lexeme()).isEqualTo("x");
+        stream.advance();
+        stream.advance();
+        stream.advance();
+        stream.advance();
+        assertThat(stream.peekKind(2)).isEqualTo(TokenKind.EOF);
+        stream.advance();
+        assertThat(stream.kind()).isEqualTo(TokenKind.EOF);
+    }
+
+    @Test
+    public void error_streamed_unexpected_character() {
+        StreamingTokenSource stream = new Lexer("int x = 1;\n@ y").stream();
+
+        List<TokenKind> kinds = new ArrayList<>();
+        while (stream.kind() != TokenKind.ERROR) {
+            kinds.add(stream.kind());
+            stream.advance();
+        }
+        stream.advance();
+
+        assertThat(kinds).containsExactly(
+            TokenKind.INT, TokenKind.IDENTIFIER, TokenKind.ASSIGN, TokenKind.LITERAL_INTEGER, TokenKind.SEMICOLON
+        );
+        assertThat(stream.kind()).isEqualTo(TokenKind.ERROR);
+        assertThat(stream.errors())
+            .singleElement(type(UnexpectedTokenError.class))
+            .extracting(SourceCodeError::line, SourceCodeError::column)
+            .containsExactly(2, 1);
+    }
+
+    @Test
+    public void mapped_file_long_runs_match_string_source() throws IOException {
+        String indentation = " \t".repeat(40);
+        String identifier = "a_Very_Long_Identifier_0123456789".repeat(5);
+        String input = """
+            int %1$s(int x) {
+            %2$sint %1$s2 = 12345678901234567890123456789012345678901234567890123456789012345678901234567890;
+            %2$s%2$sreturn x + %1$s2 * 1.00000000000000000000000000000000000000000000000000000000000000000000000001f;
+            %2$s}
+            """.formatted(identifier, indentation);
+
+        Path file = Files.createTempFile("lexer", ".lux");
+        try {
+            Files.writeString(file, input, StandardCharsets.UTF_8);
+
+            LexingResult expected = new Lexer(input).lex();
+            LexingResult actual = Lexer.mapping(file).lex();
+
+            assertInstanceOf(LexingResult.Success.class, actual);
+            assertThat(((LexingResult.Success) actual).tokens())
+                .usingRecursiveComparison()
+                .isEqualTo(((LexingResult.Success) expected).tokens());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void error_mapped_file_non_ascii_byte() throws IOException {
+        Path file = Files.createTempFile("lexer", ".lux");
+        try {
+            Files.writeString(file, "int x = 1;\nint é = 2;", StandardCharsets.UTF_8);
+
+            LexingResult result = Lexer.mapping(file).lex();
+
+            assertInstanceOf(LexingResult.Failure.class, result);
+            var errors = ((LexingResult.Failure) result).errors();
+            assertThat(errors)
+                .singleElement(type(UnexpectedTokenError.class))
+                .extracting(SourceCodeError::line, SourceCodeError::column)
+                .containsExactly(2, 5);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
     @Test
     public void error_unexpected_at_symbol() {
         String input = "@";
@@ -1,13 +1,28 @@
 package luxlang.compiler.parser;
 
+import luxlang.compiler.lexer.Lexer;
+import luxlang.compiler.lexer.LexingResult;
+import luxlang.compiler.lexer.StreamingTokenSource;
+import luxlang.compiler.lexer.errors.UnexpectedTokenError;
 import luxlang.compiler.lexer.objects.Token;
+import luxlang.compiler.lexer.objects.TokenBuffer;
 import luxlang.compiler.parser.errors.*;
 import luxlang.compiler.parser.nodes.*;
+import luxlang.compiler.parser.nodes.expressions.BinaryOperation;
+import luxlang.compiler.parser.nodes.expressions.Expression;
+import luxlang.compiler.parser.nodes.expressions.IntegerLiteral;
 import luxlang.compiler.parser.nodes.expressions.BinaryOperation.BinaryOperationType;
 import luxlang.compiler.parser.nodes.expressions.UnaryOperation.UnaryOperationType;
+import luxlang.compiler.parser.nodes.statements.ReturnStatement;
+import luxlang.compiler.tree.FlatAst;
+import luxlang.compiler.tree.NodeKind;
+import luxlang.compiler.utils.TestUtils;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.nio.file.Files;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 import static luxlang.compiler.utils.AstBuilder.*;
 import static luxlang.compiler.utils.TokenListBuilder.tokenListBuilder;
@@ -43,7 +58,7 @@ public class ParserTest {
 
         assertThat(actual)
             .usingRecursiveComparison()
-            .ignoringFieldsMatchingRegexes(".*sourceInfo")
+            .ignoringFieldsMatchingRegexes(".*span", ".*symbol", ".*lineMap")
             .isEqualTo(expected);
     }
 
@@ -87,7 +102,7 @@ public class ParserTest {
         
         assertThat(actual)
             .usingRecursiveComparison()
-            .ignoringFieldsMatchingRegexes(".*sourceInfo")
+            .ignoringFieldsMatchingRegexes(".*span", ".*symbol", ".*lineMap")
             .isEqualTo(expected);
     }
 
@@ -122,7 +137,7 @@ public class ParserTest {
         
         assertThat(actual)
             .usingRecursiveComparison()
-            .ignoringFieldsMatchingRegexes(".*sourceInfo")
+            .ignoringFieldsMatchingRegexes(".*span", ".*symbol", ".*lineMap")
             .isEqualTo(expected);
     }
 
@@ -159,7 +174,7 @@ public class ParserTest {
         
         assertThat(actual)
             .usingRecursiveComparison()
-            .ignoringFieldsMatchingRegexes(".*sourceInfo")
+            .ignoringFieldsMatchingRegexes(".*span", ".*symbol", ".*lineMap")
             .isEqualTo(expected);
     }
 
@@ -198,7 +213,7 @@ public class ParserTest {
         
         assertThat(actual)
             .usingRecursiveComparison()
-            .ignoringFieldsMatchingRegexes(".*sourceInfo")
+            .ignoringFieldsMatchingRegexes(".*span", ".*symbol", ".*lineMap")
             .isEqualTo(expected);
     }
 
@@ -241,7 +256,7 @@ public class ParserTest {
         
         assertThat(actual)
             .usingRecursiveComparison()
-            .ignoringFieldsMatchingRegexes(".*sourceInfo")
+            .ignoringFieldsMatchingRegexes(".*span", ".*symbol", ".*lineMap")
             .isEqualTo(expected);
     }
 
@@ -281,7 +296,7 @@ public class ParserTest {
         
         assertThat(actual)
             .usingRecursiveComparison()
-            .ignoringFieldsMatchingRegexes(".*sourceInfo")
+            .ignoringFieldsMatchingRegexes(".*span", ".*symbol", ".*lineMap")
             .isEqualTo(expected);
     }
 
@@ -320,7 +335,7 @@ public class ParserTest {
         
         assertThat(actual)
             .usingRecursiveComparison()
-            .ignoringFieldsMatchingRegexes(".*sourceInfo")
+            .ignoringFieldsMatchingRegexes(".*span", ".*symbol", ".*lineMap")
             .isEqualTo(expected);
     }
 
@@ -526,4 +541,236 @@ public class ParserTest {
             .first()
             .isInstanceOf(UnexpectedKindError.class);
     }
+
+    @Test
+    public void deeply_nested_expression_does_not_overflow() {
+        int depth = 100_000;
+        String input = "int main() { return " + "-(".repeat(depth) + "1" + ")".repeat(depth)
+            + " + 1".repeat(depth) + "; }";
+        TokenBuffer tokens = ((LexingResult.Success) new Lexer(input).lex()).tokenBuffer();
+
+        ParsingResult result = new Parser(tokens).parse();
+
+        assertThat(result).isInstanceOf(ParsingResult.Success.class);
+        Program program = ((ParsingResult.Success) result).program();
+        var returnStatement = (ReturnStatement) program.functionDeclarations().getFirst().body().statements().getFirst();
+        Expression value = returnStatement.value().orElseThrow();
+        assertThat(value).isInstanceOfSatisfying(BinaryOperation.class, sum ->
+            assertThat(sum.right()).isInstanceOf(IntegerLiteral.class)
+        );
+    }
+
+    @Test
+    public void parallel_parse_matches_sequential_parse() throws IOException {
+        TestUtils.assertSameResults(
+            "analysis",
+            file -> new Parser(lexBuffer(Files.readString(file))).parse(),
+            // One function per chunk so that every function boundary is exercised
+            file -> new Parser(lexBuffer(Files.readString(file))).parseParallel(ForkJoinPool.commonPool(), 0, 1)
+        );
+    }
+
+    @Test
+    public void error_parallel_parse_reports_sequential_errors() {
+        String input = """
+            int a() { return 1; }
+            int b() { return (1; }
+            int c() { return 2 }
+            int d() { return 3; }
+            """;
+
+        ParsingResult expected = new Parser(lexBuffer(input)).parse();
+        ParsingResult actual = new Parser(lexBuffer(input)).parseParallel(ForkJoinPool.commonPool(), 0, 1);
+
+        assertThat(actual).isInstanceOf(ParsingResult.Failure.class);
+        assertThat(actual)
+            .usingRecursiveComparison()
+            .isEqualTo(expected);
+    }
+
+    @Test
+    public void preparse_expands_to_full_parse() throws IOException {
+        String input = TestUtils.readTestFile("analysis", "function_call.lux")
+            + TestUtils.readTestFile("analysis", "control_flow.lux");
+
+        ParsingResult expected = new Parser(lexBuffer(input)).parse();
+        PreparsingResult preparsed = new Parser(lexBuffer(input)).preparse();
+
+        assertThat(preparsed).isInstanceOf(PreparsingResult.Success.class);
+        PreparsedProgram program = ((PreparsingResult.Success) preparsed).program();
+        List<FunctionDeclaration> expectedFunctions = ((ParsingResult.Success) expected).program().functionDeclarations();
+        assertThat(program.functions())
+            .extracting(PreparsedFunction::name, PreparsedFunction::span)
+            .containsExactlyElementsOf(expectedFunctions.stream()
+                .map(function -> tuple(function.name(), function.span()))
+                .toList());
+        assertThat(program.functions()).noneMatch(PreparsedFunction::isExpanded);
+
+        assertThat(program.expand())
+            .usingRecursiveComparison()
+            .isEqualTo(expected);
+    }
+
+    @Test
+    public void preparsed_body_expanded_once() {
+        String input = "int a() { return 1; }\nint b() { return 2; }";
+        PreparsedProgram program = ((PreparsingResult.Success) new Parser(lexBuffer(input)).preparse()).program();
+
+        PreparsedFunction b = program.function("b").orElseThrow();
+        FunctionParsingResult first = b.expand();
+
+        assertThat(first).isInstanceOf(FunctionParsingResult.Success.class);
+        assertThat(b.expand()).isSameAs(first);
+        assertThat(program.function("a").orElseThrow().isExpanded()).isFalse();
+        assertThat(program.function("c")).isEmpty();
+    }
+
+    @Test
+    public void error_preparse_reports_parse_errors() {
+        String input = "int a() { return 1; }\nint b(int) { return 2; }";
+
+        ParsingResult expected = new Parser(lexBuffer(input)).parse();
+        PreparsingResult actual = new Parser(lexBuffer(input)).preparse();
+
+        assertThat(actual).isInstanceOf(PreparsingResult.Failure.class);
+        assertThat(((PreparsingResult.Failure) actual).errors())
+            .usingRecursiveComparison()
+            .isEqualTo(((ParsingResult.Failure) expected).errors());
+    }
+
+    @Test
+    public void error_preparsed_body_reports_parse_errors() {
+        String input = "int a() { return 1; }\nint b() { return 2 }";
+        PreparsedProgram program = ((PreparsingResult.Success) new Parser(lexBuffer(input)).preparse()).program();
+
+        assertThat(program.function("a").orElseThrow().expand()).isInstanceOf(FunctionParsingResult.Success.class);
+        FunctionParsingResult b = program.function("b").orElseThrow().expand();
+        assertThat(b).isInstanceOf(FunctionParsingResult.Failure.class);
+        assertThat(((FunctionParsingResult.Failure) b).errors()).singleElement(type(UnexpectedKindError.class));
+        assertThat(program.expand())
+            .usingRecursiveComparison()
+            .isEqualTo(new Parser(lexBuffer(input)).parse());
+    }
+
+    @Test
+    public void streamed_parse_matches_buffered_parse() throws IOException {
+        TestUtils.assertSameResults(
+            "analysis",
+            file -> new Parser(lexBuffer(Files.readString(file))).parse(),
+            file -> {
+                StreamingTokenSource stream = new Lexer(Files.readString(file)).stream();
+                ParsingResult result = new Parser(stream).parse();
+                assertThat(stream.errors()).isEmpty();
+                return result;
+            }
+        );
+    }
+
+    @Test
+    public void error_streamed_lexing_error_stops_parse() {
+        StreamingTokenSource stream = new Lexer("int main() { return 1 @ 2; }").stream();
+
+        ParsingResult result = new Parser(stream).parse();
+
+        assertThat(result).isInstanceOf(ParsingResult.Failure.class);
+        assertThat(stream.errors()).singleElement(type(UnexpectedTokenError.class));
+    }
+
+    @Test
+    public void flat_ast_round_trips_parsed_program() throws IOException {
+        FlatAst ast = new FlatAst();
+        TestUtils.assertSameResults(
+            "analysis",
+            file -> new Parser(lexBuffer(Files.readString(file))).parse(),
+            file -> {
+                var parsed = (ParsingResult.Success) new Parser(lexBuffer(Files.readString(file))).parse();
+                ast.reset();
+                ast.append(parsed.program());
+                return ParsingResult.success(ast.decode(parsed.program().lineMap()));
+            }
+        );
+    }
+
+    @Test
+    public void flat_ast_round_trips_deeply_nested_expression() {
+        int depth = 100_000;
+        String input = "int main() { return " + "-(".repeat(depth) + "1" + ")".repeat(depth)
+            + " + 1".repeat(depth) + "; }";
+        Program parsed = ((ParsingResult.Success) new Parser(lexBuffer(input)).parse()).program();
+        FlatAst ast = new FlatAst();
+
+        ast.append(parsed);
+        Program decoded = ast.decode(parsed.lineMap());
+
+        // Every operation and literal, plus the function, body and return
+        assertThat(ast.size()).isEqualTo(3 * depth + 1 + 3);
+        var returnStatement = (ReturnStatement) decoded.functionDeclarations().getFirst().body().statements().getFirst();
+        assertThat(returnStatement.value().orElseThrow()).isInstanceOfSatisfying(BinaryOperation.class, sum ->
+            assertThat(sum.right()).isInstanceOf(IntegerLiteral.class)
+        );
+    }
+
+    @Test
+    public void flat_parse_matches_record_parse() throws IOException {
+        FlatAst ast = new FlatAst();
+        TestUtils.assertSameResults(
+            "analysis",
+            file -> new Parser(lexBuffer(Files.readString(file))).parse(),
+            file -> {
+                ast.reset();
+                FlatParsingResult result = new Parser(lexBuffer(Files.readString(file))).parse(ast);
+                assertThat(result).isInstanceOf(FlatParsingResult.Success.class);
+                return ParsingResult.success(ast.decode(((FlatParsingResult.Success) result).lineMap()));
+            }
+        );
+    }
+
+    @Test
+    public void error_flat_parse_reports_record_parse_errors() {
+        List<String> inputs = List.of(
+            "int main() { int x = 1 return x; }",
+            "int main() { if (x > 1 { return 1; } return 0; }",
+            "foo main() { return 0; }",
+            "int main() { + 1; }",
+            "int main() { int x = ; }",
+            "int main() { x 1; return (x + 1; }"
+        );
+        for (String input : inputs) {
+            ParsingResult expected = new Parser(lexBuffer(input)).parse();
+            FlatParsingResult actual = new Parser(lexBuffer(input)).parse(new FlatAst());
+
+            assertThat(expected).as(input).isInstanceOf(ParsingResult.Failure.class);
+            assertThat(actual).as(input).isInstanceOf(FlatParsingResult.Failure.class);
+            assertThat(((FlatParsingResult.Failure) actual).errors())
+                .as(input)
+                .usingRecursiveFieldByFieldElementComparator()
+                .isEqualTo(((ParsingResult.Failure) expected).errors());
+        }
+    }
+
+    @Test
+    public void flat_ast_reused_after_reset() {
+        FlatAst ast = new FlatAst();
+        new Parser(lexBuffer("int a(int x) { return x * 2 + 1; }")).parse(ast);
+
+        ast.reset();
+        var second = (FlatParsingResult.Success) new Parser(lexBuffer("bool b() { return !true; }")).parse(ast);
+
+        assertThat(ast.size()).isEqualTo(5);
+        assertThat(ast.functionCount()).isEqualTo(1);
+        int function = ast.function(0);
+        assertThat(ast.kind(function)).isEqualTo(NodeKind.FUNCTION);
+        assertThat(ast.name(function)).isEqualTo("b");
+        assertThat(ast.type(function)).isEqualTo(Type.BOOL);
+        int returnValue = ast.value(ast.statement(ast.body(function), 0));
+        assertThat(ast.kind(returnValue)).isEqualTo(NodeKind.UNARY_OPERATION);
+        assertThat(ast.unaryOperation(returnValue)).isEqualTo(UnaryOperationType.LOGICAL_NOT);
+        assertThat(ast.decode(second.lineMap()))
+            .usingRecursiveComparison()
+            .isEqualTo(((ParsingResult.Success) new Parser(lexBuffer("bool b() { return !true; }")).parse()).program());
+    }
+
+    private static TokenBuffer lexBuffer(String input) {
+        return ((LexingResult.Success) new Lexer(input).lex()).tokenBuffer();
+    }
 }
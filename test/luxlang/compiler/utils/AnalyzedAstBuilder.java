@@ -1,6 +1,7 @@
 package luxlang.compiler.utils;
 
 
+import luxlang.compiler.analysis.callgraph.CallGraph;
 import luxlang.compiler.analysis.nodes.AnalyzedFunctionDeclaration;
 import luxlang.compiler.analysis.nodes.AnalyzedProgram;
 import luxlang.compiler.analysis.nodes.LocalVariable;
@@ -18,11 +19,11 @@ import java.util.Optional;
 public class AnalyzedAstBuilder {
 
     public static AnalyzedIntegerLiteral analyzedIntLiteral(long value, Type type) {
-        return new AnalyzedIntegerLiteral(value, type, TestUtils.dummySourceInfo());
+        return new AnalyzedIntegerLiteral(value, type, TestUtils.dummySpan());
     }
 
     public static AnalyzedFloatingPointLiteral analyzedFPLiteral(double value, Type type) {
-        return new AnalyzedFloatingPointLiteral(value, type, TestUtils.dummySourceInfo());
+        return new AnalyzedFloatingPointLiteral(value, type, TestUtils.dummySpan());
     }
     
     public static AnalyzedBinaryOperation analyzedBinaryOp(
@@ -31,7 +32,7 @@ public class AnalyzedAstBuilder {
         AnalyzedExpression right,
         Type resultType
     ) {
-        return new AnalyzedBinaryOperation(operation, left, right, resultType, TestUtils.dummySourceInfo());
+        return new AnalyzedBinaryOperation(operation, left, right, resultType, TestUtils.dummySpan());
     }
     
     public static AnalyzedUnaryOperation analyzedUnaryOp(
@@ -39,31 +40,31 @@ public class AnalyzedAstBuilder {
         AnalyzedExpression operand,
         Type resultType
     ) {
-        return new AnalyzedUnaryOperation(operation, operand, resultType, TestUtils.dummySourceInfo());
+        return new AnalyzedUnaryOperation(operation, operand, resultType, TestUtils.dummySpan());
     }
     
-    public static AnalyzedVariableExpression analyzedVarExpr(String name, Type resultType) {
-        return new AnalyzedVariableExpression(name, resultType, TestUtils.dummySourceInfo());
+    public static AnalyzedVariableExpression analyzedVarExpr(String name, int localId, Type resultType) {
+        return new AnalyzedVariableExpression(name, TestUtils.symbol(name), localId, resultType, TestUtils.dummySpan());
     }
     
     public static AnalyzedBooleanLiteral analyzedBoolLiteral(boolean value) {
-        return new AnalyzedBooleanLiteral(value, TestUtils.dummySourceInfo());
+        return new AnalyzedBooleanLiteral(value, TestUtils.dummySpan());
     }
 
     public static AnalyzedReturnStatement analyzedReturnStmt(AnalyzedExpression value) {
-        return new AnalyzedReturnStatement(Optional.of(value), TestUtils.dummySourceInfo());
+        return new AnalyzedReturnStatement(Optional.of(value), TestUtils.dummySpan());
     }
     
     public static AnalyzedReturnStatement analyzedReturnStmt() {
-        return new AnalyzedReturnStatement(Optional.empty(), TestUtils.dummySourceInfo());
+        return new AnalyzedReturnStatement(Optional.empty(), TestUtils.dummySpan());
     }
     
-    public static AnalyzedVariableDeclaration analyzedVarDecl(Type type, String name, AnalyzedExpression initializer) {
-        return new AnalyzedVariableDeclaration(type, name, Optional.of(initializer), TestUtils.dummySourceInfo());
+    public static AnalyzedVariableDeclaration analyzedVarDecl(Type type, String name, int localId, AnalyzedExpression initializer) {
+        return new AnalyzedVariableDeclaration(type, name, TestUtils.symbol(name), localId, Optional.of(initializer), TestUtils.dummySpan());
     }
     
-    public static AnalyzedVariableDeclaration analyzedVarDecl(Type type, String name) {
-        return new AnalyzedVariableDeclaration(type, name, Optional.empty(), TestUtils.dummySourceInfo());
+    public static AnalyzedVariableDeclaration analyzedVarDecl(Type type, String name, int localId) {
+        return new AnalyzedVariableDeclaration(type, name, TestUtils.symbol(name), localId, Optional.empty(), TestUtils.dummySpan());
     }
 
     public static AnalyzedForStatement analyzedForStmt(
@@ -79,7 +80,7 @@ public class AnalyzedAstBuilder {
             Optional.of(update),
             body,
             hasGuaranteedReturn,
-            TestUtils.dummySourceInfo()
+            TestUtils.dummySpan()
         );
     }
 
@@ -88,15 +89,15 @@ public class AnalyzedAstBuilder {
         Type resultType,
         AnalyzedExpression... arguments
     ) {
-        return new AnalyzedFunctionCall(name, List.of(arguments), resultType, TestUtils.dummySourceInfo());
+        return new AnalyzedFunctionCall(name, TestUtils.symbol(name), List.of(arguments), resultType, TestUtils.dummySpan());
     }
 
-    public static AnalyzedAssignment analyzedAssignment(String left, AnalyzedExpression right) {
-        return new AnalyzedAssignment(left, right, TestUtils.dummySourceInfo());
+    public static AnalyzedAssignment analyzedAssignment(String left, int localId, AnalyzedExpression right) {
+        return new AnalyzedAssignment(left, TestUtils.symbol(left), localId, right, TestUtils.dummySpan());
     }
     
     public static AnalyzedCodeBlock analyzedCodeBlock(boolean hasGuaranteedReturn, AnalyzedStatement... statements) {
-        return new AnalyzedCodeBlock(List.of(statements), hasGuaranteedReturn, TestUtils.dummySourceInfo());
+        return new AnalyzedCodeBlock(List.of(statements), hasGuaranteedReturn, TestUtils.dummySpan());
     }
     
     public static AnalyzedIfStatement analyzedIfStmt(
@@ -104,7 +105,7 @@ public class AnalyzedAstBuilder {
         AnalyzedStatement body,
         boolean hasGuaranteedReturn
     ) {
-        return new AnalyzedIfStatement(condition, body, Optional.empty(), hasGuaranteedReturn, TestUtils.dummySourceInfo());
+        return new AnalyzedIfStatement(condition, body, Optional.empty(), hasGuaranteedReturn, TestUtils.dummySpan());
     }
     
     public static AnalyzedIfStatement analyzedIfStmt(
@@ -113,15 +114,15 @@ public class AnalyzedAstBuilder {
         AnalyzedStatement elseBody,
         boolean hasGuaranteedReturn
     ) {
-        return new AnalyzedIfStatement(condition, body, Optional.of(elseBody), hasGuaranteedReturn, TestUtils.dummySourceInfo());
+        return new AnalyzedIfStatement(condition, body, Optional.of(elseBody), hasGuaranteedReturn, TestUtils.dummySpan());
     }
     
     public static AnalyzedWhileStatement analyzedWhileStmt(AnalyzedExpression condition, AnalyzedStatement body, boolean hasGuaranteedReturn) {
-        return new AnalyzedWhileStatement(condition, body, hasGuaranteedReturn, TestUtils.dummySourceInfo());
+        return new AnalyzedWhileStatement(condition, body, hasGuaranteedReturn, TestUtils.dummySpan());
     }
 
     public static Parameter param(Type type, String name) {
-        return new Parameter(type, name, TestUtils.dummySourceInfo());
+        return new Parameter(type, name, TestUtils.symbol(name), TestUtils.dummySpan());
     }
 
     public static class FunctionBuilder {
@@ -158,13 +159,13 @@ public class AnalyzedAstBuilder {
         }
 
         public FunctionBuilder localVar(int index, String name, Type type) {
-            this.localVariables.add(new LocalVariable(index, name, type));
+            this.localVariables.add(new LocalVariable(index, name, TestUtils.symbol(name), type));
             return this;
         }
         
         public AnalyzedFunctionDeclaration build() {
-            AnalyzedCodeBlock body = new AnalyzedCodeBlock(statements, hasGuaranteedReturn, TestUtils.dummySourceInfo());
-            return new AnalyzedFunctionDeclaration(returnType, name, parameters, body, localVariables, TestUtils.dummySourceInfo());
+            AnalyzedCodeBlock body = new AnalyzedCodeBlock(statements, hasGuaranteedReturn, TestUtils.dummySpan());
+            return new AnalyzedFunctionDeclaration(returnType, name, TestUtils.symbol(name), parameters, body, localVariables, TestUtils.dummySpan());
         }
     }
     
@@ -173,6 +174,6 @@ public class AnalyzedAstBuilder {
     }
 
     public static AnalyzedProgram analyzedProgram(AnalyzedFunctionDeclaration... functions) {
-        return new AnalyzedProgram(List.of(functions));
+        return new AnalyzedProgram(List.of(functions), CallGraph.of(List.of(functions)));
     }
 }
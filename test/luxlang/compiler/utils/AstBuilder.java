@@ -2,6 +2,7 @@ package luxlang.compiler.utils;
 
 import luxlang.compiler.analysis.nodes.expressions.AnalyzedExpression;
 import luxlang.compiler.analysis.nodes.expressions.AnalyzedFunctionCall;
+import luxlang.compiler.lexer.objects.LineMap;
 import luxlang.compiler.parser.nodes.*;
 import luxlang.compiler.parser.nodes.expressions.*;
 import luxlang.compiler.parser.nodes.statements.*;
@@ -13,74 +14,74 @@ import java.util.Optional;
 public class AstBuilder {
 
     public static IntegerLiteral intLiteral(String value) {
-        return new IntegerLiteral(value, TestUtils.dummySourceInfo());
+        return new IntegerLiteral(value, TestUtils.dummySpan());
     }
 
     public static BinaryOperation binaryOp(
             BinaryOperation.BinaryOperationType operation,
             Expression left, Expression right) {
-        return new BinaryOperation(operation, left, right, TestUtils.dummySourceInfo());
+        return new BinaryOperation(operation, left, right, TestUtils.dummySpan());
     }
     
     public static UnaryOperation unaryOp(
             UnaryOperation.UnaryOperationType operation,
             Expression operand) {
-        return new UnaryOperation(operation, operand, TestUtils.dummySourceInfo());
+        return new UnaryOperation(operation, operand, TestUtils.dummySpan());
     }
     
     public static VariableExpression varExpr(String name) {
-        return new VariableExpression(name, TestUtils.dummySourceInfo());
+        return new VariableExpression(name, TestUtils.symbol(name), TestUtils.dummySpan());
     }
     
     public static BooleanLiteral boolLiteral(boolean value) {
         BooleanLiteral.Value enumValue =
             value ? BooleanLiteral.Value.TRUE
                   : BooleanLiteral.Value.FALSE;
-        return new BooleanLiteral(enumValue, TestUtils.dummySourceInfo());
+        return new BooleanLiteral(enumValue, TestUtils.dummySpan());
     }
 
     public static ReturnStatement returnStmt(Expression value) {
-        return new ReturnStatement(Optional.of(value), TestUtils.dummySourceInfo());
+        return new ReturnStatement(Optional.of(value), TestUtils.dummySpan());
     }
     
     public static ReturnStatement returnStmt() {
-        return new ReturnStatement(Optional.empty(), TestUtils.dummySourceInfo());
+        return new ReturnStatement(Optional.empty(), TestUtils.dummySpan());
     }
     
     public static VariableDeclaration varDecl(Type type, String name, Expression initializer) {
-        return new VariableDeclaration(type, name, Optional.of(initializer), TestUtils.dummySourceInfo());
+        return new VariableDeclaration(type, name, TestUtils.symbol(name), Optional.of(initializer), TestUtils.dummySpan());
     }
     
     public static VariableDeclaration varDecl(Type type, String name) {
-        return new VariableDeclaration(type, name, Optional.empty(), TestUtils.dummySourceInfo());
+        return new VariableDeclaration(type, name, TestUtils.symbol(name), Optional.empty(), TestUtils.dummySpan());
     }
 
     public static FunctionCall funcCall(String name, Expression... arguments) {
-        return new FunctionCall(name, List.of(arguments), TestUtils.dummySourceInfo());
+        return new FunctionCall(name, TestUtils.symbol(name), List.of(arguments), TestUtils.dummySpan());
     }
 
     public static Assignment assignment(String left, Expression right) {
-        return new Assignment(left, right, TestUtils.dummySourceInfo());
+        return new Assignment(left, TestUtils.symbol(left), right, TestUtils.dummySpan());
     }
     
     public static CodeBlock codeBlock(Statement... statements) {
-        return new CodeBlock(List.of(statements), TestUtils.dummySourceInfo());
+        return new CodeBlock(List.of(statements), TestUtils.dummySpan());
     }
     
     public static IfStatement ifStmt(Expression condition, Statement body) {
-        return new IfStatement(condition, body, Optional.empty(), TestUtils.dummySourceInfo());
+        return new IfStatement(condition, body, Optional.empty(), TestUtils.dummySpan());
     }
     
     public static IfStatement ifStmt(Expression condition, Statement body, Statement elseBody) {
-        return new IfStatement(condition, body, Optional.of(elseBody), TestUtils.dummySourceInfo());
+        return new IfStatement(condition, body, Optional.of(elseBody), TestUtils.dummySpan());
     }
     
     public static WhileStatement whileStmt(Expression condition, Statement body) {
-        return new WhileStatement(condition, body, TestUtils.dummySourceInfo());
+        return new WhileStatement(condition, body, TestUtils.dummySpan());
     }
 
     public static DoWhileStatement doWhileStmt(Statement body, Expression condition) {
-        return new DoWhileStatement(body, condition, TestUtils.dummySourceInfo());
+        return new DoWhileStatement(body, condition, TestUtils.dummySpan());
     }
 
     public static ForStatement forStmt(
@@ -93,16 +94,16 @@ public class AstBuilder {
             Optional.ofNullable(condition),
             Optional.ofNullable(update),
             body,
-            TestUtils.dummySourceInfo()
+            TestUtils.dummySpan()
         );
     }
 
     public static FloatingPointLiteral floatLiteral(String value) {
-        return new FloatingPointLiteral(value, TestUtils.dummySourceInfo());
+        return new FloatingPointLiteral(value, TestUtils.dummySpan());
     }
 
     public static Parameter param(Type type, String name) {
-        return new Parameter(type, name, TestUtils.dummySourceInfo());
+        return new Parameter(type, name, TestUtils.symbol(name), TestUtils.dummySpan());
     }
 
     public static class FunctionBuilder {
@@ -132,8 +133,8 @@ public class AstBuilder {
         }
 
         public FunctionDeclaration build() {
-            CodeBlock body = new CodeBlock(statements, TestUtils.dummySourceInfo());
-            return new FunctionDeclaration(returnType, name, parameters, body, TestUtils.dummySourceInfo());
+            CodeBlock body = new CodeBlock(statements, TestUtils.dummySpan());
+            return new FunctionDeclaration(returnType, name, TestUtils.symbol(name), parameters, body, TestUtils.dummySpan());
         }
     }
     
@@ -142,6 +143,6 @@ public class AstBuilder {
     }
 
     public static Program program(FunctionDeclaration... functions) {
-        return new Program(List.of(functions));
+        return new Program(List.of(functions), new LineMap());
     }
 }
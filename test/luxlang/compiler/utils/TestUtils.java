@@ -2,17 +2,21 @@ package luxlang.compiler.utils;
 
 import luxlang.compiler.analysis.AnalysisResult;
 import luxlang.compiler.analysis.Analyzer;
+import luxlang.compiler.analysis.FlatAnalysisResult;
+import luxlang.compiler.analysis.GenerationResult;
 import luxlang.compiler.analysis.nodes.AnalyzedProgram;
 import luxlang.compiler.ir.IRGenerator;
 import luxlang.compiler.ir.objects.IRModule;
 import luxlang.compiler.lexer.Lexer;
 import luxlang.compiler.lexer.LexingResult;
-import luxlang.compiler.lexer.objects.Token;
-import luxlang.compiler.lexer.objects.TokenKind;
+import luxlang.compiler.lexer.objects.Interner;
+import luxlang.compiler.lexer.objects.SourceSpan;
+import luxlang.compiler.lexer.objects.TokenBuffer;
+import luxlang.compiler.parser.FlatParsingResult;
 import luxlang.compiler.parser.Parser;
 import luxlang.compiler.parser.ParsingResult;
 import luxlang.compiler.parser.nodes.Program;
-import luxlang.compiler.parser.objects.SourceInfo;
+import luxlang.compiler.tree.FlatAst;
 
 import java.io.IOException;
 import java.nio.file.Files;
@@ -20,20 +24,68 @@ import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
+import java.util.Map;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 
 public class TestUtils {
     private static final Path RESOURCES_PATH = Paths.get("test", "resources");
+    private static final String LEXER_SUBDIRECTORY = "lexer";
     private static final String ANALYSIS_SUBDIRECTORY = "analysis";
     private static final String IR_SUBDIRECTORY = "ir";
+    private static final Interner SYMBOLS = new Interner();
+
+    // The programs in each resources subdirectory that every alternative way of running a stage
+    // is compared on
+    private static final Map<String, List<String>> PROGRAMS = Map.of(
+        LEXER_SUBDIRECTORY, List.of(
+            "keywords_all_types.lux",
+            "floating_point_literals.lux",
+            "integer_literals.lux",
+            "multiline_code.lux",
+            "complex_expression.lux",
+            "empty_input.lux",
+            "unexpected_character.lux"
+        ),
+        ANALYSIS_SUBDIRECTORY, List.of(
+            "control_flow.lux",
+            "expressions.lux",
+            "for_loop.lux",
+            "function_call.lux",
+            "variable_scope.lux"
+        ),
+        IR_SUBDIRECTORY, List.of(
+            "simple_function.lux",
+            "arithmetic.lux",
+            "parameter_arithmetic.lux",
+            "if_statement.lux",
+            "if_else_statement.lux",
+            "while_loop.lux",
+            "do_while_loop.lux",
+            "for_loop.lux",
+            "local_variables.lux",
+            "function_parameters.lux",
+            "empty_function.lux",
+            "sibling_scopes.lux"
+        )
+    );
+
+    @FunctionalInterface
+    public interface ProgramRun {
+        Object run(Path file) throws IOException;
+    }
 
-    public static String readTestFile(String subdirectory, String fileName) throws IOException {
+    public static Path testFilePath(String subdirectory, String fileName) throws IOException {
         Path file =  RESOURCES_PATH.resolve(subdirectory, fileName);
         if (!Files.exists(file)) {
             throw new NoSuchFileException("Test file not found: " + subdirectory + "/" + fileName);
         }
-        return Files.readString(file);
+        return file;
+    }
+
+    public static String readTestFile(String subdirectory, String fileName) throws IOException {
+        return Files.readString(testFilePath(subdirectory, fileName));
     }
 
     public static AnalyzedProgram analyzeFile(String fileName) throws IOException {
@@ -42,7 +94,7 @@ public class TestUtils {
         Lexer lexer = new Lexer(input);
         LexingResult lexingResult = lexer.lex();
         assertInstanceOf(LexingResult.Success.class, lexingResult);
-        List<Token> tokens = ((LexingResult.Success) lexingResult).tokens();
+        TokenBuffer tokens = ((LexingResult.Success) lexingResult).tokenBuffer();
 
         Parser parser = new Parser(tokens);
         ParsingResult parsingResult = parser.parse();
@@ -61,7 +113,7 @@ public class TestUtils {
         Lexer lexer = new Lexer(input);
         LexingResult lexingResult = lexer.lex();
         assertInstanceOf(LexingResult.Success.class, lexingResult);
-        List<Token> tokens = ((LexingResult.Success) lexingResult).tokens();
+        TokenBuffer tokens = ((LexingResult.Success) lexingResult).tokenBuffer();
 
         Parser parser = new Parser(tokens);
         ParsingResult parsingResult = parser.parse();
@@ -77,6 +129,80 @@ public class TestUtils {
         return builder.generate();
     }
 
+    public static IRModule buildFusedIR(String fileName) throws IOException {
+        String input = readTestFile(IR_SUBDIRECTORY, fileName);
+
+        Lexer lexer = new Lexer(input);
+        LexingResult lexingResult = lexer.lex();
+        assertInstanceOf(LexingResult.Success.class, lexingResult);
+        TokenBuffer tokens = ((LexingResult.Success) lexingResult).tokenBuffer();
+
+        Parser parser = new Parser(tokens);
+        ParsingResult parsingResult = parser.parse();
+        assertInstanceOf(ParsingResult.Success.class, parsingResult);
+        Program program = ((ParsingResult.Success) parsingResult).program();
+
+        GenerationResult generationResult = new Analyzer(program).generate();
+        assertInstanceOf(GenerationResult.Success.class, generationResult);
+        return ((GenerationResult.Success) generationResult).irModule();
+    }
+
+    public static IRModule buildFlatIR(String fileName) throws IOException {
+        String input = readTestFile(IR_SUBDIRECTORY, fileName);
+
+        Lexer lexer = new Lexer(input);
+        LexingResult lexingResult = lexer.lex();
+        assertInstanceOf(LexingResult.Success.class, lexingResult);
+        TokenBuffer tokens = ((LexingResult.Success) lexingResult).tokenBuffer();
+
+        FlatAst ast = new FlatAst();
+        Parser parser = new Parser(tokens);
+        FlatParsingResult parsingResult = parser.parse(ast);
+        assertInstanceOf(FlatParsingResult.Success.class, parsingResult);
+
+        Analyzer analyzer = new Analyzer(ast, ((FlatParsingResult.Success) parsingResult).lineMap());
+        FlatAnalysisResult analysisResult = analyzer.analyzeInPlace();
+        assertInstanceOf(FlatAnalysisResult.Success.class, analysisResult);
+
+        IRGenerator builder = new IRGenerator(ast);
+        return builder.generate();
+    }
+
+    /**
+     * Runs both ways over every test program in the subdirectory and checks they give the same
+     * result. Successful lexing is compared by its tokens and their symbols, IR modules by their
+     * serialized form, and anything else field by field, so a failure only matches the same errors.
+     */
+    public static void assertSameResults(String subdirectory, ProgramRun expected, ProgramRun actual) throws IOException {
+        for (String fileName : PROGRAMS.get(subdirectory)) {
+            Path file = testFilePath(subdirectory, fileName);
+
+            Object expectedResult = comparable(expected.run(file));
+            Object actualResult = comparable(actual.run(file));
+
+            assertThat(actualResult)
+                .as(fileName)
+                .usingRecursiveComparison()
+                .isEqualTo(expectedResult);
+        }
+    }
+
+    private static Object comparable(Object result) {
+        return switch (result) {
+            case LexingResult.Success success -> List.of(success.tokens(), symbols(success.tokenBuffer()));
+            case IRModule module -> module.serialize();
+            default -> result;
+        };
+    }
+
+    public static int[] symbols(TokenBuffer tokens) {
+        int[] symbols = new int[tokens.size()];
+        for (int index = 0; index < tokens.size(); index++) {
+            symbols[index] = tokens.symbol(index);
+        }
+        return symbols;
+    }
+
     public static String normalizeIR(String ir) {
         return ir.lines()
                 .map(line -> {
@@ -91,8 +217,15 @@ public class TestUtils {
                 .orElse("");
     }
 
-    public static SourceInfo dummySourceInfo() {
-        Token dummyToken = new Token(TokenKind.EOF, null, 1, 1);
-        return new SourceInfo(dummyToken, dummyToken);
+    /**
+     * Interns names for hand-built nodes. These symbols don't match the ones assigned while
+     * lexing, so comparisons against parsed nodes ignore symbol fields.
+     */
+    public static synchronized int symbol(String name) {
+        return SYMBOLS.intern(name);
+    }
+
+    public static long dummySpan() {
+        return SourceSpan.of(0, 0);
     }
 }